@@ -34,6 +34,12 @@ android {
     buildFeatures {
         viewBinding = true
     }
+    testOptions {
+        unitTests.all {
+            // Benchmarks are skipped unless run with ./gradlew test -Dhaboob.benchmarks=true
+            it.systemProperty("haboob.benchmarks", System.getProperty("haboob.benchmarks") ?: "false")
+        }
+    }
 }
 
 dependencies {
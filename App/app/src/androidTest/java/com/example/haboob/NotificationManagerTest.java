@@ -8,6 +8,7 @@ import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -82,6 +83,9 @@ public class NotificationManagerTest {
     @Mock
     private DocumentSnapshot mockDocumentSnapshot;
 
+    @Mock
+    private WriteBatch mockBatch;
+
     private NotificationManager notificationManager;
     private Notification testNotification;
 
@@ -111,6 +115,8 @@ public class NotificationManagerTest {
         when(mockNotificationsCollection.document(anyString())).thenReturn(mockNotificationDocument);
         when(mockSentNotificationsCollection.document(anyString())).thenReturn(mockNotificationDocument);
         when(mockNotificationDocument.set(any())).thenReturn(mockVoidTask);
+        when(mockDb.batch()).thenReturn(mockBatch);
+        when(mockBatch.commit()).thenReturn(mockVoidTask);
 
         // Set up task success/failure listeners
         when(mockVoidTask.addOnSuccessListener(any())).thenReturn(mockVoidTask);
@@ -245,8 +251,8 @@ public class NotificationManagerTest {
      * <p>Business Rule: When sending to a list, each recipient should receive
      * their own copy of the notification with their ID set as the recipient.</p>
      *
-     * <p>Expected behavior: sendToUser is called once for each recipient ID
-     * in the list.</p>
+     * <p>Expected behavior: the list is handed to sendBulk, which writes one
+     * copy per recipient ID in a single batch instead of calling sendToUser.</p>
      */
     @Test
     public void sendToList_withMultipleRecipients_shouldSendToEach() {
@@ -268,8 +274,11 @@ public class NotificationManagerTest {
         // Act
         spyManager.sendToList(recipients, "organizer456", baseNotification);
 
-        // Assert - sendToUser should be called 3 times
-        verify(spyManager, times(3)).sendToUser(any(Notification.class));
+        // Assert - one batch with the organizer log and 3 copies
+        verify(spyManager).sendBulk(recipients, "organizer456", baseNotification, null);
+        verify(spyManager, never()).sendToUser(any(Notification.class));
+        verify(mockBatch, times(4)).set(any(DocumentReference.class), any());
+        verify(mockBatch, times(1)).commit();
     }
 
     /**
@@ -289,6 +298,7 @@ public class NotificationManagerTest {
 
         // Assert - no Firestore operations should occur
         verify(mockNotificationDocument, never()).set(any());
+        verify(mockDb, never()).batch();
     }
 
     /**
@@ -320,16 +330,15 @@ public class NotificationManagerTest {
         // Act
         spyManager.sendToList(recipients, "organizer456", baseNotification);
 
-        // Capture the notifications that were sent
-        ArgumentCaptor<Notification> notificationCaptor =
-                ArgumentCaptor.forClass(Notification.class);
-        verify(spyManager, times(2)).sendToUser(notificationCaptor.capture());
+        // Capture the notifications that were written, after the organizer log
+        ArgumentCaptor<Object> notificationCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(mockBatch, times(3)).set(any(DocumentReference.class), notificationCaptor.capture());
 
-        List<Notification> sentNotifications = notificationCaptor.getAllValues();
+        List<Object> sentNotifications = notificationCaptor.getAllValues();
 
         // Assert each notification has the correct recipient
-        assertEquals("user1", sentNotifications.get(0).getRecipientId());
-        assertEquals("user2", sentNotifications.get(1).getRecipientId());
+        assertEquals("user1", ((Notification) sentNotifications.get(1)).getRecipientId());
+        assertEquals("user2", ((Notification) sentNotifications.get(2)).getRecipientId());
     }
 
     // ==================== LOG ORGANIZER NOTIFICATION TESTS ====================
@@ -592,12 +601,12 @@ public class NotificationManagerTest {
         spyManager.sendToList(recipients, "organizer456", baseNotification);
 
         // Capture
-        ArgumentCaptor<Notification> captor = ArgumentCaptor.forClass(Notification.class);
-        verify(spyManager, times(2)).sendToUser(captor.capture());
+        ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+        verify(mockBatch, times(3)).set(any(DocumentReference.class), captor.capture());
 
         // Assert - all notifications should have the same ID
-        for (Notification sent : captor.getAllValues()) {
-            assertEquals("shared123", sent.getNotificationId());
+        for (Object sent : captor.getAllValues()) {
+            assertEquals("shared123", ((Notification) sent).getNotificationId());
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,79 @@
+package com.example.haboob;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import androidx.annotation.Nullable;
+
+/**
+ * {@code AccountRouteCache} remembers the account type this device last signed in with, so
+ * {@link SplashActivity} can route straight to the right screen on later launches instead of
+ * waiting for Firestore.
+ * <p>
+ * The entry is tied to the device ID it was saved for and is only a hint: the splash screen
+ * still reads users/{deviceId} in the background and corrects the entry, and the route, if the
+ * account changed or was deleted elsewhere.
+ */
+public final class AccountRouteCache {
+
+    /** SharedPreferences file name. */
+    static final String PREFS_NAME = "account_route";
+
+    /** Key for the device ID the account type was saved for. */
+    static final String KEY_DEVICE_ID = "device_id";
+
+    /** Key for the cached account type, as in the "account_type" field of the users document. */
+    static final String KEY_ACCOUNT_TYPE = "account_type";
+
+    private final SharedPreferences prefs;
+
+    /**
+     * @param context any context
+     * @return a cache backed by the app's {@link #PREFS_NAME} preferences
+     */
+    public static AccountRouteCache from(Context context) {
+        return new AccountRouteCache(context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE));
+    }
+
+    /**
+     * @param prefs preferences holding the cached entry
+     */
+    AccountRouteCache(SharedPreferences prefs) {
+        this.prefs = prefs;
+    }
+
+    /**
+     * @param deviceId this device's ID
+     * @return the account type saved for {@code deviceId}, or {@code null} if there is none
+     */
+    @Nullable
+    public String getAccountType(String deviceId) {
+        if (deviceId == null || !deviceId.equals(prefs.getString(KEY_DEVICE_ID, null))) return null;
+        return prefs.getString(KEY_ACCOUNT_TYPE, null);
+    }
+
+    /**
+     * Saves the account type of a registered device, replacing any previous entry.
+     *
+     * @param deviceId    this device's ID
+     * @param accountType the "account_type" of its users document; {@code null} clears the entry
+     */
+    public void put(String deviceId, @Nullable String accountType) {
+        if (accountType == null) {
+            clear();
+            return;
+        }
+        prefs.edit()
+                .putString(KEY_DEVICE_ID, deviceId)
+                .putString(KEY_ACCOUNT_TYPE, accountType)
+                .apply();
+    }
+
+    /**
+     * Forgets the cached entry, e.g. after the profile is deleted, so the next launch checks
+     * Firestore before routing.
+     */
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
@@ -146,6 +146,18 @@ public class AdminNotificationAdapter extends RecyclerView.Adapter<AdminNotifica
         notifyDataSetChanged();
     }
 
+    /**
+     * Appends a page of notifications after the ones already shown.
+     *
+     * @param page Notifications with user info to add to the end of the list
+     */
+    public void appendNotifications(List<NotificationWithUser> page) {
+        if (page == null || page.isEmpty()) return;
+        int start = notifications.size();
+        notifications.addAll(page);
+        notifyItemRangeInserted(start, page.size());
+    }
+
     /**
      * Creates a new ViewHolder when RecyclerView needs a new item view.
      *
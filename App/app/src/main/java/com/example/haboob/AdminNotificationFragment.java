@@ -35,28 +35,26 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.appbar.MaterialToolbar;
-import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Fragment for displaying all notifications from all users in the system.
  * Allows administrators to view and monitor all notification activity.
  *
- * <p>This fragment fetches notifications from all users in the Firestore database
- * and displays them in a sorted list (newest first). It shows recipient information
- * alongside each notification and handles loading states appropriately.</p>
+ * <p>This fragment pages through the notifications of all users with a single
+ * collection-group query, newest first. It shows recipient information alongside
+ * each notification and handles loading states appropriately.</p>
  *
  * <p>Key features:</p>
  * <ul>
- *   <li>Loads notifications from all users in the system</li>
- *   <li>Displays recipient name and notification details</li>
- *   <li>Sorts notifications by timestamp (newest first)</li>
+ *   <li>Loads notifications from all users in the system, one page at a time</li>
+ *   <li>Displays recipient name (via {@link UserNameCache}) and notification details</li>
+ *   <li>Orders notifications by timestamp (newest first)</li>
  *   <li>Shows loading progress and empty state</li>
  *   <li>Provides navigation back to admin panel</li>
  * </ul>
@@ -92,6 +90,21 @@ public class AdminNotificationFragment extends Fragment {
     /** List of all loaded notifications with user information */
     private List<AdminNotificationAdapter.NotificationWithUser> allNotifications;
 
+    /** Number of notifications read per page */
+    private static final int PAGE_SIZE = 25;
+
+    /** Load the next page once the last visible row is this close to the end */
+    private static final int PREFETCH_DISTANCE = 5;
+
+    /** Last notification document of the previous page, or null before the first page */
+    private DocumentSnapshot lastDocument;
+
+    /** True while a page request is in flight */
+    private boolean loading = false;
+
+    /** False once a short page shows there is nothing left to load */
+    private boolean hasMore = true;
+
     /**
      * Required empty public constructor for Fragment instantiation.
      */
@@ -135,6 +148,17 @@ public class AdminNotificationFragment extends Fragment {
             // You can implement navigation here if needed
         });
         recyclerView.setAdapter(adapter);
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                LinearLayoutManager layoutManager = (LinearLayoutManager) rv.getLayoutManager();
+                if (dy > 0 && layoutManager != null
+                        && layoutManager.findLastVisibleItemPosition()
+                        >= adapter.getItemCount() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
 
         // Setup toolbar
         toolbar.setOnMenuItemClickListener(item -> {
@@ -154,115 +178,116 @@ public class AdminNotificationFragment extends Fragment {
     }
 
     /**
-     * Loads all notifications from all users in the database.
+     * Starts loading notifications from the first page.
      *
-     * <p>This method performs a two-step process:</p>
-     * <ol>
-     *   <li>Fetches all users from the users collection</li>
-     *   <li>For each user, fetches their notifications subcollection</li>
-     * </ol>
+     * <p>Notifications are read with a single collection-group query over every
+     * users/{id}/notifications subcollection, ordered by {@code timeCreated} (newest first),
+     * {@link #PAGE_SIZE} at a time. Further pages are requested as the list is scrolled.
+     * The query needs the collection-group index on {@code notifications.timeCreated}
+     * (descending), declared in {@code firestore.indexes.json} and deployed with
+     * {@code firebase deploy --only firestore:indexes}.</p>
      *
-     * <p>The method tracks progress and ensures all user notifications are loaded
-     * before displaying results. It handles errors gracefully and logs them appropriately.</p>
+     * <p>Notifications written through {@link Notification} always store the field, and
+     * those whose {@code timeCreated} is null are listed last, as before. A document that
+     * lacks the field altogether, e.g. one added by hand in the console, is left out by
+     * {@code orderBy} and must be given a {@code timeCreated} to be shown.</p>
      */
     private void loadAllNotifications() {
         progressBar.setVisibility(View.VISIBLE);
         recyclerView.setVisibility(View.GONE);
         emptyTextView.setVisibility(View.GONE);
 
-        // First, get all users
-        db.collection("users")
+        allNotifications.clear();
+        adapter.setNotifications(allNotifications);
+        lastDocument = null;
+        hasMore = true;
+        loadNextPage();
+    }
+
+    /**
+     * Loads the next page of notifications and resolves the recipients' names.
+     *
+     * <p>Recipient names come from {@link UserNameCache}, which reads any users not seen
+     * before with batched {@code whereIn} queries. Ignored while a page is already loading
+     * or once the last page has been shown.</p>
+     */
+    private void loadNextPage() {
+        if (loading || !hasMore) return;
+        loading = true;
+
+        Query query = db.collectionGroup("notifications")
+                .orderBy("timeCreated", Query.Direction.DESCENDING);
+        if (lastDocument != null) {
+            query = query.startAfter(lastDocument);
+        }
+
+        query.limit(PAGE_SIZE)
                 .get()
-                .addOnSuccessListener(userSnapshot -> {
-                    if (userSnapshot.isEmpty()) {
-                        showEmptyState();
-                        return;
+                .addOnSuccessListener(snapshot -> {
+                    List<DocumentSnapshot> docs = snapshot.getDocuments();
+                    hasMore = docs.size() == PAGE_SIZE;
+                    if (!docs.isEmpty()) {
+                        lastDocument = docs.get(docs.size() - 1);
                     }
 
-                    List<DocumentSnapshot> users = userSnapshot.getDocuments();
-                    int totalUsers = users.size();
-                    final int[] processedUsers = {0};
-
-                    Log.d(TAG, "Found " + totalUsers + " users");
-
-                    // For each user, fetch their notifications
-                    for (DocumentSnapshot userDoc : users) {
-                        String userId = userDoc.getId();
-                        String firstName = userDoc.getString("first_name");
-                        String lastName = userDoc.getString("last_name");
-                        String userName = (firstName != null && lastName != null)
-                                ? firstName + " " + lastName
-                                : userId;
-
-                        // Get notifications for this user
-                        db.collection("users")
-                                .document(userId)
-                                .collection("notifications")
-                                .get()
-                                .addOnSuccessListener(notificationSnapshot -> {
-                                    // Process notifications for this user
-                                    for (DocumentSnapshot notifDoc : notificationSnapshot.getDocuments()) {
-                                        Notification notification = notifDoc.toObject(Notification.class);
-                                        if (notification != null) {
-                                            AdminNotificationAdapter.NotificationWithUser withUser =
-                                                    new AdminNotificationAdapter.NotificationWithUser(
-                                                            notification, userId, userName);
-                                            allNotifications.add(withUser);
-                                        }
-                                    }
-
-                                    // Check if we've processed all users
-                                    processedUsers[0]++;
-                                    if (processedUsers[0] == totalUsers) {
-                                        displayNotifications();
-                                    }
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Error loading notifications for user: " + userId, e);
-                                    processedUsers[0]++;
-                                    if (processedUsers[0] == totalUsers) {
-                                        displayNotifications();
-                                    }
-                                });
+                    List<Notification> notifications = new ArrayList<>();
+                    List<String> recipientIds = new ArrayList<>();
+                    for (DocumentSnapshot notifDoc : docs) {
+                        Notification notification = notifDoc.toObject(Notification.class);
+                        if (notification != null) {
+                            notifications.add(notification);
+                            // users/{userId}/notifications/{notificationId}
+                            recipientIds.add(notifDoc.getReference().getParent().getParent().getId());
+                        }
                     }
+
+                    UserNameCache.getInstance().resolve(recipientIds, names -> {
+                        loading = false;
+                        if (!isAdded()) return;
+
+                        List<AdminNotificationAdapter.NotificationWithUser> page = new ArrayList<>();
+                        for (int i = 0; i < notifications.size(); i++) {
+                            String userId = recipientIds.get(i);
+                            page.add(new AdminNotificationAdapter.NotificationWithUser(
+                                    notifications.get(i), userId, names.get(userId)));
+                        }
+                        displayNotifications(page);
+                    });
                 })
                 .addOnFailureListener(e -> {
-                    Log.e(TAG, "Error loading users", e);
+                    loading = false;
+                    Log.e(TAG, "Error loading notifications", e);
+                    if (!isAdded()) return;
                     progressBar.setVisibility(View.GONE);
                     Toast.makeText(getContext(),
-                            "Failed to load users: " + e.getMessage(),
+                            "Failed to load notifications: " + e.getMessage(),
                             Toast.LENGTH_LONG).show();
                 });
     }
 
     /**
-     * Displays the loaded notifications in the RecyclerView.
+     * Appends a loaded page of notifications to the RecyclerView.
+     *
+     * <p>Pages arrive already sorted newest first. If nothing has been loaded at all,
+     * shows the empty state instead. Logs the total number of notifications displayed.</p>
      *
-     * <p>Sorts notifications by timestamp (newest first) before displaying.
-     * If no notifications exist, shows the empty state instead.
-     * Logs the total number of notifications displayed.</p>
+     * @param page notifications with recipient names, newest first
      */
-    private void displayNotifications() {
+    private void displayNotifications(List<AdminNotificationAdapter.NotificationWithUser> page) {
         progressBar.setVisibility(View.GONE);
 
+        allNotifications.addAll(page);
         if (allNotifications.isEmpty()) {
             showEmptyState();
             return;
         }
 
-        // Sort by timestamp (newest first)
-        allNotifications.sort((n1, n2) -> {
-            if (n1.getNotification().getTimeCreated() == null) return 1;
-            if (n2.getNotification().getTimeCreated() == null) return -1;
-            return n2.getNotification().getTimeCreated()
-                    .compareTo(n1.getNotification().getTimeCreated());
-        });
-
-        adapter.setNotifications(allNotifications);
+        adapter.appendNotifications(page);
         recyclerView.setVisibility(View.VISIBLE);
         emptyTextView.setVisibility(View.GONE);
 
-        Log.d(TAG, "Displaying " + allNotifications.size() + " total notifications");
+        Log.d(TAG, "Displaying " + allNotifications.size() + " total notifications ("
+                + UserNameCache.getInstance().getQueryCount() + " user name queries so far)");
     }
 
     /**
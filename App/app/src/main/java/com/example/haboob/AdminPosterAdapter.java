@@ -145,7 +145,7 @@ public class AdminPosterAdapter extends RecyclerView.Adapter<AdminPosterAdapter.
                 // Use Glide to load the image URL
                 try {
                     Glide.with(holder.posterImage.getContext())
-                            .load(imageUrl)
+                            .load(PosterUrlBuilder.forView(imageUrl, holder.posterImage))
                             .placeholder(defaultImageResId)
                             .error(defaultImageResId)
                             .into(holder.posterImage);
@@ -37,6 +37,7 @@ import androidx.navigation.fragment.NavHostFragment;
 import com.bumptech.glide.Glide;
 import com.google.android.material.appbar.MaterialToolbar;
 import com.google.android.material.button.MaterialButton;
+import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 
@@ -200,6 +201,7 @@ public class AdminPosterDetailFragment extends Fragment {
                 .addOnSuccessListener(querySnapshot -> {
                     if (!querySnapshot.isEmpty()) {
                         DocumentSnapshot documentSnapshot = querySnapshot.getDocuments().get(0);
+                        EventDocumentCache.put(id, documentSnapshot.getId());
                         Event event = documentSnapshot.toObject(Event.class);
                         if (event != null) {
                             titleTextView.setText(event.getEventTitle());
@@ -228,7 +230,7 @@ public class AdminPosterDetailFragment extends Fragment {
                             // Image
                             if (event.getPoster() != null && event.getPoster().getData() != null && !event.getPoster().getData().isEmpty()) {
                                 Glide.with(this)
-                                        .load(event.getPoster().getData())
+                                        .load(PosterUrlBuilder.forView(event.getPoster().getData(), fullImageView))
                                         .placeholder(R.drawable.shrug)
                                         .error(R.drawable.shrug)
                                         .into(fullImageView);
@@ -259,22 +261,25 @@ public class AdminPosterDetailFragment extends Fragment {
     private void handleRemoveImage() {
         if (posterId == null) return;
 
-        db.collection("events").whereEqualTo("eventID", posterId).get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (!querySnapshot.isEmpty()) {
-                        String docId = querySnapshot.getDocuments().get(0).getId();
-                        db.collection("events").document(docId)
-                                .update("poster.data", "")
-                                .addOnSuccessListener(aVoid -> {
-                                    Toast.makeText(getContext(), "Poster image removed.", Toast.LENGTH_SHORT).show();
-                                    NavHostFragment.findNavController(this).popBackStack();
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e(TAG, "Error removing poster image", e);
-                                    Toast.makeText(getContext(), "Failed to remove image.", Toast.LENGTH_SHORT).show();
-                                });
-                    }
-                });
+        EventDocumentCache.resolve(db, posterId, new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference docRef) {
+                docRef.update("poster.data", "")
+                        .addOnSuccessListener(aVoid -> {
+                            Toast.makeText(getContext(), "Poster image removed.", Toast.LENGTH_SHORT).show();
+                            NavHostFragment.findNavController(AdminPosterDetailFragment.this).popBackStack();
+                        })
+                        .addOnFailureListener(e -> {
+                            Log.e(TAG, "Error removing poster image", e);
+                            Toast.makeText(getContext(), "Failed to remove image.", Toast.LENGTH_SHORT).show();
+                        });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Could not find event document for poster " + posterId, e);
+            }
+        });
     }
 
     /**
@@ -291,18 +296,22 @@ public class AdminPosterDetailFragment extends Fragment {
                 .setTitle("Delete Event")
                 .setMessage("Are you sure you want to delete this event? This cannot be undone.")
                 .setPositiveButton("Delete", (dialog, which) -> {
-                    db.collection("events").whereEqualTo("eventID", posterId).get()
-                            .addOnSuccessListener(querySnapshot -> {
-                                if (!querySnapshot.isEmpty()) {
-                                    String docId = querySnapshot.getDocuments().get(0).getId();
-                                    db.collection("events").document(docId)
-                                            .delete()
-                                            .addOnSuccessListener(aVoid -> {
-                                                Toast.makeText(getContext(), "Event deleted.", Toast.LENGTH_SHORT).show();
-                                                NavHostFragment.findNavController(this).popBackStack();
-                                            });
-                                }
-                            });
+                    EventDocumentCache.resolve(db, posterId, new EventDocumentCache.OnDocumentResolvedListener() {
+                        @Override
+                        public void onResolved(DocumentReference docRef) {
+                            docRef.delete()
+                                    .addOnSuccessListener(aVoid -> {
+                                        EventDocumentCache.invalidate(posterId);
+                                        Toast.makeText(getContext(), "Event deleted.", Toast.LENGTH_SHORT).show();
+                                        NavHostFragment.findNavController(AdminPosterDetailFragment.this).popBackStack();
+                                    });
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            Log.e(TAG, "Could not find event document for poster " + posterId, e);
+                        }
+                    });
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
@@ -50,7 +50,7 @@ import java.util.List;
  *
  * <p>Key features:</p>
  * <ul>
- *   <li>Displays all events from Firestore in a grid layout</li>
+ *   <li>Displays all events from Firestore in a grid layout, one page at a time</li>
  *   <li>Shows poster images or placeholders for each event</li>
  *   <li>Handles loading states with progress indicator</li>
  *   <li>Supports click navigation to event detail view</li>
@@ -83,6 +83,15 @@ public class AdminPosterFragment extends Fragment implements AdminPosterAdapter.
     /** Manager for loading events from Firestore */
     private EventsList eventsListManager;
 
+    /** Loads events page by page as the grid is scrolled */
+    private EventsList.Pager pager;
+
+    /** Number of events fetched per page */
+    private static final int PAGE_SIZE = 20;
+
+    /** How many cards from the end of the grid the next page is requested */
+    private static final int PREFETCH_DISTANCE = 6;
+
     /**
      * Required empty public constructor for Fragment instantiation.
      */
@@ -113,8 +122,8 @@ public class AdminPosterFragment extends Fragment implements AdminPosterAdapter.
         progressBar = view.findViewById(R.id.progress_bar_admin_posters);
         MaterialToolbar toolbar = view.findViewById(R.id.posterTopAppBar);
 
-        // Initialize EventsList with inMemoryOnly = false to connect to Firestore
-        eventsListManager = new EventsList(false);
+        // Pages are added to the shared EventsList so other screens can reuse them
+        eventsListManager = EventsRepository.getInstance().getEventsList();
 
         // Back navigation listener
         toolbar.setOnMenuItemClickListener(item -> {
@@ -136,56 +145,82 @@ public class AdminPosterFragment extends Fragment implements AdminPosterAdapter.
         adapter = new AdminPosterAdapter(eventList, this);
         recyclerView.setAdapter(adapter);
 
+        // Request the next page before the user reaches the end of the grid
+        recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView rv, int dx, int dy) {
+                GridLayoutManager layoutManager = (GridLayoutManager) rv.getLayoutManager();
+                if (layoutManager == null || pager == null) return;
+                int lastVisible = layoutManager.findLastVisibleItemPosition();
+                if (lastVisible >= eventList.size() - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
         return view;
     }
 
     /**
-     * Called when the fragment becomes visible to the user.
-     * Reloads all event data to ensure the display is up-to-date.
+     * Starts paging from the first event each time the view is created.
      *
-     * <p>This ensures that any changes made to events (such as poster removal
-     * or event deletion) are reflected when returning to this fragment.</p>
+     * <p>Returning from the detail screen recreates the view, so changes made there
+     * (such as poster removal or event deletion) are reflected.</p>
+     *
+     * @param view The View returned by onCreateView()
+     * @param savedInstanceState Previously saved state of the fragment, if any
      */
     @Override
-    public void onResume() {
-        super.onResume();
-        // Reload data whenever fragment becomes visible
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
         loadAllEvents();
     }
 
     /**
-     * Loads ALL events from Firestore and displays them.
+     * Starts loading ALL events from Firestore, one page at a time.
      *
-     * <p>This method loads every event in the system, regardless of whether they
+     * <p>This method shows every event in the system, regardless of whether they
      * have a poster image. Events without posters will display a placeholder image
      * in the adapter, ensuring administrators can still see and manage all events.</p>
      *
-     * <p>Shows a progress bar during loading and handles errors appropriately by
-     * logging them and displaying user-friendly error messages.</p>
+     * <p>Only the first page is requested here, so the first cards appear after a
+     * single small query; later pages are requested by the scroll listener.</p>
      */
     private void loadAllEvents() {
+        eventList.clear();
+        if (adapter != null) adapter.notifyDataSetChanged();
+
+        pager = eventsListManager.newPager(PAGE_SIZE, false);
+        loadNextPage();
+    }
+
+    /**
+     * Requests the next page of events and appends it to the grid.
+     * Does nothing while a page is loading or after the last page.
+     */
+    private void loadNextPage() {
+        if (pager.isLoading() || !pager.hasMore()) return;
         if (progressBar != null) progressBar.setVisibility(View.VISIBLE);
 
-        eventsListManager.loadEventsList(new EventsList.OnEventsLoadedListener() {
+        final EventsList.Pager requestPager = pager;
+        requestPager.loadNextPage(new EventsList.OnPageLoadedListener() {
             @Override
-            public void onEventsLoaded() {
-                eventList.clear();
+            public void onPageLoaded(ArrayList<Event> page, boolean hasMore) {
+                if (requestPager != pager || getView() == null) return;
 
                 // CHANGED: We now add ALL events, regardless of whether they have a poster.
                 // This ensures events remain visible (with a placeholder) after their poster is removed.
-                for (Event event : eventsListManager.getEventsList()) {
-                    if (event != null) {
-                        eventList.add(event);
-                    }
-                }
+                int start = eventList.size();
+                eventList.addAll(page);
 
-                if (adapter != null) adapter.notifyDataSetChanged();
+                if (adapter != null) adapter.notifyItemRangeInserted(start, page.size());
                 if (progressBar != null) progressBar.setVisibility(View.GONE);
-                Log.d(TAG, "Total events loaded: " + eventList.size());
+                Log.d(TAG, "Events loaded: " + eventList.size() + (hasMore ? " (more available)" : " (all)"));
             }
 
             @Override
             public void onError(Exception e) {
+                if (requestPager != pager || getView() == null) return;
                 if (progressBar != null) progressBar.setVisibility(View.GONE);
                 Log.e(TAG, "Error loading events: " + e.getMessage());
                 if (getContext() != null) {
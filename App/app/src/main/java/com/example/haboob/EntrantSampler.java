@@ -0,0 +1,181 @@
+package com.example.haboob;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * {@code EntrantSampler} draws uniform random samples without replacement for the lottery.
+ * <p>
+ * {@link #sample} runs a partial Fisher–Yates shuffle: only the first {@code k} positions are
+ * shuffled, so a draw costs {@code k} swaps instead of shuffling the whole waiting list. When
+ * {@code k} is small compared to the list, the swaps are recorded in a map rather than in a
+ * copy of the list, so filling a single vacancy does not copy the waitlist at all.
+ * {@link #reservoir} samples from input that can only be iterated once.
+ * <p>
+ * The source of randomness is injectable. Two samplers created with the same seed make the
+ * same draws from the same input, which lets a draw be replayed for an audit.
+ */
+public class EntrantSampler {
+
+    /**
+     * Below {@code size / SPARSE_THRESHOLD} selections, swaps are tracked in a map instead of
+     * a copied list.
+     */
+    private static final int SPARSE_THRESHOLD = 8;
+
+    private final Random random;
+
+    /**
+     * Creates a sampler backed by a new, unseeded {@link Random}.
+     */
+    public EntrantSampler() {
+        this(new Random());
+    }
+
+    /**
+     * Creates a sampler backed by the given source of randomness.
+     *
+     * @param random source of randomness; pass a seeded instance for reproducible draws
+     */
+    public EntrantSampler(Random random) {
+        if (random == null) {
+            throw new IllegalArgumentException("random cannot be null");
+        }
+        this.random = random;
+    }
+
+    /**
+     * Creates a sampler whose draws are fully determined by {@code seed}.
+     *
+     * @param seed seed to record alongside the draw
+     * @return a reproducible sampler
+     */
+    public static EntrantSampler seeded(long seed) {
+        return new EntrantSampler(new Random(seed));
+    }
+
+    /**
+     * Selects up to {@code k} distinct positions of {@code items} uniformly at random.
+     * The input list is not modified.
+     *
+     * @param items list to sample from
+     * @param k     number of items to select
+     * @param <T>   element type
+     * @return the selected items in random order; all items (shuffled) if {@code k >= size},
+     *         or an empty list if {@code items} is null/empty or {@code k <= 0}
+     */
+    public <T> List<T> sample(List<T> items, int k) {
+        if (items == null || items.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+        int n = items.size();
+        int count = Math.min(k, n);
+
+        return count <= n / SPARSE_THRESHOLD
+                ? sampleSparse(items, count)
+                : sampleDense(items, count);
+    }
+
+    /**
+     * Selects one item uniformly at random.
+     *
+     * @param items list to pick from
+     * @param <T>   element type
+     * @return the selected item, or {@code null} if {@code items} is null/empty
+     */
+    public <T> T pickOne(List<T> items) {
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+        return items.get(random.nextInt(items.size()));
+    }
+
+    /**
+     * Selects up to {@code k} items uniformly at random from input read in a single pass,
+     * such as a streamed query result, using reservoir sampling (Algorithm R).
+     *
+     * @param items input to sample from
+     * @param k     number of items to select
+     * @param <T>   element type
+     * @return the selected items; order is not randomized
+     */
+    public <T> List<T> reservoir(Iterator<T> items, int k) {
+        List<T> reservoir = new ArrayList<>(Math.max(0, Math.min(k, 1024)));
+        if (items == null || k <= 0) {
+            return reservoir;
+        }
+
+        long seen = 0;
+        while (items.hasNext()) {
+            T item = items.next();
+            seen++;
+            if (reservoir.size() < k) {
+                reservoir.add(item);
+            } else {
+                long j = nextLong(seen);
+                if (j < k) reservoir.set((int) j, item);
+            }
+        }
+        return reservoir;
+    }
+
+    // -------------------- Helpers --------------------
+
+    /**
+     * Partial Fisher–Yates over a copy of the list: O(n) copy, O(k) swaps.
+     */
+    private <T> List<T> sampleDense(List<T> items, int count) {
+        List<T> pool = new ArrayList<>(items);
+        int n = pool.size();
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            T tmp = pool.get(i);
+            pool.set(i, pool.get(j));
+            pool.set(j, tmp);
+        }
+        return new ArrayList<>(pool.subList(0, count));
+    }
+
+    /**
+     * Partial Fisher–Yates that records displaced positions in a map instead of copying the
+     * list: O(k) time and memory.
+     */
+    private <T> List<T> sampleSparse(List<T> items, int count) {
+        int n = items.size();
+        Map<Integer, Integer> displaced = new HashMap<>(count * 2);
+        List<T> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(n - i);
+            int atJ = valueAt(displaced, j);
+            int atI = valueAt(displaced, i);
+            displaced.put(j, atI);
+            out.add(items.get(atJ));
+        }
+        return out;
+    }
+
+    private static int valueAt(Map<Integer, Integer> displaced, int position) {
+        Integer value = displaced.get(position);
+        return value != null ? value : position;
+    }
+
+    /**
+     * @return a uniform value in {@code [0, bound)}
+     */
+    private long nextLong(long bound) {
+        if (bound <= Integer.MAX_VALUE) {
+            return random.nextInt((int) bound);
+        }
+        long bits;
+        long value;
+        do {
+            bits = random.nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.haboob;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+/**
+ * {@code EntrantSet} is an insertion-ordered set of entrant IDs that can be used as a
+ * {@code List<String>}.
+ * <p>
+ * {@link Event} keeps its entrant lists in this class once created or loaded (see
+ * {@link Event#useEntrantSets}). Entries are appended to a slot array and found through an
+ * ID-to-slot map, so {@link #contains} is O(1) and {@link #add} and {@link #remove(Object)} are
+ * O(log n) even for events with tens of thousands of entrants. An entrant already in the set is
+ * not added again.
+ * <p>
+ * Removing an entrant leaves an empty slot rather than shifting the ones after it. A Fenwick
+ * tree counts the occupied slots, so index access ({@link #get}, {@link #indexOf}) stays
+ * O(log n) right after a change, and O(1) while no slot is empty. The slots are compacted once
+ * empty ones outnumber occupied ones, which costs O(n) but only after O(n) removals.
+ * <p>
+ * Firestore writes any {@code List} as an array, so events keep the same document layout.
+ */
+public class EntrantSet extends AbstractList<String> implements RandomAccess, Serializable {
+
+    /** Empty slots tolerated before compaction regardless of the set's size. */
+    private static final int MIN_COMPACT_SLOTS = 32;
+
+    /** Entrants in insertion order; null where one was removed. */
+    private String[] slots = new String[0];
+
+    /** Slots in use, occupied or empty. */
+    private int used;
+
+    /** entrantID -> its slot. */
+    private final HashMap<String, Integer> slotOf = new HashMap<>();
+
+    /** Fenwick tree over {@link #slots}, 1-based; counts occupied slots. */
+    private int[] tree = new int[1];
+
+    /**
+     * Creates an empty set.
+     */
+    public EntrantSet() {
+    }
+
+    /**
+     * Creates a set with the distinct entries of {@code entrants}, in order.
+     *
+     * @param entrants entrant IDs to copy; may be null
+     */
+    public EntrantSet(Collection<String> entrants) {
+        if (entrants == null) return;
+        ensureCapacity(entrants.size());
+        for (String entrantID : entrants) add(entrantID);
+    }
+
+    @Override
+    public int size() {
+        return slotOf.size();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return slotOf.containsKey(o);
+    }
+
+    /**
+     * Adds an entrant to the end of the set.
+     *
+     * @param entrantID entrant to add
+     * @return {@code true} if the entrant was not already in the set
+     */
+    @Override
+    public boolean add(String entrantID) {
+        if (slotOf.containsKey(entrantID)) return false;
+        compactIfSparse();
+        ensureCapacity(used + 1);
+        slots[used] = entrantID;
+        slotOf.put(entrantID, used);
+        update(used, 1);
+        used++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!removeSlot(o)) return false;
+        compactIfSparse();
+        return true;
+    }
+
+    @Override
+    public String remove(int index) {
+        String entrantID = get(index);
+        remove(entrantID);
+        return entrantID;
+    }
+
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        if (used == size()) return slots[index];
+        return slots[slotAt(index)];
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        Integer slot = slotOf.get(o);
+        return slot != null ? occupiedBefore(slot) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public void clear() {
+        if (slotOf.isEmpty()) return;
+        slots = new String[0];
+        tree = new int[1];
+        used = 0;
+        slotOf.clear();
+        modCount++;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = advance(0);
+            private int last = -1;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next < used;
+            }
+
+            @Override
+            public String next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (next >= used) throw new NoSuchElementException();
+                last = next;
+                next = advance(next + 1);
+                return slots[last];
+            }
+
+            @Override
+            public void remove() {
+                if (last < 0) throw new IllegalStateException();
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                // No compaction here, so the remaining slots keep their positions
+                removeSlot(slots[last]);
+                last = -1;
+                expectedModCount = modCount;
+            }
+        };
+    }
+
+    /** @return the first occupied slot at or after {@code slot}, or {@link #used} */
+    private int advance(int slot) {
+        while (slot < used && slots[slot] == null) slot++;
+        return slot;
+    }
+
+    private boolean removeSlot(Object o) {
+        Integer slot = slotOf.remove(o);
+        if (slot == null) return false;
+        slots[slot] = null;
+        update(slot, -1);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Moves the occupied slots to the front once empty ones outnumber them.
+     */
+    private void compactIfSparse() {
+        int empty = used - size();
+        if (empty < MIN_COMPACT_SLOTS || empty <= size()) return;
+        int to = 0;
+        for (int from = 0; from < used; from++) {
+            String entrantID = slots[from];
+            if (entrantID == null) continue;
+            slots[to] = entrantID;
+            slotOf.put(entrantID, to);
+            to++;
+        }
+        Arrays.fill(slots, to, used, null);
+        used = to;
+        rebuildTree();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= slots.length) return;
+        slots = Arrays.copyOf(slots, Math.max(capacity, Math.max(16, slots.length * 2)));
+        rebuildTree();
+    }
+
+    /** Rebuilds the Fenwick tree from {@link #slots} in O(n). */
+    private void rebuildTree() {
+        tree = new int[slots.length + 1];
+        for (int i = 1; i <= slots.length; i++) {
+            if (i <= used && slots[i - 1] != null) tree[i]++;
+            int parent = i + (i & -i);
+            if (parent <= slots.length) tree[parent] += tree[i];
+        }
+    }
+
+    private void update(int slot, int delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) tree[i] += delta;
+    }
+
+    /** @return the number of occupied slots before {@code slot} */
+    private int occupiedBefore(int slot) {
+        int count = 0;
+        for (int i = slot; i > 0; i -= i & -i) count += tree[i];
+        return count;
+    }
+
+    /** @return the slot holding the entrant at {@code index} */
+    private int slotAt(int index) {
+        int position = 0;
+        int remaining = index + 1;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int probe = position + step;
+            if (probe < tree.length && tree[probe] < remaining) {
+                position = probe;
+                remaining -= tree[probe];
+            }
+        }
+        return position;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.haboob;
+
+/**
+ * The entrant lists an {@link Event} keeps, one per stage of the lottery.
+ * <p>
+ * Each constant knows the Firestore field that stores its list on the event document.
+ */
+public enum EntrantStatus {
+    /** On the waiting list, eligible for the lottery. */
+    WAITING("waitingEntrants"),
+    /** Selected by the lottery and waiting to accept or decline. */
+    INVITED("invitedEntrants"),
+    /** Accepted their invitation. */
+    ENROLLED("enrolledEntrants"),
+    /** Declined, left, or was cancelled by the organizer. */
+    CANCELLED("cancelledEntrants");
+
+    private final String fieldName;
+
+    EntrantStatus(String fieldName) {
+        this.fieldName = fieldName;
+    }
+
+    /**
+     * @return name of the array field holding this list in the event document
+     */
+    public String getFieldName() {
+        return fieldName;
+    }
+}
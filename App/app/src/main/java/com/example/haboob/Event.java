@@ -2,6 +2,9 @@ package com.example.haboob;
 
 import android.util.Log;
 
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldValue;
@@ -23,7 +26,10 @@ import java.util.UUID;
  * organizer, tags, poster/QR) and dynamic participant lists (invited, waiting, enrolled, cancelled).
  * <p>
  * The class also includes helper methods for mutating participant lists in Firestore, using
- * the {@code eventID} field to locate the backing document.
+ * the {@code eventID} field to locate the backing document. The document ID is resolved through
+ * {@link EventDocumentCache}, so the lookup query only runs when the ID is not already known.
+ * Entrant list changes are written through {@link EventMutationQueue}, which coalesces changes
+ * made in quick succession into one batched write.
  * <p>
  * Notes:
  * <ul>
@@ -66,15 +72,69 @@ public class Event implements Serializable {
 
     // All of the lists that events have (all other than tags will have the entries as strings of user IDs)
     private ArrayList<String> tags;  // -> List of tags associated to the event
-    private ArrayList<String> invitedEntrants;  // -> List of all entrants who got selected for the lottery
-    private ArrayList<String> waitingEntrants;  // -> List of all entrants who were not selected for the lottery, didn't cancel, and are waiting to fill in upon entrant cancellation
-    private ArrayList<String> enrolledEntrants;  // -> List of all entrants who accepted their invite
-    private ArrayList<String> cancelledEntrants;  // -> List of all entrants who cancelled their invite or were cancelled by the organizer
+    private List<String> invitedEntrants;  // -> List of all entrants who got selected for the lottery
+    private List<String> waitingEntrants;  // -> List of all entrants who were not selected for the lottery, didn't cancel, and are waiting to fill in upon entrant cancellation
+    private List<String> enrolledEntrants;  // -> List of all entrants who accepted their invite
+    private List<String> cancelledEntrants;  // -> List of all entrants who cancelled their invite or were cancelled by the organizer
     private ArrayList<GeoPoint> entrantLocations;  // -> List of locations that entrants sign up for an event from
 
     // to store the entrants that are in the lottery
 //    private ArrayList<String> entrant_ids_for_lottery; deprecated by david
     private String eventImage;
+    private Date lotteryDrawnAt;  // -> When the lottery was first drawn, or null if it has not been drawn
+    private boolean shardedEntrants;  // -> Entrants live in the entrants sub-collection instead of the arrays (see ShardedEntrantStore)
+
+    /** Event document field recording whether entrants are stored in a sub-collection. */
+    static final String SHARDED_ENTRANTS_FIELD = "shardedEntrants";
+
+    /** Event document field holding the waiting list capacity (negative if unlimited). */
+    static final String WAITING_LIST_CAPACITY_FIELD = "optionalWaitingListSize";
+
+    /** Notified when an entrant list changes, e.g. by {@link EventIndex}. Never persisted. */
+    private transient OnEntrantListsChangedListener entrantListsListener;
+
+    /** entrantID -> the list it is in; rebuilt from the lists when null. Never persisted. */
+    private transient Map<String, EntrantStatus> statusByEntrant;
+
+    /** Chooses the entrants that refill vacancies; uniform when null. Never persisted. */
+    private transient SamplingStrategy samplingStrategy;
+
+    /**
+     * Receives changes made to this event's entrant lists through its mutators, so indexes
+     * built over many events stay consistent without rescanning.
+     */
+    public interface OnEntrantListsChangedListener {
+        /**
+         * Called after an entrant is added to one of the event's lists.
+         *
+         * @param event     the event that changed
+         * @param list      which entrant list changed
+         * @param entrantID the entrant that was added
+         */
+        void onEntrantAdded(Event event, EntrantStatus list, String entrantID);
+
+        /**
+         * Called after an entrant is no longer in one of the event's lists.
+         *
+         * @param event     the event that changed
+         * @param list      which entrant list changed
+         * @param entrantID the entrant that was removed
+         */
+        void onEntrantRemoved(Event event, EntrantStatus list, String entrantID);
+    }
+
+    /**
+     * Callback for {@link #joinWaitingEntrants}.
+     */
+    public interface OnWaitlistJoinListener {
+        /** Called once the entrant is on the waiting list, including if it already was. */
+        void onJoined();
+
+        /** Called when the waiting list is at capacity; nothing was changed. */
+        void onWaitlistFull();
+
+        void onError(Exception e);
+    }
 
     /**
      * Default constructor used by Firestore deserialization.
@@ -101,6 +161,16 @@ public class Event implements Serializable {
         this.initLists();
     }
 
+    /**
+     * Test-friendly constructor that writes through the given Firestore instance.
+     *
+     * @param db Firestore instance used by the mutators
+     */
+    Event(FirebaseFirestore db) {
+        this(true);
+        this.db = db;
+    }
+
     /**
      * Full constructor that generates a UUID-based {@code eventID} and initializes all key fields.
      *
@@ -159,183 +229,235 @@ public class Event implements Serializable {
         if (this.tags == null) {
             this.tags = new ArrayList<>();
         }
-        this.invitedEntrants = new ArrayList<String>();
-        this.waitingEntrants = new ArrayList<String>();
-        this.enrolledEntrants = new ArrayList<String>();
-        this.cancelledEntrants = new ArrayList<String>();
+        this.invitedEntrants = new EntrantSet();
+        this.waitingEntrants = new EntrantSet();
+        this.enrolledEntrants = new EntrantSet();
+        this.cancelledEntrants = new EntrantSet();
         this.entrantLocations = new ArrayList<GeoPoint>();
+        this.statusByEntrant = null;
+    }
+
+    /**
+     * Converts the entrant lists to {@link EntrantSet}s so membership checks and removals are
+     * O(1). Firestore deserializes the lists as plain {@code ArrayList}s, so call this on
+     * events read with {@code toObject}. Lists passed to the setters are otherwise kept as
+     * given, since callers may share them.
+     */
+    public void useEntrantSets() {
+        this.invitedEntrants = toEntrantSet(this.invitedEntrants);
+        this.waitingEntrants = toEntrantSet(this.waitingEntrants);
+        this.enrolledEntrants = toEntrantSet(this.enrolledEntrants);
+        this.cancelledEntrants = toEntrantSet(this.cancelledEntrants);
+        this.statusByEntrant = null;
+    }
+
+    /**
+     * Resolves this event's Firestore document through {@link EventDocumentCache} and runs
+     * {@code action} against it. The {@code eventID} query only runs on a cache miss.
+     *
+     * @param firestore Firestore instance to use
+     * @param caller name of the calling method, used in log messages
+     * @param action work to run once the document reference is known
+     */
+    private void withEventDocument(FirebaseFirestore firestore, String caller, OnSuccessListener<DocumentReference> action) {
+        // Safety check — can't resolve the document without eventID
+        if (this.eventID == null || this.eventID.isEmpty()) {
+            Log.w("Event", caller + ": eventID is null or empty");
+            return;
+        }
+
+        EventDocumentCache.resolve(firestore, this.eventID, new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference docRef) {
+                action.onSuccess(docRef);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e("Event", caller + ": failed to resolve event document for eventID=" + eventID, e);
+            }
+        });
     }
 
     /**
-     * Adds a user ID to {@code invitedEntrants} in-memory and in Firestore (arrayUnion).
+     * Adds a user ID to {@code invitedEntrants} in-memory and in Firestore (arrayUnion),
+     * removing it from the other lists.
      *
      * @param userID user ID to add
      */
     public void addEntrantToInvitedEntrants(String userID) {
-        this.invitedEntrants.add(userID);
-
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the actual document ID from the query result
-                        String documentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Update the document using its ID
-                        db.collection("events")
-                                .document(documentId)
-                                .update("invitedEntrants", FieldValue.arrayUnion(userID))
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Event", "Successfully added user to invitedEntrants");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Event", "Error updating invitedEntrants", e);
-                                });
-                    } else {
-                        Log.e("Event", "No event found with eventID: " + eventID);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("Event", "Error querying event", e);
-                });
+        addToEntrantList(EntrantStatus.INVITED, userID);
+
+        withEventDocument(db, "addEntrantToInvitedEntrants", docRef -> writeMove(docRef, EntrantStatus.INVITED, userID,
+                aVoid -> {
+                    Log.d("Event", "Successfully added user to invitedEntrants");
+                },
+                e -> {
+                    Log.e("Event", "Error updating invitedEntrants", e);
+                }));
     }
 
     /**
-     * Adds a user ID to {@code waitingEntrants} in Firestore (arrayUnion).
-     * Also updates the local list (note: current code adds to {@code invitedEntrants}).
+     * Adds a user ID to {@code waitingEntrants} in-memory and in Firestore (arrayUnion),
+     * removing it from the other lists.
      *
      * @param userID user ID to add
      */
     public void addEntrantToWaitingEntrants(String userID) {
 //        this.invitedEntrants.add(userID);
-        this.waitingEntrants.add(userID);  // david's change, not sure why it was invitedEntrants before
+        // Also takes the user off the cancelled list if they are rejoining after leaving
+        addToEntrantList(EntrantStatus.WAITING, userID);  // david's change, not sure why it was invitedEntrants before
+
+        withEventDocument(db, "addEntrantToWaitingEntrants", docRef -> {
+            // Update the document - add to waiting, remove from cancelled and the other lists
+            writeMove(docRef, EntrantStatus.WAITING, userID,
+                    aVoid -> {
+                        Log.d("Event", "Successfully added user to waitingEntrants and removed from cancelled");
+                        addToEventHistory(userID);
+                    },
+                    e -> {
+                        Log.e("Event", "Error updating waitingEntrants", e);
+                    });
+        });
+    }
 
-        // Remove from cancelled list if present (user is rejoining after leaving)
-        if (this.cancelledEntrants != null) {
-            this.cancelledEntrants.remove(userID);
+    /**
+     * Adds a user ID to {@code waitingEntrants} unless the waiting list is full, removing it
+     * from the other lists.
+     * <p>
+     * Unlike {@link #addEntrantToWaitingEntrants}, the capacity check and the write happen in
+     * one transaction against the stored lists rather than this possibly stale copy, so the
+     * {@code optionalWaitingListSize} limit holds however many entrants join at once. Events
+     * with sharded entrants go through {@link ShardedEntrantStore#join}, which lets joins on
+     * different counter shards commit in parallel; other events serialize on the document. If
+     * the event was migrated after this copy was loaded, the document transaction notices and
+     * the join is redone through the store.
+     * The local lists are only updated once the join has committed.
+     *
+     * @param userID   user ID to add
+     * @param listener told whether the entrant joined or the list was full
+     */
+    @SuppressWarnings("unchecked")
+    public void joinWaitingEntrants(String userID, OnWaitlistJoinListener listener) {
+        if (this.eventID == null || this.eventID.isEmpty()) {
+            listener.onError(new IllegalStateException("joinWaitingEntrants: eventID is null or empty"));
+            return;
         }
 
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the actual document ID from the query result
-                        String documentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Update the document using its ID - add to waiting, remove from cancelled
-                        Map<String, Object> updates = new HashMap<>();
-                        updates.put("waitingEntrants", FieldValue.arrayUnion(userID));
-                        updates.put("cancelledEntrants", FieldValue.arrayRemove(userID));
-
-                        db.collection("events")
-                                .document(documentId)
-                                .update(updates)
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Event", "Successfully added user to waitingEntrants and removed from cancelled");
-
-                                    // Also add this event to the user's event history
-                                    // Using set with merge to create the field if it doesn't exist
-                                    Map<String, Object> historyUpdate = new HashMap<>();
-                                    historyUpdate.put("event_history_list", FieldValue.arrayUnion(eventID));
-
-                                    db.collection("entrant")
-                                            .document(userID)
-                                            .set(historyUpdate, SetOptions.merge())
-                                            .addOnSuccessListener(aVoid2 -> {
-                                                Log.d("Event", "Successfully added event to user's history");
-                                            })
-                                            .addOnFailureListener(e -> {
-                                                Log.e("Event", "Error updating user's event history", e);
-                                            });
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Event", "Error updating waitingEntrants", e);
-                                });
-                    } else {
-                        Log.e("Event", "No event found with eventID: " + eventID);
+        EventDocumentCache.resolve(db, this.eventID, new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference docRef) {
+                if (shardedEntrants) {
+                    reportJoin(ShardedEntrantStore.getInstance().join(docRef, userID), userID, listener);
+                    return;
+                }
+                // Let queued list changes land first, so the transaction reads them
+                EventMutationQueue.forDocument(docRef).whenFlushed(() -> reportJoin(db.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef);
+                    if (Boolean.TRUE.equals(snapshot.getBoolean(SHARDED_ENTRANTS_FIELD))) {
+                        // Migrated since this copy was loaded; the arrays are no longer read
+                        throw new ShardedEntrantStore.ShardedEventException();
                     }
+                    List<String> waiting = (List<String>) snapshot.get(EntrantStatus.WAITING.getFieldName());
+                    if (waiting != null && waiting.contains(userID)) return true;
+
+                    Long capacity = snapshot.getLong(WAITING_LIST_CAPACITY_FIELD);
+                    if (capacity != null && capacity >= 0 && waiting != null && waiting.size() >= capacity) {
+                        return false;
+                    }
+                    transaction.update(docRef, moveUpdates(EntrantStatus.WAITING, userID));
+                    return true;
+                }).continueWithTask(join -> {
+                    if (join.getException() instanceof ShardedEntrantStore.ShardedEventException) {
+                        setShardedEntrants(true);
+                        return ShardedEntrantStore.getInstance().join(docRef, userID);
+                    }
+                    return join;
+                }), userID, listener));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Updates the local lists and tells {@code listener} once a join has committed.
+     */
+    private void reportJoin(Task<Boolean> join, String userID, OnWaitlistJoinListener listener) {
+        join.addOnSuccessListener(joined -> {
+                    if (!joined) {
+                        listener.onWaitlistFull();
+                        return;
+                    }
+                    addToEntrantList(EntrantStatus.WAITING, userID);
+                    addToEventHistory(userID);
+                    listener.onJoined();
+                })
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * Adds this event to the user's event history, creating the field if it doesn't exist.
+     */
+    private void addToEventHistory(String userID) {
+        Map<String, Object> historyUpdate = new HashMap<>();
+        historyUpdate.put("event_history_list", FieldValue.arrayUnion(eventID));
+
+        db.collection("entrant")
+                .document(userID)
+                .set(historyUpdate, SetOptions.merge())
+                .addOnSuccessListener(aVoid2 -> {
+                    Log.d("Event", "Successfully added event to user's history");
                 })
                 .addOnFailureListener(e -> {
-                    Log.e("Event", "Error querying event", e);
+                    Log.e("Event", "Error updating user's event history", e);
                 });
     }
 
     /**
-     * Adds a user ID to {@code enrolledEntrants} in Firestore (arrayUnion).
-     * Also updates the local list (note: current code adds to {@code invitedEntrants}).
+     * Adds a user ID to {@code enrolledEntrants} in-memory and in Firestore (arrayUnion),
+     * removing it from the other lists.
      *
      * @param userID user ID to add
      */
     public void addEntrantToEnrolledEntrants(String userID) {
-        this.invitedEntrants.add(userID);
-
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the actual document ID from the query result
-                        String documentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Update the document using its ID
-                        db.collection("events")
-                                .document(documentId)
-                                .update("enrolledEntrants", FieldValue.arrayUnion(userID))
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Event", "Successfully added user to enrolledEntrants");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Event", "Error updating enrolledEntrants", e);
-                                });
-                    } else {
-                        Log.e("Event", "No event found with eventID: " + eventID);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("Event", "Error querying event", e);
-                });
+        addToEntrantList(EntrantStatus.ENROLLED, userID);
+
+        withEventDocument(db, "addEntrantToEnrolledEntrants", docRef -> writeMove(docRef, EntrantStatus.ENROLLED, userID,
+                aVoid -> {
+                    Log.d("Event", "Successfully added user to enrolledEntrants");
+                },
+                e -> {
+                    Log.e("Event", "Error updating enrolledEntrants", e);
+                }));
     }
 
-    // author: david - simply adds the device Id to the local enrolled events list + invited events list
+    // author: david - simply adds the device Id to the local enrolled events list
+    // (an entrant is only ever in one list, so passing through invited leaves them enrolled)
     public void addEntrantToEnrolledEntrantsTESTING(String userID) {
-        this.invitedEntrants.add(userID);
-        this.enrolledEntrants.add(userID);
+        addToEntrantList(EntrantStatus.INVITED, userID);
+        addToEntrantList(EntrantStatus.ENROLLED, userID);
     }
 
     /**
-     * Adds a user ID to {@code cancelledEntrants} in-memory and in Firestore (arrayUnion).
+     * Adds a user ID to {@code cancelledEntrants} in-memory and in Firestore (arrayUnion),
+     * removing it from the other lists.
      *
      * @param userID user ID to add
      */
     public void addEntrantToCancelledEntrants(String userID) {
-        this.cancelledEntrants.add(userID);
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the actual document ID from the query result
-                        String documentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Update the document using its ID
-                        db.collection("events")
-                                .document(documentId)
-                                .update("cancelledEntrants", FieldValue.arrayUnion(userID))
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Event", "Successfully added user to cancelledEntrants");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Event", "Error updating cancelledEntrants", e);
-                                });
-                    } else {
-                        Log.e("Event", "No event found with eventID: " + eventID);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("Event", "Error querying event", e);
-                });
+        addToEntrantList(EntrantStatus.CANCELLED, userID);
+
+        withEventDocument(db, "addEntrantToCancelledEntrants", docRef -> writeMove(docRef, EntrantStatus.CANCELLED, userID,
+                aVoid -> {
+                    Log.d("Event", "Successfully added user to cancelledEntrants");
+                },
+                e -> {
+                    Log.e("Event", "Error updating cancelledEntrants", e);
+                }));
     }
 
 
@@ -346,31 +468,16 @@ public class Event implements Serializable {
      */
     public void addEntrantLocation(GeoPoint location) {
         this.entrantLocations.add(location);
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the actual document ID from the query result
-                        String documentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Update the document using its ID
-                        db.collection("events")
-                                .document(documentId)
-                                .update("entrantLocations", FieldValue.arrayUnion(location))
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Event", "Successfully added location to entrantLocations");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Event", "Error updating entrantLocations", e);
-                                });
-                    } else {
-                        Log.e("Event", "No event found with eventID: " + eventID);
-                    }
+
+        withEventDocument(db, "addEntrantLocation", docRef -> (shardedEntrants
+                ? ShardedEntrantStore.getInstance().addLocation(docRef, location)
+                : docRef.update("entrantLocations", FieldValue.arrayUnion(location)))
+                .addOnSuccessListener(aVoid -> {
+                    Log.d("Event", "Successfully added location to entrantLocations");
                 })
                 .addOnFailureListener(e -> {
-                    Log.e("Event", "Error querying event", e);
-                });
+                    Log.e("Event", "Error updating entrantLocations", e);
+                }));
     }
 
     /**
@@ -382,46 +489,11 @@ public class Event implements Serializable {
     public void removeEntrantFromWaitingEntrants(String userID) {
 
         // Remove locally
-        if (this.waitingEntrants != null) {
-            this.waitingEntrants.remove(userID);
-        }
-
-        // Safety check — can't query without eventID
-        if (this.eventID == null || this.eventID.isEmpty()) {
-            Log.w("Event", "removeEntrantFromWaitingEntrants: eventID is null or empty");
-            return;
-        }
+        removeFromEntrantList(EntrantStatus.WAITING, userID);
 
-        // Find the document where eventID == this.eventID
-        db.collection("events")
-                .whereEqualTo("eventID", this.eventID)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-
-                    if (querySnapshot.isEmpty()) {
-                        Log.w("Event", "No event document found matching eventID=" + this.eventID);
-                        return;
-                    }
-
-                    // We expect exactly 1 document
-                    String docId = querySnapshot.getDocuments().get(0).getId();
-
-                    // Step 2: Remove the user from waitingEntrants using arrayRemove
-                    db.collection("events")
-                            .document(docId)
-                            .update("waitingEntrants", FieldValue.arrayRemove(userID))
-                            .addOnSuccessListener(aVoid ->
-                                    Log.d("Event", "Successfully removed " + userID + " from waitingEntrants in Firebase")
-                            )
-                            .addOnFailureListener(e ->
-                                    Log.e("Event", "Error updating waitingEntrants", e)
-                            );
-
-                })
-                .addOnFailureListener(e ->
-
-                        Log.e("Event", "Failed to query event document by eventID", e)
-                );
+        withEventDocument(db, "removeEntrantFromWaitingEntrants", docRef -> writeRemove(docRef, EntrantStatus.WAITING, userID,
+                aVoid -> Log.d("Event", "Successfully removed " + userID + " from waitingEntrants in Firebase"),
+                e -> Log.e("Event", "Error updating waitingEntrants", e)));
     }
 
     /**
@@ -432,49 +504,19 @@ public class Event implements Serializable {
     public void removeEntrantFromInvitedEntrants(String userID) {
 
         // Remove locally
-        if (this.invitedEntrants != null) {
-            this.invitedEntrants.remove(userID);
-        }
+        removeFromEntrantList(EntrantStatus.INVITED, userID);
 
-        // Automatically fill vacancy from waiting list
-        LotterySampler sampler = new LotterySampler(new NotificationManager());
-        sampler.fillVacancyFromWaitlist(this);
-
-        // Safety check — can't query without eventID
-        if (this.eventID == null || this.eventID.isEmpty()) {
-            Log.w("Event", "removeEntrantFromInvitedEntrants: eventID is null or empty");
-            return;
+        // Automatically fill vacancy from waiting list; sharded events once the removal is stored
+        if (!shardedEntrants) {
+            LotterySampler.forEvent(this, new NotificationManager()).fillVacancyFromWaitlist(this);
         }
 
-        // Find the document where eventID == this.eventID
-        db.collection("events")
-                .whereEqualTo("eventID", this.eventID)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-
-                    if (querySnapshot.isEmpty()) {
-                        Log.w("Event", "No event document found matching eventID=" + this.eventID);
-                        return;
-                    }
-
-                    // We expect exactly 1 document
-                    String docId = querySnapshot.getDocuments().get(0).getId();
-
-                    // Step 2: Remove the user from waitingEntrants using arrayRemove
-                    db.collection("events")
-                            .document(docId)
-                            .update("invitedEntrants", FieldValue.arrayRemove(userID))
-                            .addOnSuccessListener(aVoid ->
-                                    Log.d("Event", "Successfully removed " + userID + " from invitedEntrants in Firebase")
-                            )
-                            .addOnFailureListener(e ->
-                                    Log.e("Event", "Error updating invitedEntrants", e)
-                            );
-
-                })
-                .addOnFailureListener(e ->
-                        Log.e("Event", "Failed to query event document by eventID", e)
-                );
+        withEventDocument(db, "removeEntrantFromInvitedEntrants", docRef -> writeRemove(docRef, EntrantStatus.INVITED, userID,
+                aVoid -> {
+                    Log.d("Event", "Successfully removed " + userID + " from invitedEntrants in Firebase");
+                    if (shardedEntrants) fillShardedVacancy();
+                },
+                e -> Log.e("Event", "Error updating invitedEntrants", e)));
     }
 
     /**
@@ -484,111 +526,58 @@ public class Event implements Serializable {
      */
     public void removeEntrantFromEnrolledEntrants(String userID) {
         // Remove locally
-        if (this.enrolledEntrants != null) {
-            this.enrolledEntrants.remove(userID);
-        }
-
-        // Automatically fill vacancy from waiting list
-        LotterySampler sampler = new LotterySampler(new NotificationManager());
-        sampler.fillVacancyFromWaitlist(this);
+        removeFromEntrantList(EntrantStatus.ENROLLED, userID);
 
-        // Safety check — can't query without eventID
-        if (this.eventID == null || this.eventID.isEmpty()) {
-            Log.w("Event", "removeEntrantFromEnrolledEntrants: eventID is null or empty");
-            return;
+        // Automatically fill vacancy from waiting list; sharded events once the removal is stored
+        if (!shardedEntrants) {
+            LotterySampler.forEvent(this, new NotificationManager()).fillVacancyFromWaitlist(this);
         }
 
-        // Find the document where eventID == this.eventID
-        db.collection("events")
-                .whereEqualTo("eventID", this.eventID)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+        withEventDocument(db, "removeEntrantFromEnrolledEntrants", docRef -> writeRemove(docRef, EntrantStatus.ENROLLED, userID,
+                aVoid -> {
+                    Log.d("Event", "Successfully removed " + userID + " from enrolledEntrants in Firebase");
+                    if (shardedEntrants) fillShardedVacancy();
+                },
+                e -> Log.e("Event", "Error updating enrolledEntrants", e)));
+    }
 
-                    if (querySnapshot.isEmpty()) {
-                        Log.w("Event", "No event document found matching eventID=" + this.eventID);
-                        return;
+    /**
+     * Invites one waiting entrant of a sharded event in place of one who left. This copy only
+     * holds a page of the lists, or on an entrant's device only their own membership, so the
+     * replacement is drawn from the stored waiting list by {@link LotterySampler#fillVacancies}.
+     */
+    private void fillShardedVacancy() {
+        LotterySampler.forEvent(this, new NotificationManager()).fillVacancies(this, 1,
+                new LotterySampler.OnLotteryDrawnListener() {
+                    @Override
+                    public void onLotteryDrawn(List<String> selectedEntrants) {
+                        Log.d("Event", "Filled vacancy with " + selectedEntrants);
                     }
 
-                    // We expect exactly 1 document
-                    String docId = querySnapshot.getDocuments().get(0).getId();
-
-                    // Step 2: Remove the user from waitingEntrants using arrayRemove
-                    db.collection("events")
-                            .document(docId)
-                            .update("enrolledEntrants", FieldValue.arrayRemove(userID))
-                            .addOnSuccessListener(aVoid ->
-                                    Log.d("Event", "Successfully removed " + userID + " from enrolledEntrants in Firebase")
-                            )
-                            .addOnFailureListener(e ->
-                                    Log.e("Event", "Error updating enrolledEntrants", e)
-                            );
-
-                })
-                .addOnFailureListener(e ->
-                        Log.e("Event", "Failed to query event document by eventID", e)
-                );
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("Event", "Error filling vacancy", e);
+                    }
+                });
     }
 
     /**
      * Moves a user from invitedEntrants to enrolledEntrants when they accept their invitation.
      * Does NOT trigger vacancy filling from the waiting list (unlike removeEntrantFromInvitedEntrants).
-     * Also removes the user from waitingEntrants if present.
+     * Also removes the user from the waiting and cancelled lists if present.
      *
      * @param userID user ID to move
      */
     public void moveEntrantFromInvitedToEnrolled(String userID) {
-        // Remove from invited list locally
-        if (this.invitedEntrants != null) {
-            this.invitedEntrants.remove(userID);
-        }
-
-        // Add to enrolled list locally
-        if (this.enrolledEntrants != null && !this.enrolledEntrants.contains(userID)) {
-            this.enrolledEntrants.add(userID);
-        }
-
-        // Remove from waiting list locally (if present)
-        if (this.waitingEntrants != null) {
-            this.waitingEntrants.remove(userID);
-        }
-
-        // Safety check
-        if (this.eventID == null || this.eventID.isEmpty()) {
-            Log.w("Event", "moveEntrantFromInvitedToEnrolled: eventID is null or empty");
-            return;
-        }
-
-        // Update in Firestore
-        db.collection("events")
-                .whereEqualTo("eventID", this.eventID)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (querySnapshot.isEmpty()) {
-                        Log.w("Event", "No event document found matching eventID=" + this.eventID);
-                        return;
-                    }
-
-                    String docId = querySnapshot.getDocuments().get(0).getId();
-
-                    // Update all three lists in Firestore
-                    Map<String, Object> updates = new HashMap<>();
-                    updates.put("invitedEntrants", FieldValue.arrayRemove(userID));
-                    updates.put("enrolledEntrants", FieldValue.arrayUnion(userID));
-                    updates.put("waitingEntrants", FieldValue.arrayRemove(userID));
-
-                    db.collection("events")
-                            .document(docId)
-                            .update(updates)
-                            .addOnSuccessListener(aVoid ->
-                                    Log.d("Event", "Successfully moved user from invited to enrolled")
-                            )
-                            .addOnFailureListener(e ->
-                                    Log.e("Event", "Error moving user from invited to enrolled", e)
-                            );
-                })
-                .addOnFailureListener(e ->
-                        Log.e("Event", "Failed to query event document", e)
-                );
+        // Add to enrolled list locally; this takes the user off invited and waiting
+        addToEntrantList(EntrantStatus.ENROLLED, userID);
+
+        withEventDocument(db, "moveEntrantFromInvitedToEnrolled", docRef -> {
+            // Update all four lists in Firestore
+            writeMove(docRef, EntrantStatus.ENROLLED, userID,
+                    aVoid -> Log.d("Event", "Successfully moved user from invited to enrolled"),
+                    e -> Log.e("Event", "Error moving user from invited to enrolled", e));
+        });
     }
 
     /**
@@ -598,32 +587,15 @@ public class Event implements Serializable {
      * @param userID user ID to process
      */
     public void removeEntrantFromCancelledEntrants(String userID) {
-        this.cancelledEntrants.add(userID);
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the actual document ID from the query result
-                        String documentId = queryDocumentSnapshots.getDocuments().get(0).getId();
-
-                        // Update the document using its ID
-                        db.collection("events")
-                                .document(documentId)
-                                .update("cancelledEntrants", FieldValue.arrayUnion(userID))
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Event", "Successfully added user to cancelledEntrants");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Event", "Error updating cancelledEntrants", e);
-                                });
-                    } else {
-                        Log.e("Event", "No event found with eventID: " + eventID);
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    Log.e("Event", "Error querying event", e);
-                });
+        addToEntrantList(EntrantStatus.CANCELLED, userID);
+
+        withEventDocument(db, "removeEntrantFromCancelledEntrants", docRef -> writeMove(docRef, EntrantStatus.CANCELLED, userID,
+                aVoid -> {
+                    Log.d("Event", "Successfully added user to cancelledEntrants");
+                },
+                e -> {
+                    Log.e("Event", "Error updating cancelledEntrants", e);
+                }));
     }
 
 
@@ -638,41 +610,183 @@ public class Event implements Serializable {
             this.entrantLocations.remove(location);
         }
 
-        // Safety check — can't query without eventID
-        if (this.eventID == null || this.eventID.isEmpty()) {
-            Log.w("Event", "removeEntrantLocation: eventID is null or empty");
+        withEventDocument(db, "removeEntrantLocation", docRef -> {
+            if (shardedEntrants) {
+                ShardedEntrantStore.getInstance().removeLocation(docRef, location);
+                return;
+            }
+            docRef.update("entrantLocations", FieldValue.arrayRemove(location))
+                    .addOnSuccessListener(aVoid ->
+                            Log.d("Event", "Successfully removed " + location + " from entrantLocations in Firebase")
+                    )
+                    .addOnFailureListener(e ->
+                            Log.e("Event", "Error updating entrantLocations", e)
+                    );
+        });
+    }
+
+    /**
+     * Registers the listener notified of entrant list changes, replacing any previous one.
+     *
+     * @param listener listener to notify
+     */
+    void attachEntrantListsListener(OnEntrantListsChangedListener listener) {
+        this.entrantListsListener = listener;
+    }
+
+    /**
+     * Unregisters {@code listener} if it is the one currently attached.
+     *
+     * @param listener listener to remove
+     */
+    void detachEntrantListsListener(OnEntrantListsChangedListener listener) {
+        if (this.entrantListsListener == listener) {
+            this.entrantListsListener = null;
+        }
+    }
+
+    /**
+     * Adds an entrant to one of the local lists, taking it off the other lists first so it is
+     * only ever in one, and notifies the attached listener.
+     *
+     * @param status which list to add to
+     * @param userID user ID to add
+     */
+    private void addToEntrantList(EntrantStatus status, String userID) {
+        List<String> list = getEntrantList(status);
+        if (list == null) return;
+        for (EntrantStatus other : EntrantStatus.values()) {
+            if (other != status) removeFromEntrantList(other, userID);
+        }
+        if (list.contains(userID)) return;
+        list.add(userID);
+        statusIndex().put(userID, status);
+        if (entrantListsListener != null) {
+            entrantListsListener.onEntrantAdded(this, status, userID);
+        }
+    }
+
+    /**
+     * Removes an entrant from one of the local lists and notifies the attached listener
+     * once the entrant is no longer in that list.
+     *
+     * @param status which list to remove from
+     * @param userID user ID to remove
+     */
+    private void removeFromEntrantList(EntrantStatus status, String userID) {
+        List<String> list = getEntrantList(status);
+        if (list == null || !list.remove(userID)) return;
+        if (list.contains(userID)) return;
+        if (statusByEntrant != null && statusByEntrant.get(userID) == status) {
+            statusByEntrant.remove(userID);
+        }
+        if (entrantListsListener != null) {
+            entrantListsListener.onEntrantRemoved(this, status, userID);
+        }
+    }
+
+    /**
+     * Builds a document update that adds {@code userID} to the list for {@code status} and
+     * removes it from the other lists, matching {@link #addToEntrantList}.
+     *
+     * @param status list the user ends up in
+     * @param userID user ID to move
+     * @return field updates for all four entrant lists
+     */
+    static Map<String, Object> moveUpdates(EntrantStatus status, String userID) {
+        Map<String, Object> updates = new HashMap<>();
+        for (EntrantStatus other : EntrantStatus.values()) {
+            updates.put(other.getFieldName(), other == status
+                    ? FieldValue.arrayUnion(userID)
+                    : FieldValue.arrayRemove(userID));
+        }
+        return updates;
+    }
+
+    /**
+     * Writes an entrant's move through the event's {@link EventMutationQueue}, which batches it
+     * with other list changes, or to the entrants sub-collection when this event uses sharded
+     * storage.
+     */
+    private void writeMove(DocumentReference docRef, EntrantStatus status, String userID,
+                           OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
+        if (shardedEntrants) {
+            ShardedEntrantStore.getInstance().move(docRef, userID, status)
+                    .addOnSuccessListener(onSuccess)
+                    .addOnFailureListener(onFailure);
             return;
         }
+        EventMutationQueue.forDocument(docRef).move(userID, status, written(onSuccess, onFailure));
+    }
 
-        // Find the document where eventID == this.eventID
-        db.collection("events")
-                .whereEqualTo("eventID", this.eventID)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
+    /**
+     * Writes an entrant's removal from one list through the event's
+     * {@link EventMutationQueue}, or to the entrants sub-collection when this event uses
+     * sharded storage.
+     */
+    private void writeRemove(DocumentReference docRef, EntrantStatus status, String userID,
+                             OnSuccessListener<Void> onSuccess, OnFailureListener onFailure) {
+        if (shardedEntrants) {
+            ShardedEntrantStore.getInstance().remove(docRef, userID, status)
+                    .addOnSuccessListener(onSuccess)
+                    .addOnFailureListener(onFailure);
+            return;
+        }
+        EventMutationQueue.forDocument(docRef).remove(userID, status, written(onSuccess, onFailure));
+    }
 
-                    if (querySnapshot.isEmpty()) {
-                        Log.w("Event", "No event document found matching eventID=" + this.eventID);
-                        return;
-                    }
+    private static EventMutationQueue.OnWrittenListener written(OnSuccessListener<Void> onSuccess,
+                                                                OnFailureListener onFailure) {
+        return new EventMutationQueue.OnWrittenListener() {
+            @Override
+            public void onWritten() {
+                onSuccess.onSuccess(null);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                onFailure.onFailure(e);
+            }
+        };
+    }
 
-                    // We expect exactly 1 document
-                    String docId = querySnapshot.getDocuments().get(0).getId();
+    /**
+     * Returns the entrantID -> status index, rebuilding it from the lists if it was dropped.
+     * An entrant found in several lists, as in documents written before lists were kept
+     * exclusive, gets the latest stage.
+     */
+    private Map<String, EntrantStatus> statusIndex() {
+        if (statusByEntrant == null) {
+            Map<String, EntrantStatus> index = new HashMap<>();
+            for (EntrantStatus status : EntrantStatus.values()) {
+                List<String> list = getEntrantList(status);
+                if (list == null) continue;
+                for (String id : list) index.put(id, status);
+            }
+            statusByEntrant = index;
+        }
+        return statusByEntrant;
+    }
 
-                    // Step 2: Remove the user from waitingEntrants using arrayRemove
-                    db.collection("events")
-                            .document(docId)
-                            .update("entrantLocations", FieldValue.arrayRemove(location))
-                            .addOnSuccessListener(aVoid ->
-                                    Log.d("Event", "Successfully removed " + location + " from entrantLocations in Firebase")
-                            )
-                            .addOnFailureListener(e ->
-                                    Log.e("Event", "Error updating entrantLocations", e)
-                            );
+    /**
+     * Tells the attached listener that a whole entrant list is being replaced.
+     */
+    private void notifyListReplaced(EntrantStatus status, List<String> oldList, List<String> newList) {
+        if (entrantListsListener == null) return;
+        if (oldList != null) {
+            for (String id : oldList) entrantListsListener.onEntrantRemoved(this, status, id);
+        }
+        if (newList != null) {
+            for (String id : newList) entrantListsListener.onEntrantAdded(this, status, id);
+        }
+    }
 
-                })
-                .addOnFailureListener(e ->
-                        Log.e("Event", "Failed to query event document by eventID", e)
-                );
+    /**
+     * Copies a list into an {@link EntrantSet}, reusing it if it already is one.
+     */
+    private static List<String> toEntrantSet(List<String> entrants) {
+        if (entrants == null || entrants instanceof EntrantSet) return entrants;
+        return new EntrantSet(entrants);
     }
 
     /**
@@ -787,6 +901,21 @@ public class Event implements Serializable {
      */
     public int getOptionalWaitingListSize() { return this.optionalWaitingListSize; }
 
+    /**
+     * @return when the lottery was first drawn, or {@code null} if it has not been drawn yet
+     */
+    public Date getLotteryDrawnAt() {
+        return this.lotteryDrawnAt;
+    }
+
+    /**
+     * @return whether entrants are stored in the entrants sub-collection rather than in the
+     *         arrays on this document; if so the local lists only hold the pages loaded so far
+     */
+    public boolean isShardedEntrants() {
+        return this.shardedEntrants;
+    }
+
     /**
      * @return ArrayList<LatLng> list of locations of all entrants (may be empty)
      */
@@ -820,31 +949,65 @@ public class Event implements Serializable {
     /**
      * @return invited entrants list
      */
-    public ArrayList<String> getInvitedEntrants() {
+    public List<String> getInvitedEntrants() {
         return this.invitedEntrants;
     }
 
     /**
      * @return waiting entrants list
      */
-    public ArrayList<String> getWaitingEntrants() {
+    public List<String> getWaitingEntrants() {
         return this.waitingEntrants;
     }
 
     /**
      * @return enrolled entrants list
      */
-    public ArrayList<String> getEnrolledEntrants() {
+    public List<String> getEnrolledEntrants() {
         return this.enrolledEntrants;
     }
 
     /**
      * @return cancelled entrants list
      */
-    public ArrayList<String> getCancelledEntrants() {
+    public List<String> getCancelledEntrants() {
         return this.cancelledEntrants;
     }
 
+    /**
+     * Returns which list an entrant is in, in O(1).
+     * <p>
+     * The index is kept up to date by this event's mutators and setters. Changing a list
+     * returned by a getter directly is not reflected until the list is set again.
+     *
+     * @param entrantID entrant to look up
+     * @return the entrant's status, or {@code null} if the entrant is in none of the lists
+     */
+    public EntrantStatus getStatus(String entrantID) {
+        if (entrantID == null) return null;
+        return statusIndex().get(entrantID);
+    }
+
+    /**
+     * Returns the entrant list matching a status.
+     *
+     * @param status which list to return
+     * @return the matching entrant list
+     */
+    public List<String> getEntrantList(EntrantStatus status) {
+        switch (status) {
+            case WAITING:
+                return this.waitingEntrants;
+            case INVITED:
+                return this.invitedEntrants;
+            case ENROLLED:
+                return this.enrolledEntrants;
+            case CANCELLED:
+            default:
+                return this.cancelledEntrants;
+        }
+    }
+
     // -------------------- SETTERS --------------------
 
     /** @param organizer organizer user ID */
@@ -892,6 +1055,16 @@ public class Event implements Serializable {
         this.optionalWaitingListSize = optionalWaitingListSize;
     }
 
+    /** @param shardedEntrants whether entrants are stored in the entrants sub-collection */
+    public void setShardedEntrants(boolean shardedEntrants) {
+        this.shardedEntrants = shardedEntrants;
+    }
+
+    /** @param lotteryDrawnAt when the lottery was first drawn, or null */
+    public void setLotteryDrawnAt(Date lotteryDrawnAt) {
+        this.lotteryDrawnAt = lotteryDrawnAt;
+    }
+
     /** @param entrantLocations locations of all entrants */
     public void setEntrantLocations(ArrayList<GeoPoint> entrantLocations) {
         this.entrantLocations = entrantLocations;
@@ -909,32 +1082,55 @@ public class Event implements Serializable {
         // Store in Firebase
         FirebaseFirestore db = FirebaseFirestore.getInstance();
 
-        db.collection("events")
-                .whereEqualTo("eventID", eventID)
-                .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // Get the first matching document
-                        DocumentSnapshot document = queryDocumentSnapshots.getDocuments().get(0);
-                        String documentId = document.getId();
-
-                        // Now update using the actual document ID
-                        db.collection("events")
-                                .document(documentId)
-                                .update("poster.data", poster.getData())
-                                .addOnSuccessListener(aVoid -> {
-                                    Log.d("Firestore", "Poster data updated successfully");
-                                })
-                                .addOnFailureListener(e -> {
-                                    Log.e("Firestore", "Error updating poster data", e);
-                                });
-                    } else {
-                        Log.d("Firestore", "No event found with that eventID");
-                    }
+        withEventDocument(db, "setPoster", docRef -> docRef
+                .update("poster.data", poster.getData())
+                .addOnSuccessListener(aVoid -> {
+                    Log.d("Firestore", "Poster data updated successfully");
                 })
                 .addOnFailureListener(e -> {
-                    Log.e("Firestore", "Error querying events", e);
-                });
+                    Log.e("Firestore", "Error updating poster data", e);
+                }));
+    }
+
+    /**
+     * Sets the poster without writing it to Firestore, for events rebuilt from a local copy
+     * such as {@link OfflineStore}.
+     *
+     * @param poster poster object
+     */
+    void restorePoster(Poster poster) {
+        this.poster = poster;
+    }
+
+    /**
+     * Puts an entrant into one of the local lists without writing to Firestore, for sharded
+     * events whose lists are not on the document, such as those found by
+     * {@link ShardedEntrantStore#loadMemberships}.
+     *
+     * @param userID user ID to place
+     * @param status list to place it in
+     */
+    void restoreEntrantStatus(String userID, EntrantStatus status) {
+        addToEntrantList(status, userID);
+    }
+
+    /**
+     * Sets how this event's lottery picks entrants, e.g. a {@link WeightedSamplingStrategy} for
+     * priority tiers. Used by every {@link LotterySampler} made with
+     * {@link LotterySampler#forEvent}, including the automatic refill when an invited or enrolled
+     * entrant is removed. Kept in memory only.
+     *
+     * @param strategy strategy to use, or {@code null} for uniform draws
+     */
+    public void useSamplingStrategy(SamplingStrategy strategy) {
+        this.samplingStrategy = strategy;
+    }
+
+    /**
+     * @return the strategy set with {@link #useSamplingStrategy}, or {@code null} for uniform draws
+     */
+    SamplingStrategy samplingStrategy() {
+        return samplingStrategy;
     }
 
     /** @param tags tag list */
@@ -943,22 +1139,30 @@ public class Event implements Serializable {
     }
 
     /** @param invitedEntrants invited entrants list */
-    public void setInvitedEntrantsList(ArrayList<String> invitedEntrants) {
+    public void setInvitedEntrantsList(List<String> invitedEntrants) {
+        notifyListReplaced(EntrantStatus.INVITED, this.invitedEntrants, invitedEntrants);
         this.invitedEntrants = invitedEntrants;
+        this.statusByEntrant = null;
     }
 
     /** @param waitingEntrants waiting entrants list */
-    public void setWaitingEntrants(ArrayList<String> waitingEntrants) {
+    public void setWaitingEntrants(List<String> waitingEntrants) {
+        notifyListReplaced(EntrantStatus.WAITING, this.waitingEntrants, waitingEntrants);
         this.waitingEntrants = waitingEntrants;
+        this.statusByEntrant = null;
     }
 
     /** @param enrolledEntrants enrolled entrants list */
-    public void setEnrolledEntrantsList(ArrayList<String> enrolledEntrants) {
+    public void setEnrolledEntrantsList(List<String> enrolledEntrants) {
+        notifyListReplaced(EntrantStatus.ENROLLED, this.enrolledEntrants, enrolledEntrants);
         this.enrolledEntrants = enrolledEntrants;
+        this.statusByEntrant = null;
     }
 
     /** @param cancelledEntrants cancelled entrants list */
-    public void setCancelledEntrantsList(ArrayList<String> cancelledEntrants) {
-        this.cancelledEntrants = cancelledEntrants;;
+    public void setCancelledEntrantsList(List<String> cancelledEntrants) {
+        notifyListReplaced(EntrantStatus.CANCELLED, this.cancelledEntrants, cancelledEntrants);
+        this.cancelledEntrants = cancelledEntrants;
+        this.statusByEntrant = null;
     }
 }
@@ -0,0 +1,167 @@
+package com.example.haboob;
+
+import android.util.Log;
+
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code EventDocumentCache} remembers which Firestore document backs each {@link Event}.
+ * <p>
+ * An event's {@code eventID} is a UUID stored as a field, not the Firestore document ID, so
+ * every write used to start with a {@code whereEqualTo("eventID", ...)} query. This cache maps
+ * {@code eventID} to document ID so writes can go straight to {@code document(docId)}.
+ * <p>
+ * Entries are added when events are deserialized in {@link EventsList#loadEventsList} and when
+ * {@link EventsList#addEvent} succeeds. On a cache miss {@link #resolve} falls back to the
+ * {@code eventID} query once and remembers the answer.
+ * <p>
+ * Hit and miss counts are kept so the cache's effect can be checked with {@link #getHitRate()}.
+ */
+public final class EventDocumentCache {
+
+    /** Name of the Firestore collection holding events. */
+    private static final String EVENTS_COLLECTION = "events";
+
+    /** eventID field value -> Firestore document ID. */
+    private static final Map<String, String> documentIds = new ConcurrentHashMap<>();
+
+    /** Number of resolutions served from the cache. */
+    private static final AtomicLong hits = new AtomicLong();
+
+    /** Number of resolutions that needed the fallback query. */
+    private static final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Callback for {@link #resolve}.
+     */
+    public interface OnDocumentResolvedListener {
+        /**
+         * Called with the reference of the event's backing document.
+         *
+         * @param docRef reference to {@code events/{docId}}
+         */
+        void onResolved(DocumentReference docRef);
+
+        /**
+         * Called when the document could not be found or the fallback query failed.
+         *
+         * @param e cause of the failure
+         */
+        void onError(Exception e);
+    }
+
+    private EventDocumentCache() {
+        // Static helper only
+    }
+
+    /**
+     * Records the Firestore document ID backing an event.
+     *
+     * @param eventID    the event's {@code eventID} field value
+     * @param documentId the Firestore document ID
+     */
+    public static void put(String eventID, String documentId) {
+        if (eventID == null || eventID.isEmpty() || documentId == null || documentId.isEmpty()) {
+            return;
+        }
+        documentIds.put(eventID, documentId);
+    }
+
+    /**
+     * Returns the cached document ID for an event without touching the hit/miss counters.
+     *
+     * @param eventID the event's {@code eventID} field value
+     * @return the document ID, or {@code null} if it is not cached
+     */
+    public static String peek(String eventID) {
+        if (eventID == null) return null;
+        return documentIds.get(eventID);
+    }
+
+    /**
+     * Forgets the document ID for an event, e.g. after the event is deleted.
+     *
+     * @param eventID the event's {@code eventID} field value
+     */
+    public static void invalidate(String eventID) {
+        if (eventID == null) return;
+        documentIds.remove(eventID);
+    }
+
+    /**
+     * Resolves the document reference for an event.
+     * <p>
+     * A cached entry is returned immediately. Otherwise a single {@code eventID} query runs and
+     * its result is cached for later calls.
+     *
+     * @param db       Firestore instance to use
+     * @param eventID  the event's {@code eventID} field value
+     * @param listener receives the reference or the failure
+     */
+    public static void resolve(FirebaseFirestore db, String eventID, OnDocumentResolvedListener listener) {
+        String documentId = documentIds.get(eventID);
+        if (documentId != null) {
+            hits.incrementAndGet();
+            listener.onResolved(db.collection(EVENTS_COLLECTION).document(documentId));
+            return;
+        }
+
+        misses.incrementAndGet();
+        Log.d("EventDocumentCache", "Cache miss for eventID=" + eventID
+                + " (hits=" + hits.get() + ", misses=" + misses.get()
+                + ", hit rate=" + Math.round(getHitRate() * 100) + "%)");
+
+        db.collection(EVENTS_COLLECTION)
+                .whereEqualTo("eventID", eventID)
+                .limit(1)
+                .get()
+                .addOnSuccessListener(querySnapshot -> {
+                    if (querySnapshot.isEmpty()) {
+                        listener.onError(new IllegalStateException("No event found with eventID: " + eventID));
+                        return;
+                    }
+                    DocumentSnapshot doc = querySnapshot.getDocuments().get(0);
+                    documentIds.put(eventID, doc.getId());
+                    listener.onResolved(doc.getReference());
+                })
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * @return number of resolutions served from the cache
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return number of resolutions that needed the fallback query
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return fraction of resolutions served from the cache, or 0 if nothing was resolved yet
+     */
+    public static double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    /**
+     * Clears all cached entries and counters. Intended for tests.
+     */
+    public static void clear() {
+        documentIds.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.haboob;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code EventIndex} keeps hash indexes over a collection of {@link Event}s so that
+ * {@link EventsList} lookups do not have to scan every event.
+ * <p>
+ * Three indexes are maintained:
+ * <ul>
+ *   <li>eventID → event</li>
+ *   <li>organizerID → eventIDs</li>
+ *   <li>entrantID → eventIDs, split by {@link EntrantStatus}</li>
+ * </ul>
+ * The index registers itself as each event's {@link Event.OnEntrantListsChangedListener},
+ * so joins, leaves and lottery moves made through {@link Event}'s mutators are reflected
+ * without a rebuild.
+ * <p>
+ * It also remembers where each event sits in the indexed list, so {@link EventsList} can
+ * replace or remove an event without scanning for it. A removal shifts the events after it,
+ * so their positions are only marked stale and recomputed in one pass on the next lookup
+ * that needs them; a burst of removals costs one pass, not one per removal.
+ */
+public class EventIndex implements Event.OnEntrantListsChangedListener {
+
+    /** eventID -> event. */
+    private final Map<String, Event> eventsById = new HashMap<>();
+
+    /** organizerID -> eventIDs, in indexing order. */
+    private final Map<String, Set<String>> eventIdsByOrganizer = new HashMap<>();
+
+    /** entrantID -> list type -> eventIDs, in indexing order. */
+    private final Map<String, EnumMap<EntrantStatus, Set<String>>> eventIdsByEntrant = new HashMap<>();
+
+    /** eventID -> position in the indexed list; only trusted below {@link #positionsValidBelow}. */
+    private final Map<String, Integer> positionById = new HashMap<>();
+
+    /** Positions at or after this one may have shifted since they were recorded. */
+    private int positionsValidBelow;
+
+    /**
+     * Replaces the contents of the index with the given events.
+     *
+     * @param events events to index; {@code null} entries are skipped
+     */
+    public void rebuild(List<Event> events) {
+        clear();
+        for (int i = 0; i < events.size(); i++) {
+            add(events.get(i), i);
+        }
+        positionsValidBelow = events.size();
+    }
+
+    /**
+     * Removes every event from the index and detaches from them.
+     */
+    public void clear() {
+        for (Event e : eventsById.values()) {
+            e.detachEntrantListsListener(this);
+        }
+        eventsById.clear();
+        eventIdsByOrganizer.clear();
+        eventIdsByEntrant.clear();
+        positionById.clear();
+        positionsValidBelow = 0;
+    }
+
+    /**
+     * @return number of indexed events
+     */
+    public int size() {
+        return eventsById.size();
+    }
+
+    /**
+     * Indexes an event. If another event with the same eventID is already indexed, the
+     * existing one is kept, matching the first-match behaviour of a linear scan.
+     *
+     * @param e event to index
+     */
+    public void add(Event e) {
+        if (e == null || e.getEventID() == null) return;
+        String eventID = e.getEventID();
+        if (eventsById.containsKey(eventID)) return;
+
+        eventsById.put(eventID, e);
+        if (e.getOrganizer() != null) {
+            setFor(eventIdsByOrganizer, e.getOrganizer()).add(eventID);
+        }
+        for (EntrantStatus status : EntrantStatus.values()) {
+            List<String> entrants = e.getEntrantList(status);
+            if (entrants == null) continue;
+            for (String entrantID : entrants) {
+                onEntrantAdded(e, status, entrantID);
+            }
+        }
+        e.attachEntrantListsListener(this);
+    }
+
+    /**
+     * Indexes an event that sits at {@code position} in the indexed list, as {@link #add(Event)}.
+     *
+     * @param e        event to index
+     * @param position where the event is in the list
+     */
+    public void add(Event e, int position) {
+        add(e);
+        if (e == null || get(e.getEventID()) != e) return;
+        positionById.put(e.getEventID(), position);
+        if (position == positionsValidBelow) positionsValidBelow++;
+    }
+
+    /**
+     * Records that the list entry at {@code position} was removed, so the entries after it
+     * have moved up by one. Call it after {@link #remove} for the event that was there.
+     *
+     * @param position where the removed entry was
+     */
+    public void removedAt(int position) {
+        positionsValidBelow = Math.min(positionsValidBelow, position);
+    }
+
+    /**
+     * Finds where an indexed event sits in the indexed list. Costs O(1) unless an earlier
+     * removal shifted it, in which case the shifted positions are recomputed once.
+     *
+     * @param e    an indexed event
+     * @param list the list this index was built from
+     * @return the event's position, or -1 if it is not indexed
+     */
+    public int positionOf(Event e, List<Event> list) {
+        if (e == null || get(e.getEventID()) != e) return -1;
+        Integer position = positionById.get(e.getEventID());
+        if (position == null || position >= positionsValidBelow) {
+            for (int i = positionsValidBelow; i < list.size(); i++) {
+                Event at = list.get(i);
+                if (at != null && at.getEventID() != null && get(at.getEventID()) == at) {
+                    positionById.put(at.getEventID(), i);
+                }
+            }
+            positionsValidBelow = list.size();
+            position = positionById.get(e.getEventID());
+        }
+        return position != null && position < list.size() && list.get(position) == e ? position : -1;
+    }
+
+    /**
+     * Removes an event from every index and stops listening to it.
+     *
+     * @param e event to remove
+     */
+    public void remove(Event e) {
+        if (e == null || e.getEventID() == null) return;
+        String eventID = e.getEventID();
+        if (eventsById.get(eventID) != e) return;
+
+        eventsById.remove(eventID);
+        positionById.remove(eventID);
+        Set<String> organizerEvents = eventIdsByOrganizer.get(e.getOrganizer());
+        if (organizerEvents != null) {
+            organizerEvents.remove(eventID);
+            if (organizerEvents.isEmpty()) eventIdsByOrganizer.remove(e.getOrganizer());
+        }
+        for (EntrantStatus status : EntrantStatus.values()) {
+            List<String> entrants = e.getEntrantList(status);
+            if (entrants == null) continue;
+            for (String entrantID : entrants) {
+                onEntrantRemoved(e, status, entrantID);
+            }
+        }
+        e.detachEntrantListsListener(this);
+    }
+
+    /**
+     * @param eventID event identifier
+     * @return the indexed event, or {@code null}
+     */
+    public Event get(String eventID) {
+        if (eventID == null) return null;
+        return eventsById.get(eventID);
+    }
+
+    /**
+     * @param organizerID organizer identifier
+     * @return events created by the organizer
+     */
+    public ArrayList<Event> getOrganizerEvents(String organizerID) {
+        return resolve(eventIdsByOrganizer.get(organizerID));
+    }
+
+    /**
+     * @param entrantID entrant identifier
+     * @param status    which entrant list to look in
+     * @return events whose {@code status} list contains the entrant
+     */
+    public ArrayList<Event> getEntrantEvents(String entrantID, EntrantStatus status) {
+        EnumMap<EntrantStatus, Set<String>> byStatus = eventIdsByEntrant.get(entrantID);
+        return resolve(byStatus != null ? byStatus.get(status) : null);
+    }
+
+    @Override
+    public void onEntrantAdded(Event event, EntrantStatus status, String entrantID) {
+        if (entrantID == null || event.getEventID() == null) return;
+        EnumMap<EntrantStatus, Set<String>> byStatus = eventIdsByEntrant.get(entrantID);
+        if (byStatus == null) {
+            byStatus = new EnumMap<>(EntrantStatus.class);
+            eventIdsByEntrant.put(entrantID, byStatus);
+        }
+        Set<String> ids = byStatus.get(status);
+        if (ids == null) {
+            ids = new LinkedHashSet<>();
+            byStatus.put(status, ids);
+        }
+        ids.add(event.getEventID());
+    }
+
+    @Override
+    public void onEntrantRemoved(Event event, EntrantStatus status, String entrantID) {
+        EnumMap<EntrantStatus, Set<String>> byStatus = eventIdsByEntrant.get(entrantID);
+        if (byStatus == null) return;
+        Set<String> ids = byStatus.get(status);
+        if (ids == null) return;
+        ids.remove(event.getEventID());
+        if (ids.isEmpty()) byStatus.remove(status);
+        if (byStatus.isEmpty()) eventIdsByEntrant.remove(entrantID);
+    }
+
+    // -------------------- Helpers --------------------
+
+    private ArrayList<Event> resolve(Set<String> eventIds) {
+        ArrayList<Event> out = new ArrayList<>();
+        if (eventIds == null) return out;
+        for (String id : eventIds) {
+            Event e = eventsById.get(id);
+            if (e != null) out.add(e);
+        }
+        return out;
+    }
+
+    private static Set<String> setFor(Map<String, Set<String>> map, String key) {
+        Set<String> set = map.get(key);
+        if (set == null) {
+            set = new LinkedHashSet<>();
+            map.put(key, set);
+        }
+        return set;
+    }
+}
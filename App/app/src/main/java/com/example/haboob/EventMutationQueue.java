@@ -0,0 +1,538 @@
+package com.example.haboob;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code EventMutationQueue} collects the entrant list changes {@link Event} makes to one event
+ * document and writes them together.
+ * <p>
+ * Changes queued within a flush window ({@link #DEFAULT_FLUSH_WINDOW_MS}) are coalesced per
+ * entrant, so join-then-leave or accept-then-cancel only writes the end result, and all
+ * entrants' changes go out as one transaction. Each list field takes a single
+ * {@code arrayUnion} or {@code arrayRemove} per update, so a flush that both adds to and
+ * removes from a list holds a second update for the removals; the batch is still one atomic
+ * commit.
+ * <p>
+ * The transaction reads the event document first, because a copy of the event loaded before
+ * {@link ShardedEntrantStore#migrate} moved its entrants still writes here, and array updates
+ * to a migrated document would be lost. If the document turns out to be sharded, the batch is
+ * written through {@link ShardedEntrantStore} instead, one entrant at a time, and so is every
+ * later batch of the queue.
+ * <p>
+ * At most one batch is in flight per document, and changes queued meanwhile wait for it, so
+ * writes land in the order they were made. A failed batch is merged with anything queued since
+ * (newer changes win) and retried with exponential backoff, up to {@link #MAX_ATTEMPTS} times
+ * for errors that can succeed on retry; after that the changes' listeners get the error.
+ * {@link #getPendingCount}, {@link #getInFlightCount} and {@link #getFailedAttempts} report the
+ * queue's state for diagnostics.
+ * <p>
+ * A queue obtained from {@link #forDocument} leaves the registry once it is idle, with nothing
+ * pending or in flight, so events the app no longer touches do not keep one alive. Changes
+ * handed to a queue after that go to whichever queue now serves its document.
+ * <p>
+ * Public methods are thread-safe. Listeners are called on the thread that completes the
+ * commit (the main thread for Firestore).
+ */
+public final class EventMutationQueue {
+
+    /** Default time changes wait for others to join them before a flush. */
+    static final long DEFAULT_FLUSH_WINDOW_MS = 250;
+
+    /** Backoff before the first retry; doubled on each further failure. */
+    static final long INITIAL_BACKOFF_MS = 500;
+
+    /** Longest backoff between retries. */
+    static final long MAX_BACKOFF_MS = 30_000;
+
+    /** Commits tried per batch before its changes are dropped. */
+    static final int MAX_ATTEMPTS = 6;
+
+    private static final Map<DocumentReference, EventMutationQueue> queues = new HashMap<>();
+    private static ScheduledExecutorService sharedTimer;
+
+    private final DocumentReference docRef;
+    private final ScheduledExecutorService timer;
+    private final long flushWindowMs;
+    private final ShardedEntrantStore store;
+
+    /** Set once the document is known to use sharded entrant storage. */
+    private boolean sharded;
+
+    /** Changes not yet sent; entrantID -> wanted membership of each list it touches. */
+    private Changes pending = new Changes();
+
+    /** The batch being committed or waiting to be retried, or null. */
+    private Changes inFlight;
+
+    private ScheduledFuture<?> scheduledFlush;
+
+    /** Set once the queue has left the registry; later changes go to its replacement. */
+    private boolean retired;
+
+    /** Actions waiting for every queued change to be written. */
+    private final List<Runnable> idleWaiters = new ArrayList<>();
+
+    /**
+     * Told when a queued change has been written, or dropped after its last retry.
+     */
+    public interface OnWrittenListener {
+        void onWritten();
+
+        void onError(Exception e);
+    }
+
+    /**
+     * @return the queue for an event document, created on first use
+     */
+    public static synchronized EventMutationQueue forDocument(DocumentReference docRef) {
+        EventMutationQueue queue = queues.get(docRef);
+        if (queue == null) {
+            if (sharedTimer == null) {
+                sharedTimer = Executors.newSingleThreadScheduledExecutor();
+            }
+            queue = new EventMutationQueue(docRef, sharedTimer, DEFAULT_FLUSH_WINDOW_MS);
+            queues.put(docRef, queue);
+        }
+        return queue;
+    }
+
+    /**
+     * @return changes waiting in every queue, before coalescing
+     */
+    public static synchronized int getTotalPendingCount() {
+        int total = 0;
+        for (EventMutationQueue queue : queues.values()) total += queue.getPendingCount();
+        return total;
+    }
+
+    /**
+     * Creates a queue.
+     *
+     * @param docRef        the event document written to
+     * @param timer         runs flushes and retries
+     * @param flushWindowMs how long a change waits for others before a flush
+     */
+    EventMutationQueue(DocumentReference docRef, ScheduledExecutorService timer, long flushWindowMs) {
+        this(docRef, timer, flushWindowMs, ShardedEntrantStore.getInstance());
+    }
+
+    /**
+     * Creates a queue.
+     *
+     * @param docRef        the event document written to
+     * @param timer         runs flushes and retries
+     * @param flushWindowMs how long a change waits for others before a flush
+     * @param store         writes the changes once the document turns out to be sharded
+     */
+    EventMutationQueue(DocumentReference docRef, ScheduledExecutorService timer, long flushWindowMs,
+                       ShardedEntrantStore store) {
+        this.docRef = docRef;
+        this.timer = timer;
+        this.flushWindowMs = flushWindowMs;
+        this.store = store;
+    }
+
+    /**
+     * Queues putting an entrant in the list for {@code status} and taking it out of the others.
+     *
+     * @param entrantID entrant to move
+     * @param status    list the entrant ends up in
+     * @param listener  told once the change is written; may be null
+     */
+    public void move(String entrantID, EntrantStatus status, @Nullable OnWrittenListener listener) {
+        synchronized (this) {
+            if (!retired) {
+                pending.move(entrantID, status, listener);
+                scheduleFlush(flushWindowMs);
+                return;
+            }
+        }
+        forDocument(docRef).move(entrantID, status, listener);
+    }
+
+    /**
+     * Queues taking an entrant out of the list for {@code status}.
+     *
+     * @param entrantID entrant to remove
+     * @param status    list to remove the entrant from
+     * @param listener  told once the change is written; may be null
+     */
+    public void remove(String entrantID, EntrantStatus status, @Nullable OnWrittenListener listener) {
+        synchronized (this) {
+            if (!retired) {
+                pending.remove(entrantID, status, listener);
+                scheduleFlush(flushWindowMs);
+                return;
+            }
+        }
+        forDocument(docRef).remove(entrantID, status, listener);
+    }
+
+    /**
+     * Sends the queued changes now rather than at the end of the flush window. Does nothing
+     * while a batch is in flight; the changes go once it completes.
+     */
+    public void flushNow() {
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+        flush();
+    }
+
+    /**
+     * Runs {@code action} once every change queued so far has been written (or dropped), so a
+     * transaction that reads the document sees them. Runs it right away if nothing is queued.
+     *
+     * @param action runs on the calling thread or the thread that completes the last commit
+     */
+    public void whenFlushed(Runnable action) {
+        boolean moved;
+        synchronized (this) {
+            moved = retired;
+            if (!moved && (inFlight != null || !pending.isEmpty())) {
+                idleWaiters.add(action);
+                action = null;
+            }
+        }
+        if (moved) {
+            forDocument(docRef).whenFlushed(action);
+        } else if (action != null) {
+            action.run();
+            retireIfIdle();
+        } else {
+            flushNow();
+        }
+    }
+
+    /**
+     * @return changes queued for the next flush, before coalescing
+     */
+    public synchronized int getPendingCount() {
+        return pending.operations;
+    }
+
+    /**
+     * @return changes in the batch being committed or waiting to be retried
+     */
+    public synchronized int getInFlightCount() {
+        return inFlight != null ? inFlight.operations : 0;
+    }
+
+    /**
+     * @return failed commits of the current batch, or 0 if none has failed
+     */
+    public synchronized int getFailedAttempts() {
+        return inFlight != null ? inFlight.attempts : 0;
+    }
+
+    // -------------------- Flushing --------------------
+
+    /** Schedules a flush unless one is scheduled or a batch is in flight. Caller holds the lock. */
+    private void scheduleFlush(long delayMs) {
+        if (scheduledFlush != null || inFlight != null || pending.isEmpty()) return;
+        scheduledFlush = timer.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void flush() {
+        Changes batch;
+        synchronized (this) {
+            scheduledFlush = null;
+            if (inFlight != null || pending.isEmpty()) return;
+            batch = pending;
+            pending = new Changes();
+            inFlight = batch;
+        }
+        commit(batch);
+    }
+
+    private void commit(Changes batch) {
+        synchronized (this) {
+            if (sharded) {
+                reroute(batch);
+                return;
+            }
+        }
+        List<Map<String, Object>> updates = batch.toUpdates();
+        docRef.getFirestore().runTransaction((Transaction.Function<Void>) transaction -> {
+            DocumentSnapshot snapshot = transaction.get(docRef);
+            if (Boolean.TRUE.equals(snapshot.getBoolean(Event.SHARDED_ENTRANTS_FIELD))) {
+                throw new ShardedEntrantStore.ShardedEventException();
+            }
+            for (Map<String, Object> update : updates) {
+                transaction.update(docRef, update);
+            }
+            return null;
+        }).addOnSuccessListener(aVoid -> onCommitted(batch))
+                .addOnFailureListener(e -> {
+                    if (e instanceof ShardedEntrantStore.ShardedEventException) {
+                        synchronized (this) {
+                            sharded = true;
+                        }
+                        reroute(batch);
+                    } else {
+                        onFailed(batch, e);
+                    }
+                });
+    }
+
+    /**
+     * Writes a batch through {@link ShardedEntrantStore}: each entrant is moved to the list it
+     * was last put in, or taken out of the lists it was last removed from. The batch counts as
+     * committed once every write has, and as failed otherwise; a retry only repeats writes that
+     * have no effect yet, since the store skips entrants already in place.
+     */
+    private void reroute(Changes batch) {
+        List<Task<Void>> writes = new ArrayList<>();
+        for (Map.Entry<String, Map<EntrantStatus, Boolean>> entry : batch.membership.entrySet()) {
+            EntrantStatus target = null;
+            for (Map.Entry<EntrantStatus, Boolean> list : entry.getValue().entrySet()) {
+                if (list.getValue()) target = list.getKey();
+            }
+            if (target != null) {
+                writes.add(store.move(docRef, entry.getKey(), target));
+            } else {
+                for (EntrantStatus status : entry.getValue().keySet()) {
+                    writes.add(store.remove(docRef, entry.getKey(), status));
+                }
+            }
+        }
+        if (writes.isEmpty()) {
+            onCommitted(batch);
+            return;
+        }
+
+        int[] remaining = {writes.size()};
+        Exception[] failure = {null};
+        for (Task<Void> write : writes) {
+            write.addOnSuccessListener(aVoid -> onRerouted(batch, remaining, failure, null))
+                    .addOnFailureListener(e -> onRerouted(batch, remaining, failure, e));
+        }
+    }
+
+    private void onRerouted(Changes batch, int[] remaining, Exception[] failure, @Nullable Exception e) {
+        synchronized (this) {
+            if (e != null && failure[0] == null) failure[0] = e;
+            if (--remaining[0] > 0) return;
+        }
+        if (failure[0] == null) {
+            onCommitted(batch);
+        } else {
+            onFailed(batch, failure[0]);
+        }
+    }
+
+    private void onCommitted(Changes batch) {
+        List<Runnable> waiters;
+        synchronized (this) {
+            inFlight = null;
+            waiters = batchDone();
+        }
+        for (OnWrittenListener listener : batch.listeners) listener.onWritten();
+        for (Runnable waiter : waiters) waiter.run();
+        retireIfIdle();
+    }
+
+    private void onFailed(Changes batch, Exception e) {
+        boolean retry;
+        List<Runnable> waiters = new ArrayList<>();
+        synchronized (this) {
+            batch.attempts++;
+            retry = batch.attempts < MAX_ATTEMPTS && isRetryable(e);
+            if (retry) {
+                // Changes queued since go out with the retry, on top of the failed ones
+                batch.addAll(pending);
+                pending = new Changes();
+            } else {
+                inFlight = null;
+                waiters = batchDone();
+            }
+        }
+
+        if (!retry) {
+            for (OnWrittenListener listener : batch.listeners) listener.onError(e);
+            for (Runnable waiter : waiters) waiter.run();
+            retireIfIdle();
+            return;
+        }
+        long backoffMs = Math.min(INITIAL_BACKOFF_MS << (batch.attempts - 1), MAX_BACKOFF_MS);
+        timer.schedule(() -> commit(batch), backoffMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Schedules the next flush after a batch completes, at once if someone is waiting for the
+     * queue to drain. Caller holds the lock.
+     *
+     * @return the waiters to run if the queue is now empty
+     */
+    private List<Runnable> batchDone() {
+        scheduleFlush(idleWaiters.isEmpty() ? flushWindowMs : 0);
+        if (!pending.isEmpty()) return new ArrayList<>();
+        List<Runnable> waiters = new ArrayList<>(idleWaiters);
+        idleWaiters.clear();
+        return waiters;
+    }
+
+    /**
+     * Takes the queue out of the registry if nothing is pending, in flight or waiting to flush.
+     * Queues created directly, outside {@link #forDocument}, are left alone.
+     */
+    private void retireIfIdle() {
+        synchronized (EventMutationQueue.class) {
+            synchronized (this) {
+                if (retired || queues.get(docRef) != this) return;
+                if (inFlight != null || !pending.isEmpty() || scheduledFlush != null) return;
+                if (!idleWaiters.isEmpty()) return;
+                retired = true;
+                queues.remove(docRef);
+            }
+        }
+    }
+
+    /**
+     * @return whether a commit that failed with {@code e} may succeed if tried again
+     */
+    static boolean isRetryable(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) return true;
+        switch (((FirebaseFirestoreException) e).getCode()) {
+            case ABORTED:
+            case CANCELLED:
+            case DEADLINE_EXCEEDED:
+            case INTERNAL:
+            case RESOURCE_EXHAUSTED:
+            case UNAVAILABLE:
+            case UNKNOWN:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // -------------------- Coalescing --------------------
+
+    /**
+     * A set of coalesced changes: for each entrant, whether it should end up in or out of
+     * each list it was moved through. Not thread-safe; guarded by the queue.
+     */
+    static final class Changes {
+        /** entrantID -> list -> true to add, false to remove; in first-change order. */
+        final Map<String, Map<EntrantStatus, Boolean>> membership = new LinkedHashMap<>();
+        final List<OnWrittenListener> listeners = new ArrayList<>();
+        int operations;
+        int attempts;
+
+        void move(String entrantID, EntrantStatus status, @Nullable OnWrittenListener listener) {
+            Map<EntrantStatus, Boolean> lists = listsOf(entrantID);
+            for (EntrantStatus other : EntrantStatus.values()) lists.put(other, other == status);
+            added(listener);
+        }
+
+        void remove(String entrantID, EntrantStatus status, @Nullable OnWrittenListener listener) {
+            listsOf(entrantID).put(status, false);
+            added(listener);
+        }
+
+        /** Applies {@code newer} on top of these changes. */
+        void addAll(Changes newer) {
+            for (Map.Entry<String, Map<EntrantStatus, Boolean>> entry : newer.membership.entrySet()) {
+                listsOf(entry.getKey()).putAll(entry.getValue());
+            }
+            listeners.addAll(newer.listeners);
+            operations += newer.operations;
+        }
+
+        boolean isEmpty() {
+            return membership.isEmpty();
+        }
+
+        /**
+         * @return entrants to add to each list, in first-change order
+         */
+        Map<EntrantStatus, LinkedHashSet<String>> added() {
+            return collect(true);
+        }
+
+        /**
+         * @return entrants to remove from each list, in first-change order
+         */
+        Map<EntrantStatus, LinkedHashSet<String>> removed() {
+            return collect(false);
+        }
+
+        /**
+         * Builds the document updates. A list gets its additions in the first update and, if
+         * it also has removals, those in a second; an entrant is never in both.
+         */
+        List<Map<String, Object>> toUpdates() {
+            Map<EntrantStatus, LinkedHashSet<String>> added = added();
+            Map<EntrantStatus, LinkedHashSet<String>> removed = removed();
+            Map<String, Object> first = new HashMap<>();
+            Map<String, Object> second = new HashMap<>();
+            for (EntrantStatus status : EntrantStatus.values()) {
+                LinkedHashSet<String> adds = added.get(status);
+                LinkedHashSet<String> removes = removed.get(status);
+                if (adds != null) {
+                    first.put(status.getFieldName(), FieldValue.arrayUnion(adds.toArray()));
+                    if (removes != null) second.put(status.getFieldName(), FieldValue.arrayRemove(removes.toArray()));
+                } else if (removes != null) {
+                    first.put(status.getFieldName(), FieldValue.arrayRemove(removes.toArray()));
+                }
+            }
+            List<Map<String, Object>> updates = new ArrayList<>(2);
+            if (!first.isEmpty()) updates.add(first);
+            if (!second.isEmpty()) updates.add(second);
+            return updates;
+        }
+
+        private Map<EntrantStatus, Boolean> listsOf(String entrantID) {
+            Map<EntrantStatus, Boolean> lists = membership.get(entrantID);
+            if (lists == null) {
+                lists = new EnumMap<>(EntrantStatus.class);
+                membership.put(entrantID, lists);
+            }
+            return lists;
+        }
+
+        private void added(@Nullable OnWrittenListener listener) {
+            if (listener != null) listeners.add(listener);
+            operations++;
+        }
+
+        private Map<EntrantStatus, LinkedHashSet<String>> collect(boolean inList) {
+            Map<EntrantStatus, LinkedHashSet<String>> byList = new EnumMap<>(EntrantStatus.class);
+            for (Map.Entry<String, Map<EntrantStatus, Boolean>> entry : membership.entrySet()) {
+                for (Map.Entry<EntrantStatus, Boolean> list : entry.getValue().entrySet()) {
+                    if (list.getValue() != inList) continue;
+                    LinkedHashSet<String> entrants = byList.get(list.getKey());
+                    if (entrants == null) {
+                        entrants = new LinkedHashSet<>();
+                        byList.put(list.getKey(), entrants);
+                    }
+                    entrants.add(entry.getKey());
+                }
+            }
+            return byList;
+        }
+    }
+}
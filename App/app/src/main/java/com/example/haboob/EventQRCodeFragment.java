@@ -33,7 +33,7 @@ import java.io.OutputStream;
  * to view and save the QR code image to their device.
  *
  * Features:
- * - Generates QR code from event ID
+ * - Generates QR code from event ID in the background, with a placeholder until it is ready
  * - Displays QR code image
  * - Saves QR code to device storage (Pictures/HaboobQRs)
  * - Handles navigation from both organizer and entrant views
@@ -69,7 +69,7 @@ public class EventQRCodeFragment extends Fragment {
     private MaterialToolbar toolbar;
 
     /**
-     * Bitmap representation of the generated QR code.
+     * Bitmap representation of the generated QR code, set once the full-size code is ready.
      */
     private Bitmap qrBitmap;
 
@@ -78,6 +78,16 @@ public class EventQRCodeFragment extends Fragment {
      */
     private Button saveQRButton;
 
+    /**
+     * Width and height of the displayed QR code in pixels.
+     */
+    private static final int QR_SIZE = 512;
+
+    /**
+     * QR code render in progress, cancelled when the view is destroyed.
+     */
+    private QRCode.RenderTask qrRender;
+
 
     /**
      * Required empty public constructor.
@@ -149,8 +159,9 @@ public class EventQRCodeFragment extends Fragment {
 
     /**
      * Generates and displays the QR code for the event.
-     * Creates a QRCode object with the event ID, generates a 512x512 pixel bitmap,
-     * and displays it in the ImageView. Handles errors gracefully with appropriate
+     * Creates a QRCode object with the event ID and renders its 512x512 pixel bitmap off the
+     * main thread, showing a low-resolution placeholder until it is ready. A bitmap already
+     * rendered in this process is shown at once. Handles errors gracefully with appropriate
      * user feedback.
      *
      * @param eventId The event ID to encode in the QR code
@@ -163,28 +174,44 @@ public class EventQRCodeFragment extends Fragment {
             return;
         }
 
-        try {
-            // Create QRCode object with the eventID
-            QRCode qrCode = new QRCode(eventId);
+        // Create QRCode object with the eventID
+        QRCode qrCode = new QRCode(eventId);
 
-            // Generate the QR code bitmap (512x512 pixels for good quality)
-            qrBitmap = qrCode.generateQRCode(512);
+        // Render the QR code bitmap (512x512 pixels for good quality)
+        qrRender = qrCode.renderAsync(QR_SIZE, new QRCode.OnQRCodeRenderedListener() {
+            @Override
+            public void onPlaceholder(Bitmap placeholder) {
+                qrCodeImageView.setImageBitmap(placeholder);
+                qrCodeImageView.setVisibility(View.VISIBLE);
+            }
 
-            if (qrBitmap != null) {
-                // Display the QR code
-                qrCodeImageView.setImageBitmap(qrBitmap);
+            @Override
+            public void onRendered(Bitmap bitmap) {
+                // Display the QR code; it can be saved from now on
+                qrBitmap = bitmap;
+                qrCodeImageView.setImageBitmap(bitmap);
                 qrCodeImageView.setVisibility(View.VISIBLE);
                 Log.d("EventQRCodeFragment", "QR code generated successfully for event: " + eventId);
-            } else {
-                Log.e("EventQRCodeFragment", "Failed to generate QR code bitmap");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e("EventQRCodeFragment", "Error generating QR code: " + e.getMessage());
                 qrCodeImageView.setVisibility(View.GONE);
-                Toast.makeText(getContext(), "Failed to generate QR code", Toast.LENGTH_SHORT).show();
+                Toast.makeText(getContext(), "Error generating QR code", Toast.LENGTH_SHORT).show();
             }
-        } catch (Exception e) {
-            Log.e("EventQRCodeFragment", "Error generating QR code: " + e.getMessage());
-            e.printStackTrace();
-            qrCodeImageView.setVisibility(View.GONE);
-            Toast.makeText(getContext(), "Error generating QR code", Toast.LENGTH_SHORT).show();
+        });
+    }
+
+    /**
+     * Cancels a QR code render that has not finished, so it does not touch the destroyed views.
+     */
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (qrRender != null) {
+            qrRender.cancel();
+            qrRender = null;
         }
     }
 
@@ -2,13 +2,24 @@ package com.example.haboob;
 
 import android.util.Log;
 
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * {@code EventsList} manages all {@link Event} objects in the Firestore "events" collection.
@@ -20,6 +31,21 @@ import java.util.List;
  *     <li>Filter or query locally loaded events by various attributes</li>
  * </ul>
  * <p>
+ * Lookups by eventID, organizer and entrant go through an {@link EventIndex} instead of
+ * scanning every event. The index is kept in sync by {@link #addEvent}, {@link #deleteEvent}
+ * and {@link Event}'s entrant list mutators, and is rebuilt on the next lookup if the list
+ * returned by {@link #getEventsList()} is changed directly.
+ * <p>
+ * Instead of reloading the whole collection, a screen can call {@link #startLiveSync} to
+ * attach a single snapshot listener. Each snapshot's {@link DocumentChange}s are applied to
+ * the in-memory list and index as deltas, and {@link OnEventsChangedListener}s are told
+ * which events were added, modified or removed.
+ * <p>
+ * Screens that only need one entrant's events can call {@link #loadEntrantEvents} instead,
+ * which asks Firestore for just the events whose entrant lists contain that entrant.
+ * Screens that list many events can page through the collection with a {@link Pager}
+ * from {@link #newPager} rather than loading all of it before showing anything.
+ * <p>
  * This class can be instantiated in two ways:
  * <ul>
  *     <li>Connected to Firestore (default constructor)</li>
@@ -30,7 +56,16 @@ import java.util.List;
 public class EventsList {
 
     /** List containing all events currently loaded in memory. */
-    private ArrayList<Event> eventsList;
+    private TrackedEventList eventsList;
+
+    /** Hash indexes over {@link #eventsList} used by the lookup methods. */
+    private final EventIndex index = new EventIndex();
+
+    /**
+     * Modification count of {@link #eventsList} that {@link #index} was last synced with.
+     * A mismatch means the list was changed directly through {@link #getEventsList()}.
+     */
+    private int indexedModCount = -1;
 
     /** Reference to Firestore database. */
     private FirebaseFirestore db;
@@ -41,6 +76,37 @@ public class EventsList {
     /** Flag indicating whether the events list has finished loading from Firestore. */
     private boolean isLoaded = false;
 
+    /** Registration of the live sync snapshot listener, or {@code null} when live sync is off. */
+    private ListenerRegistration liveSyncRegistration;
+
+    /** Listeners notified of the deltas applied by live sync. */
+    private final List<OnEventsChangedListener> changeListeners = new ArrayList<>();
+
+    /** Default number of events per page for {@link #newPager}. */
+    public static final int DEFAULT_PAGE_SIZE = 20;
+
+    /** Field pages are ordered by. */
+    private static final String PAGE_ORDER_FIELD = "registrationEndDate";
+
+    /** Entrant lists searched by {@link #loadEntrantEvents}, in the order results are merged. */
+    private static final EntrantStatus[] ENTRANT_QUERY_STATUSES = {
+            EntrantStatus.INVITED, EntrantStatus.WAITING, EntrantStatus.ENROLLED
+    };
+
+    /** Number of event documents read from Firestore by loads and live sync. */
+    private long documentReadCount = 0;
+
+    /**
+     * {@link ArrayList} that exposes its structural modification count, letting
+     * {@link EventsList} notice changes made through {@link #getEventsList()} and rebuild
+     * its index before the next lookup.
+     */
+    private static class TrackedEventList extends ArrayList<Event> {
+        int modCount() {
+            return modCount;
+        }
+    }
+
     /**
      * Callback interface for asynchronous Firestore operations.
      */
@@ -58,6 +124,69 @@ public class EventsList {
         void onError(Exception e);
     }
 
+    /**
+     * Callback interface for the deltas applied while live sync is running.
+     */
+    public interface OnEventsChangedListener {
+        /**
+         * Called after a snapshot's changes have been applied to the in-memory list.
+         * Lists are never {@code null}, and at least one of them is non-empty.
+         *
+         * @param added    events that were not in the list before
+         * @param modified new versions of events that were already in the list
+         * @param removed  events that were removed from the list
+         */
+        void onEventsChanged(List<Event> added, List<Event> modified, List<Event> removed);
+
+        /**
+         * Called when the snapshot listener fails. Firestore stops listening after an error,
+         * so live sync is turned off before this is called.
+         *
+         * @param e Exception thrown by Firestore
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * Callback interface for {@link #loadEntrantEvents}.
+     */
+    public interface OnEntrantEventsLoadedListener {
+        /**
+         * Called with the events whose invited, waiting or enrolled list contains the entrant.
+         * Each event appears once, even if the entrant is in more than one of its lists.
+         *
+         * @param events the entrant's events
+         */
+        void onEntrantEventsLoaded(ArrayList<Event> events);
+
+        /**
+         * Called when the queries fail and no loaded in-memory list is available to fall back on.
+         *
+         * @param e Exception thrown by Firestore
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * Callback interface for {@link Pager#loadNextPage}.
+     */
+    public interface OnPageLoadedListener {
+        /**
+         * Called with the next page of events.
+         *
+         * @param page    events in this page, in registration end date order
+         * @param hasMore false once the last page has been returned
+         */
+        void onPageLoaded(ArrayList<Event> page, boolean hasMore);
+
+        /**
+         * Called when the page query fails. The same page can be requested again.
+         *
+         * @param e Exception thrown by Firestore
+         */
+        void onError(Exception e);
+    }
+
     /**
      * Default constructor.
      * <p>
@@ -65,7 +194,7 @@ public class EventsList {
      * from the "events" collection into {@link #eventsList}.
      */
     public EventsList() {
-        eventsList = new ArrayList<>();
+        eventsList = new TrackedEventList();
         db = FirebaseFirestore.getInstance();
         eventsListRef = db.collection("events");
         loadEventsList();
@@ -77,7 +206,7 @@ public class EventsList {
      * @param listener Listener called after Firestore load completes or fails
      */
     public EventsList(OnEventsLoadedListener listener) {
-        eventsList = new ArrayList<>();
+        eventsList = new TrackedEventList();
         db = FirebaseFirestore.getInstance();
         eventsListRef = db.collection("events");
         loadEventsList(listener);
@@ -91,13 +220,23 @@ public class EventsList {
      * @param inMemoryOnly true for local-only mode, false for Firestore-connected mode
      */
     public EventsList(boolean inMemoryOnly) {
-        eventsList = new ArrayList<>();
+        eventsList = new TrackedEventList();
         if (!inMemoryOnly) {
             db = FirebaseFirestore.getInstance();
             eventsListRef = db.collection("events");
         }
     }
 
+    /**
+     * Constructor used for unit testing with a mocked "events" collection.
+     *
+     * @param eventsListRef collection to query
+     */
+    EventsList(CollectionReference eventsListRef) {
+        eventsList = new TrackedEventList();
+        this.eventsListRef = eventsListRef;
+    }
+
     /**
      * Returns the current in-memory list of all events.
      *
@@ -116,6 +255,17 @@ public class EventsList {
         return isLoaded;
     }
 
+    /**
+     * Returns how many event documents this instance has read from Firestore, counting each
+     * document returned by {@link #loadEventsList} and each added or modified document
+     * delivered by live sync.
+     *
+     * @return number of event documents read
+     */
+    public long getDocumentReadCount() {
+        return documentReadCount;
+    }
+
     /**
      * Loads all events from the Firestore "events" collection into memory.
      * <p>
@@ -126,11 +276,16 @@ public class EventsList {
     public void loadEventsList(OnEventsLoadedListener listener) {
         eventsListRef.get()
                 .addOnSuccessListener(snapshots -> {
+                    documentReadCount += snapshots.size();
                     eventsList.clear();
                     for (QueryDocumentSnapshot doc : snapshots) {
+                        // Remember the backing document before deserializing so Event writes skip the eventID query
+                        EventDocumentCache.put(doc.getString("eventID"), doc.getId());
                         Event e = doc.toObject(Event.class);
+                        if (e != null) e.useEntrantSets();
                         eventsList.add(e);
                     }
+                    ensureIndexed();
                     isLoaded = true;
                     if (listener != null) listener.onEventsLoaded();
                     Log.d("EventsList", "Successfully loaded " + eventsList.size() + " events");
@@ -141,6 +296,13 @@ public class EventsList {
                 });
     }
 
+    private static boolean isEntrantQueryStatus(EntrantStatus status) {
+        for (EntrantStatus queried : ENTRANT_QUERY_STATUSES) {
+            if (queried == status) return true;
+        }
+        return false;
+    }
+
     /**
      * Loads all events from Firestore without using a callback listener.
      */
@@ -148,11 +310,225 @@ public class EventsList {
         loadEventsList(null);
     }
 
+    /**
+     * Loads only the events a given entrant belongs to.
+     * <p>
+     * Runs one {@code whereArrayContains} query per entrant list (invited, waiting and enrolled)
+     * instead of downloading the whole collection, plus a collection group query through
+     * {@link ShardedEntrantStore#loadMemberships} for events whose entrants are sharded, then
+     * merges the results, keeping one {@link Event} per document. A sharded event comes back
+     * with only this entrant in its local lists. The events are also added to this list, so later lookups
+     * such as {@link #getEventByID} find them.
+     * <p>
+     * When offline, or if a query fails, and this list has already been fully loaded, the
+     * answer comes from the in-memory index instead, since it is at least as complete as
+     * Firestore's local cache. In-memory-only instances always use the index.
+     *
+     * @param entrantID the entrant’s unique user ID
+     * @param listener  receives the merged events or the failure
+     */
+    public void loadEntrantEvents(String entrantID, OnEntrantEventsLoadedListener listener) {
+        if (entrantID == null || entrantID.isEmpty()) {
+            listener.onEntrantEventsLoaded(new ArrayList<>());
+            return;
+        }
+        if (eventsListRef == null) {
+            listener.onEntrantEventsLoaded(getAllEntrantEvents(entrantID));
+            return;
+        }
+
+        List<Task<QuerySnapshot>> queries = new ArrayList<>();
+        for (EntrantStatus status : ENTRANT_QUERY_STATUSES) {
+            queries.add(eventsListRef.whereArrayContains(status.getFieldName(), entrantID).get());
+        }
+        // Sharded events keep their entrants in a sub-collection the array queries cannot see
+        FirebaseFirestore firestore = db != null ? db : eventsListRef.getFirestore();
+        Task<List<ShardedEntrantStore.Membership>> memberships =
+                ShardedEntrantStore.getInstance().loadMemberships(firestore, entrantID);
+        List<Task<?>> all = new ArrayList<>(queries);
+        all.add(memberships);
+
+        Tasks.whenAllComplete(all).addOnCompleteListener(done -> {
+            LinkedHashMap<String, Event> merged = new LinkedHashMap<>();
+            Exception failure = null;
+            boolean fromCache = false;
+
+            for (Task<QuerySnapshot> query : queries) {
+                if (!query.isSuccessful()) {
+                    failure = query.getException();
+                    continue;
+                }
+                QuerySnapshot snapshots = query.getResult();
+                fromCache |= snapshots.getMetadata().isFromCache();
+                documentReadCount += snapshots.size();
+                for (QueryDocumentSnapshot doc : snapshots) {
+                    // An entrant can be in several lists of the same event; keep the first copy
+                    if (merged.containsKey(doc.getId())) continue;
+                    EventDocumentCache.put(doc.getString("eventID"), doc.getId());
+                    Event e = doc.toObject(Event.class);
+                    if (e == null) continue;
+                    e.useEntrantSets();
+                    merged.put(doc.getId(), e);
+                }
+            }
+
+            if (memberships.isSuccessful()) {
+                for (ShardedEntrantStore.Membership membership : memberships.getResult()) {
+                    if (!isEntrantQueryStatus(membership.getStatus())) continue;
+                    DocumentSnapshot doc = membership.getEvent();
+                    fromCache |= doc.getMetadata().isFromCache();
+                    documentReadCount++;
+                    if (merged.containsKey(doc.getId())) continue;
+                    EventDocumentCache.put(doc.getString("eventID"), doc.getId());
+                    Event e = doc.toObject(Event.class);
+                    if (e == null) continue;
+                    e.useEntrantSets();
+                    e.restoreEntrantStatus(entrantID, membership.getStatus());
+                    merged.put(doc.getId(), e);
+                }
+            } else {
+                failure = memberships.getException();
+            }
+
+            if ((failure != null || fromCache) && isLoaded) {
+                Log.d("EventsList", "Entrant queries " + (failure != null ? "failed" : "served from cache")
+                        + ", using in-memory events for " + entrantID);
+                listener.onEntrantEventsLoaded(getAllEntrantEvents(entrantID));
+                return;
+            }
+            if (failure != null) {
+                Log.e("EventsList", "Failed to load events for entrant " + entrantID, failure);
+                listener.onError(failure);
+                return;
+            }
+
+            ArrayList<Event> events = new ArrayList<>(merged.values());
+            for (Event e : events) {
+                upsertLocal(e);
+            }
+            Log.d("EventsList", "Loaded " + events.size() + " events for entrant " + entrantID);
+            listener.onEntrantEventsLoaded(events);
+        });
+    }
+
+    /**
+     * Creates a {@link Pager} over the "events" collection, ordered by registration end date.
+     *
+     * @param pageSize     number of events per page; {@link #DEFAULT_PAGE_SIZE} if not positive
+     * @param upcomingOnly if true, only events whose registration ends after now are paged.
+     *                     Events without a registration end date are then left out, since
+     *                     Firestore range filters skip null values.
+     * @return a new pager positioned before the first page
+     * @throws IllegalStateException if this instance is in-memory only
+     */
+    public Pager newPager(int pageSize, boolean upcomingOnly) {
+        if (eventsListRef == null) {
+            throw new IllegalStateException("Paging requires a Firestore-connected EventsList");
+        }
+        return new Pager(pageSize > 0 ? pageSize : DEFAULT_PAGE_SIZE, upcomingOnly);
+    }
+
+    /**
+     * Loads the "events" collection one page at a time, using the last document of each page as
+     * the {@code startAfter} cursor for the next one.
+     * <p>
+     * Loaded events are also added to the enclosing {@link EventsList}. Only one page is requested
+     * at a time; calls made while a page is loading, or after the last page, are ignored.
+     */
+    public class Pager {
+
+        private final int pageSize;
+        private final boolean upcomingOnly;
+
+        /** Last document of the most recent page, or {@code null} before the first page. */
+        private DocumentSnapshot cursor;
+        private boolean loading = false;
+        private boolean hasMore = true;
+
+        /** Incremented by {@link #reset()} so responses to earlier requests are dropped. */
+        private int generation = 0;
+
+        private Pager(int pageSize, boolean upcomingOnly) {
+            this.pageSize = pageSize;
+            this.upcomingOnly = upcomingOnly;
+        }
+
+        /**
+         * Requests the page after the last one returned.
+         *
+         * @param listener receives the page or the failure
+         */
+        public void loadNextPage(OnPageLoadedListener listener) {
+            if (loading || !hasMore) return;
+            loading = true;
+
+            Query query = eventsListRef.orderBy(PAGE_ORDER_FIELD);
+            if (upcomingOnly) {
+                query = query.whereGreaterThan(PAGE_ORDER_FIELD, new Date());
+            }
+            if (cursor != null) {
+                query = query.startAfter(cursor);
+            }
+
+            final int requestGeneration = generation;
+            query.limit(pageSize).get()
+                    .addOnSuccessListener(snapshots -> {
+                        if (requestGeneration != generation) return;
+                        loading = false;
+                        documentReadCount += snapshots.size();
+
+                        ArrayList<Event> page = new ArrayList<>();
+                        for (QueryDocumentSnapshot doc : snapshots) {
+                            cursor = doc;
+                            EventDocumentCache.put(doc.getString("eventID"), doc.getId());
+                            Event e = doc.toObject(Event.class);
+                            if (e == null) continue;
+                            e.useEntrantSets();
+                            upsertLocal(e);
+                            page.add(e);
+                        }
+                        hasMore = snapshots.size() == pageSize;
+                        listener.onPageLoaded(page, hasMore);
+                    })
+                    .addOnFailureListener(e -> {
+                        if (requestGeneration != generation) return;
+                        loading = false;
+                        Log.e("EventsList", "Failed to load events page", e);
+                        listener.onError(e);
+                    });
+        }
+
+        /**
+         * Moves back before the first page, discarding any page still loading.
+         */
+        public void reset() {
+            generation++;
+            cursor = null;
+            loading = false;
+            hasMore = true;
+        }
+
+        /**
+         * @return true while a page request is in flight
+         */
+        public boolean isLoading() {
+            return loading;
+        }
+
+        /**
+         * @return false once the last page has been returned
+         */
+        public boolean hasMore() {
+            return hasMore;
+        }
+    }
+
     /**
      * Adds a new {@link Event} to Firestore and appends it to the local list upon success.
      * <p>
      * Firestore automatically generates a unique document ID, while the {@code eventID}
-     * is managed internally by the {@link Event} class.
+     * is managed internally by the {@link Event} class. The generated document ID is recorded
+     * in {@link EventDocumentCache} so later writes to the event skip the lookup query.
      *
      * @param e        The {@link Event} to add
      * @param listener Optional listener for asynchronous completion
@@ -161,7 +537,9 @@ public class EventsList {
     public String addEvent(Event e, OnEventsLoadedListener listener) {
         eventsListRef.add(e)
                 .addOnSuccessListener(docRef -> {
-                    eventsList.add(e);
+                    EventDocumentCache.put(e.getEventID(), docRef.getId());
+                    // Live sync may already have added the document from the local write
+                    upsertLocal(e);
                     Log.d("EventsList", "Added event with ID: " + e.getEventID());
                     if (listener != null) listener.onEventsLoaded();
                 })
@@ -185,7 +563,8 @@ public class EventsList {
     /**
      * Deletes the specified event from Firestore and removes it from the local list.
      * <p>
-     * The event is matched in Firestore by its {@code eventID} field.
+     * The backing document is resolved through {@link EventDocumentCache}, falling back to
+     * matching the {@code eventID} field when it is not cached.
      *
      * @param e        The {@link Event} to delete
      * @param listener Optional callback for completion
@@ -200,20 +579,22 @@ public class EventsList {
             return;
         }
 
-        db.collection("events")
-                .whereEqualTo("eventID", e.getEventID())
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    eventsList.remove(e);
-                    String docId = querySnapshot.getDocuments().get(0).getId();
-                    db.collection("events").document(docId).delete();
-                    Log.d("EventsList", "Event deleted from Firestore and local list");
-                    if (listener != null) listener.onEventsLoaded();
-                })
-                .addOnFailureListener(e2 -> {
-                    Log.e("EventsList", "Failed to delete event", e2);
-                    if (listener != null) listener.onError(e2);
-                });
+        EventDocumentCache.resolve(db, e.getEventID(), new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference docRef) {
+                removeLocal(e.getEventID());
+                EventDocumentCache.invalidate(e.getEventID());
+                docRef.delete();
+                Log.d("EventsList", "Event deleted from Firestore and local list");
+                if (listener != null) listener.onEventsLoaded();
+            }
+
+            @Override
+            public void onError(Exception e2) {
+                Log.e("EventsList", "Failed to delete event", e2);
+                if (listener != null) listener.onError(e2);
+            }
+        });
     }
 
     /**
@@ -225,18 +606,234 @@ public class EventsList {
         deleteEvent(e, null);
     }
 
+    // -------------------- Live sync --------------------
+
+    /**
+     * Starts keeping the in-memory list in sync with the "events" collection through a single
+     * snapshot listener.
+     * <p>
+     * The first snapshot replaces the current contents of the list, the same as
+     * {@link #loadEventsList}. Every later snapshot only carries the documents that changed,
+     * and those deltas are applied to the list and index without re-reading the collection.
+     * Calling this while live sync is already running only reports the current state to
+     * {@code listener}.
+     *
+     * @param listener Optional callback for the first snapshot
+     * @throws IllegalStateException if this instance is in-memory only
+     */
+    public void startLiveSync(OnEventsLoadedListener listener) {
+        if (eventsListRef == null) {
+            throw new IllegalStateException("Live sync requires a Firestore-connected EventsList");
+        }
+        startLiveSync(eventsListRef, listener);
+    }
+
+    /**
+     * Like {@link #startLiveSync(OnEventsLoadedListener)}, but only syncs the events of one
+     * organizer, so Firestore sends neither the rest of the collection nor changes to it.
+     * Use a separate instance for this, since the list then holds only those events.
+     *
+     * @param organizerID organizer whose events to sync
+     * @param listener    Optional callback for the first snapshot
+     * @throws IllegalStateException if this instance is in-memory only
+     */
+    public void startOrganizerLiveSync(String organizerID, OnEventsLoadedListener listener) {
+        if (eventsListRef == null) {
+            throw new IllegalStateException("Live sync requires a Firestore-connected EventsList");
+        }
+        startLiveSync(eventsListRef.whereEqualTo("organizer", organizerID), listener);
+    }
+
+    private void startLiveSync(Query query, OnEventsLoadedListener listener) {
+        if (liveSyncRegistration != null) {
+            if (listener != null && isLoaded) listener.onEventsLoaded();
+            return;
+        }
+
+        final boolean[] firstSnapshot = {true};
+        liveSyncRegistration = query.addSnapshotListener((snapshots, error) -> {
+            if (error != null) {
+                Log.e("EventsList", "Live sync failed", error);
+                stopLiveSync();
+                if (firstSnapshot[0] && listener != null) listener.onError(error);
+                for (OnEventsChangedListener l : new ArrayList<>(changeListeners)) {
+                    l.onError(error);
+                }
+                return;
+            }
+            if (snapshots == null) return;
+
+            if (firstSnapshot[0]) {
+                // Every document arrives as ADDED; start from an empty list so deleted events don't linger
+                eventsList.clear();
+            }
+            applyDocumentChanges(snapshots.getDocumentChanges());
+
+            if (firstSnapshot[0]) {
+                firstSnapshot[0] = false;
+                isLoaded = true;
+                Log.d("EventsList", "Live sync started with " + eventsList.size() + " events");
+                if (listener != null) listener.onEventsLoaded();
+            }
+        });
+    }
+
+    /**
+     * Starts live sync without a callback for the first snapshot.
+     */
+    public void startLiveSync() {
+        startLiveSync(null);
+    }
+
+    /**
+     * Detaches the live sync snapshot listener. The in-memory list keeps its last contents.
+     */
+    public void stopLiveSync() {
+        if (liveSyncRegistration != null) {
+            liveSyncRegistration.remove();
+            liveSyncRegistration = null;
+        }
+    }
+
+    /**
+     * @return true while the live sync snapshot listener is attached
+     */
+    public boolean isLiveSyncing() {
+        return liveSyncRegistration != null;
+    }
+
+    /**
+     * Registers a listener for the deltas applied by live sync.
+     *
+     * @param listener listener to add
+     */
+    public void addOnEventsChangedListener(OnEventsChangedListener listener) {
+        if (listener != null && !changeListeners.contains(listener)) {
+            changeListeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a listener added with {@link #addOnEventsChangedListener}.
+     *
+     * @param listener listener to remove
+     */
+    public void removeOnEventsChangedListener(OnEventsChangedListener listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Applies a batch of snapshot changes to the list, index and {@link EventDocumentCache},
+     * then notifies the {@link OnEventsChangedListener}s once for the whole batch.
+     *
+     * @param changes document changes from a query snapshot
+     */
+    void applyDocumentChanges(List<DocumentChange> changes) {
+        ArrayList<Event> added = new ArrayList<>();
+        ArrayList<Event> modified = new ArrayList<>();
+        ArrayList<Event> removed = new ArrayList<>();
+
+        for (DocumentChange change : changes) {
+            QueryDocumentSnapshot doc = change.getDocument();
+            String eventID = doc.getString("eventID");
+
+            if (change.getType() == DocumentChange.Type.REMOVED) {
+                EventDocumentCache.invalidate(eventID);
+                Event gone = removeLocal(eventID);
+                if (gone != null) removed.add(gone);
+                continue;
+            }
+
+            documentReadCount++;
+            EventDocumentCache.put(eventID, doc.getId());
+            Event incoming = doc.toObject(Event.class);
+            if (incoming == null) continue;
+            incoming.useEntrantSets();
+            if (upsertLocal(incoming) == null) {
+                added.add(incoming);
+            } else {
+                modified.add(incoming);
+            }
+        }
+
+        if (added.isEmpty() && modified.isEmpty() && removed.isEmpty()) return;
+        for (OnEventsChangedListener l : new ArrayList<>(changeListeners)) {
+            l.onEventsChanged(added, modified, removed);
+        }
+    }
+
+    /**
+     * Adds an event to the list and index, replacing the event with the same eventID if
+     * there is one. The replacement keeps the old event's position in the list.
+     *
+     * @param e event to add
+     * @return the event that was replaced, or {@code null} if {@code e} was new
+     */
+    Event upsertLocal(Event e) {
+        ensureIndexed();
+        Event existing = index.get(e.getEventID());
+        int position;
+        if (existing == null) {
+            position = eventsList.size();
+            eventsList.add(e);
+        } else {
+            position = index.positionOf(existing, eventsList);
+            eventsList.set(position, e);
+            index.remove(existing);
+        }
+        index.add(e, position);
+        indexedModCount = eventsList.modCount();
+        return existing;
+    }
+
+    /**
+     * Removes the event with the given eventID from the list and index.
+     *
+     * @param eventID event identifier
+     * @return the removed event, or {@code null} if no event had that eventID
+     */
+    Event removeLocal(String eventID) {
+        ensureIndexed();
+        Event existing = index.get(eventID);
+        if (existing == null) return null;
+        int position = index.positionOf(existing, eventsList);
+        eventsList.remove(position);
+        index.remove(existing);
+        index.removedAt(position);
+        indexedModCount = eventsList.modCount();
+        return existing;
+    }
+
+    /**
+     * @return true if {@link #index} reflects the current contents of {@link #eventsList}
+     */
+    private boolean isIndexCurrent() {
+        return indexedModCount == eventsList.modCount();
+    }
+
+    /**
+     * Rebuilds {@link #index} if {@link #eventsList} was structurally changed since the last sync,
+     * e.g. after a reload or by a caller mutating {@link #getEventsList()} directly.
+     */
+    private void ensureIndexed() {
+        if (!isIndexCurrent()) {
+            index.rebuild(eventsList);
+            indexedModCount = eventsList.modCount();
+        }
+    }
+
     /**
      * Retrieves an {@link Event} from the in-memory list by its eventID.
+     * <p>
+     * Uses the eventID hash index, so the lookup is O(1).
      *
      * @param eventID Unique event identifier
      * @return Matching {@link Event}, or {@code null} if not found
      */
     public Event getEventByID(String eventID) {
         if (eventID == null) return null;
-        for (Event e : eventsList) {
-            if (e != null && eventID.equals(e.getEventID())) return e;
-        }
-        return null;
+        ensureIndexed();
+        return index.get(eventID);
     }
 
     /**
@@ -267,55 +864,86 @@ public class EventsList {
 
     /**
      * Returns all events created by a specific organizer.
+     * <p>
+     * Served from the organizerID index in O(result).
      *
      * @param organizerID The organizer’s unique ID
      * @return List of events associated with that organizer
      */
     public ArrayList<Event> getOrganizerEvents(String organizerID) {
-        ArrayList<Event> out = new ArrayList<>();
-        if (organizerID == null || organizerID.isEmpty()) return out;
-        for (Event e : eventsList) {
-            if (e != null && organizerID.equals(e.getOrganizer())) out.add(e);
-        }
-        return out;
+        if (organizerID == null || organizerID.isEmpty()) return new ArrayList<>();
+        ensureIndexed();
+        return index.getOrganizerEvents(organizerID);
     }
 
     /**
      * Returns all events where a given entrant is currently on the waiting list.
+     * <p>
+     * Served from the entrant inverted index in O(result).
      *
      * @param entrantID The entrant’s unique user ID
      * @return List of events for which this entrant is waitlisted
      */
     public ArrayList<Event> getEntrantWaitlistEvents(String entrantID) {
-        ArrayList<Event> out = new ArrayList<>();
-        if (entrantID == null) return out;
-        for (Event e : eventsList) {
-            List<String> waiting = (e != null) ? e.getWaitingEntrants() : null;
-            if (waiting != null && waiting.contains(entrantID)) out.add(e);
-        }
-        return out;
+        return getEntrantEvents(entrantID, EntrantStatus.WAITING);
     }
 
     /**
      * Returns a list of events that the given entrant is currently enrolled in.
+     * <p>
+     * Served from the entrant inverted index in O(result).
      *
      * @param entrantID the entrant’s unique user ID
      * @return list of events in which this entrant is enrolled
      */
     public ArrayList<Event> getEntrantEnrolledEvents(String entrantID) {
-        ArrayList<Event> EnrolledEventList = new ArrayList<>();
+        return getEntrantEvents(entrantID, EntrantStatus.ENROLLED);
+    }
 
-        Log.d("TAG", "EntrantID: " + entrantID);
+    /**
+     * Returns all events where the entrant is in the given list.
+     *
+     * @param entrantID the entrant’s unique user ID
+     * @param status    which entrant list to look in
+     * @return events whose {@code status} list contains the entrant
+     */
+    public ArrayList<Event> getEntrantEvents(String entrantID, EntrantStatus status) {
+        if (entrantID == null) return new ArrayList<>();
+        ensureIndexed();
+        return index.getEntrantEvents(entrantID, status);
+    }
 
-        for (Event e: eventsList) {
-            if (e.getEnrolledEntrants() == null) continue; // David: if the list is null, there's no event ids in it, so continue
-            // If given entrants
-            if (e.getEnrolledEntrants().contains(entrantID)) {
-                EnrolledEventList.add(e);
-            }
+    /**
+     * Returns all events where the entrant is invited, waiting or enrolled, from the in-memory
+     * index. Each event appears once, in the same order {@link #loadEntrantEvents} merges them.
+     *
+     * @param entrantID the entrant’s unique user ID
+     * @return the entrant's events
+     */
+    public ArrayList<Event> getAllEntrantEvents(String entrantID) {
+        Set<Event> events = new LinkedHashSet<>();
+        for (EntrantStatus status : ENTRANT_QUERY_STATUSES) {
+            events.addAll(getEntrantEvents(entrantID, status));
         }
+        return new ArrayList<>(events);
+    }
 
-        return EnrolledEventList;
+    /**
+     * Keeps the events whose {@code status} list contains the entrant.
+     *
+     * @param events    events to filter, e.g. the result of {@link #loadEntrantEvents}
+     * @param entrantID the entrant’s unique user ID
+     * @param status    which entrant list to look in
+     * @return the matching events, in their original order
+     */
+    public static ArrayList<Event> filterByEntrant(List<Event> events, String entrantID, EntrantStatus status) {
+        ArrayList<Event> out = new ArrayList<>();
+        for (Event e : events) {
+            if (e == null) continue;
+            List<String> entrants = e.getEntrantList(status);
+            if (entrants != null && entrants.contains(entrantID)) out.add(e);
+        }
+        return out;
     }
 
     /**
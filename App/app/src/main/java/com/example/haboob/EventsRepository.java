@@ -0,0 +1,256 @@
+package com.example.haboob;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code EventsRepository} holds the single {@link EventsList} shared by every screen in the
+ * app process.
+ * <p>
+ * Screens used to construct their own {@link EventsList}, so switching tabs re-downloaded and
+ * re-deserialized the whole "events" collection and kept one copy of every {@link Event} per
+ * screen. Screens now observe {@link #getEvents()} instead. The LiveData counts its active
+ * observers: the first one to start attaches {@link EventsList#startLiveSync}, and once the last
+ * one stops the listener is detached after {@link #DETACH_DELAY_MS}, so quick tab switches keep
+ * using the same listener.
+ * <p>
+ * If live sync fails, {@link #whenLoaded} callers still waiting get the error, and the listener
+ * is reattached after {@link #RETRY_DELAY_MS}, doubling up to {@link #MAX_RETRY_DELAY_MS}, for
+ * as long as anyone observes. A new {@link #whenLoaded} call reattaches right away.
+ * <p>
+ * All methods must be called on the main thread, which is also where Firestore delivers
+ * snapshot callbacks.
+ */
+public final class EventsRepository {
+
+    private static final String TAG = "EventsRepository";
+
+    /** How long live sync stays attached after the last observer stops. */
+    static final long DETACH_DELAY_MS = 10_000;
+
+    /** Wait before reattaching after live sync fails; doubled on each further failure. */
+    static final long RETRY_DELAY_MS = 2_000;
+
+    /** Longest wait before reattaching. */
+    static final long MAX_RETRY_DELAY_MS = 60_000;
+
+    private static EventsRepository instance;
+
+    /** The shared, Firestore-connected events list. */
+    private final EventsList eventsList;
+
+    /** Publishes {@link #eventsList} to observers whenever live sync changes it. */
+    private final EventsLiveData events = new EventsLiveData();
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /** Detaches live sync; posted when the last observer stops. */
+    private final Runnable detachTask = this::detach;
+
+    /** Reattaches live sync after a failure; posted while observers remain. */
+    private final Runnable reattachTask = this::reattach;
+
+    /** Wait before the next reattach; reset once a session loads. */
+    private long retryDelayMs = RETRY_DELAY_MS;
+
+    /** One-off observers registered through {@link #whenLoaded} that have not fired yet. */
+    private final List<LoadObserver> pendingLoads = new ArrayList<>();
+
+    /** True once the first snapshot of the current live sync session has been applied. */
+    private boolean syncReady = false;
+
+    /** Number of times live sync has been attached in this process. */
+    private int attachCount = 0;
+
+    /**
+     * @return the process-wide repository, created on first use
+     */
+    public static synchronized EventsRepository getInstance() {
+        if (instance == null) {
+            instance = new EventsRepository();
+        }
+        return instance;
+    }
+
+    private EventsRepository() {
+        eventsList = new EventsList(false);
+        eventsList.addOnEventsChangedListener(new EventsList.OnEventsChangedListener() {
+            @Override
+            public void onEventsChanged(List<Event> added, List<Event> modified, List<Event> removed) {
+                // The first snapshot is published once by startLiveSync's callback instead
+                if (syncReady) events.publish();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Live sync stopped", e);
+                onSyncFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Returns the shared events as LiveData. The value is the shared {@link EventsList}, re-posted
+     * after every change; it is unset until the first snapshot arrives. After live sync has been
+     * detached, new observers first get the list as it was then and are called again once the
+     * reattached listener's first snapshot has been applied.
+     * <p>
+     * Observing with a {@link LifecycleOwner} keeps live sync attached while the owner is started.
+     *
+     * @return LiveData of the shared {@link EventsList}
+     */
+    public LiveData<EventsList> getEvents() {
+        return events;
+    }
+
+    /**
+     * Returns the shared {@link EventsList} without subscribing to it. Its contents are only kept
+     * current while at least one observer of {@link #getEvents()} is active.
+     *
+     * @return the shared events list
+     */
+    public EventsList getEventsList() {
+        return eventsList;
+    }
+
+    /**
+     * Calls {@code listener} once the shared list is loaded, then stops observing.
+     * <p>
+     * Meant for one-off reads such as looking up events by ID. The callback only runs once the
+     * current live sync session has applied its first snapshot, never for a value left over from
+     * an earlier session. The observation keeps live sync attached only until the callback runs,
+     * and is dropped if {@code owner} is destroyed first.
+     * If live sync fails before the list is loaded, {@link EventsList.OnEventsLoadedListener#onError}
+     * is called instead. Live sync that stopped after an earlier failure is reattached at once.
+     *
+     * @param owner    lifecycle the one-off observation is tied to
+     * @param listener callback run with the list loaded
+     */
+    public void whenLoaded(LifecycleOwner owner, EventsList.OnEventsLoadedListener listener) {
+        LoadObserver observer = new LoadObserver(owner, listener);
+        pendingLoads.add(observer);
+        events.observe(owner, observer);
+        // Other observers kept the LiveData active, so onActive will not reattach it
+        if (events.hasActiveObservers() && !eventsList.isLiveSyncing()) attach();
+    }
+
+    /**
+     * @return number of event documents read from Firestore by the shared list in this process
+     */
+    public long getDocumentReadCount() {
+        return eventsList.getDocumentReadCount();
+    }
+
+    private void attach() {
+        handler.removeCallbacks(detachTask);
+        handler.removeCallbacks(reattachTask);
+        if (eventsList.isLiveSyncing()) return;
+
+        attachCount++;
+        eventsList.startLiveSync(new EventsList.OnEventsLoadedListener() {
+            @Override
+            public void onEventsLoaded() {
+                syncReady = true;
+                retryDelayMs = RETRY_DELAY_MS;
+                events.publish();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "Failed to start live sync", e);
+                onSyncFailed(e);
+            }
+        });
+    }
+
+    /**
+     * Fails the {@link #whenLoaded} calls still waiting and schedules a reattach.
+     */
+    private void onSyncFailed(Exception e) {
+        syncReady = false;
+        for (LoadObserver pending : new ArrayList<>(pendingLoads)) {
+            pending.fail(e);
+        }
+        handler.removeCallbacks(reattachTask);
+        if (events.hasActiveObservers()) {
+            handler.postDelayed(reattachTask, retryDelayMs);
+            retryDelayMs = Math.min(retryDelayMs * 2, MAX_RETRY_DELAY_MS);
+        }
+    }
+
+    private void reattach() {
+        if (events.hasActiveObservers()) attach();
+    }
+
+    private void detach() {
+        handler.removeCallbacks(reattachTask);
+        eventsList.stopLiveSync();
+        syncReady = false;
+        Log.d(TAG, "Live sync detached (attached " + attachCount + " times, "
+                + eventsList.getDocumentReadCount() + " event documents read so far)");
+    }
+
+    /**
+     * Observer behind {@link #whenLoaded} that removes itself after its first callback.
+     */
+    private class LoadObserver implements Observer<EventsList> {
+        private final LifecycleOwner owner;
+        private final EventsList.OnEventsLoadedListener listener;
+
+        LoadObserver(LifecycleOwner owner, EventsList.OnEventsLoadedListener listener) {
+            this.owner = owner;
+            this.listener = listener;
+        }
+
+        @Override
+        public void onChanged(EventsList list) {
+            // LiveData replays the last value to a new observer, even one published before live
+            // sync was detached; wait for the current session's first snapshot instead
+            if (!syncReady) return;
+            finish();
+            listener.onEventsLoaded();
+        }
+
+        void fail(Exception e) {
+            finish();
+            // A destroyed owner was already unsubscribed by LiveData and has no UI to report to
+            if (owner.getLifecycle().getCurrentState() != Lifecycle.State.DESTROYED) {
+                listener.onError(e);
+            }
+        }
+
+        private void finish() {
+            events.removeObserver(this);
+            pendingLoads.remove(this);
+        }
+    }
+
+    /**
+     * LiveData whose active-observer transitions attach and detach live sync.
+     */
+    private class EventsLiveData extends LiveData<EventsList> {
+
+        @Override
+        protected void onActive() {
+            attach();
+        }
+
+        @Override
+        protected void onInactive() {
+            handler.postDelayed(detachTask, DETACH_DELAY_MS);
+        }
+
+        void publish() {
+            setValue(eventsList);
+        }
+    }
+}
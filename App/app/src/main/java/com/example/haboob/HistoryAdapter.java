@@ -92,7 +92,7 @@ public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHold
         Poster poster = event.getPoster();
         if (poster != null && poster.getData() != null && !poster.getData().isEmpty()) {
             Glide.with(holder.itemView.getContext())
-                    .load(poster.getData())
+                    .load(PosterUrlBuilder.forView(poster.getData(), holder.eventImage))
                     .placeholder(R.drawable.ic_search_24)
                     .into(holder.eventImage);
         } else {
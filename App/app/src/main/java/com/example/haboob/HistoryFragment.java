@@ -125,8 +125,9 @@ public class HistoryFragment extends Fragment {
 
                         Log.d(TAG, "Found " + eventHistoryList.size() + " events in history list");
 
-                        // Load EventsList to get event details
-                        eventsList = new EventsList(new EventsList.OnEventsLoadedListener() {
+                        // Look the events up in the shared EventsList once it is loaded
+                        eventsList = EventsRepository.getInstance().getEventsList();
+                        EventsRepository.getInstance().whenLoaded(this, new EventsList.OnEventsLoadedListener() {
                             @Override
                             public void onEventsLoaded() {
                                 // Get events matching the IDs in the history list
@@ -1,8 +1,15 @@
 package com.example.haboob;
 
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Helper class for handling lottery logic for events.
@@ -18,6 +25,8 @@ import java.util.List;
  * - Automatic notification sending to winners and non-winners
  * - Vacancy filling when invited entrants decline
  * - Preview sampling without modifying event data
+ * - Atomic draws committed in a single Firestore transaction ({@link #drawLottery}),
+ *   including for events whose entrants live in {@link ShardedEntrantStore}
  *
  * @author Dan, Owen
  * @version 1.0
@@ -29,13 +38,113 @@ public class LotterySampler {
      */
     private NotificationManager nManager;
 
+    /**
+     * Event document field recording when the lottery was first drawn.
+     */
+    static final String LOTTERY_DRAWN_AT_FIELD = "lotteryDrawnAt";
+
+    /**
+     * Times a draw on a sharded event is retried when entrants move while it runs.
+     */
+    static final int MAX_SHARDED_DRAW_ATTEMPTS = 3;
+
+    /**
+     * Firestore instance used by {@link #drawLottery}; resolved on first use when not injected.
+     */
+    private FirebaseFirestore db;
+
+    /**
+     * Chooses the entrants of every draw; inject a seeded one for reproducible draws.
+     */
+    private final SamplingStrategy strategy;
+
+    /**
+     * Callback for {@link #drawLottery}.
+     */
+    public interface OnLotteryDrawnListener {
+        /**
+         * Called after the draw has been committed and the local event updated.
+         *
+         * @param selectedEntrants entrants moved from waiting to invited
+         */
+        void onLotteryDrawn(List<String> selectedEntrants);
+
+        /**
+         * Called when the draw could not be committed. Nothing was written.
+         *
+         * @param e the failure; validation failures carry a user-readable message
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * Reported by {@link #drawLotteryOnce} when the event's lottery has already been drawn.
+     */
+    public static class LotteryAlreadyDrawnException extends FirebaseFirestoreException {
+        public LotteryAlreadyDrawnException() {
+            super("Lottery has already been drawn", Code.ALREADY_EXISTS);
+        }
+    }
+
+    /**
+     * Creates a sampler that draws with the event's own strategy, set through
+     * {@link Event#useSamplingStrategy}, or uniformly if it has none.
+     *
+     * @param event    The event the sampler will draw for
+     * @param nManager The NotificationManager to use for sending notifications
+     * @return a sampler for {@code event}
+     */
+    public static LotterySampler forEvent(Event event, NotificationManager nManager) {
+        SamplingStrategy strategy = event.samplingStrategy();
+        return strategy != null
+                ? new LotterySampler(nManager, null, strategy)
+                : new LotterySampler(nManager);
+    }
+
     /**
      * Constructs a new LotterySampler with the specified NotificationManager.
      *
      * @param nManager The NotificationManager to use for sending notifications
      */
     public LotterySampler(NotificationManager nManager) {
+        this(nManager, null, new EntrantSampler());
+    }
+
+    /**
+     * Constructs a new LotterySampler that draws against the given Firestore instance.
+     *
+     * @param nManager The NotificationManager to use for sending notifications
+     * @param db       Firestore instance used by {@link #drawLottery}
+     */
+    public LotterySampler(NotificationManager nManager, FirebaseFirestore db) {
+        this(nManager, db, new EntrantSampler());
+    }
+
+    /**
+     * Constructs a new LotterySampler with an explicit source of randomness, e.g.
+     * {@link EntrantSampler#seeded} so that a draw can be replayed.
+     *
+     * @param nManager The NotificationManager to use for sending notifications
+     * @param db       Firestore instance used by {@link #drawLottery}, or null for the default
+     * @param sampler  Sampler used for every draw
+     */
+    public LotterySampler(NotificationManager nManager, FirebaseFirestore db, EntrantSampler sampler) {
+        this(nManager, db, SamplingStrategy.uniform(sampler));
+    }
+
+    /**
+     * Constructs a new LotterySampler that selects entrants with the given strategy, e.g. a
+     * {@link WeightedSamplingStrategy} for priority tiers. The strategy is used for the
+     * initial draw and for every vacancy refill.
+     *
+     * @param nManager The NotificationManager to use for sending notifications
+     * @param db       Firestore instance used by {@link #drawLottery}, or null for the default
+     * @param strategy Strategy used for every draw
+     */
+    public LotterySampler(NotificationManager nManager, FirebaseFirestore db, SamplingStrategy strategy) {
         this.nManager = nManager;
+        this.db = db;
+        this.strategy = strategy;
     }
 
     /**
@@ -57,7 +166,7 @@ public class LotterySampler {
             throw new IllegalArgumentException("Event cannot be null");
         }
 
-        ArrayList<String> entrants = event.getWaitingEntrants();
+        List<String> entrants = event.getWaitingEntrants();
         if (entrants == null || entrants.isEmpty()) {
             throw new IllegalArgumentException("Event has no entrants to sample from");
         }
@@ -78,6 +187,313 @@ public class LotterySampler {
             event.removeEntrantFromWaitingEntrants(entrantId);
         }
 
+        notifyLotteryResults(event);
+    }
+
+    /**
+     * Draws the lottery for an event in a single Firestore transaction.
+     *
+     * <p>Unlike {@link #performLottery}, which writes each selected entrant with two separate
+     * updates, this reads the event document once inside a transaction, samples from the
+     * waiting list stored on the server, and writes the new {@code waitingEntrants} and
+     * {@code invitedEntrants} arrays in one update. Either every selected entrant is moved or
+     * none is, and the draw costs one read and one commit regardless of how many are selected.
+     * If another client changes the event while the draw runs, Firestore retries it against the
+     * fresh data.</p>
+     *
+     * <p>The first draw also records {@code lotteryDrawnAt}, which stops {@link LotteryScheduler}
+     * from drawing the event automatically. Once committed, the local event's lists are replaced
+     * with the committed ones and the same notifications as {@link #performLottery} are sent.</p>
+     *
+     * @param event    The event to draw the lottery for
+     * @param listener Receives the selected entrants or the failure
+     * @throws IllegalArgumentException if event is null
+     */
+    public void drawLottery(Event event, OnLotteryDrawnListener listener) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+
+        runDrawTransaction(event, lists -> computeDraw(lists, event.getLotterySampleSize()), result -> {
+            applyDrawLocally(event, result);
+            notifyLotteryResults(event);
+            listener.onLotteryDrawn(result.selected);
+        }, listener);
+    }
+
+    /**
+     * Draws the lottery like {@link #drawLottery}, unless it has been drawn before.
+     *
+     * <p>Every transactional draw records {@code lotteryDrawnAt} on the event document in the
+     * same update that moves the entrants. This variant checks that field inside the
+     * transaction and fails with {@link LotteryAlreadyDrawnException} if it is set, so
+     * automatic draws never run twice, even when several devices race to draw the same event.</p>
+     *
+     * @param event    The event to draw the lottery for
+     * @param listener Receives the selected entrants or the failure
+     * @throws IllegalArgumentException if event is null
+     */
+    public void drawLotteryOnce(Event event, OnLotteryDrawnListener listener) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+
+        runDrawTransaction(event, lists -> {
+            if (lists.drawnAt != null) {
+                throw new LotteryAlreadyDrawnException();
+            }
+            return computeDraw(lists, event.getLotterySampleSize());
+        }, result -> {
+            applyDrawLocally(event, result);
+            notifyLotteryResults(event);
+            listener.onLotteryDrawn(result.selected);
+        }, listener);
+    }
+
+    /**
+     * Reads the event document once in a transaction, lets {@code planner} compute the new lists
+     * from the server's copy, and writes every changed list in a single update.
+     *
+     * @param event       The event being drawn
+     * @param planner     Computes the draw from the committed lists
+     * @param onCommitted Runs with the plan once the transaction has committed
+     * @param listener    Receives any failure
+     */
+    private void runDrawTransaction(Event event, DrawPlanner planner,
+                                    OnCommittedListener onCommitted, OnLotteryDrawnListener listener) {
+        if (db == null) {
+            db = FirebaseFirestore.getInstance();
+        }
+
+        EventDocumentCache.resolve(db, event.getEventID(), new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference docRef) {
+                if (event.isShardedEntrants()) {
+                    runShardedDraw(docRef, planner, onCommitted, listener, MAX_SHARDED_DRAW_ATTEMPTS);
+                    return;
+                }
+                // Let queued list changes land first, so the draw reads them
+                EventMutationQueue.forDocument(docRef).whenFlushed(() ->
+                    db.runTransaction(transaction -> {
+                        DocumentSnapshot snapshot = transaction.get(docRef);
+                        if (Boolean.TRUE.equals(snapshot.getBoolean(Event.SHARDED_ENTRANTS_FIELD))) {
+                            // Migrated since this copy was loaded; the lists are not on the document
+                            throw new ShardedEntrantStore.ShardedEventException();
+                        }
+                        EntrantLists lists = new EntrantLists();
+                        lists.waiting = stringList(snapshot, EntrantStatus.WAITING);
+                        lists.invited = stringList(snapshot, EntrantStatus.INVITED);
+                        lists.enrolled = stringList(snapshot, EntrantStatus.ENROLLED);
+                        lists.cancelled = stringList(snapshot, EntrantStatus.CANCELLED);
+                        lists.drawnAt = snapshot.getDate(LOTTERY_DRAWN_AT_FIELD);
+
+                        DrawResult result = planner.plan(lists);
+                        Map<String, Object> updates = new HashMap<>();
+                        if (result.waiting != null) updates.put(EntrantStatus.WAITING.getFieldName(), result.waiting);
+                        if (result.invited != null) updates.put(EntrantStatus.INVITED.getFieldName(), result.invited);
+                        if (result.cancelled != null) updates.put(EntrantStatus.CANCELLED.getFieldName(), result.cancelled);
+                        if (result.drawnAt != null) updates.put(LOTTERY_DRAWN_AT_FIELD, result.drawnAt);
+                        if (!updates.isEmpty()) {
+                            transaction.update(docRef, updates);
+                        }
+                        return result;
+                    }).addOnSuccessListener(onCommitted::onCommitted)
+                            .addOnFailureListener(e -> {
+                                if (e instanceof ShardedEntrantStore.ShardedEventException) {
+                                    event.setShardedEntrants(true);
+                                    runShardedDraw(docRef, planner, onCommitted, listener, MAX_SHARDED_DRAW_ATTEMPTS);
+                                } else {
+                                    listener.onError(e);
+                                }
+                            }));
+            }
+
+            @Override
+            public void onError(Exception e) {
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Draws against an event whose entrants live in {@link ShardedEntrantStore}. A transaction
+     * cannot query the sub-collection, so the lists are read first; the transaction then
+     * plans the draw, re-reads only the entrants it moves and checks that they have not moved
+     * since, and writes their new statuses with one counter update. If any has moved, the
+     * lists are read again and the draw retried, up to {@code attemptsLeft} times.
+     *
+     * @param docRef       The event document
+     * @param planner      Computes the draw from the lists
+     * @param onCommitted  Runs with the plan once the transaction has committed
+     * @param listener     Receives any failure
+     * @param attemptsLeft Attempts left, including this one
+     */
+    private void runShardedDraw(DocumentReference docRef, DrawPlanner planner,
+                                OnCommittedListener onCommitted, OnLotteryDrawnListener listener, int attemptsLeft) {
+        ShardedEntrantStore store = ShardedEntrantStore.getInstance();
+        store.loadLists(docRef, new ShardedEntrantStore.OnListsLoadedListener() {
+            @Override
+            public void onListsLoaded(Map<EntrantStatus, List<String>> loaded) {
+                Map<String, EntrantStatus> loadedStatus = new HashMap<>();
+                for (Map.Entry<EntrantStatus, List<String>> list : loaded.entrySet()) {
+                    for (String id : list.getValue()) loadedStatus.put(id, list.getKey());
+                }
+                db.runTransaction(transaction -> {
+                    DocumentSnapshot snapshot = transaction.get(docRef);
+                    EntrantLists lists = new EntrantLists();
+                    lists.waiting = new EntrantSet(loaded.get(EntrantStatus.WAITING));
+                    lists.invited = new EntrantSet(loaded.get(EntrantStatus.INVITED));
+                    lists.enrolled = new EntrantSet(loaded.get(EntrantStatus.ENROLLED));
+                    lists.cancelled = new EntrantSet(loaded.get(EntrantStatus.CANCELLED));
+                    lists.drawnAt = snapshot.getDate(LOTTERY_DRAWN_AT_FIELD);
+
+                    DrawResult result = planner.plan(lists);
+
+                    // Where each moved entrant was when the lists were read, and where it goes
+                    Map<String, EntrantStatus> from = new HashMap<>();
+                    Map<String, EntrantStatus> to = new HashMap<>();
+                    collectMoves(loadedStatus, result.waiting, EntrantStatus.WAITING, from, to);
+                    collectMoves(loadedStatus, result.invited, EntrantStatus.INVITED, from, to);
+                    collectMoves(loadedStatus, result.cancelled, EntrantStatus.CANCELLED, from, to);
+
+                    store.checkStatuses(transaction, docRef, from);
+                    store.writeMoves(transaction, docRef, from, to);
+                    if (result.drawnAt != null) {
+                        transaction.update(docRef, LOTTERY_DRAWN_AT_FIELD, result.drawnAt);
+                    }
+                    return result;
+                }).addOnSuccessListener(onCommitted::onCommitted)
+                        .addOnFailureListener(e -> {
+                            boolean moved = e instanceof FirebaseFirestoreException
+                                    && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.ABORTED;
+                            if (moved && attemptsLeft > 1) {
+                                runShardedDraw(docRef, planner, onCommitted, listener, attemptsLeft - 1);
+                            } else {
+                                listener.onError(e);
+                            }
+                        });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Records the entrants a draw puts into {@code status} that were not there when the lists
+     * were read, with the list each was in before.
+     */
+    static void collectMoves(Map<String, EntrantStatus> loaded, List<String> result, EntrantStatus status,
+                             Map<String, EntrantStatus> from, Map<String, EntrantStatus> to) {
+        if (result == null) return;
+        for (String id : result) {
+            EntrantStatus before = loaded.get(id);
+            if (before == status) continue;
+            from.put(id, before);
+            to.put(id, status);
+        }
+    }
+
+    /**
+     * Computes the outcome of a draw from the server's copy of the entrant lists.
+     * Applies the same rules as {@link #performLottery}.
+     */
+    private DrawResult computeDraw(EntrantLists lists, int lotterySampleSize)
+            throws FirebaseFirestoreException {
+        if (lists.waiting.isEmpty()) {
+            throw new FirebaseFirestoreException("Event has no entrants to sample from",
+                    FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+        }
+
+        int sampleSize = lotterySampleSize - (lists.invited.size() + lists.enrolled.size());
+        if (sampleSize <= 0) {
+            throw new FirebaseFirestoreException("Lottery sample size must be greater than 0",
+                    FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+        }
+
+        DrawResult result = moveToInvited(lists, sampleEntrants(lists.waiting, sampleSize));
+        // Keep the time of the first draw; later top-up draws leave it unchanged
+        if (lists.drawnAt == null) result.drawnAt = new Date();
+        return result;
+    }
+
+    /**
+     * Builds a result that moves {@code selected} from the waiting list to the invited list.
+     */
+    private static DrawResult moveToInvited(EntrantLists lists, List<String> selected) {
+        DrawResult result = new DrawResult();
+        result.selected = selected;
+        if (selected.isEmpty()) return result;
+
+        result.invited = new EntrantSet(lists.invited);
+        result.invited.addAll(selected);
+        result.waiting = new EntrantSet(lists.waiting);
+        for (String id : selected) result.waiting.remove(id);
+        return result;
+    }
+
+    /**
+     * Replaces the event's local lists with the ones a draw committed.
+     */
+    private static void applyDrawLocally(Event event, DrawResult result) {
+        if (result.waiting != null) event.setWaitingEntrants(result.waiting);
+        if (result.invited != null) event.setInvitedEntrantsList(result.invited);
+        if (result.cancelled != null) event.setCancelledEntrantsList(result.cancelled);
+        if (result.drawnAt != null) event.setLotteryDrawnAt(result.drawnAt);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static EntrantSet stringList(DocumentSnapshot snapshot, EntrantStatus status) {
+        Object value = snapshot.get(status.getFieldName());
+        return value instanceof List ? new EntrantSet((List<String>) value) : new EntrantSet();
+    }
+
+    /**
+     * The entrant lists read from the event document inside a draw transaction.
+     */
+    private static class EntrantLists {
+        EntrantSet waiting;
+        EntrantSet invited;
+        EntrantSet enrolled;
+        EntrantSet cancelled;
+        Date drawnAt;
+    }
+
+    /**
+     * Outcome of a transactional draw: the selected entrants and the lists to commit.
+     * Lists left {@code null} are not written.
+     */
+    private static class DrawResult {
+        List<String> selected;
+        EntrantSet waiting;
+        EntrantSet invited;
+        EntrantSet cancelled;
+        Date drawnAt;
+    }
+
+    /**
+     * Computes a draw inside a transaction; may run more than once if Firestore retries.
+     */
+    private interface DrawPlanner {
+        DrawResult plan(EntrantLists lists) throws FirebaseFirestoreException;
+    }
+
+    /**
+     * Runs once a draw transaction has committed.
+     */
+    private interface OnCommittedListener {
+        void onCommitted(DrawResult result);
+    }
+
+    /**
+     * Sends the invitation notification to every invited entrant and the "not selected"
+     * notification to everyone still waiting.
+     *
+     * @param event The event whose lists have just been drawn
+     */
+    private void notifyLotteryResults(Event event) {
         // Author: Owen - Send notification to all entrants who were selected by the lottery
 
         // Create lottery winner notification object
@@ -99,10 +515,11 @@ public class LotterySampler {
         // Create new NotificationManager object
 
         // Use NotificationManager to send winnerNotification to all users in the invited entrants list
-        nManager.sendToList(event.getInvitedEntrants(), event.getOrganizer(), winnerNotification);
+        // (batched, so a large waitlist costs one write per recipient plus one log write)
+        nManager.sendBulk(event.getInvitedEntrants(), event.getOrganizer(), winnerNotification, null);
 
         // Use NotificationManager to send loserNotification to all users in the invited entrants list
-        nManager.sendToList(event.getWaitingEntrants(), event.getOrganizer(), loserNotification);
+        nManager.sendBulk(event.getWaitingEntrants(), event.getOrganizer(), loserNotification, null);
     }
 
     /**
@@ -110,26 +527,16 @@ public class LotterySampler {
      * This method is useful for preview or testing purposes where you want to see
      * potential lottery results without actually changing event data.
      *
-     * The selection is random and uses shuffling to ensure fairness.
+     * The selection is made by this sampler's {@link SamplingStrategy}. With the default
+     * uniform strategy only {@code sampleSize} positions are shuffled (see
+     * {@link EntrantSampler}), so the cost grows with the sample, not the waiting list.
      *
      * @param entrants List of entrant IDs to sample from
      * @param sampleSize Number of entrants to select
      * @return List of randomly selected entrant IDs, or empty list if parameters are invalid
      */
     public List<String> sampleEntrants(List<String> entrants, int sampleSize) {
-        if (entrants == null || entrants.isEmpty()) {
-            return new ArrayList<>();
-        }
-
-        if (sampleSize <= 0) {
-            return new ArrayList<>();
-        }
-
-        List<String> shuffledEntrants = new ArrayList<>(entrants);
-        Collections.shuffle(shuffledEntrants);
-
-        int numToSelect = Math.min(sampleSize, shuffledEntrants.size());
-        return new ArrayList<>(shuffledEntrants.subList(0, numToSelect));
+        return strategy.sample(entrants, sampleSize);
     }
 
     /**
@@ -137,7 +544,7 @@ public class LotterySampler {
      * This method is called when an invited entrant cancels their invitation,
      * creating an available spot that can be filled from the waiting list.
      *
-     * The selected entrant is randomly chosen, moved from waiting to invited,
+     * The selected entrant is chosen by this sampler's {@link SamplingStrategy}, moved from waiting to invited,
      * and automatically sent a notification about their invitation.
      *
      * @param event The event to fill a vacancy for
@@ -150,16 +557,16 @@ public class LotterySampler {
             throw new IllegalArgumentException("Event cannot be null");
         }
 
-        ArrayList<String> waitingEntrants = event.getWaitingEntrants();
+        List<String> waitingEntrants = event.getWaitingEntrants();
         if (waitingEntrants == null || waitingEntrants.isEmpty()) {
             return null; // No one waiting
         }
 
-        // Randomly select one entrant from the waiting list
-        List<String> selected = sampleEntrants(waitingEntrants, 1);
+        // Select one entrant from the waiting list
+        List<String> picked = strategy.sample(waitingEntrants, 1);
+        String selectedEntrantId = picked.isEmpty() ? null : picked.get(0);
 
-        if (!selected.isEmpty()) {
-            String selectedEntrantId = selected.get(0);
+        if (selectedEntrantId != null) {
 
             // Move from waiting to invited
             event.addEntrantToInvitedEntrants(selectedEntrantId);
@@ -184,4 +591,85 @@ public class LotterySampler {
 
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Fills {@code n} vacancies at once by drawing replacements from the waiting list.
+     *
+     * <p>Calling {@link #fillVacancyFromWaitlist} once per vacancy costs two updates and one
+     * notification write per replacement. This draws every replacement in one pass over the
+     * server's waiting list, commits the moves in a single transactional update, and sends the
+     * invitations through one {@link NotificationManager#sendBulk}. If fewer than {@code n}
+     * entrants are waiting, all of them are invited.</p>
+     *
+     * @param event    The event to fill vacancies for
+     * @param n        Number of vacancies to fill
+     * @param listener Receives the invited replacements (possibly empty) or the failure
+     * @throws IllegalArgumentException if event is null or n is negative
+     */
+    public void fillVacancies(Event event, int n, OnLotteryDrawnListener listener) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException("Number of vacancies cannot be negative");
+        }
+
+        runDrawTransaction(event, lists -> moveToInvited(lists, sampleEntrants(lists.waiting, n)),
+                result -> onReplacementsCommitted(event, result, listener), listener);
+    }
+
+    /**
+     * Cancels several invited entrants and fills their places in one transaction.
+     *
+     * <p>Entrants that are not currently invited are ignored. The cancelled entrants are moved
+     * from the invited list to the cancelled list, and the same number of replacements are drawn
+     * from the waiting list, all in a single update. Replacements are notified in one bulk send;
+     * notifying the cancelled entrants is left to the caller.</p>
+     *
+     * @param event      The event to update
+     * @param entrantIds Invited entrants to cancel
+     * @param listener   Receives the invited replacements (possibly empty) or the failure
+     * @throws IllegalArgumentException if event is null
+     */
+    public void cancelAndRefill(Event event, List<String> entrantIds, OnLotteryDrawnListener listener) {
+        if (event == null) {
+            throw new IllegalArgumentException("Event cannot be null");
+        }
+        List<String> toCancel = entrantIds != null ? new ArrayList<>(entrantIds) : new ArrayList<>();
+
+        runDrawTransaction(event, lists -> {
+            EntrantSet cancelled = new EntrantSet(lists.cancelled);
+            int vacancies = 0;
+            for (String id : toCancel) {
+                if (lists.invited.remove(id)) {
+                    vacancies++;
+                    cancelled.add(id);
+                }
+            }
+
+            DrawResult result = moveToInvited(lists, sampleEntrants(lists.waiting, vacancies));
+            if (vacancies > 0) {
+                if (result.invited == null) result.invited = lists.invited;
+                result.cancelled = cancelled;
+            }
+            return result;
+        }, result -> onReplacementsCommitted(event, result, listener), listener);
+    }
+
+    /**
+     * Applies committed replacements locally and sends their invitations in one bulk send.
+     */
+    private void onReplacementsCommitted(Event event, DrawResult result, OnLotteryDrawnListener listener) {
+        applyDrawLocally(event, result);
+        if (!result.selected.isEmpty()) {
+            Notification invitation = new Notification(
+                    event.getEventID(),
+                    event.getOrganizer(),
+                    String.format("You've been invited to join the event: %s\n" +
+                            "Navigate to the event to accept/decline your invitation.", event.getEventTitle())
+            );
+            nManager.sendBulk(result.selected, event.getOrganizer(), invitation, null);
+        }
+        listener.onLotteryDrawn(result.selected);
+    }
+}
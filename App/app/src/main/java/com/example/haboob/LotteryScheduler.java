@@ -0,0 +1,473 @@
+package com.example.haboob;
+
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code LotteryScheduler} draws each event's lottery automatically when its registration closes.
+ * <p>
+ * Events are queued in a priority queue ordered by {@code registrationEndDate}. One timer sleeps
+ * until the earliest close time and then starts every draw that is due, keeping at most
+ * {@code maxConcurrentDraws} in flight; the rest start as earlier ones finish.
+ * <p>
+ * Draws run through {@link LotterySampler#drawLotteryOnce}, which records
+ * {@code lotteryDrawnAt} in the same transaction that moves the entrants, so a draw never runs
+ * twice, even across devices or app restarts. Locally, an event is not queued again while its
+ * draw runs or once it has been drawn. A draw that fails for a reason that may pass, such as
+ * being offline or a contended transaction, is queued again after a backoff starting at
+ * {@link #RETRY_BACKOFF_MS}, up to {@link #MAX_DRAW_ATTEMPTS} times; one that cannot succeed,
+ * such as an event with nobody waiting, is not. Events that closed more than
+ * {@link #MAX_CATCH_UP_MS} ago are not drawn automatically.
+ * <p>
+ * The scheduler lives in the app process, not on a server: draws only fire while an organizer
+ * has the app in the foreground with {@code OrganizerMainActivity} started, which is when its
+ * events are live-synced. An event whose registration closes while no organizer device is
+ * running the app is drawn the next time one is, if that is within {@link #MAX_CATCH_UP_MS};
+ * otherwise the organizer has to draw it by hand.
+ * <p>
+ * Queue depth, draw latency (start to commit) and lag (close time to start) are recorded and
+ * reported to the {@link OnDrawFinishedListener}.
+ * <p>
+ * Public methods are thread-safe. {@link #attachTo} must be called on the main thread, which is
+ * where {@link EventsList} reports changes.
+ */
+public class LotteryScheduler {
+
+    private static final String TAG = "LotteryScheduler";
+
+    /** Default limit on draws running at the same time. */
+    static final int DEFAULT_MAX_CONCURRENT_DRAWS = 4;
+
+    /** Events whose registration closed longer ago than this are left to the organizer. */
+    static final long MAX_CATCH_UP_MS = TimeUnit.DAYS.toMillis(7);
+
+    /** Wait before retrying a failed draw; doubled on each further failure. */
+    static final long RETRY_BACKOFF_MS = TimeUnit.SECONDS.toMillis(30);
+
+    /** Longest wait between retries. */
+    static final long MAX_RETRY_BACKOFF_MS = TimeUnit.MINUTES.toMillis(30);
+
+    /** Draws tried per event before it is left to the organizer. */
+    static final int MAX_DRAW_ATTEMPTS = 6;
+
+    /**
+     * Starts a single draw. Implemented by {@link LotterySampler#drawLotteryOnce}.
+     */
+    public interface DrawRunner {
+        void draw(Event event, LotterySampler.OnLotteryDrawnListener listener);
+    }
+
+    /**
+     * Source of the current time, replaceable in tests.
+     */
+    public interface Clock {
+        long currentTimeMillis();
+    }
+
+    /** How a scheduled draw ended. */
+    public enum Outcome {
+        /** The draw was committed. */
+        DRAWN,
+        /** The event had already been drawn, here or on another device. */
+        ALREADY_DRAWN,
+        /**
+         * The draw failed, e.g. nobody was waiting or the device was offline. Failures that may
+         * pass are retried.
+         */
+        FAILED
+    }
+
+    /**
+     * Instrumentation callback, called after every draw the scheduler starts.
+     */
+    public interface OnDrawFinishedListener {
+        /**
+         * @param eventID   the drawn event
+         * @param outcome   how the draw ended
+         * @param latencyMs time from starting the draw until it finished
+         * @param lagMs     time from registration close until the draw started
+         * @param error     the failure for {@link Outcome#FAILED}, otherwise {@code null}
+         */
+        void onDrawFinished(String eventID, Outcome outcome, long latencyMs, long lagMs, @Nullable Exception error);
+    }
+
+    private static LotteryScheduler instance;
+
+    private final DrawRunner runner;
+    private final ScheduledExecutorService timer;
+    private final Clock clock;
+    private final int maxConcurrentDraws;
+
+    /** Draws waiting for their close time (or for a free slot), earliest first. */
+    private final PriorityQueue<PendingDraw> queue = new PriorityQueue<>();
+
+    /** eventID -> its entry in {@link #queue}. */
+    private final Map<String, PendingDraw> pendingById = new HashMap<>();
+
+    /** Events whose draw is running or has been drawn; not queued again. */
+    private final Set<String> claimed = new HashSet<>();
+
+    /** eventID -> failed draws so far, for events waiting to be retried. */
+    private final Map<String, Integer> failedAttempts = new HashMap<>();
+
+    /** eventID -> earliest time its next draw may start, for events waiting to be retried. */
+    private final Map<String, Long> retryAt = new HashMap<>();
+
+    private ScheduledFuture<?> wakeUp;
+    private long wakeUpAt;
+    private int inFlight = 0;
+    private long sequence = 0;
+
+    private OnDrawFinishedListener drawFinishedListener;
+    private EventsList attachedList;
+    private EventsList.OnEventsChangedListener attachedListener;
+    private String organizerFilter;
+
+    // Instrumentation
+    private int maxQueueDepth = 0;
+    private long drawnCount = 0;
+    private long alreadyDrawnCount = 0;
+    private long failedCount = 0;
+    private long totalLatencyMs = 0;
+    private long maxLatencyMs = 0;
+    private long totalLagMs = 0;
+
+    /**
+     * @return the process-wide scheduler, created on first use
+     */
+    public static synchronized LotteryScheduler getInstance() {
+        if (instance == null) {
+            NotificationManager notifications = new NotificationManager();
+            instance = new LotteryScheduler(
+                    (event, listener) -> LotterySampler.forEvent(event, notifications).drawLotteryOnce(event, listener),
+                    Executors.newSingleThreadScheduledExecutor(),
+                    System::currentTimeMillis,
+                    DEFAULT_MAX_CONCURRENT_DRAWS);
+            instance.setOnDrawFinishedListener((eventID, outcome, latencyMs, lagMs, error) ->
+                    Log.d(TAG, "Draw " + outcome + " for " + eventID + " in " + latencyMs + " ms ("
+                            + lagMs + " ms after close, queue depth " + instance.getQueueDepth() + ")", error));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param runner             starts a single draw
+     * @param timer              executor used to wake up at close times
+     * @param clock              source of the current time
+     * @param maxConcurrentDraws maximum number of draws in flight
+     */
+    LotteryScheduler(DrawRunner runner, ScheduledExecutorService timer, Clock clock, int maxConcurrentDraws) {
+        if (maxConcurrentDraws <= 0) {
+            throw new IllegalArgumentException("maxConcurrentDraws must be positive");
+        }
+        this.runner = runner;
+        this.timer = timer;
+        this.clock = clock;
+        this.maxConcurrentDraws = maxConcurrentDraws;
+    }
+
+    /**
+     * @param listener called after every draw; replaces any previous listener
+     */
+    public synchronized void setOnDrawFinishedListener(@Nullable OnDrawFinishedListener listener) {
+        this.drawFinishedListener = listener;
+    }
+
+    /**
+     * Schedules every event in {@code eventsList} and keeps the queue in step with it: added and
+     * modified events are (re)scheduled, removed ones are dropped. Calling again with the same
+     * list only updates the organizer filter.
+     *
+     * @param eventsList  list to watch, usually one live-synced with only the organizer's events
+     * @param organizerID only schedule this organizer's events, or {@code null} for all events
+     */
+    public void attachTo(EventsList eventsList, @Nullable String organizerID) {
+        synchronized (this) {
+            organizerFilter = organizerID;
+            if (attachedList != eventsList) {
+                if (attachedList != null) attachedList.removeOnEventsChangedListener(attachedListener);
+                attachedList = eventsList;
+                attachedListener = new EventsList.OnEventsChangedListener() {
+                    @Override
+                    public void onEventsChanged(List<Event> added, List<Event> modified, List<Event> removed) {
+                        for (Event e : added) scheduleIfMatching(e);
+                        for (Event e : modified) scheduleIfMatching(e);
+                        for (Event e : removed) unschedule(e.getEventID());
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        // Keep the queue; it is refreshed when live sync restarts
+                    }
+                };
+                eventsList.addOnEventsChangedListener(attachedListener);
+            }
+        }
+        for (Event e : new ArrayList<>(eventsList.getEventsList())) {
+            scheduleIfMatching(e);
+        }
+    }
+
+    /**
+     * Queues an event's draw for its registration close time, or moves it if the close time
+     * changed. A draw waiting to be retried is not queued before its backoff ends. Events
+     * without a close time, already drawn, claimed here, or closed more than
+     * {@link #MAX_CATCH_UP_MS} ago are ignored.
+     *
+     * @param event event to schedule
+     */
+    public synchronized void schedule(Event event) {
+        if (event == null || event.getEventID() == null || event.getRegistrationEndDate() == null) return;
+        String eventID = event.getEventID();
+
+        if (event.getLotteryDrawnAt() != null || claimed.contains(eventID)) {
+            unschedule(eventID);
+            return;
+        }
+
+        long dueAt = event.getRegistrationEndDate().getTime();
+        if (dueAt < clock.currentTimeMillis() - MAX_CATCH_UP_MS) {
+            unschedule(eventID);
+            return;
+        }
+        Long notBefore = retryAt.get(eventID);
+        if (notBefore != null) dueAt = Math.max(dueAt, notBefore);
+
+        PendingDraw existing = pendingById.get(eventID);
+        if (existing != null) {
+            existing.event = event;
+            if (existing.dueAt == dueAt) return;
+            queue.remove(existing);
+        }
+
+        PendingDraw draw = new PendingDraw(event, dueAt, sequence++);
+        queue.add(draw);
+        pendingById.put(eventID, draw);
+        maxQueueDepth = Math.max(maxQueueDepth, queue.size());
+        armTimer();
+    }
+
+    /**
+     * Removes an event's pending draw, if any. A draw already in flight is not affected.
+     *
+     * @param eventID event identifier
+     */
+    public synchronized void unschedule(String eventID) {
+        PendingDraw draw = pendingById.remove(eventID);
+        if (draw == null) return;
+        queue.remove(draw);
+        armTimer();
+    }
+
+    /**
+     * Stops the timer. Draws already in flight still complete.
+     */
+    public synchronized void shutdown() {
+        if (wakeUp != null) wakeUp.cancel(false);
+        wakeUp = null;
+        timer.shutdown();
+    }
+
+    // -------------------- Instrumentation --------------------
+
+    /** @return number of draws waiting for their close time or a free slot */
+    public synchronized int getQueueDepth() {
+        return queue.size();
+    }
+
+    /** @return largest queue depth seen */
+    public synchronized int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    /** @return number of draws currently running */
+    public synchronized int getInFlightCount() {
+        return inFlight;
+    }
+
+    /** @return number of draws committed */
+    public synchronized long getDrawnCount() {
+        return drawnCount;
+    }
+
+    /** @return number of draws skipped because the event was already drawn */
+    public synchronized long getAlreadyDrawnCount() {
+        return alreadyDrawnCount;
+    }
+
+    /** @return number of draws that failed */
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    /** @return mean time from starting a draw to it finishing, or 0 before the first draw */
+    public synchronized long getAverageLatencyMs() {
+        long finished = drawnCount + alreadyDrawnCount + failedCount;
+        return finished == 0 ? 0 : totalLatencyMs / finished;
+    }
+
+    /** @return longest time from starting a draw to it finishing */
+    public synchronized long getMaxLatencyMs() {
+        return maxLatencyMs;
+    }
+
+    /** @return mean time from registration close to the draw starting, or 0 before the first draw */
+    public synchronized long getAverageLagMs() {
+        long finished = drawnCount + alreadyDrawnCount + failedCount;
+        return finished == 0 ? 0 : totalLagMs / finished;
+    }
+
+    // -------------------- Scheduling --------------------
+
+    private void scheduleIfMatching(Event event) {
+        String filter;
+        synchronized (this) {
+            filter = organizerFilter;
+        }
+        if (event == null || (filter != null && !filter.equals(event.getOrganizer()))) return;
+        schedule(event);
+    }
+
+    /**
+     * Makes sure the timer fires at the earliest close time in the queue. While every slot is
+     * taken the timer is not needed, because finishing draws start the next ones.
+     */
+    private void armTimer() {
+        PendingDraw head = queue.peek();
+        if (head == null || inFlight >= maxConcurrentDraws) {
+            cancelWakeUp();
+            return;
+        }
+        if (wakeUp != null && wakeUpAt == head.dueAt) return;
+
+        cancelWakeUp();
+        long delay = Math.max(0, head.dueAt - clock.currentTimeMillis());
+        wakeUpAt = head.dueAt;
+        wakeUp = timer.schedule(this::onWakeUp, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void cancelWakeUp() {
+        if (wakeUp != null) {
+            wakeUp.cancel(false);
+            wakeUp = null;
+        }
+    }
+
+    private synchronized void onWakeUp() {
+        wakeUp = null;
+        startDueDraws();
+    }
+
+    /**
+     * Starts due draws until the queue has none left or every slot is taken.
+     */
+    private synchronized void startDueDraws() {
+        long now = clock.currentTimeMillis();
+        while (inFlight < maxConcurrentDraws && !queue.isEmpty() && queue.peek().dueAt <= now) {
+            PendingDraw draw = queue.poll();
+            pendingById.remove(draw.event.getEventID());
+            claimed.add(draw.event.getEventID());
+            start(draw, now);
+        }
+        armTimer();
+    }
+
+    private void start(PendingDraw draw, long startedAt) {
+        inFlight++;
+        long lagMs = Math.max(0, startedAt - draw.dueAt);
+        try {
+            runner.draw(draw.event, new LotterySampler.OnLotteryDrawnListener() {
+                @Override
+                public void onLotteryDrawn(List<String> selectedEntrants) {
+                    finish(draw, Outcome.DRAWN, startedAt, lagMs, null);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    Outcome outcome = e instanceof LotterySampler.LotteryAlreadyDrawnException
+                            ? Outcome.ALREADY_DRAWN
+                            : Outcome.FAILED;
+                    finish(draw, outcome, startedAt, lagMs, outcome == Outcome.FAILED ? e : null);
+                }
+            });
+        } catch (RuntimeException e) {
+            finish(draw, Outcome.FAILED, startedAt, lagMs, e);
+        }
+    }
+
+    private void finish(PendingDraw draw, Outcome outcome, long startedAt, long lagMs, @Nullable Exception error) {
+        String eventID = draw.event.getEventID();
+        OnDrawFinishedListener listener;
+        long latencyMs;
+        boolean retry = false;
+        synchronized (this) {
+            inFlight--;
+            if (outcome == Outcome.FAILED) {
+                int attempts = failedAttempts.containsKey(eventID) ? failedAttempts.get(eventID) + 1 : 1;
+                retry = attempts < MAX_DRAW_ATTEMPTS && EventMutationQueue.isRetryable(error);
+                if (retry) {
+                    claimed.remove(eventID);
+                    failedAttempts.put(eventID, attempts);
+                    long backoffMs = Math.min(RETRY_BACKOFF_MS << (attempts - 1), MAX_RETRY_BACKOFF_MS);
+                    retryAt.put(eventID, clock.currentTimeMillis() + backoffMs);
+                }
+            }
+            if (!retry) {
+                failedAttempts.remove(eventID);
+                retryAt.remove(eventID);
+            }
+            latencyMs = Math.max(0, clock.currentTimeMillis() - startedAt);
+            totalLatencyMs += latencyMs;
+            maxLatencyMs = Math.max(maxLatencyMs, latencyMs);
+            totalLagMs += lagMs;
+            switch (outcome) {
+                case DRAWN: drawnCount++; break;
+                case ALREADY_DRAWN: alreadyDrawnCount++; break;
+                default: failedCount++; break;
+            }
+            listener = drawFinishedListener;
+        }
+
+        if (listener != null) {
+            listener.onDrawFinished(eventID, outcome, latencyMs, lagMs, error);
+        }
+        if (retry) schedule(draw.event);
+        startDueDraws();
+    }
+
+    /**
+     * A queued draw, ordered by close time and then by scheduling order.
+     */
+    private static class PendingDraw implements Comparable<PendingDraw> {
+        Event event;
+        final long dueAt;
+        final long sequence;
+
+        PendingDraw(Event event, long dueAt, long sequence) {
+            this.event = event;
+            this.dueAt = dueAt;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(PendingDraw other) {
+            if (dueAt != other.dueAt) return Long.compare(dueAt, other.dueAt);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
@@ -37,7 +37,7 @@ public class MainActivity extends AppCompatActivity {
     private ActivityMainBinding binding;
 
     /**
-     * EventsList instance that can be shared across all fragments.
+     * EventsList instance shared across all fragments, owned by {@link EventsRepository}.
      */
     private EventsList eventsList;
 
@@ -57,9 +57,12 @@ public class MainActivity extends AppCompatActivity {
 
     /**
      * Refreshes the EventsList by reloading data from Firebase.
+     * <p>
+     * While a screen observes {@link EventsRepository} the shared list is kept current by
+     * live sync, so a reload only happens if live sync is not running.
      */
     public void refreshEventsList() {
-        if (eventsList != null) {
+        if (eventsList != null && !eventsList.isLiveSyncing()) {
             eventsList.loadEventsList();
         }
     }
@@ -76,7 +79,8 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
 
         // 1) Make the eventsList ready BEFORE inflating layout (which creates the fragment)
-        eventsList = new EventsList(/* maybe getApplicationContext() if needed */);
+        // Screens that need every event observe the repository; the home screen only queries the user's own events
+        eventsList = EventsRepository.getInstance().getEventsList();
 
         // Creates the binding object by inflating activity_main.xml
         binding = ActivityMainBinding.inflate(getLayoutInflater());
@@ -1,4 +1,6 @@
 package com.example.haboob;
+import com.google.firebase.firestore.ServerTimestamp;
+
 import java.util.Date;
 import java.util.UUID;
 
@@ -19,7 +21,10 @@ public class Notification {
 
     private String message;
     private boolean read;
-    private Date timeCreated;
+    private Date timeCreated; // sender's device clock; for display and ordering only
+    /** When Firestore stored the notification, by the server's clock; null until written. */
+    @ServerTimestamp
+    private Date receivedAt;
     private String type; // POSSIBLE TYPES: waitlist_left, waitlist_joined, event_left, event_joined, won_lottery
 
     /**
@@ -116,6 +121,10 @@ public class Notification {
         return timeCreated;
     }
 
+    public Date getReceivedAt() {
+        return receivedAt;
+    }
+
     // SETTERS
     public void setNotificationId(String notificationId) {
         this.notificationId = notificationId;
@@ -149,4 +158,8 @@ public class Notification {
         this.timeCreated = timeCreated;
     }
 
+    public void setReceivedAt(Date receivedAt) {
+        this.receivedAt = receivedAt;
+    }
+
 }
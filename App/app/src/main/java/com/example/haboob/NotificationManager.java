@@ -3,14 +3,20 @@ package com.example.haboob;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Handles creating, sending, logging, and retrieving {@link Notification} objects
@@ -18,6 +24,9 @@ import java.util.ArrayList;
  */
 public class NotificationManager {
 
+    /** Largest number of writes Firestore accepts in one {@link WriteBatch}. */
+    public static final int MAX_BATCH_WRITES = 500;
+
     private final FirebaseFirestore db;
 
 
@@ -43,6 +52,36 @@ public class NotificationManager {
         void onError(Exception e);
     }
 
+    /**
+     * Callback reporting the outcome of each {@link WriteBatch} committed by {@link #sendBulk}.
+     */
+    public interface BulkSendCallback {
+        /**
+         * Called when a chunk of notifications has been written.
+         *
+         * @param chunkIndex   position of the chunk, starting at 0
+         * @param recipientIds recipients whose notifications were in the chunk
+         */
+        void onChunkSent(int chunkIndex, List<String> recipientIds);
+
+        /**
+         * Called when a chunk failed to commit. None of its notifications were written.
+         *
+         * @param chunkIndex   position of the chunk, starting at 0
+         * @param recipientIds recipients whose notifications were in the chunk
+         * @param e            the commit failure
+         */
+        void onChunkFailed(int chunkIndex, List<String> recipientIds, Exception e);
+
+        /**
+         * Called once every chunk has either been sent or failed.
+         *
+         * @param sentCount   number of recipients whose notification was written
+         * @param failedCount number of recipients whose notification was not written
+         */
+        void onComplete(int sentCount, int failedCount);
+    }
+
     /**
      * Sends a notification to a single user by writing it to
      * users/{recipientId}/notifications/{notificationId}.
@@ -81,23 +120,112 @@ public class NotificationManager {
     /**
      * Sends the given notification to every user ID in the list.
      * Each user receives their own copy under their notifications subcollection.
+     * Same as {@link #sendBulk} without a callback.
      *
      * @param recipientIds list of user IDs to receive the notification
      * @param organizerId  ID of the sender
      * @param notification base notification to duplicate for each user
      */
     public void sendToList(ArrayList<String> recipientIds, String organizerId, Notification notification) {
-        for (String id : recipientIds) {
-            Notification userNotification = new Notification(
-                    notification.getEventId(),
-                    notification.getOrganizerId(),
-                    id,
-                    notification.getMessage()
-            );
-            userNotification.setNotificationId(notification.getNotificationId());
-
-            sendToUser(userNotification);
+        sendBulk(recipientIds, organizerId, notification, null);
+    }
+
+    /**
+     * Sends the given notification to every user ID in the list using batched writes.
+     *
+     * <p>Unlike one {@link #sendToUser} per recipient, which issues two writes each, the per-user copies
+     * are grouped into {@link WriteBatch}es of at most {@link #MAX_BATCH_WRITES} writes, and the
+     * organizer log is written once, in the first batch. Each batch commits atomically; its
+     * outcome is reported through {@code callback}. Invalid and duplicate IDs are skipped.</p>
+     *
+     * @param recipientIds list of user IDs to receive the notification
+     * @param organizerId  ID of the sender, used for the organizer log
+     * @param notification base notification to duplicate for each user
+     * @param callback     optional callback for per-chunk results
+     * @return number of batches committed
+     */
+    public int sendBulk(List<String> recipientIds, String organizerId, Notification notification,
+                        @Nullable BulkSendCallback callback) {
+        Set<String> valid = new LinkedHashSet<>();
+        if (notification != null && recipientIds != null) {
+            for (String id : recipientIds) {
+                if (isValidRecipient(id)) valid.add(id);
+            }
+        }
+        if (valid.isEmpty()) {
+            if (callback != null) callback.onComplete(0, 0);
+            return 0;
+        }
+
+        if (notification.getOrganizerId() == null || notification.getOrganizerId().isEmpty()) {
+            notification.setOrganizerId(organizerId);
+        }
+        boolean writeLog = organizerId != null && !organizerId.trim().isEmpty();
+
+        // The organizer log takes one slot in the first batch
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int capacity = writeLog ? MAX_BATCH_WRITES - 1 : MAX_BATCH_WRITES;
+        for (String id : valid) {
+            current.add(id);
+            if (current.size() == capacity) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                capacity = MAX_BATCH_WRITES;
+            }
+        }
+        if (!current.isEmpty()) chunks.add(current);
+
+        final int[] pending = {chunks.size()};
+        final int[] sent = {0};
+        final int[] failed = {0};
+        for (int i = 0; i < chunks.size(); i++) {
+            final int chunkIndex = i;
+            final List<String> chunk = chunks.get(i);
+
+            WriteBatch batch = db.batch();
+            if (i == 0 && writeLog) {
+                batch.set(db.collection("users")
+                        .document(organizerId)
+                        .collection("sentNotifications")
+                        .document(notification.getNotificationId()), notification);
+            }
+            for (String id : chunk) {
+                Notification userNotification = new Notification(
+                        notification.getEventId(),
+                        notification.getOrganizerId(),
+                        id,
+                        notification.getMessage(),
+                        notification.getType()
+                );
+                userNotification.setNotificationId(notification.getNotificationId());
+                userNotification.setTimeCreated(notification.getTimeCreated());
+
+                batch.set(db.collection("users")
+                        .document(id)
+                        .collection("notifications")
+                        .document(userNotification.getNotificationId()), userNotification);
+            }
+
+            batch.commit()
+                    .addOnSuccessListener(aVoid -> {
+                        sent[0] += chunk.size();
+                        if (callback != null) callback.onChunkSent(chunkIndex, chunk);
+                        if (--pending[0] == 0 && callback != null) callback.onComplete(sent[0], failed[0]);
+                    })
+                    .addOnFailureListener(e -> {
+                        failed[0] += chunk.size();
+                        if (callback != null) callback.onChunkFailed(chunkIndex, chunk, e);
+                        if (--pending[0] == 0 && callback != null) callback.onComplete(sent[0], failed[0]);
+                    });
         }
+        return chunks.size();
+    }
+
+    private static boolean isValidRecipient(String recipientId) {
+        return recipientId != null
+                && !recipientId.trim().isEmpty()
+                && !Notification.DEFAULT_RECIPIENT_ID.equals(recipientId);
     }
 
     /**
@@ -147,14 +275,51 @@ public class NotificationManager {
                 .collection("notifications")
                 .orderBy("timeCreated", Query.Direction.DESCENDING)
                 .get()
-                .addOnSuccessListener((QuerySnapshot qs) -> {
-                    ArrayList<Notification> list = new ArrayList<>();
-                    for (DocumentSnapshot doc : qs.getDocuments()) {
-                        Notification n = doc.toObject(Notification.class);
-                        if (n != null) { list.add(n); }
-                    }
-                    callback.onSuccess(list);
-                })
+                .addOnSuccessListener((QuerySnapshot qs) -> callback.onSuccess(toNotifications(qs)))
+                .addOnFailureListener(callback::onError);
+    }
+
+    /**
+     * Fetches the notifications Firestore stored for a user at or after {@code since}, by
+     * {@link Notification#getReceivedAt()}, ordered newest first. That time comes from the
+     * server, so a sender's wrong device clock cannot hide a notification. Used to top up a
+     * local copy such as {@link OfflineStore}'s; notifications received at exactly
+     * {@code since} are included, so the caller should drop ones it already has.
+     * <p>
+     * Notifications written before {@code receivedAt} existed lack the field and are only
+     * returned by {@link #getUserNotifications}.
+     *
+     * @param userId   the user's ID
+     * @param since    server time to fetch from, or {@code null} to fetch all notifications
+     * @param callback callback returning the list or an error
+     */
+    public void getUserNotificationsSince(@NonNull String userId, @Nullable Date since,
+                                          @NonNull NotificationsCallback callback) {
+        if (since == null) {
+            getUserNotifications(userId, callback);
+            return;
+        }
+        if (userId.trim().isEmpty()) {
+            callback.onError(new IllegalArgumentException("userId is empty"));
+            return;
+        }
+
+        db.collection("users")
+                .document(userId)
+                .collection("notifications")
+                .whereGreaterThanOrEqualTo("receivedAt", since)
+                .orderBy("receivedAt", Query.Direction.DESCENDING)
+                .get()
+                .addOnSuccessListener((QuerySnapshot qs) -> callback.onSuccess(toNotifications(qs)))
                 .addOnFailureListener(callback::onError);
     }
+
+    private static ArrayList<Notification> toNotifications(QuerySnapshot qs) {
+        ArrayList<Notification> list = new ArrayList<>();
+        for (DocumentSnapshot doc : qs.getDocuments()) {
+            Notification n = doc.toObject(Notification.class);
+            if (n != null) { list.add(n); }
+        }
+        return list;
+    }
 }
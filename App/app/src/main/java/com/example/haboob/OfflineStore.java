@@ -0,0 +1,509 @@
+package com.example.haboob;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.GeoPoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * {@code OfflineStore} keeps an on-device copy of the current user's events, notifications and
+ * profile, so screens can show them on launch before Firestore answers.
+ * <p>
+ * Each section is a small binary file per user under {@link #DIRECTORY} in the app's files
+ * directory. Files start with {@link #MAGIC} and {@link #FORMAT_VERSION}; a file with another
+ * version, or one that cannot be read, counts as a cache miss and is replaced on the next save.
+ * Saves write a temporary file and rename it over the old one, so a crash never leaves a torn file.
+ * <p>
+ * The cache is only a head start. Screens show what it holds, then reconcile with Firestore in the
+ * background and save the result:
+ * <ul>
+ *   <li>Events are re-read with {@link EventsList#loadEntrantEvents}, which already queries only
+ *       the user's own events. Event documents carry no update time to compare against.</li>
+ *   <li>Notifications received at or after {@link #newestReceivedAt}, a server timestamp, are
+ *       fetched and merged in with {@link #mergeNotifications}. That misses notifications
+ *       deleted or marked read elsewhere, so the whole list is re-read and replaces the copy
+ *       once it is older than {@link #NOTIFICATIONS_FULL_REFRESH_MS}.</li>
+ *   <li>The profile is one document and is simply re-read.</li>
+ * </ul>
+ * Files are read and written on a single background thread; listeners are called on the main thread.
+ */
+public final class OfflineStore {
+
+    /** Directory under the app's files directory holding the cache files. */
+    static final String DIRECTORY = "offline";
+
+    /** First bytes of every cache file ("HBOC"). */
+    static final int MAGIC = 0x48424F43;
+
+    /** Version of the file layout; bump whenever a codec below changes. */
+    static final int FORMAT_VERSION = 2;
+
+    /** Age after which cached notifications are re-read in full rather than topped up. */
+    public static final long NOTIFICATIONS_FULL_REFRESH_MS = 24L * 60 * 60 * 1000;
+
+    /** Most notifications kept per user; older ones are dropped first. */
+    static final int MAX_NOTIFICATIONS = 200;
+
+    /** Fields of a users/{deviceId} document kept by {@link #saveProfile}. */
+    public static final String[] PROFILE_FIELDS = {
+            "first_name", "last_name", "email", "phone", "account_type"
+    };
+
+    private static final String EVENTS = "events";
+    private static final String NOTIFICATIONS = "notifications";
+    private static final String PROFILE = "profile";
+
+    /** Marks a missing string or date in the encoded data. */
+    private static final int NULL_LENGTH = -1;
+    private static final long NULL_DATE = Long.MIN_VALUE;
+
+    private static OfflineStore instance;
+
+    private final File dir;
+    private final Executor io;
+    private final Executor main;
+    private final EventFactory eventFactory;
+
+    /**
+     * Receives a cached value.
+     *
+     * @param <T> type of the cached value
+     */
+    public interface OnLoadedListener<T> {
+        /**
+         * @param value the cached value, or {@code null} if nothing usable is cached
+         */
+        void onLoaded(@Nullable T value);
+    }
+
+    /**
+     * Creates the empty events that cached data is decoded into.
+     */
+    interface EventFactory {
+        Event create();
+    }
+
+    /**
+     * @param context any context; only its application context is kept
+     * @return the process-wide store, created on first use
+     */
+    public static synchronized OfflineStore getInstance(Context context) {
+        if (instance == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            instance = new OfflineStore(new File(context.getApplicationContext().getFilesDir(), DIRECTORY),
+                    Executors.newSingleThreadExecutor(), handler::post, Event::new);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a store.
+     *
+     * @param dir          directory holding the cache files, created on first save
+     * @param io           executor that reads and writes the files; must run tasks in order
+     * @param main         executor that calls listeners
+     * @param eventFactory creates the events that cached events are decoded into
+     */
+    OfflineStore(File dir, Executor io, Executor main, EventFactory eventFactory) {
+        this.dir = dir;
+        this.io = io;
+        this.main = main;
+        this.eventFactory = eventFactory;
+    }
+
+    // -------------------- Events --------------------
+
+    /**
+     * Loads the events last saved for a user.
+     *
+     * @param userId   the user's device ID
+     * @param listener receives the events, or {@code null} if none are cached
+     */
+    public void loadEvents(String userId, OnLoadedListener<List<Event>> listener) {
+        load(userId, EVENTS, in -> readEvents(in, eventFactory), listener);
+    }
+
+    /**
+     * Replaces the events cached for a user. The events are encoded before this returns, so
+     * later changes to them are not saved.
+     *
+     * @param userId the user's device ID
+     * @param events the events the user is in
+     */
+    public void saveEvents(String userId, List<Event> events) {
+        save(userId, EVENTS, out -> writeEvents(out, events));
+    }
+
+    // -------------------- Notifications --------------------
+
+    /**
+     * Loads the notifications last saved for a user, newest first.
+     *
+     * @param userId   the user's device ID
+     * @param listener receives the notifications, or {@code null} if none are cached
+     */
+    public void loadNotifications(String userId, OnLoadedListener<List<Notification>> listener) {
+        load(userId, NOTIFICATIONS, OfflineStore::readNotifications, listener);
+    }
+
+    /**
+     * Replaces the notifications cached for a user, keeping the newest {@link #MAX_NOTIFICATIONS}.
+     *
+     * @param userId        the user's device ID
+     * @param notifications the user's notifications, newest first
+     */
+    public void saveNotifications(String userId, List<Notification> notifications) {
+        List<Notification> kept = notifications.size() > MAX_NOTIFICATIONS
+                ? notifications.subList(0, MAX_NOTIFICATIONS)
+                : notifications;
+        save(userId, NOTIFICATIONS, out -> writeNotifications(out, kept));
+    }
+
+    /**
+     * @param notifications cached notifications, may be {@code null}
+     * @return the latest server receive time among them, or {@code null} if there are none;
+     *         fetching from this time onwards picks up every notification sent since
+     */
+    @Nullable
+    public static Date newestReceivedAt(@Nullable List<Notification> notifications) {
+        if (notifications == null) return null;
+        Date newest = null;
+        for (Notification n : notifications) {
+            Date received = n.getReceivedAt();
+            if (received != null && (newest == null || received.after(newest))) newest = received;
+        }
+        return newest;
+    }
+
+    /**
+     * Merges freshly fetched notifications into cached ones. A notification in both lists is
+     * kept once, as fetched.
+     *
+     * @param cached  cached notifications, may be {@code null}
+     * @param fetched notifications read from Firestore
+     * @return every notification, newest first
+     */
+    public static ArrayList<Notification> mergeNotifications(@Nullable List<Notification> cached,
+                                                             List<Notification> fetched) {
+        LinkedHashMap<String, Notification> byId = new LinkedHashMap<>();
+        if (cached != null) {
+            for (Notification n : cached) byId.put(n.getNotificationId(), n);
+        }
+        for (Notification n : fetched) byId.put(n.getNotificationId(), n);
+
+        ArrayList<Notification> merged = new ArrayList<>(byId.values());
+        merged.sort((a, b) -> {
+            long ta = a.getTimeCreated() == null ? Long.MIN_VALUE : a.getTimeCreated().getTime();
+            long tb = b.getTimeCreated() == null ? Long.MIN_VALUE : b.getTimeCreated().getTime();
+            return Long.compare(tb, ta);
+        });
+        return merged;
+    }
+
+    // -------------------- Profile --------------------
+
+    /**
+     * Loads the profile last saved for a user.
+     *
+     * @param userId   the user's device ID
+     * @param listener receives field name -> value for {@link #PROFILE_FIELDS}, or {@code null}
+     */
+    public void loadProfile(String userId, OnLoadedListener<Map<String, String>> listener) {
+        load(userId, PROFILE, OfflineStore::readProfile, listener);
+    }
+
+    /**
+     * Replaces the profile cached for a user.
+     *
+     * @param userId  the user's device ID
+     * @param profile field name -> value; only {@link #PROFILE_FIELDS} are kept
+     */
+    public void saveProfile(String userId, Map<String, String> profile) {
+        Map<String, String> kept = new LinkedHashMap<>();
+        for (String field : PROFILE_FIELDS) {
+            if (profile.get(field) != null) kept.put(field, profile.get(field));
+        }
+        save(userId, PROFILE, out -> writeProfile(out, kept));
+    }
+
+    /**
+     * @param snapshot a users/{deviceId} document
+     * @return its {@link #PROFILE_FIELDS} that are set
+     */
+    public static Map<String, String> profileOf(DocumentSnapshot snapshot) {
+        Map<String, String> profile = new LinkedHashMap<>();
+        for (String field : PROFILE_FIELDS) {
+            String value = snapshot.getString(field);
+            if (value != null) profile.put(field, value);
+        }
+        return profile;
+    }
+
+    /**
+     * Deletes everything cached for a user, e.g. when their profile is deleted.
+     *
+     * @param userId the user's device ID
+     */
+    public void clear(String userId) {
+        io.execute(() -> {
+            for (String section : new String[] {EVENTS, NOTIFICATIONS, PROFILE}) {
+                fileFor(userId, section).delete();
+            }
+        });
+    }
+
+    // -------------------- Files --------------------
+
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private <T> void load(String userId, String section, Reader<T> reader, OnLoadedListener<T> listener) {
+        io.execute(() -> {
+            T value = null;
+            File file = fileFor(userId, section);
+            if (file.exists()) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                    if (in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION) {
+                        value = reader.read(in);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    value = null;
+                }
+                if (value == null) file.delete();
+            }
+            T result = value;
+            main.execute(() -> listener.onLoaded(result));
+        });
+    }
+
+    private void save(String userId, String section, Writer writer) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writer.write(out);
+        } catch (IOException e) {
+            return; // not thrown by in-memory streams
+        }
+        byte[] data = bytes.toByteArray();
+
+        io.execute(() -> {
+            File file = fileFor(userId, section);
+            File temp = new File(dir, file.getName() + ".tmp");
+            // The cache is best effort: if the write fails the old file stays, and the next save retries
+            if (!dir.isDirectory() && !dir.mkdirs()) return;
+            try (BufferedOutputStream out = new BufferedOutputStream(new FileOutputStream(temp))) {
+                out.write(data);
+            } catch (IOException e) {
+                temp.delete();
+                return;
+            }
+            if (!temp.renameTo(file)) temp.delete();
+        });
+    }
+
+    private File fileFor(String userId, String section) {
+        String safeId = userId.replaceAll("[^A-Za-z0-9_-]", "_");
+        return new File(dir, safeId + "." + section + ".bin");
+    }
+
+    // -------------------- Codecs --------------------
+
+    /**
+     * Encodes events, including their entrant lists. Transient state is not kept.
+     */
+    static void writeEvents(DataOutputStream out, List<Event> events) throws IOException {
+        out.writeInt(events.size());
+        for (Event e : events) {
+            writeString(out, e.getEventID());
+            writeString(out, e.getOrganizer());
+            writeString(out, e.getEventTitle());
+            writeString(out, e.getEventDescription());
+            writeDate(out, e.getRegistrationStartDate());
+            writeDate(out, e.getRegistrationEndDate());
+            writeDate(out, e.getLotteryDrawnAt());
+            out.writeBoolean(e.getGeoLocationRequired());
+            out.writeBoolean(e.isShardedEntrants());
+            out.writeInt(e.getLotterySampleSize());
+            out.writeInt(e.getOptionalWaitingListSize());
+            writeString(out, e.getPoster() == null ? null : e.getPoster().getData());
+            writeString(out, e.getQRCode() == null ? null : e.getQRCode().getEventID());
+            writeStrings(out, e.getTags());
+            writeStrings(out, e.getInvitedEntrants());
+            writeStrings(out, e.getWaitingEntrants());
+            writeStrings(out, e.getEnrolledEntrants());
+            writeStrings(out, e.getCancelledEntrants());
+            List<GeoPoint> locations = e.getEntrantLocations();
+            out.writeInt(locations == null ? 0 : locations.size());
+            if (locations != null) {
+                for (GeoPoint point : locations) {
+                    out.writeDouble(point.getLatitude());
+                    out.writeDouble(point.getLongitude());
+                }
+            }
+        }
+    }
+
+    /**
+     * Decodes events written by {@link #writeEvents}. Their entrant lists are {@link EntrantSet}s.
+     */
+    static List<Event> readEvents(DataInputStream in, EventFactory factory) throws IOException {
+        int count = in.readInt();
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Event e = factory.create();
+            e.setEventID(readString(in));
+            e.setOrganizer(readString(in));
+            e.setEventTitle(readString(in));
+            e.setEventDescription(readString(in));
+            e.setRegistrationStartDate(readDate(in));
+            e.setRegistrationEndDate(readDate(in));
+            e.setLotteryDrawnAt(readDate(in));
+            e.setGeoLocationRequired(in.readBoolean());
+            e.setShardedEntrants(in.readBoolean());
+            e.setLotterySampleSize(in.readInt());
+            e.setOptionalWaitingListSize(in.readInt());
+            String poster = readString(in);
+            if (poster != null) e.restorePoster(new Poster(poster));
+            String qrEventId = readString(in);
+            if (qrEventId != null) e.setQRCode(new QRCode(qrEventId));
+            e.setTags(readStrings(in));
+            e.setInvitedEntrantsList(readStrings(in));
+            e.setWaitingEntrants(readStrings(in));
+            e.setEnrolledEntrantsList(readStrings(in));
+            e.setCancelledEntrantsList(readStrings(in));
+            int locationCount = in.readInt();
+            ArrayList<GeoPoint> locations = new ArrayList<>();
+            for (int j = 0; j < locationCount; j++) {
+                locations.add(new GeoPoint(in.readDouble(), in.readDouble()));
+            }
+            e.setEntrantLocations(locations);
+            e.useEntrantSets();
+            events.add(e);
+        }
+        return events;
+    }
+
+    static void writeNotifications(DataOutputStream out, List<Notification> notifications) throws IOException {
+        out.writeInt(notifications.size());
+        for (Notification n : notifications) {
+            writeString(out, n.getNotificationId());
+            writeString(out, n.getEventId());
+            writeString(out, n.getOrganizerId());
+            writeString(out, n.getRecipientId());
+            writeString(out, n.getMessage());
+            writeString(out, n.getType());
+            out.writeBoolean(n.isRead());
+            writeDate(out, n.getTimeCreated());
+            writeDate(out, n.getReceivedAt());
+        }
+    }
+
+    static List<Notification> readNotifications(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        List<Notification> notifications = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = readString(in);
+            String eventId = readString(in);
+            String organizerId = readString(in);
+            String recipientId = readString(in);
+            String message = readString(in);
+            String type = readString(in);
+            Notification n = new Notification(eventId, organizerId, recipientId, message, type);
+            n.setNotificationId(id);
+            n.setRead(in.readBoolean());
+            n.setTimeCreated(readDate(in));
+            n.setReceivedAt(readDate(in));
+            notifications.add(n);
+        }
+        return notifications;
+    }
+
+    static void writeProfile(DataOutputStream out, Map<String, String> profile) throws IOException {
+        out.writeInt(profile.size());
+        for (Map.Entry<String, String> field : profile.entrySet()) {
+            writeString(out, field.getKey());
+            writeString(out, field.getValue());
+        }
+    }
+
+    static Map<String, String> readProfile(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, String> profile = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            profile.put(readString(in), readString(in));
+        }
+        return profile;
+    }
+
+    /** Writes a length-prefixed UTF-8 string; unlike writeUTF it has no 64 KB limit. */
+    private static void writeString(DataOutputStream out, @Nullable String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    @Nullable
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) return null;
+        if (length < 0) throw new IOException("Corrupt string length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeStrings(DataOutputStream out, @Nullable List<String> values) throws IOException {
+        out.writeInt(values == null ? 0 : values.size());
+        if (values == null) return;
+        for (String value : values) writeString(out, value);
+    }
+
+    private static ArrayList<String> readStrings(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        ArrayList<String> values = new ArrayList<>();
+        for (int i = 0; i < count; i++) values.add(readString(in));
+        return values;
+    }
+
+    private static void writeDate(DataOutputStream out, @Nullable Date date) throws IOException {
+        out.writeLong(date == null ? NULL_DATE : date.getTime());
+    }
+
+    @Nullable
+    private static Date readDate(DataInputStream in) throws IOException {
+        long time = in.readLong();
+        return time == NULL_DATE ? null : new Date(time);
+    }
+}
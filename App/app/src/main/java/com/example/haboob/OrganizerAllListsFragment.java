@@ -10,6 +10,8 @@ import com.google.android.gms.maps.SupportMapFragment;
 import com.google.android.gms.maps.model.LatLng;
 import com.google.android.gms.maps.model.MarkerOptions;
 import com.example.haboob.databinding.ActivityOrganizerViewMapsBinding;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.GeoPoint;
 
 import static android.view.View.INVISIBLE;
@@ -40,8 +42,10 @@ import androidx.navigation.fragment.NavHostFragment;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Fragment used by organizers to review and manage all entrant-related lists for a single
@@ -65,6 +69,9 @@ import java.util.HashMap;
  */
 public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCallback {
 
+    /** Entrants loaded per page for events with sharded entrant storage. */
+    private static final int SHARDED_PAGE_SIZE = 100;
+
     // Inflate new view
     /** Expandable list UI component for grouped entrant lists. */
     private ExpandableListView expandableListView;
@@ -81,6 +88,9 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
     /** The event whose lists are being displayed. */
     private Event selectedEvent;
 
+    /** Pages behind {@link #expandableListDetail} when the event's entrants are sharded; else null. */
+    private OrganizerExpandableListsData.PagedLists pagedLists;
+
     /** Map of user signups for this event */
     private GoogleMap googleMap;
 
@@ -200,9 +210,10 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
 
         // Expandable list display to screen
         expandableListView = view.findViewById(R.id.expandable_list_view);
-        expandableListDetail = OrganizerExpandableListsData.getListsToDisplay(selectedEvent);
+        expandableListDetail = listsToDisplay();
         expandableListTitle = new ArrayList<>(expandableListDetail.keySet());
         expandableListAdapter = new OrganizerExpandableListsAdapter(this.getContext(), expandableListTitle, expandableListDetail);
+        expandableListAdapter.setOnLoadMoreListener((groupPosition, groupTitle) -> loadMore(groupTitle));
 
         // Parent group click listener
         expandableListView.setOnGroupClickListener(new ExpandableListView.OnGroupClickListener() {
@@ -235,6 +246,12 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
         });
 
         expandableListView.setAdapter(expandableListAdapter);
+        loadFirstPages();
+
+        // Events that outgrow their document move to sharded storage; the local lists stay valid
+        if (ShardedEntrantStore.needsMigration(selectedEvent)) {
+            migrateEntrants();
+        }
 
         // Force re-measure on expand/collapse
         expandableListView.setOnGroupExpandListener(groupPosition -> {
@@ -313,27 +330,22 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
 
                         String selectedGroup = (String) spList.getSelectedItem();
 
-                        // Get recipient IDs from your existing map (OrganizerExpandableListsData result)
-                        // Keys must match what you used to build expandableListDetail.
-                        ArrayList<String> recipientIds = expandableListDetail.get(selectedGroup);
-                        if (recipientIds == null || recipientIds.isEmpty()) {
-                            Toast.makeText(requireContext(), "No recipients in " + selectedGroup, Toast.LENGTH_SHORT).show();
-                            return;
-                        }
-
-                        // Prepare notification (recipientId handled by sendToList)
-                        String organizerId = selectedEvent.getOrganizer();
-                        Notification notification = new Notification(
-                                selectedEvent.getEventID(),
-                                organizerId,
-                                message
-                        );
-
-                        // Send to list using NotificationManager
-                        NotificationManager nm = new NotificationManager();
-                        nm.sendToList(recipientIds, organizerId, notification);
-
-                        Toast.makeText(requireContext(), "Sending to " + selectedGroup + "…", Toast.LENGTH_SHORT).show();
+                        // The displayed lists may only hold the first pages, so load the whole list to send to
+                        OrganizerExpandableListsData.loadAllLists(FirebaseFirestore.getInstance(), selectedEvent,
+                                new OrganizerExpandableListsData.OnListsLoadedListener() {
+                                    @Override
+                                    public void onListsLoaded(HashMap<String, ArrayList<String>> lists) {
+                                        if (isAdded()) sendNotification(selectedGroup, lists.get(selectedGroup), message);
+                                    }
+
+                                    @Override
+                                    public void onError(Exception e) {
+                                        Log.e("OrganizerAllListsFragment", "Failed to load " + selectedGroup, e);
+                                        if (isAdded()) {
+                                            Toast.makeText(requireContext(), "Failed to load " + selectedGroup, Toast.LENGTH_SHORT).show();
+                                        }
+                                    }
+                                });
                     })
                     .show();
         });
@@ -347,42 +359,110 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
 
         csvDataButton.setOnClickListener(v -> {
 
-            // Generate CSV text
-            String csv = generateCsv(selectedEvent);  // event you're exporting
+            // Export every enrolled entrant, not just the pages on screen
+            OrganizerExpandableListsData.loadAllLists(FirebaseFirestore.getInstance(), selectedEvent,
+                    new OrganizerExpandableListsData.OnListsLoadedListener() {
+                        @Override
+                        public void onListsLoaded(HashMap<String, ArrayList<String>> lists) {
+                            if (isAdded()) exportCsv(lists.get("Enrolled list"));
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            Log.e("OrganizerAllListsFragment", "Failed to load enrolled entrants", e);
+                            if (isAdded()) {
+                                Toast.makeText(getContext(), "Failed to create CSV file", Toast.LENGTH_SHORT).show();
+                            }
+                        }
+                    });
+        });
+    }
 
-            // 2. Save it to a file
-            String fileName = "entrants_" + selectedEvent.getEventID() + ".csv";
-            Uri uri = saveCsvToFile(getContext(), csv, fileName);
+    /**
+     * Sends a notification with the given message to every entrant of one list.
+     *
+     * @param selectedGroup title of the list, for the confirmation toasts
+     * @param recipientIds  every entrant of the list
+     * @param message       the notification text
+     */
+    private void sendNotification(String selectedGroup, List<String> recipientIds, String message) {
+        if (recipientIds == null || recipientIds.isEmpty()) {
+            Toast.makeText(requireContext(), "No recipients in " + selectedGroup, Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-            if (uri != null) {
-                // 3. Launch sharing dialog
-                shareCsv(getContext(), uri);
-            } else {
-                Toast.makeText(getContext(), "Failed to create CSV file", Toast.LENGTH_SHORT).show();
+        // Prepare notification (recipientId handled by sendBulk)
+        String organizerId = selectedEvent.getOrganizer();
+        Notification notification = new Notification(
+                selectedEvent.getEventID(),
+                organizerId,
+                message
+        );
+
+        // Send to list using NotificationManager
+        NotificationManager nm = new NotificationManager();
+        nm.sendBulk(recipientIds, organizerId, notification, new NotificationManager.BulkSendCallback() {
+            @Override
+            public void onChunkSent(int chunkIndex, List<String> ids) { }
+
+            @Override
+            public void onChunkFailed(int chunkIndex, List<String> ids, Exception e) {
+                Log.e("OrganizerAllListsFragment", "Failed to notify " + ids.size() + " entrants", e);
+            }
+
+            @Override
+            public void onComplete(int sentCount, int failedCount) {
+                if (failedCount > 0 && isAdded()) {
+                    Toast.makeText(requireContext(),
+                            "Failed to notify " + failedCount + " of " + (sentCount + failedCount) + " entrants",
+                            Toast.LENGTH_LONG).show();
+                }
             }
         });
+
+        Toast.makeText(requireContext(), "Sending to " + selectedGroup + "…", Toast.LENGTH_SHORT).show();
     }
 
     /**
-     * Builds a CSV-formatted {@link String} representing the enrolled entrants for the given
-     * {@link Event}.
+     * Writes the enrolled entrants to a CSV file and opens the share sheet for it.
+     *
+     * @param enrolledEntrants every enrolled entrant ID of {@link #selectedEvent}
+     */
+    private void exportCsv(List<String> enrolledEntrants) {
+        // Generate CSV text
+        String csv = generateCsv(enrolledEntrants);
+
+        // 2. Save it to a file
+        String fileName = "entrants_" + selectedEvent.getEventID() + ".csv";
+        Uri uri = saveCsvToFile(getContext(), csv, fileName);
+
+        if (uri != null) {
+            // 3. Launch sharing dialog
+            shareCsv(getContext(), uri);
+        } else {
+            Toast.makeText(getContext(), "Failed to create CSV file", Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    /**
+     * Builds a CSV-formatted {@link String} representing the given enrolled entrants.
      * <p>
      * The first line contains a header, followed by one line per enrolled entrant ID.
      * This text can be written to a file and shared externally using
      * {@link #saveCsvToFile(Context, String, String)} and {@link #shareCsv(Context, Uri)}.
      * </p>
      *
-     * @param event the {@link Event} whose enrolled entrant IDs should be exported
+     * @param enrolledEntrants the enrolled entrant IDs to export
      * @return CSV text containing a header row and one row per enrolled entrant ID
      */
-    private String generateCsv(Event event) {
+    private String generateCsv(List<String> enrolledEntrants) {
         StringBuilder sb = new StringBuilder();
 
         // Header row
         sb.append("Enrolled Entrant IDs\n");
 
         // Add each enrolled entrant
-        for (String entrant : event.getEnrolledEntrants()) {
+        for (String entrant : enrolledEntrants) {
             sb.append(entrant).append("\n");
         }
 
@@ -427,7 +507,7 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
     /**
      * Cancels the specified entrant by moving them from the invited list to the cancelled list
      * in the {@link Event}, refreshes the expandable list UI, and sends a notification to the
-     * affected user.
+     * affected user. A replacement is invited from the waiting list.
      * <p>
      * Internally, this method:
      * </p>
@@ -444,16 +524,138 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
      * @param entrantID the ID of the entrant being cancelled
      */
     private void cancelUser(String entrantID) {
-        // Remove user from invitedList, add to cancelledList
-        selectedEvent.removeEntrantFromInvitedEntrants(entrantID);
-        selectedEvent.addEntrantToCancelledEntrants(entrantID);
+        cancelUsers(Collections.singletonList(entrantID));
+    }
+
+    /**
+     * Cancels several invited entrants at once and invites the same number of replacements
+     * from the waiting list.
+     * <p>
+     * The list moves and replacement draw are committed together by
+     * {@link LotterySampler#cancelAndRefill}, and the cancelled entrants are notified with a
+     * single bulk send, so cancelling many non-responders costs a fixed number of writes.
+     * </p>
+     *
+     * @param entrantIDs the IDs of the invited entrants being cancelled
+     */
+    private void cancelUsers(List<String> entrantIDs) {
+        LotterySampler sampler = LotterySampler.forEvent(selectedEvent, new NotificationManager());
+        sampler.cancelAndRefill(selectedEvent, entrantIDs, new LotterySampler.OnLotteryDrawnListener() {
+            @Override
+            public void onLotteryDrawn(List<String> replacements) {
+                Log.d("OrganizerAllListsFragment", "Cancelled " + entrantIDs.size()
+                        + " entrants, invited " + replacements.size() + " replacements");
+                if (isAdded()) refreshLists();
+
+                // Send out a notification to the users that they've been cancelled from the event
+                Notification cancelNotif = new Notification(selectedEvent.getEventID(), selectedEvent.getOrganizer(), "You have been cancelled from: " + selectedEvent.getEventTitle() + "");
+                NotificationManager nm = new NotificationManager();
+                nm.sendBulk(entrantIDs, selectedEvent.getOrganizer(), cancelNotif, null);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e("OrganizerAllListsFragment", "Failed to cancel entrants", e);
+                if (isAdded()) {
+                    Toast.makeText(getContext(), "Failed to cancel: " + e.getMessage(), Toast.LENGTH_LONG).show();
+                }
+            }
+        });
+    }
+
+    /**
+     * Moves the selected event's entrant arrays into {@link ShardedEntrantStore}. Runs in the
+     * background and is safe to repeat; a failed attempt leaves the arrays in charge.
+     */
+    private void migrateEntrants() {
+        Event event = selectedEvent;
+        EventDocumentCache.resolve(FirebaseFirestore.getInstance(), event.getEventID(),
+                new EventDocumentCache.OnDocumentResolvedListener() {
+                    @Override
+                    public void onResolved(DocumentReference docRef) {
+                        ShardedEntrantStore.getInstance().migrate(docRef, event,
+                                new ShardedEntrantStore.OnMigratedListener() {
+                                    @Override
+                                    public void onMigrated(int written) {
+                                        Log.d("OrganizerAllListsFragment", "Moved " + written
+                                                + " entrants of " + event.getEventID() + " to sharded storage");
+                                    }
+
+                                    @Override
+                                    public void onError(Exception e) {
+                                        Log.e("OrganizerAllListsFragment", "Failed to migrate entrants", e);
+                                    }
+                                });
+                    }
 
+                    @Override
+                    public void onError(Exception e) {
+                        Log.e("OrganizerAllListsFragment", "Failed to find event document", e);
+                    }
+                });
+    }
+
+    /**
+     * Returns the lists for a new adapter: the event's own lists, or for a sharded event a new
+     * {@link #pagedLists} that {@link #loadFirstPages} fills.
+     */
+    private HashMap<String, ArrayList<String>> listsToDisplay() {
+        if (!selectedEvent.isShardedEntrants()) {
+            pagedLists = null;
+            return OrganizerExpandableListsData.getListsToDisplay(selectedEvent);
+        }
+        pagedLists = new OrganizerExpandableListsData.PagedLists(FirebaseFirestore.getInstance(),
+                selectedEvent, SHARDED_PAGE_SIZE);
+        return pagedLists.getLists();
+    }
+
+    /**
+     * Loads the first page of each sharded list; the adapter's "Load more" rows fetch the rest.
+     */
+    private void loadFirstPages() {
+        if (pagedLists == null) return;
+        for (EntrantStatus status : EntrantStatus.values()) {
+            loadMore(OrganizerExpandableListsData.titleFor(status));
+        }
+    }
+
+    /**
+     * Appends the next page of the list with the given title to {@link #pagedLists}.
+     *
+     * @param groupTitle title of the list to extend
+     */
+    private void loadMore(String groupTitle) {
+        OrganizerExpandableListsData.PagedLists lists = pagedLists;
+        if (lists == null) return;
+        for (EntrantStatus status : EntrantStatus.values()) {
+            if (!OrganizerExpandableListsData.titleFor(status).equals(groupTitle)) continue;
+            lists.loadMore(status, new OrganizerExpandableListsData.OnPageLoadedListener() {
+                @Override
+                public void onPageLoaded(String title, boolean hasMore) {
+                    // Ignore pages of lists replaced by a refresh
+                    if (isAdded() && lists == pagedLists) expandableListAdapter.setHasMore(title, hasMore);
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    Log.e("OrganizerAllListsFragment", "Failed to load " + groupTitle, e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Rebuilds the expandable lists from {@link #selectedEvent}, e.g. after a cancellation.
+     * Sharded lists are paged again from the start.
+     */
+    private void refreshLists() {
         // Refresh the expandable list data
-        expandableListDetail = OrganizerExpandableListsData.getListsToDisplay(selectedEvent);
+        expandableListDetail = listsToDisplay();
         expandableListTitle = new ArrayList<>(expandableListDetail.keySet());
 
         // Update the adapter with new data
         expandableListAdapter = new OrganizerExpandableListsAdapter(getContext(), expandableListTitle, expandableListDetail);
+        expandableListAdapter.setOnLoadMoreListener((groupPosition, groupTitle) -> loadMore(groupTitle));
 
         // Reset the click listener for next time
         expandableListAdapter.setOnChildItemClickListener(new OrganizerExpandableListsAdapter.OnChildItemClickListener() {
@@ -468,11 +670,7 @@ public class OrganizerAllListsFragment extends Fragment implements OnMapReadyCal
 
         // Set the new adapter
         expandableListView.setAdapter(expandableListAdapter);
-
-        // Send out a notification to the user that they've been cancelled from the event
-        Notification cancelNotif = new Notification(selectedEvent.getEventID(), selectedEvent.getOrganizer(), entrantID, "You have been cancelled from: " + selectedEvent.getEventTitle() + "");
-        NotificationManager nm = new NotificationManager();
-        nm.sendToUser(cancelNotif);
+        loadFirstPages();
     }
 
     /**
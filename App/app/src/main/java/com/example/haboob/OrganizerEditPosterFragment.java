@@ -2,7 +2,6 @@ package com.example.haboob;
 
 import android.net.Uri;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -16,11 +15,6 @@ import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 
 import com.bumptech.glide.Glide;
-import com.cloudinary.android.MediaManager;
-import com.cloudinary.android.callback.ErrorInfo;
-import com.cloudinary.android.callback.UploadCallback;
-
-import java.util.Map;
 
 /**
  * Fragment that lets an organizer preview and update the poster image for a given {@link Event}.
@@ -34,8 +28,8 @@ import java.util.Map;
  *     <li>Uploads the selected image to Cloudinary and updates the event's {@link Poster}.</li>
  * </ul>
  * <p>
- * Image loading is handled via Glide, while image upload is delegated to Cloudinary's
- * {@link MediaManager}. Persisting the updated poster to Firestore is expected to be handled
+ * Image loading is handled via Glide, while image upload is delegated to
+ * {@link PosterUploader}. Persisting the updated poster to Firestore is expected to be handled
  * elsewhere (e.g., through {@code EventsList} logic).
  * </p>
  */
@@ -48,65 +42,6 @@ public class OrganizerEditPosterFragment extends Fragment {
     private ActivityResultLauncher<String> imagePickerLauncher;
     private Uri selectedImageUri = null;
 
-    /**
-     * Simple callback interface used to report the secure URL of an image
-     * after a successful Cloudinary upload.
-     */
-    private interface OnImageUploadedListener {
-        void onUploaded(String url);
-    }
-
-    /**
-     * Uploads the given local image {@link Uri} to Cloudinary using an unsigned preset and
-     * reports the resulting secure URL through the provided callback.
-     * <p>
-     * This method shows basic user feedback via {@link Toast} messages and logs the
-     * upload lifecycle events (start, success, error, reschedule). On success, the
-     * {@code secure_url} returned by Cloudinary is passed to the supplied
-     * {@link OnImageUploadedListener}.
-     * </p>
-     *
-     * @param uri      the local {@link Uri} of the image to upload
-     * @param listener callback invoked with the secure Cloudinary URL once the upload succeeds
-     */
-    private void uploadImageToCloudinary(Uri uri, OnImageUploadedListener listener) {
-        MediaManager.get().upload(uri)
-                .unsigned("haboob_unsigned") // your unsigned preset
-                .callback(new UploadCallback() {
-                    @Override
-                    public void onStart(String requestId) {
-                        Log.d("Cloudinary", "Upload started");
-                        Toast.makeText(requireContext(), "Uploading poster...", Toast.LENGTH_SHORT).show();
-                    }
-
-                    @Override
-                    public void onProgress(String requestId, long bytes, long totalBytes) {
-                        // optional
-                    }
-
-                    @Override
-                    public void onSuccess(String requestId, Map resultData) {
-                        String secureUrl = (String) resultData.get("secure_url");
-                        Log.d("Cloudinary", "Upload success: " + secureUrl);
-                        if (listener != null) {
-                            listener.onUploaded(secureUrl);
-                        }
-                    }
-
-                    @Override
-                    public void onError(String requestId, ErrorInfo error) {
-                        Log.e("Cloudinary", "Upload failed: " + error.getDescription());
-                        Toast.makeText(requireContext(), "Poster upload failed", Toast.LENGTH_SHORT).show();
-                    }
-
-                    @Override
-                    public void onReschedule(String requestId, ErrorInfo error) {
-                        Log.w("Cloudinary", "Upload rescheduled: " + error.getDescription());
-                    }
-                })
-                .dispatch();
-    }
-
     /**
      * Initializes the fragment by retrieving the {@link Event} from the arguments
      * and registering an {@link ActivityResultLauncher} for image selection.
@@ -115,7 +50,7 @@ public class OrganizerEditPosterFragment extends Fragment {
      * </p>
      * <ul>
      *     <li>Stores the selected {@link Uri}.</li>
-     *     <li>Triggers a Cloudinary upload via {@link #uploadImageToCloudinary(Uri, OnImageUploadedListener)}.</li>
+     *     <li>Triggers a Cloudinary upload via {@link PosterUploader#upload}.</li>
      *     <li>Updates the event's {@link Poster} with the returned URL.</li>
      *     <li>Refreshes the poster preview using Glide, if the {@link ImageView} is available.</li>
      * </ul>
@@ -139,19 +74,28 @@ public class OrganizerEditPosterFragment extends Fragment {
                         selectedImageUri = uri;
                         Toast.makeText(requireContext(), "Poster selected", Toast.LENGTH_SHORT).show();
 
-                        uploadImageToCloudinary(selectedImageUri, url -> {
-                            // Update event poster object
-                            Poster p = new Poster(url);
-                            event.setPoster(p);      // you’ll handle Firestore via EventsList logic
-
-                            // Update UI
-                            if (posterImageView != null) {
-                                Glide.with(requireContext())
-                                        .load(url)
-                                        .into(posterImageView);
+                        PosterUploader.upload(requireContext(), selectedImageUri, new PosterUploader.OnUploadedListener() {
+                            @Override
+                            public void onUploaded(String url) {
+                                // Update event poster object, even if the organizer has left this screen
+                                Poster p = new Poster(url);
+                                event.setPoster(p);      // you’ll handle Firestore via EventsList logic
+                                if (!isAdded()) return;
+
+                                // Update UI
+                                if (posterImageView != null) {
+                                    Glide.with(requireContext())
+                                            .load(PosterUrlBuilder.forView(url, posterImageView))
+                                            .into(posterImageView);
+                                }
+
+                                Toast.makeText(requireContext(), "Poster updated", Toast.LENGTH_SHORT).show();
                             }
 
-                            Toast.makeText(requireContext(), "Poster updated", Toast.LENGTH_SHORT).show();
+                            @Override
+                            public void onError(Exception e) {
+                                // The poster is left as it was
+                            }
                         });
                     }
                 }
@@ -189,7 +133,7 @@ public class OrganizerEditPosterFragment extends Fragment {
             String url = event.getPoster().getData(); // or getUrl()
             if (url != null && !url.isEmpty()) {
                 Glide.with(this)
-                        .load(url)
+                        .load(PosterUrlBuilder.forView(url, posterImageView))
                         .into(posterImageView);
             }
         }
@@ -12,6 +12,7 @@ import android.widget.TextView;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 
 /**
  * {@code OrganizerExpandableListsAdapter} is a custom adapter used to populate an
@@ -25,6 +26,11 @@ public class OrganizerExpandableListsAdapter extends BaseExpandableListAdapter {
 
     private OnChildItemClickListener clickListener;
 
+    private OnLoadMoreListener loadMoreListener;
+
+    /** Titles of the groups that end in a "Load more" row. */
+    private final HashSet<String> groupsWithMore = new HashSet<>();
+
     /** Context from the parent fragment or activity. */
     private Context mContext;
 
@@ -38,9 +44,36 @@ public class OrganizerExpandableListsAdapter extends BaseExpandableListAdapter {
         void onChildItemClick(int groupPosition, int childPosition, String entrantID);
     }
 
+    /**
+     * Called when the "Load more" row of a group is clicked.
+     */
+    public interface OnLoadMoreListener {
+        void onLoadMore(int groupPosition, String groupTitle);
+    }
+
     public void setOnChildItemClickListener(OnChildItemClickListener listener) {
         this.clickListener = listener;
     }
+
+    public void setOnLoadMoreListener(OnLoadMoreListener listener) {
+        this.loadMoreListener = listener;
+    }
+
+    /**
+     * Shows or hides the "Load more" row at the end of a group, for lists loaded a page at a
+     * time, and redraws the list so entrants added to the group since show up too.
+     *
+     * @param groupTitle title of the group
+     * @param hasMore    whether the list may have entrants not shown yet
+     */
+    public void setHasMore(String groupTitle, boolean hasMore) {
+        if (hasMore) {
+            groupsWithMore.add(groupTitle);
+        } else {
+            groupsWithMore.remove(groupTitle);
+        }
+        notifyDataSetChanged();
+    }
     /**
      * Constructs an adapter to bind expandable list data to a view.
      *
@@ -59,11 +92,12 @@ public class OrganizerExpandableListsAdapter extends BaseExpandableListAdapter {
      *
      * @param groupPosition index of the group
      * @param childPosition index of the child within the group
-     * @return the child object
+     * @return the child object, or {@code null} for the "Load more" row
      */
     @Override
     public Object getChild(int groupPosition, int childPosition) {
-        return this.expandableListDetail.get(this.expandableListTitles.get(groupPosition)).get(childPosition);
+        ArrayList<String> children = this.expandableListDetail.get(this.expandableListTitles.get(groupPosition));
+        return childPosition < children.size() ? children.get(childPosition) : null;
     }
 
     /**
@@ -98,6 +132,16 @@ public class OrganizerExpandableListsAdapter extends BaseExpandableListAdapter {
         }
 
         TextView expandedListTextView = convertView.findViewById(R.id.expandedListItem);
+
+        if (expandedListText == null) {
+            expandedListTextView.setText("Load more…");
+            expandedListTextView.setOnClickListener(v -> {
+                if (loadMoreListener != null) {
+                    loadMoreListener.onLoadMore(groupPosition, (String) getGroup(groupPosition));
+                }
+            });
+            return convertView;
+        }
         expandedListTextView.setText(expandedListText);
 
         // Make the children clickable
@@ -115,11 +159,13 @@ public class OrganizerExpandableListsAdapter extends BaseExpandableListAdapter {
      * Returns the number of child elements in a specific group.
      *
      * @param groupPosition index of the group
-     * @return number of children within the group
+     * @return number of children within the group, including any "Load more" row
      */
     @Override
     public int getChildrenCount(int groupPosition) {
-        return this.expandableListDetail.get(this.expandableListTitles.get(groupPosition)).size();
+        String title = this.expandableListTitles.get(groupPosition);
+        int loadMoreRow = groupsWithMore.contains(title) ? 1 : 0;
+        return this.expandableListDetail.get(title).size() + loadMoreRow;
     }
 
     /**
@@ -1,7 +1,13 @@
 package com.example.haboob;
 
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * {@code OrganizerExpandableListsData} is a utility class that prepares
@@ -13,6 +19,31 @@ import java.util.HashMap;
  */
 public class OrganizerExpandableListsData {
 
+    /**
+     * Callback for {@link #loadAllLists}.
+     */
+    public interface OnListsLoadedListener {
+        /**
+         * @param lists mapping from list title to entrant IDs, as from {@link #getListsToDisplay}
+         */
+        void onListsLoaded(HashMap<String, ArrayList<String>> lists);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Callback for {@link PagedLists#loadMore}.
+     */
+    public interface OnPageLoadedListener {
+        /**
+         * @param title   title of the list the page was appended to
+         * @param hasMore whether another page may follow
+         */
+        void onPageLoaded(String title, boolean hasMore);
+
+        void onError(Exception e);
+    }
+
     /**
      * Builds a {@link HashMap} of entrant lists categorized by type, for the given {@link Event}.
      * <p>
@@ -31,10 +62,10 @@ public class OrganizerExpandableListsData {
         HashMap<String, ArrayList<String>> expandableLists = new HashMap<>();
 
         // Set all the different lists into the expandable lists
-        ArrayList<String> waitList = currentEvent.getWaitingEntrants();
-        ArrayList<String> inviteList = currentEvent.getInvitedEntrants();
-        ArrayList<String> enrolledList = currentEvent.getEnrolledEntrants();
-        ArrayList<String> cancelledList = currentEvent.getCancelledEntrants();
+        ArrayList<String> waitList = listFor(currentEvent.getWaitingEntrants());
+        ArrayList<String> inviteList = listFor(currentEvent.getInvitedEntrants());
+        ArrayList<String> enrolledList = listFor(currentEvent.getEnrolledEntrants());
+        ArrayList<String> cancelledList = listFor(currentEvent.getCancelledEntrants());
 
         // Set into hashmap to display
         expandableLists.put("Waiting list", waitList);
@@ -45,4 +76,169 @@ public class OrganizerExpandableListsData {
         // Return the hashmap
         return expandableLists;
     }
+
+    /**
+     * Loads every entrant of every list, for actions that must reach all of them such as
+     * notifying a list or exporting it. Events that keep their entrants on the document are
+     * answered immediately from {@link #getListsToDisplay}; sharded events are read in full
+     * with {@link ShardedEntrantStore#loadLists}, which costs one read per entrant.
+     *
+     * @param db           Firestore instance
+     * @param currentEvent the {@link Event} whose entrant lists are needed
+     * @param listener     receives the lists, keyed as by {@link #getListsToDisplay}, or the failure
+     */
+    public static void loadAllLists(FirebaseFirestore db, Event currentEvent, OnListsLoadedListener listener) {
+        loadAllLists(db, currentEvent, ShardedEntrantStore.getInstance(), listener);
+    }
+
+    static void loadAllLists(FirebaseFirestore db, Event currentEvent, ShardedEntrantStore store,
+                             OnListsLoadedListener listener) {
+        if (!currentEvent.isShardedEntrants()) {
+            listener.onListsLoaded(getListsToDisplay(currentEvent));
+            return;
+        }
+
+        EventDocumentCache.resolve(db, currentEvent.getEventID(), new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference eventDoc) {
+                store.loadLists(eventDoc, new ShardedEntrantStore.OnListsLoadedListener() {
+                    @Override
+                    public void onListsLoaded(Map<EntrantStatus, List<String>> lists) {
+                        HashMap<String, ArrayList<String>> titled = new HashMap<>();
+                        for (EntrantStatus status : EntrantStatus.values()) {
+                            titled.put(titleFor(status), new ArrayList<>(lists.get(status)));
+                        }
+                        listener.onListsLoaded(titled);
+                    }
+
+                    @Override
+                    public void onError(Exception e) {
+                        listener.onError(e);
+                    }
+                });
+            }
+
+            @Override
+            public void onError(Exception e) {
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * @param status an entrant list
+     * @return the title the list is displayed under
+     */
+    public static String titleFor(EntrantStatus status) {
+        switch (status) {
+            case WAITING:
+                return "Waiting list";
+            case INVITED:
+                return "Invite list";
+            case ENROLLED:
+                return "Enrolled list";
+            default:
+                return "Cancelled list";
+        }
+    }
+
+    /**
+     * Display lists of an event whose entrants live in {@link ShardedEntrantStore}, filled a
+     * page at a time. Each page is appended to the list returned by {@link #getLists}; the
+     * event's own lists are left alone, since a partial list would misstate who is in the
+     * event. Use {@link #loadAllLists} for actions that need every entrant.
+     */
+    public static class PagedLists {
+        private final FirebaseFirestore db;
+        private final Event event;
+        private final int pageSize;
+        private final ShardedEntrantStore store;
+        private final HashMap<String, ArrayList<String>> lists = new HashMap<>();
+        private final EnumMap<EntrantStatus, ShardedEntrantStore.Pager> pagers = new EnumMap<>(EntrantStatus.class);
+
+        /**
+         * Creates empty lists; nothing is loaded until {@link #loadMore}.
+         *
+         * @param db       Firestore instance
+         * @param event    a sharded event
+         * @param pageSize entrants to load per page
+         */
+        public PagedLists(FirebaseFirestore db, Event event, int pageSize) {
+            this(db, event, pageSize, ShardedEntrantStore.getInstance());
+        }
+
+        PagedLists(FirebaseFirestore db, Event event, int pageSize, ShardedEntrantStore store) {
+            this.db = db;
+            this.event = event;
+            this.pageSize = pageSize;
+            this.store = store;
+            for (EntrantStatus status : EntrantStatus.values()) {
+                lists.put(titleFor(status), new ArrayList<>());
+            }
+        }
+
+        /**
+         * @return mapping from list title to the entrants loaded so far, as from
+         *         {@link #getListsToDisplay}; the lists grow as pages load
+         */
+        public HashMap<String, ArrayList<String>> getLists() {
+            return lists;
+        }
+
+        /**
+         * @param status an entrant list
+         * @return whether the list may have entrants not loaded yet
+         */
+        public boolean hasMore(EntrantStatus status) {
+            ShardedEntrantStore.Pager pager = pagers.get(status);
+            return pager == null || pager.hasMore();
+        }
+
+        /**
+         * Appends the next page of one list. Ignored while that list's page is loading or
+         * after its last page.
+         *
+         * @param status   list to extend
+         * @param listener receives the list's title once the page is appended, or the failure
+         */
+        public void loadMore(EntrantStatus status, OnPageLoadedListener listener) {
+            EventDocumentCache.resolve(db, event.getEventID(), new EventDocumentCache.OnDocumentResolvedListener() {
+                @Override
+                public void onResolved(DocumentReference eventDoc) {
+                    ShardedEntrantStore.Pager pager = pagers.get(status);
+                    if (pager == null) {
+                        pager = store.pager(eventDoc, status, pageSize);
+                        pagers.put(status, pager);
+                    }
+                    pager.next(new ShardedEntrantStore.OnPageLoadedListener() {
+                        @Override
+                        public void onPageLoaded(List<String> entrantIds, boolean hasMore) {
+                            String title = titleFor(status);
+                            lists.get(title).addAll(entrantIds);
+                            listener.onPageLoaded(title, hasMore);
+                        }
+
+                        @Override
+                        public void onError(Exception e) {
+                            listener.onError(e);
+                        }
+                    });
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    listener.onError(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns an entrant list for display. Plain lists are shared with the event so the
+     * adapter sees later changes; an {@link EntrantSet} is copied, and a missing list is empty.
+     */
+    private static ArrayList<String> listFor(List<String> entrants) {
+        if (entrants instanceof ArrayList) return (ArrayList<String>) entrants;
+        return entrants != null ? new ArrayList<>(entrants) : new ArrayList<>();
+    }
 }
@@ -56,6 +56,12 @@ public class OrganizerMainActivity extends AppCompatActivity {
     /** The currently authenticated/active organizer user. */
     private Organizer currentOrganizer;
 
+    /** This organizer's events, live-synced while started for {@link LotteryScheduler}. */
+    private EventsList organizerEvents;
+
+    /** ID of {@link #currentOrganizer}, whose events {@link #organizerEvents} holds. */
+    private String organizerID;
+
     /** Button reference for potential top-level create-event actions (if needed in this activity). */
     private Button createEventButton;
 
@@ -91,9 +97,38 @@ public class OrganizerMainActivity extends AppCompatActivity {
             // Create a new Organizer object with the organizerID
             currentOrganizer = new Organizer(organizerID, organizerFirstName, organizerLastName, organizerEmail, accountType, organizerPhone);
             goToOrganizerOptions(savedInstanceState);
+
+            startAutoLottery(organizerID);
         }
     }
 
+    /**
+     * Draws this organizer's lotteries automatically as their registration closes.
+     * <p>
+     * Only this organizer's events are live-synced, into a list of their own, while this
+     * activity is started, so {@link LotteryScheduler} sees new events and changed close dates
+     * without the app downloading every other organizer's events.
+     *
+     * @param organizerID the organizer whose events should be drawn
+     */
+    private void startAutoLottery(String organizerID) {
+        this.organizerID = organizerID;
+        organizerEvents = new EventsList(false);
+        LotteryScheduler.getInstance().attachTo(organizerEvents, organizerID);
+    }
+
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (organizerEvents != null) organizerEvents.startOrganizerLiveSync(organizerID, null);
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        if (organizerEvents != null) organizerEvents.stopLiveSync();
+    }
+
     /**
      * Initializes Cloudinary for the organizer workflow using a basic config map.
      * Must be called before any Cloudinary uploads occur.
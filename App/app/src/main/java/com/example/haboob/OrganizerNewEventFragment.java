@@ -1,15 +1,10 @@
 package com.example.haboob;
 
 import android.net.Uri;
-import android.util.Log;
 
 import com.bumptech.glide.Glide;
-import com.cloudinary.android.MediaManager;
-import com.cloudinary.android.callback.ErrorInfo;
-import com.cloudinary.android.callback.UploadCallback;
 import com.google.android.material.materialswitch.MaterialSwitch;
 
-import java.util.Map;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.LayoutInflater;
@@ -51,56 +46,6 @@ public class OrganizerNewEventFragment extends Fragment {
     private ActivityResultLauncher<String> imagePickerLauncher;
     private Uri selectedImageUri = null;
 
-    /**
-     * Callback used to receive the Cloudinary image URL once an upload completes.
-     */
-    private interface OnImageUploadedListener {
-        void onUploaded(String url);
-    }
-
-    /**
-     * Uploads the selected image to Cloudinary and returns the uploaded URL
-     * through the provided callback listener.
-     */
-    private void uploadImageToCloudinary(Uri uri, OnImageUploadedListener listener) {
-        MediaManager.get().upload(uri)
-                .unsigned("haboob_unsigned")
-                .callback(new UploadCallback() {
-                    @Override
-                    public void onStart(String requestId) {
-                        Log.d("Cloudinary", "Upload started");
-                        Toast.makeText(requireContext(), "Uploading poster...", Toast.LENGTH_SHORT).show();
-                    }
-
-                    @Override
-                    public void onProgress(String requestId, long bytes, long totalBytes) {
-                        // Optional: you could show progress here
-                    }
-
-                    @Override
-                    public void onSuccess(String requestId, Map resultData) {
-                        String secureUrl = (String) resultData.get("secure_url");
-                        Log.d("Cloudinary", "Upload success: " + secureUrl);
-
-                        if (listener != null) {
-                            listener.onUploaded(secureUrl);
-                        }
-                    }
-
-                    @Override
-                    public void onError(String requestId, ErrorInfo error) {
-                        Log.e("Cloudinary", "Upload failed: " + error.getDescription());
-                        Toast.makeText(requireContext(), "Poster upload failed", Toast.LENGTH_SHORT).show();
-                    }
-
-                    @Override
-                    public void onReschedule(String requestId, ErrorInfo error) {
-                        Log.w("Cloudinary", "Upload rescheduled: " + error.getDescription());
-                    }
-                })
-                .dispatch();
-    }
-
     /**
      * Sets up the image picker launcher used to select a poster image from the device gallery.
      */
@@ -319,8 +264,9 @@ public class OrganizerNewEventFragment extends Fragment {
                 return;
             }
 
-            // If an image was selected, upload to Cloudinary first
-            uploadImageToCloudinary(selectedImageUri, new OnImageUploadedListener() {
+            // If an image was selected, upload to Cloudinary first. The event is saved when the
+            // upload ends, even if the organizer has left this screen by then.
+            PosterUploader.upload(requireContext(), selectedImageUri, new PosterUploader.OnUploadedListener() {
                 @Override
                 public void onUploaded(String url) {
                     // attach the URL to the Event
@@ -329,7 +275,15 @@ public class OrganizerNewEventFragment extends Fragment {
 
                     // Save the event
                     currentOrganizer.getEventList().addEvent(newEvent);
-                    getParentFragmentManager().popBackStack();
+                    if (isAdded()) getParentFragmentManager().popBackStack();
+                }
+
+                @Override
+                public void onError(Exception e) {
+                    // Save the event without a poster rather than losing it
+                    newEvent.setPoster(new Poster());
+                    currentOrganizer.getEventList().addEvent(newEvent);
+                    if (isAdded()) getParentFragmentManager().popBackStack();
                 }
             });
         });
@@ -2,8 +2,14 @@ package com.example.haboob;
 
 import static android.view.View.INVISIBLE;
 
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
 import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
+import android.provider.DocumentsContract;
+import android.provider.MediaStore;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -22,8 +28,10 @@ import com.cloudinary.android.MediaManager;
 import com.cloudinary.android.callback.ErrorInfo;
 import com.cloudinary.android.callback.UploadCallback;
 
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,6 +43,7 @@ import java.util.Map;
  *     <li>Edit event posters</li>
  *     <li>View event entrant lists</li>
  *     <li>Draw lotteries for events with randomized selection</li>
+ *     <li>Export the QR codes of all their events as a printable PDF</li>
  * </ul>
  *
  * <p>This fragment communicates with the {@link OrganizerMainActivity} to access the
@@ -71,6 +80,40 @@ public class OrganizerOptionsFragment extends Fragment {
     private Date date;
     // NOTE: Can check LogCat to help debug processes
 
+    /** Asks where to save the QR code PDF on Android 9 and below. */
+    private ActivityResultLauncher<String> qrPdfLauncher;
+
+
+    /**
+     * Registers the launcher that lets the organizer choose where the QR code PDF is saved
+     * on devices without scoped storage.
+     *
+     * @param savedInstanceState saved state bundle, or {@code null} for a fresh creation
+     */
+    @Override
+    public void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+
+        qrPdfLauncher = registerForActivityResult(
+                new ActivityResultContracts.CreateDocument("application/pdf"),
+                uri -> {
+                    // Null if the organizer backed out of the picker
+                    if (uri == null || getView() == null) return;
+                    Context appContext = requireContext().getApplicationContext();
+                    OutputStream out;
+                    try {
+                        out = appContext.getContentResolver().openOutputStream(uri);
+                    } catch (Exception e) {
+                        out = null;
+                    }
+                    if (out == null) {
+                        deleteDocument(appContext, uri);
+                        Toast.makeText(appContext, "Failed creating PDF", Toast.LENGTH_LONG).show();
+                        return;
+                    }
+                    writeQRCodes(getView().findViewById(R.id.export_qr_button), out, uri, null);
+                });
+    }
 
     /**
      * Inflates the organizer options UI, initializes components, and sets up event button logic.
@@ -122,6 +165,7 @@ public class OrganizerOptionsFragment extends Fragment {
         Button editPosterButton = view.findViewById(R.id.edit_poster_button);
         Button viewListsButton = view.findViewById(R.id.view_lists_button);
         Button drawLotteryButton = view.findViewById(R.id.draw_lottery_button);
+        Button exportQRButton = view.findViewById(R.id.export_qr_button);
 
         // Hide event action buttons until an event is selected
         editPosterButton.setVisibility(INVISIBLE);
@@ -215,19 +259,31 @@ public class OrganizerOptionsFragment extends Fragment {
                 Toast.makeText(getContext(), "Cannot draw yet, registration has not closed", Toast.LENGTH_LONG).show();
                 return;
             }
-            LotterySampler sampler  = new LotterySampler(new NotificationManager());
-            try {
-                sampler.performLottery(clickedEvent);
-                Toast.makeText(parent, "Lottery Drawn!", Toast.LENGTH_SHORT).show();
-            } catch (IllegalArgumentException e) {
-                Toast.makeText(parent, e.getMessage(), Toast.LENGTH_SHORT).show();
-            }
+            LotterySampler sampler = LotterySampler.forEvent(clickedEvent, new NotificationManager());
+            drawLotteryButton.setEnabled(false);
+            sampler.drawLottery(clickedEvent, new LotterySampler.OnLotteryDrawnListener() {
+                @Override
+                public void onLotteryDrawn(List<String> selectedEntrants) {
+                    drawLotteryButton.setEnabled(true);
+                    Toast.makeText(parent, "Lottery Drawn!", Toast.LENGTH_SHORT).show();
+
+                    // Refresh the UI (Adapters)
+                    organizerUpcomingEventsAdapter.notifyDataSetChanged();
+                    organizerCurrentEventsAdapter.notifyDataSetChanged();
+                }
 
-            // Refresh the UI (Adapters)
-            organizerUpcomingEventsAdapter.notifyDataSetChanged();
-            organizerCurrentEventsAdapter.notifyDataSetChanged();
+                @Override
+                public void onError(Exception e) {
+                    drawLotteryButton.setEnabled(true);
+                    Log.e("OrganizerOptions", "Lottery draw failed", e);
+                    Toast.makeText(parent, e.getMessage(), Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
+        // Export the QR codes of every event as one PDF
+        exportQRButton.setOnClickListener(v -> exportQRCodes(exportQRButton));
+
         // Load events for the organizer
         try {
             loadEventsFromFirestore();
@@ -239,12 +295,115 @@ public class OrganizerOptionsFragment extends Fragment {
         return view;
     }
 
+    /**
+     * Exports the QR codes of all of the organizer's events to a PDF, six codes to a page
+     * with each event's title underneath. On Android 10 and up the PDF is saved to
+     * Documents/HaboobQRs; below that, where MediaStore cannot place files in a folder,
+     * the organizer picks the location with the system file picker.
+     *
+     * @param exportButton the button that started the export
+     */
+    private void exportQRCodes(Button exportButton) {
+        if (organizerEvents == null || organizerEvents.isEmpty()) {
+            Toast.makeText(getContext(), "No events to export", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String fileName = "qrcodes_" + System.currentTimeMillis() + ".pdf";
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            qrPdfLauncher.launch(fileName);
+            return;
+        }
+
+        // The export may outlive this fragment, so hold on to the application context
+        Context appContext = requireContext().getApplicationContext();
+        ContentResolver resolver = appContext.getContentResolver();
+
+        ContentValues values = new ContentValues();
+        values.put(MediaStore.MediaColumns.DISPLAY_NAME, fileName);
+        values.put(MediaStore.MediaColumns.MIME_TYPE, "application/pdf");
+        values.put(MediaStore.MediaColumns.RELATIVE_PATH, "Documents/HaboobQRs");
+
+        Uri pdfUri = null;
+        OutputStream out;
+        try {
+            pdfUri = resolver.insert(MediaStore.Files.getContentUri("external"), values);
+            out = pdfUri == null ? null : resolver.openOutputStream(pdfUri);
+        } catch (Exception e) {
+            Log.e("OrganizerOptions", "Could not create QR code PDF", e);
+            out = null;
+        }
+        if (out == null) {
+            if (pdfUri != null) resolver.delete(pdfUri, null, null);
+            Toast.makeText(appContext, "Failed creating PDF", Toast.LENGTH_LONG).show();
+            return;
+        }
+
+        writeQRCodes(exportButton, out, pdfUri, "Documents/HaboobQRs");
+    }
+
+    /**
+     * Renders the QR codes into the given PDF in the background. The button shows the
+     * progress and is disabled until the export finishes; on failure the PDF is deleted.
+     *
+     * @param exportButton the button that started the export
+     * @param out          stream of the new PDF, closed when the export ends
+     * @param pdfUri       the new PDF
+     * @param folder       folder named in the success message, or {@code null} if the
+     *                     organizer chose the location
+     */
+    private void writeQRCodes(Button exportButton, OutputStream out, Uri pdfUri, @Nullable String folder) {
+        // The export may outlive this fragment, so hold on to the application context
+        Context appContext = requireContext().getApplicationContext();
+
+        CharSequence label = exportButton.getText();
+        exportButton.setEnabled(false);
+        QRSheetExporter.getInstance().exportPdf(organizerEvents, out, new QRSheetExporter.OnExportListener() {
+            @Override
+            public void onProgress(int exported, int total) {
+                exportButton.setText("EXPORTING " + exported + "/" + total);
+            }
+
+            @Override
+            public void onExported(int codeCount, int pageCount) {
+                exportButton.setEnabled(true);
+                exportButton.setText(label);
+                Toast.makeText(appContext, "Saved " + codeCount + " QR codes (" + pageCount
+                        + (pageCount == 1 ? " page" : " pages") + ")"
+                        + (folder == null ? "" : " to " + folder), Toast.LENGTH_LONG).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                exportButton.setEnabled(true);
+                exportButton.setText(label);
+                if (folder == null) {
+                    deleteDocument(appContext, pdfUri);
+                } else {
+                    appContext.getContentResolver().delete(pdfUri, null, null);
+                }
+                Log.e("OrganizerOptions", "QR code export failed", e);
+                Toast.makeText(appContext, "Failed exporting QR codes", Toast.LENGTH_LONG).show();
+            }
+        });
+    }
+
+    /**
+     * Deletes a document created through the system file picker, ignoring failures.
+     */
+    private static void deleteDocument(Context context, Uri uri) {
+        try {
+            DocumentsContract.deleteDocument(context.getContentResolver(), uri);
+        } catch (Exception e) {
+            Log.w("OrganizerOptions", "Could not delete " + uri, e);
+        }
+    }
+
     /**
      * Loads the organizer’s events from Firestore into memory.
      * <p>
      * If events are already loaded, it immediately refreshes the UI. Otherwise,
-     * it registers an {@link EventsList.OnEventsLoadedListener} to wait until
-     * Firestore loading completes.
+     * the first snapshot from {@link #startLiveSync()} loads them.
      */
     private void loadEventsFromFirestore() {
 
@@ -264,49 +423,28 @@ public class OrganizerOptionsFragment extends Fragment {
             return;
         }
 
-        Log.d("OrganizerOptions", "Events not loaded yet, waiting for Firestore...");
-
-        currentOrganizer.getEventList().loadEventsList(new EventsList.OnEventsLoadedListener() {
-            @Override
-            public void onEventsLoaded() {
-                Log.d("OrganizerOptions", "onEventsLoaded callback triggered");
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(OrganizerOptionsFragment.this::refreshEventList);
-                } else {
-                    Log.e("OrganizerOptions", "Activity is null in onEventsLoaded");
-                }
-            }
-
-            @Override
-            public void onError(Exception e) {
-                Log.e("OrganizerOptions", "Error loading events", e);
-                if (getActivity() != null) {
-                    getActivity().runOnUiThread(() ->
-                            Toast.makeText(getContext(),
-                                    "Failed to load events: " + e.getMessage(),
-                                    Toast.LENGTH_SHORT).show());
-                }
-            }
-        });
+        // The first live sync snapshot, started in onResume, fills the list and refreshes the UI
+        Log.d("OrganizerOptions", "Events not loaded yet, waiting for live sync...");
     }
 
     /**
-     * Forces a full reload of all organizer events from Firestore.
+     * Starts live sync on the organizer's {@link EventsList} and refreshes the UI from its deltas.
      * <p>
-     * This method is called in {@link #onResume()} to ensure the list is up to date
-     * after returning from creating or editing an event.
+     * This replaces reloading the whole "events" collection every time the fragment resumes.
+     * Events created or edited on other screens reach the list through the snapshot listener,
+     * and {@link #eventsChangedListener} refreshes the UI when they arrive.
      */
-    private void reloadEventsFromFirestore() {
-        Log.d("OrganizerOptions", "reloadEventsFromFirestore called - forcing fresh data");
-
+    private void startLiveSync() {
         if (currentOrganizer == null || currentOrganizer.getEventList() == null) {
             return;
         }
 
-        currentOrganizer.getEventList().loadEventsList(new EventsList.OnEventsLoadedListener() {
+        EventsList events = currentOrganizer.getEventList();
+        events.addOnEventsChangedListener(eventsChangedListener);
+        events.startLiveSync(new EventsList.OnEventsLoadedListener() {
             @Override
             public void onEventsLoaded() {
-                Log.d("OrganizerOptions", "Fresh data loaded from Firestore");
+                Log.d("OrganizerOptions", "Live sync ready");
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(OrganizerOptionsFragment.this::refreshEventList);
                 }
@@ -314,7 +452,7 @@ public class OrganizerOptionsFragment extends Fragment {
 
             @Override
             public void onError(Exception e) {
-                Log.e("OrganizerOptions", "Error reloading events", e);
+                Log.e("OrganizerOptions", "Error starting live sync", e);
                 if (getActivity() != null) {
                     getActivity().runOnUiThread(() ->
                             Toast.makeText(getContext(),
@@ -325,16 +463,60 @@ public class OrganizerOptionsFragment extends Fragment {
         });
     }
 
+    /**
+     * Refreshes the UI when live sync applies a delta that touches one of this organizer's events.
+     */
+    private final EventsList.OnEventsChangedListener eventsChangedListener = new EventsList.OnEventsChangedListener() {
+        @Override
+        public void onEventsChanged(List<Event> added, List<Event> modified, List<Event> removed) {
+            if (currentOrganizer == null) return;
+            String organizerID = currentOrganizer.getOrganizerID();
+            if (ownsAny(added, organizerID) || ownsAny(modified, organizerID) || ownsAny(removed, organizerID)) {
+                if (getActivity() != null) {
+                    getActivity().runOnUiThread(OrganizerOptionsFragment.this::refreshEventList);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Exception e) {
+            Log.e("OrganizerOptions", "Live sync stopped", e);
+        }
+    };
+
+    /**
+     * @return true if any of the events belongs to the given organizer
+     */
+    private static boolean ownsAny(List<Event> events, String organizerID) {
+        for (Event e : events) {
+            if (organizerID != null && organizerID.equals(e.getOrganizer())) return true;
+        }
+        return false;
+    }
+
     /**
      * Called when the fragment becomes visible again.
      * <p>
      * Ensures that any newly created or modified events are reflected
-     * in the organizer’s list by calling {@link #reloadEventsFromFirestore()}.
+     * in the organizer’s list by calling {@link #startLiveSync()}.
      */
     @Override
     public void onResume() {
         super.onResume();
-        reloadEventsFromFirestore();
+        startLiveSync();
+    }
+
+    /**
+     * Stops live sync while the fragment is not visible so the snapshot listener
+     * does not keep reading changes nobody is looking at.
+     */
+    @Override
+    public void onPause() {
+        super.onPause();
+        if (currentOrganizer != null && currentOrganizer.getEventList() != null) {
+            currentOrganizer.getEventList().removeOnEventsChangedListener(eventsChangedListener);
+            currentOrganizer.getEventList().stopLiveSync();
+        }
     }
 
     /**
@@ -355,6 +537,12 @@ public class OrganizerOptionsFragment extends Fragment {
             organizerEventsList = currentOrganizer.getEventList();
             organizerEvents = organizerEventsList.getOrganizerEvents(currentOrganizer.getOrganizerID());
 
+            // Live sync replaces modified events with new objects; keep the selection pointing at the current one
+            if (clickedEvent != null) {
+                Event latest = organizerEventsList.getEventByID(clickedEvent.getEventID());
+                if (latest != null) clickedEvent = latest;
+            }
+
             Log.d("OrganizerOptions", "Found " + organizerEvents.size() + " events for organizer");
 
             // Get the filtered lists
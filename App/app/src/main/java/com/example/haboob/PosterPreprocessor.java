@@ -0,0 +1,327 @@
+package com.example.haboob;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Matrix;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * {@code PosterPreprocessor} shrinks a picked poster image before it is uploaded to Cloudinary.
+ * <p>
+ * The image is decoded at the smallest power-of-two sample size that keeps its longer side at
+ * least {@link #MAX_DIMENSION} pixels, scaled down to that size, turned upright according to
+ * its EXIF orientation and re-encoded at {@link #QUALITY}, as lossy WebP on Android 11 and up
+ * and JPEG below. The output carries no EXIF data, so camera details and GPS location are not
+ * uploaded either. For that reason the output is used even in the rare case that it is not
+ * smaller than the original.
+ * <p>
+ * Prepared files are written to the app's cache directory and removed after
+ * {@link #STALE_AFTER_MS}, leaving time for uploads the Cloudinary SDK reschedules.
+ */
+public final class PosterPreprocessor {
+
+    /** Longest side of a prepared poster, in pixels. */
+    static final int MAX_DIMENSION = 1600;
+
+    /** Encoder quality of a prepared poster, 0 to 100. */
+    static final int QUALITY = 80;
+
+    /** Age after which prepared files are deleted. */
+    static final long STALE_AFTER_MS = 24L * 60 * 60 * 1000;
+
+    private static final String CACHE_DIR = "poster_uploads";
+
+    private static PosterPreprocessor instance;
+
+    private final Executor background;
+    private final Executor main;
+
+    /**
+     * Callback for {@link #prepare}, called on the main thread.
+     */
+    public interface OnPreparedListener {
+        /**
+         * @param uri           the prepared image to upload
+         * @param originalBytes size of the picked image
+         * @param preparedBytes size of the image to upload
+         */
+        void onPrepared(Uri uri, long originalBytes, long preparedBytes);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * @return the process-wide preprocessor, created on first use
+     */
+    public static synchronized PosterPreprocessor getInstance() {
+        if (instance == null) {
+            Handler handler = new Handler(Looper.getMainLooper());
+            instance = new PosterPreprocessor(Executors.newSingleThreadExecutor(), handler::post);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a preprocessor.
+     *
+     * @param background executor that decodes and encodes the images
+     * @param main       executor that calls listeners
+     */
+    PosterPreprocessor(Executor background, Executor main) {
+        this.background = background;
+        this.main = main;
+    }
+
+    /**
+     * Shrinks the given image in the background.
+     *
+     * @param context  any context; only the application context is kept
+     * @param source   the picked image
+     * @param listener receives the image to upload
+     */
+    public void prepare(Context context, Uri source, OnPreparedListener listener) {
+        Context appContext = context.getApplicationContext();
+        background.execute(() -> {
+            try {
+                PreparedPoster prepared = prepare(appContext, source);
+                main.execute(() -> listener.onPrepared(prepared.uri, prepared.originalBytes, prepared.preparedBytes));
+            } catch (Exception e) {
+                main.execute(() -> listener.onError(e));
+            }
+        });
+    }
+
+    private static PreparedPoster prepare(Context context, Uri source) throws IOException {
+        ContentResolver resolver = context.getContentResolver();
+        File dir = new File(context.getCacheDir(), CACHE_DIR);
+        deleteStaleFiles(dir);
+
+        // Read the bounds and the size of the original in one pass
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        long originalBytes;
+        try (CountingInputStream in = new CountingInputStream(open(resolver, source))) {
+            BitmapFactory.decodeStream(in, null, bounds);
+            originalBytes = in.drain();
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("Not an image: " + source);
+        }
+
+        int orientation;
+        try (InputStream in = open(resolver, source)) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, MAX_DIMENSION);
+        Bitmap decoded;
+        try (InputStream in = open(resolver, source)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        }
+        if (decoded == null) {
+            throw new IOException("Could not decode " + source);
+        }
+
+        Bitmap upright = scaleAndRotate(decoded, orientation);
+
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("Could not create " + dir);
+        }
+        Bitmap.CompressFormat format;
+        String extension;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+            format = Bitmap.CompressFormat.WEBP_LOSSY;
+            extension = ".webp";
+        } else {
+            format = Bitmap.CompressFormat.JPEG;
+            extension = ".jpg";
+        }
+        File out = new File(dir, "poster_" + System.currentTimeMillis() + extension);
+        try (OutputStream os = new FileOutputStream(out)) {
+            if (!upright.compress(format, QUALITY, os)) {
+                throw new IOException("Could not encode " + source);
+            }
+        } finally {
+            upright.recycle();
+        }
+
+        // Sent even when it is not smaller, since the original may carry a GPS location
+        return new PreparedPoster(Uri.fromFile(out), originalBytes, out.length());
+    }
+
+    /**
+     * Returns the largest power-of-two sample size that keeps the longer side of the decoded
+     * image at least {@code maxDimension}, so it can then be scaled down without losing detail.
+     *
+     * @param width        width of the original image
+     * @param height       height of the original image
+     * @param maxDimension longest side wanted
+     * @return the sample size, at least 1
+     */
+    static int sampleSizeFor(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        int sampleSize = 1;
+        while (longest / (sampleSize * 2) >= maxDimension) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * Returns the size of an image scaled down so its longer side is at most
+     * {@code maxDimension}, keeping its aspect ratio. Smaller images keep their size.
+     *
+     * @param width        width of the image
+     * @param height       height of the image
+     * @param maxDimension longest side wanted
+     * @return the width and height
+     */
+    static int[] scaledSize(int width, int height, int maxDimension) {
+        int longest = Math.max(width, height);
+        if (longest <= maxDimension) {
+            return new int[] {width, height};
+        }
+        double scale = (double) maxDimension / longest;
+        return new int[] {
+                Math.max(1, (int) Math.round(width * scale)),
+                Math.max(1, (int) Math.round(height * scale))
+        };
+    }
+
+    /**
+     * Scales the bitmap down to {@link #MAX_DIMENSION} and applies the EXIF orientation, which
+     * is lost when the image is re-encoded. Recycles {@code bitmap} if a new one is made.
+     */
+    private static Bitmap scaleAndRotate(Bitmap bitmap, int orientation) {
+        int[] size = scaledSize(bitmap.getWidth(), bitmap.getHeight(), MAX_DIMENSION);
+        Matrix matrix = new Matrix();
+        matrix.postScale((float) size[0] / bitmap.getWidth(), (float) size[1] / bitmap.getHeight());
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                if (size[0] == bitmap.getWidth() && size[1] == bitmap.getHeight()) return bitmap;
+        }
+
+        Bitmap transformed = Bitmap.createBitmap(bitmap, 0, 0, bitmap.getWidth(), bitmap.getHeight(), matrix, true);
+        if (transformed != bitmap) bitmap.recycle();
+        return transformed;
+    }
+
+    private static InputStream open(ContentResolver resolver, Uri uri) throws IOException {
+        InputStream in = resolver.openInputStream(uri);
+        if (in == null) {
+            throw new IOException("Could not open " + uri);
+        }
+        return in;
+    }
+
+    private static void deleteStaleFiles(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        long cutoff = System.currentTimeMillis() - STALE_AFTER_MS;
+        for (File file : files) {
+            if (file.lastModified() < cutoff) file.delete();
+        }
+    }
+
+    private static final class PreparedPoster {
+        final Uri uri;
+        final long originalBytes;
+        final long preparedBytes;
+
+        PreparedPoster(Uri uri, long originalBytes, long preparedBytes) {
+            this.uri = uri;
+            this.originalBytes = originalBytes;
+            this.preparedBytes = preparedBytes;
+        }
+    }
+
+    /**
+     * Counts the bytes read through it.
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count = 0;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        /**
+         * Reads the rest of the stream.
+         *
+         * @return total number of bytes in the stream
+         */
+        long drain() throws IOException {
+            byte[] buffer = new byte[16 * 1024];
+            while (read(buffer, 0, buffer.length) >= 0) {
+                // Only counting
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.haboob;
+
+import android.content.Context;
+import android.net.Uri;
+import android.text.format.Formatter;
+import android.util.Log;
+import android.widget.Toast;
+
+import com.cloudinary.android.MediaManager;
+import com.cloudinary.android.callback.ErrorInfo;
+import com.cloudinary.android.callback.UploadCallback;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * {@code PosterUploader} uploads a picked poster image to Cloudinary for the organizer screens.
+ * <p>
+ * The image is first shrunk and re-encoded by {@link PosterPreprocessor}, which also strips its
+ * EXIF data. If it cannot be prepared, nothing is uploaded, so camera details and GPS location
+ * never leave the device.
+ * <p>
+ * Only the application context is kept, so an upload runs to the end even if the organizer
+ * leaves the screen that started it; listeners must check that their own views still exist.
+ */
+public final class PosterUploader {
+
+    /** Cloudinary upload preset that allows unsigned uploads. */
+    static final String UPLOAD_PRESET = "haboob_unsigned";
+
+    /**
+     * Callback for {@link #upload}, called on the main thread.
+     */
+    public interface OnUploadedListener {
+        /**
+         * @param url secure URL of the uploaded poster
+         */
+        void onUploaded(String url);
+
+        /**
+         * Called if the poster could not be prepared or uploaded. The user has already been
+         * told with a toast.
+         */
+        void onError(Exception e);
+    }
+
+    private PosterUploader() {}
+
+    /**
+     * Prepares and uploads a poster image.
+     *
+     * @param context  any context; only the application context is kept
+     * @param uri      the picked image
+     * @param listener receives the uploaded URL or the failure
+     */
+    public static void upload(Context context, Uri uri, OnUploadedListener listener) {
+        Context appContext = context.getApplicationContext();
+        PosterPreprocessor.getInstance().prepare(appContext, uri, new PosterPreprocessor.OnPreparedListener() {
+            @Override
+            public void onPrepared(Uri prepared, long originalBytes, long preparedBytes) {
+                long saved = originalBytes - preparedBytes;
+                Log.d("Cloudinary", "Poster prepared: " + originalBytes + " -> " + preparedBytes + " bytes");
+                if (saved > 0) {
+                    Toast.makeText(appContext, "Poster compressed, saved "
+                            + Formatter.formatShortFileSize(appContext, saved), Toast.LENGTH_SHORT).show();
+                }
+                dispatch(appContext, prepared, listener);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e("Cloudinary", "Could not prepare poster", e);
+                Toast.makeText(appContext, "Could not read the poster image", Toast.LENGTH_SHORT).show();
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Starts the Cloudinary upload of an image that is ready to send.
+     */
+    private static void dispatch(Context appContext, Uri uri, OnUploadedListener listener) {
+        MediaManager.get().upload(uri)
+                .unsigned(UPLOAD_PRESET)
+                .callback(new UploadCallback() {
+                    @Override
+                    public void onStart(String requestId) {
+                        Log.d("Cloudinary", "Upload started");
+                        Toast.makeText(appContext, "Uploading poster...", Toast.LENGTH_SHORT).show();
+                    }
+
+                    @Override
+                    public void onProgress(String requestId, long bytes, long totalBytes) {
+                        // Optional: you could show progress here
+                    }
+
+                    @Override
+                    public void onSuccess(String requestId, Map resultData) {
+                        String secureUrl = (String) resultData.get("secure_url");
+                        Log.d("Cloudinary", "Upload success: " + secureUrl);
+                        listener.onUploaded(secureUrl);
+                    }
+
+                    @Override
+                    public void onError(String requestId, ErrorInfo error) {
+                        Log.e("Cloudinary", "Upload failed: " + error.getDescription());
+                        Toast.makeText(appContext, "Poster upload failed", Toast.LENGTH_SHORT).show();
+                        listener.onError(new IOException(error.getDescription()));
+                    }
+
+                    @Override
+                    public void onReschedule(String requestId, ErrorInfo error) {
+                        Log.w("Cloudinary", "Upload rescheduled: " + error.getDescription());
+                    }
+                })
+                .dispatch();
+    }
+}
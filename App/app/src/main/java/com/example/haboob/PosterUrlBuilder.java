@@ -0,0 +1,91 @@
+package com.example.haboob;
+
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import androidx.annotation.Nullable;
+
+import java.util.regex.Pattern;
+
+/**
+ * {@code PosterUrlBuilder} asks Cloudinary for a poster scaled to the view it is shown in,
+ * instead of downloading and decoding the full-resolution original.
+ * <p>
+ * Cloudinary applies the transformation given in the path after {@code /image/upload/}, e.g.
+ * {@code .../image/upload/c_fill,g_auto,w_400,h_400,q_auto,f_auto/v1712/poster.jpg}. Sizes are
+ * rounded up to a multiple of {@link #SIZE_STEP} pixels so that views of similar size share one
+ * variant, both on Cloudinary's CDN and in Glide's disk cache. URLs that are not Cloudinary
+ * uploads, or that already carry a transformation, are returned unchanged.
+ */
+public final class PosterUrlBuilder {
+
+    /** Requested sizes are rounded up to a multiple of this many pixels. */
+    static final int SIZE_STEP = 100;
+
+    private static final String CLOUDINARY_HOST = "res.cloudinary.com";
+    private static final String UPLOAD_PATH = "/image/upload/";
+
+    /** A path segment such as {@code w_400,c_fill}, as opposed to a version or public ID. */
+    private static final Pattern TRANSFORMATION = Pattern.compile("[a-z]{1,3}_[^/,]+(,[a-z]{1,3}_[^/,]+)*");
+
+    private PosterUrlBuilder() {}
+
+    /**
+     * Returns the URL of the poster scaled to fit the given view. The view's measured size is
+     * used if it has been laid out; otherwise its layout size, and for the width the screen width.
+     * A {@code centerCrop} view gets a poster cropped to its shape.
+     *
+     * @param url  the poster URL, as stored in {@link Poster#getData()}
+     * @param view the view the poster will be loaded into
+     * @return the URL to load
+     */
+    public static String forView(@Nullable String url, ImageView view) {
+        ViewGroup.LayoutParams params = view.getLayoutParams();
+
+        int width = view.getWidth();
+        if (width <= 0 && params != null) width = params.width;
+        if (width <= 0) width = view.getResources().getDisplayMetrics().widthPixels;
+
+        int height = view.getHeight();
+        if (height <= 0 && params != null) height = params.height;
+
+        return build(url, width, height, view.getScaleType() == ImageView.ScaleType.CENTER_CROP);
+    }
+
+    /**
+     * Adds a size, quality and format transformation to a Cloudinary URL.
+     *
+     * @param url    the poster URL
+     * @param width  target width in pixels, or 0 if unknown
+     * @param height target height in pixels, or 0 if unknown
+     * @param crop   whether to crop to the target shape rather than fit inside it; only applies
+     *               when both sizes are known
+     * @return the transformed URL, or {@code url} if it is not an untransformed Cloudinary upload
+     */
+    static String build(@Nullable String url, int width, int height, boolean crop) {
+        if (url == null || !url.contains(CLOUDINARY_HOST)) return url;
+
+        int upload = url.indexOf(UPLOAD_PATH);
+        if (upload < 0) return url;
+        int start = upload + UPLOAD_PATH.length();
+        int end = url.indexOf('/', start);
+        if (end > start && TRANSFORMATION.matcher(url.substring(start, end)).matches()) return url;
+
+        StringBuilder transformation = new StringBuilder();
+        if (width > 0 && height > 0 && crop) {
+            transformation.append("c_fill,g_auto,");
+        } else if (width > 0 || height > 0) {
+            // Never upscale when fitting
+            transformation.append("c_limit,");
+        }
+        if (width > 0) transformation.append("w_").append(roundUp(width)).append(',');
+        if (height > 0) transformation.append("h_").append(roundUp(height)).append(',');
+        transformation.append("q_auto,f_auto/");
+
+        return url.substring(0, start) + transformation + url.substring(start);
+    }
+
+    private static int roundUp(int pixels) {
+        return (pixels + SIZE_STEP - 1) / SIZE_STEP * SIZE_STEP;
+    }
+}
@@ -137,24 +137,27 @@ public class ProfileFragment extends Fragment {
     /**
      * Loads the current user's data from Firebase.
      * Retrieves user information from the 'users' collection and populates the UI fields.
+     * The copy saved by {@link OfflineStore} is shown first, and the document read replaces it.
      */
     private void loadUserData() {
         Log.d(TAG, "Loading user data for device: " + deviceId);
 
+        OfflineStore store = OfflineStore.getInstance(requireContext());
+        final boolean[] showingFresh = {false};
+        store.loadProfile(deviceId, cached -> {
+            if (cached == null || showingFresh[0] || !isAdded()) return;
+            showProfile(cached);
+        });
+
         db.collection("users").document(deviceId)
                 .get()
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
-                        // Populate fields with existing data
-                        firstNameEditText.setText(documentSnapshot.getString("first_name"));
-                        lastNameEditText.setText(documentSnapshot.getString("last_name"));
-                        emailEditText.setText(documentSnapshot.getString("email"));
-
-                        String phone = documentSnapshot.getString("phone");
-                        phoneEditText.setText(phone != null ? phone : "");
-
-                        accountType = documentSnapshot.getString("account_type");
-                        accountTypeTextView.setText(accountType != null ? accountType : "Unknown");
+                        Map<String, String> profile = OfflineStore.profileOf(documentSnapshot);
+                        store.saveProfile(deviceId, profile);
+                        if (!isAdded()) return;
+                        showingFresh[0] = true;
+                        showProfile(profile);
 
                         Log.d(TAG, "User data loaded successfully");
                     } else {
@@ -169,6 +172,23 @@ public class ProfileFragment extends Fragment {
                 });
     }
 
+    /**
+     * Populates the UI fields from profile fields.
+     *
+     * @param profile field name -> value, as in the 'users' document
+     */
+    private void showProfile(Map<String, String> profile) {
+        firstNameEditText.setText(profile.get("first_name"));
+        lastNameEditText.setText(profile.get("last_name"));
+        emailEditText.setText(profile.get("email"));
+
+        String phone = profile.get("phone");
+        phoneEditText.setText(phone != null ? phone : "");
+
+        accountType = profile.get("account_type");
+        accountTypeTextView.setText(accountType != null ? accountType : "Unknown");
+    }
+
     /**
      * Validates and saves the profile changes to Firebase.
      * Updates both the 'users' collection and the account-specific collection (entrant/organizer).
@@ -197,6 +217,7 @@ public class ProfileFragment extends Fragment {
         updates.put("phone", phone);
 
         // Update in users collection
+        OfflineStore store = OfflineStore.getInstance(requireContext());
         db.collection("users").whereEqualTo("device_id", deviceId)
                 .get()
                 .addOnSuccessListener(querySnapshot -> {
@@ -207,6 +228,14 @@ public class ProfileFragment extends Fragment {
                         db.collection("users").document(docId)
                                 .update(updates)
                                 .addOnSuccessListener(aVoid -> {
+                                    Map<String, String> profile = new HashMap<>();
+                                    profile.put("first_name", firstName);
+                                    profile.put("last_name", lastName);
+                                    profile.put("email", email);
+                                    profile.put("phone", phone);
+                                    profile.put("account_type", accountType);
+                                    store.saveProfile(deviceId, profile);
+
                                     if (accountType != null) {
                                         updateAccountTypeCollection(updates, accountType);
                                     } else {
@@ -338,12 +367,12 @@ public class ProfileFragment extends Fragment {
         deleteButton.setText("Deleting...");
 
         // Before deleting the user from users, delete them from all events
-        final EventsList[] eventsListWrapper = new EventsList[1];
-        eventsListWrapper[0] = new EventsList(new EventsList.OnEventsLoadedListener() {
+        EventsRepository repository = EventsRepository.getInstance();
+        repository.whenLoaded(this, new EventsList.OnEventsLoadedListener() {
             @Override
             public void onEventsLoaded() {
-                // Get all events
-                ArrayList<Event> allEvents = eventsListWrapper[0].getEventsList();
+                // Get all events (copied, since removals below can update the shared list)
+                ArrayList<Event> allEvents = new ArrayList<>(repository.getEventsList().getEventsList());
 
                 // Remove this user from all event lists (waiting, enrolled, invited, cancelled)
                 for (Event event : allEvents) {
@@ -391,13 +420,19 @@ public class ProfileFragment extends Fragment {
 
     /**
      * Deletes the user from Firestore collections.
-     * Removes the user from both the 'users' collection and their account-specific collection.
+     * Removes the user from both the 'users' collection and their account-specific collection,
+     * and drops the copies kept by {@link OfflineStore} and {@link AccountRouteCache}.
      */
     private void deleteUserFromFirestore() {
         // Delete from users collection
+        OfflineStore store = OfflineStore.getInstance(requireContext());
+        AccountRouteCache routeCache = AccountRouteCache.from(requireContext());
         db.collection("users").document(deviceId)
                 .delete()
                 .addOnSuccessListener(aVoid -> {
+                    store.clear(deviceId);
+                    routeCache.clear();
+
                     // Also delete from account-specific collection
                     if (accountType != null) {
                         String collection = accountType.toLowerCase();
@@ -2,20 +2,82 @@ package com.example.haboob;
 
 import android.graphics.Bitmap;
 import android.graphics.Color;
+import android.os.Handler;
+import android.os.Looper;
 
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * QRCode class for generating and managing QR codes based on event IDs
  * Uses ZXing library to generate QR code bitmaps
  */
 public class QRCode {
+    /**
+     * Width and height of the placeholder delivered by {@link #renderAsync} before the full code
+     */
+    static final int PLACEHOLDER_SIZE = 64;
+
+    /**
+     * Number of threads rendering QR codes in the background
+     */
+    private static final int RENDER_THREADS = 2;
+
+    private static Executor renderExecutor;
+
     private String eventID;
     private transient Bitmap qrBitmap; // transient so it won't be serialized to Firestore
 
+    /**
+     * Callback for {@link #renderAsync}, called on the main thread
+     */
+    public interface OnQRCodeRenderedListener {
+        /**
+         * Called with a low-resolution version of the code while the full-size one renders
+         * Not called if the full-size code was already rendered
+         * @param placeholder The low-resolution code
+         */
+        void onPlaceholder(Bitmap placeholder);
+
+        /**
+         * @param bitmap The full-size code
+         */
+        void onRendered(Bitmap bitmap);
+
+        /**
+         * @param e Why the code could not be rendered
+         */
+        void onError(Exception e);
+    }
+
+    /**
+     * Handle of a render started by {@link #renderAsync}
+     */
+    public static final class RenderTask {
+        private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+        /**
+         * Stops the render if it has not started, and drops any result not yet delivered
+         * Must be called on the main thread for no callback to follow it
+         */
+        public void cancel() {
+            cancelled.set(true);
+        }
+
+        /**
+         * @return Whether {@link #cancel} was called
+         */
+        public boolean isCancelled() {
+            return cancelled.get();
+        }
+    }
+
     /**
      * Empty constructor for Firebase Firestore serialization
      */
@@ -35,15 +97,18 @@ public class QRCode {
     /**
      * Generates a deep link URI for the event that can be scanned to open the app
      * Format: haboob://event?id={eventID}
+     * @param eventID The event ID to link to
      * @return The deep link URI string
      */
-    private String generateDeepLink() {
+    private static String generateDeepLink(String eventID) {
         return "haboob://event?id=" + eventID;
     }
 
     /**
      * Generates a QR code bitmap from the event ID as a deep link
      * The QR code encodes a URI that will open the app to this specific event
+     * The bitmap is also added to {@link QRCodeCache}, so later {@link #getBitmap} calls for
+     * this event and size reuse it.
      * @param size The width and height of the QR code in pixels (recommended: 512 or higher)
      * @return Bitmap of the QR code, or null if generation fails
      */
@@ -53,41 +118,173 @@ public class QRCode {
         }
 
         try {
-            QRCodeWriter writer = new QRCodeWriter();
-            // Encode the deep link instead of just the eventID
-            String deepLink = generateDeepLink();
-            BitMatrix bitMatrix = writer.encode(deepLink, BarcodeFormat.QR_CODE, size, size);
+            this.qrBitmap = render(eventID, size);
+            return qrBitmap;
 
-            int width = bitMatrix.getWidth();
-            int height = bitMatrix.getHeight();
-            Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+        } catch (WriterException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
 
-            // Convert BitMatrix to Bitmap
-            for (int x = 0; x < width; x++) {
-                for (int y = 0; y < height; y++) {
-                    bitmap.setPixel(x, y, bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE);
+    /**
+     * Encodes the deep link of an event as a QR code matrix
+     * Touches no instance state, so it can run on any thread
+     * @param eventID The event ID to encode
+     * @param size The width and height of the matrix, or 0 for one bit per module
+     * @return The encoded QR code, including its quiet zone
+     * @throws WriterException if the deep link cannot be encoded
+     */
+    static BitMatrix encode(String eventID, int size) throws WriterException {
+        QRCodeWriter writer = new QRCodeWriter();
+        // Encode the deep link instead of just the eventID
+        String deepLink = generateDeepLink(eventID);
+        return writer.encode(deepLink, BarcodeFormat.QR_CODE, size, size);
+    }
+
+    /**
+     * Renders the QR code of an event and adds it to {@link QRCodeCache}
+     * Touches no instance state, so it can run on any thread
+     * @param eventID The event ID to encode
+     * @param size The width and height of the QR code in pixels
+     * @return Bitmap of the QR code
+     * @throws WriterException if the deep link cannot be encoded
+     */
+    private static Bitmap render(String eventID, int size) throws WriterException {
+        BitMatrix bitMatrix = encode(eventID, size);
+
+        int width = bitMatrix.getWidth();
+        int height = bitMatrix.getHeight();
+        Bitmap bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.RGB_565);
+
+        // Convert BitMatrix to Bitmap in one call rather than one setPixel call per pixel
+        bitmap.setPixels(toPixels(bitMatrix), 0, width, 0, 0, width, height);
+
+        QRCodeCache.getInstance().put(eventID, size, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Renders the QR code on a background thread and delivers it on the main thread
+     * If the code of this size is already in {@link QRCodeCache} it is delivered right away
+     * Otherwise a {@link #PLACEHOLDER_SIZE} pixel version is delivered first, so there is
+     * something to show while the full-size code renders
+     * @param size The width and height of the QR code in pixels
+     * @param listener Receives the placeholder and the full-size code, unless cancelled first
+     * @return Handle for cancelling the render, e.g. when the view showing it is destroyed
+     */
+    public RenderTask renderAsync(int size, OnQRCodeRenderedListener listener) {
+        Handler handler = new Handler(Looper.getMainLooper());
+        return renderAsync(size, renderExecutor(), handler::post, listener);
+    }
+
+    /**
+     * {@link #renderAsync(int, OnQRCodeRenderedListener)} on the given executors
+     * @param size The width and height of the QR code in pixels
+     * @param background Executor that renders the code
+     * @param main Executor that calls the listener and updates this object
+     * @param listener Receives the placeholder and the full-size code, unless cancelled first
+     * @return Handle for cancelling the render
+     */
+    RenderTask renderAsync(int size, Executor background, Executor main, OnQRCodeRenderedListener listener) {
+        RenderTask task = new RenderTask();
+        String id = eventID;
+        if (id == null || id.isEmpty()) {
+            main.execute(() -> {
+                if (!task.isCancelled()) listener.onError(new IllegalStateException("QR code has no event ID"));
+            });
+            return task;
+        }
+
+        Bitmap cached = getCachedBitmapOfSize(size);
+        if (cached != null) {
+            main.execute(() -> {
+                if (task.isCancelled()) return;
+                this.qrBitmap = cached;
+                listener.onRendered(cached);
+            });
+            return task;
+        }
+
+        background.execute(() -> {
+            try {
+                if (task.isCancelled()) return;
+                if (size > PLACEHOLDER_SIZE) {
+                    Bitmap placeholder = render(id, PLACEHOLDER_SIZE);
+                    main.execute(() -> {
+                        if (!task.isCancelled()) listener.onPlaceholder(placeholder);
+                    });
                 }
+
+                if (task.isCancelled()) return;
+                Bitmap bitmap = render(id, size);
+                main.execute(() -> {
+                    if (task.isCancelled()) return;
+                    this.qrBitmap = bitmap;
+                    listener.onRendered(bitmap);
+                });
+            } catch (WriterException | RuntimeException e) {
+                main.execute(() -> {
+                    if (!task.isCancelled()) listener.onError(e);
+                });
             }
+        });
+        return task;
+    }
 
-            this.qrBitmap = bitmap;
-            return bitmap;
+    /**
+     * @return The executor shared by all asynchronous renders, created on first use
+     */
+    private static synchronized Executor renderExecutor() {
+        if (renderExecutor == null) {
+            renderExecutor = Executors.newFixedThreadPool(RENDER_THREADS);
+        }
+        return renderExecutor;
+    }
 
-        } catch (WriterException e) {
-            e.printStackTrace();
-            return null;
+    /**
+     * Converts a bit matrix to colours, black for set bits and white otherwise.
+     * @param bitMatrix The encoded QR code
+     * @return One colour per module pixel, row by row, as taken by {@link Bitmap#setPixels}
+     */
+    static int[] toPixels(BitMatrix bitMatrix) {
+        int width = bitMatrix.getWidth();
+        int height = bitMatrix.getHeight();
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            for (int x = 0; x < width; x++) {
+                pixels[row + x] = bitMatrix.get(x, y) ? Color.BLACK : Color.WHITE;
+            }
         }
+        return pixels;
     }
 
     /**
-     * Gets the cached QR code bitmap, or generates it if not already created
+     * Gets the QR code bitmap of the given size, from this object or {@link QRCodeCache} if it
+     * has already been rendered, or generates it otherwise
+     * The returned bitmap may be shared, so it must not be recycled or modified
      * @param size The width and height of the QR code in pixels
-     * @return Bitmap of the QR code
+     * @return Bitmap of the QR code, or null if generation fails
      */
     public Bitmap getBitmap(int size) {
-        if (qrBitmap == null) {
-            return generateQRCode(size);
+        Bitmap cached = getCachedBitmapOfSize(size);
+        if (cached != null) {
+            this.qrBitmap = cached;
+            return cached;
         }
-        return qrBitmap;
+        return generateQRCode(size);
+    }
+
+    /**
+     * @param size The width and height of the QR code in pixels
+     * @return The already rendered bitmap of this size, or null
+     */
+    private Bitmap getCachedBitmapOfSize(int size) {
+        if (qrBitmap != null && qrBitmap.getWidth() == size) {
+            return qrBitmap;
+        }
+        return eventID == null ? null : QRCodeCache.getInstance().get(eventID, size);
     }
 
     /**
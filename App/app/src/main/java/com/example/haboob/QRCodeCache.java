@@ -0,0 +1,107 @@
+package com.example.haboob;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.Nullable;
+import androidx.collection.LruCache;
+
+/**
+ * {@code QRCodeCache} keeps recently rendered QR code bitmaps for the whole app process, keyed
+ * by event ID and size, so reopening an event's QR code does not render it again.
+ * <p>
+ * The cache is bounded by the bitmaps' byte size rather than their number; the least recently
+ * used codes are dropped first. A 512 px code takes 512 KB, so the default budget of
+ * {@link #DEFAULT_MAX_BYTES} holds eight of them. Cached bitmaps are shared, so callers must not
+ * recycle or modify them.
+ * <p>
+ * All methods are thread-safe.
+ */
+public final class QRCodeCache {
+
+    /** Default byte budget of the process-wide cache. */
+    static final int DEFAULT_MAX_BYTES = 4 * 1024 * 1024;
+
+    private static QRCodeCache instance;
+
+    private final LruCache<String, Bitmap> bitmaps;
+
+    /**
+     * @return the process-wide cache, created on first use
+     */
+    public static synchronized QRCodeCache getInstance() {
+        if (instance == null) {
+            instance = new QRCodeCache(DEFAULT_MAX_BYTES);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxBytes total byte size of the bitmaps kept
+     */
+    QRCodeCache(int maxBytes) {
+        bitmaps = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+    }
+
+    /**
+     * @param eventID event the code was rendered for
+     * @param size    width and height of the code in pixels
+     * @return the cached bitmap, or {@code null} if it is not cached
+     */
+    @Nullable
+    public Bitmap get(String eventID, int size) {
+        return bitmaps.get(key(eventID, size));
+    }
+
+    /**
+     * Caches a rendered code, replacing any bitmap cached for the same event and size. A bitmap
+     * larger than the whole budget is not kept.
+     *
+     * @param eventID event the code was rendered for
+     * @param size    width and height of the code in pixels
+     * @param bitmap  the rendered code
+     */
+    public void put(String eventID, int size, Bitmap bitmap) {
+        // LruCache would otherwise empty itself trying to make room
+        if (bitmap.getByteCount() > bitmaps.maxSize()) return;
+        bitmaps.put(key(eventID, size), bitmap);
+    }
+
+    /**
+     * Drops every cached bitmap, e.g. when the system is low on memory.
+     */
+    public void clear() {
+        bitmaps.evictAll();
+    }
+
+    /**
+     * @return total byte size of the cached bitmaps
+     */
+    public int getSizeBytes() {
+        return bitmaps.size();
+    }
+
+    /**
+     * @return number of lookups that found a cached bitmap
+     */
+    public int getHitCount() {
+        return bitmaps.hitCount();
+    }
+
+    /**
+     * @return number of lookups that did not
+     */
+    public int getMissCount() {
+        return bitmaps.missCount();
+    }
+
+    private static String key(String eventID, int size) {
+        return eventID + "@" + size;
+    }
+}
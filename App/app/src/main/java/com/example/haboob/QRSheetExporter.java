@@ -0,0 +1,276 @@
+package com.example.haboob;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.pdf.PdfDocument;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.TextPaint;
+import android.text.TextUtils;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@code QRSheetExporter} writes printable QR codes for many events into one multi-page PDF.
+ * <p>
+ * Codes are laid out {@link #COLUMNS} by {@link #ROWS} on A4 pages, each captioned with its
+ * event title. The codes are encoded in parallel on a bounded pool, at most {@code maxInFlight}
+ * ahead of the one being drawn, and drawn onto the page as rectangles rather than bitmaps. Memory
+ * use therefore stays flat however many events are exported, and the codes print sharply at any
+ * size.
+ */
+public final class QRSheetExporter {
+
+    /** A4 page size in PostScript points. */
+    static final int PAGE_WIDTH = 595;
+    static final int PAGE_HEIGHT = 842;
+
+    /** Blank border around each page, in points. */
+    static final int MARGIN = 36;
+
+    /** Space under each code for its caption, in points. */
+    static final int CAPTION_HEIGHT = 28;
+
+    static final int COLUMNS = 2;
+    static final int ROWS = 3;
+    static final int CODES_PER_PAGE = COLUMNS * ROWS;
+
+    /** Most threads encoding codes for the process-wide exporter. */
+    static final int MAX_ENCODER_THREADS = 4;
+
+    private static QRSheetExporter instance;
+
+    private final ExecutorService encoders;
+    private final Executor coordinator;
+    private final Executor main;
+    private final int maxInFlight;
+
+    /**
+     * Callback for {@link #exportPdf}, called on the main thread.
+     */
+    public interface OnExportListener {
+        /**
+         * Called after each code is drawn.
+         *
+         * @param exported number of codes drawn so far
+         * @param total    number of codes being exported
+         */
+        void onProgress(int exported, int total);
+
+        /**
+         * Called once the PDF has been written and the stream closed.
+         *
+         * @param codeCount number of codes exported
+         * @param pageCount number of pages written
+         */
+        void onExported(int codeCount, int pageCount);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Receives the laid-out pages from {@link #writeSheets}.
+     */
+    interface PageWriter {
+        /**
+         * @param pageNumber number of the page, starting at 1
+         */
+        void startPage(int pageNumber);
+
+        /**
+         * @param slot    position on the page, row by row, from 0 to {@link #CODES_PER_PAGE} - 1
+         * @param code    the encoded code, one bit per module
+         * @param caption text to print under the code
+         */
+        void drawCode(int slot, BitMatrix code, String caption);
+
+        void finishPage();
+    }
+
+    /**
+     * @return the process-wide exporter, created on first use
+     */
+    public static synchronized QRSheetExporter getInstance() {
+        if (instance == null) {
+            int threads = Math.max(1, Math.min(MAX_ENCODER_THREADS, Runtime.getRuntime().availableProcessors()));
+            Handler handler = new Handler(Looper.getMainLooper());
+            instance = new QRSheetExporter(Executors.newFixedThreadPool(threads),
+                    Executors.newSingleThreadExecutor(), handler::post, 2 * threads);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates an exporter.
+     *
+     * @param encoders    pool encoding the codes
+     * @param coordinator executor running each export, one at a time
+     * @param main        executor that calls listeners
+     * @param maxInFlight most codes encoded or being encoded ahead of the one being drawn
+     */
+    QRSheetExporter(ExecutorService encoders, Executor coordinator, Executor main, int maxInFlight) {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive");
+        }
+        this.encoders = encoders;
+        this.coordinator = coordinator;
+        this.main = main;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Writes the QR codes of the given events to a PDF in the background. The stream is closed
+     * when the export finishes or fails.
+     *
+     * @param events   events to export, in page order
+     * @param out      stream the PDF is written to
+     * @param listener receives progress and the outcome
+     */
+    public void exportPdf(List<Event> events, OutputStream out, OnExportListener listener) {
+        List<Event> snapshot = new ArrayList<>(events);
+        coordinator.execute(() -> {
+            PdfDocument pdf = new PdfDocument();
+            try {
+                if (snapshot.isEmpty()) {
+                    throw new IllegalArgumentException("No events to export");
+                }
+                int pages = writeSheets(snapshot, new PdfPageWriter(pdf, snapshot.size(), listener));
+                pdf.writeTo(out);
+                main.execute(() -> listener.onExported(snapshot.size(), pages));
+            } catch (Exception e) {
+                main.execute(() -> listener.onError(e));
+            } finally {
+                pdf.close();
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Nothing more to write; a failed write was already reported
+                }
+            }
+        });
+    }
+
+    /**
+     * Encodes the codes of the given events on the encoder pool and hands them to
+     * {@code writer} in order, {@link #CODES_PER_PAGE} per page.
+     *
+     * @param events events to export, in page order
+     * @param writer receives the pages
+     * @return number of pages written
+     * @throws Exception the first encoding failure
+     */
+    int writeSheets(List<Event> events, PageWriter writer) throws Exception {
+        ArrayDeque<Future<BitMatrix>> window = new ArrayDeque<>();
+        int submitted = 0;
+        int pages = 0;
+        try {
+            for (int i = 0; i < events.size(); i++) {
+                while (submitted < events.size() && window.size() < maxInFlight) {
+                    String eventID = events.get(submitted++).getEventID();
+                    window.add(encoders.submit(() -> QRCode.encode(eventID, 0)));
+                }
+
+                BitMatrix code;
+                try {
+                    code = window.remove().get();
+                } catch (ExecutionException e) {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+
+                int slot = i % CODES_PER_PAGE;
+                if (slot == 0) writer.startPage(++pages);
+                writer.drawCode(slot, code, caption(events.get(i)));
+                if (slot == CODES_PER_PAGE - 1 || i == events.size() - 1) writer.finishPage();
+            }
+        } finally {
+            for (Future<BitMatrix> pending : window) {
+                pending.cancel(true);
+            }
+        }
+        return pages;
+    }
+
+    private static String caption(Event event) {
+        String title = event.getEventTitle();
+        return title == null || title.trim().isEmpty() ? event.getEventID() : title.trim();
+    }
+
+    /**
+     * Draws the pages into a {@link PdfDocument}.
+     */
+    private final class PdfPageWriter implements PageWriter {
+        private final PdfDocument pdf;
+        private final int total;
+        private final OnExportListener listener;
+        private final Paint modulePaint = new Paint();
+        private final TextPaint captionPaint = new TextPaint(Paint.ANTI_ALIAS_FLAG);
+        private PdfDocument.Page page;
+        private int drawn = 0;
+
+        PdfPageWriter(PdfDocument pdf, int total, OnExportListener listener) {
+            this.pdf = pdf;
+            this.total = total;
+            this.listener = listener;
+            modulePaint.setColor(Color.BLACK);
+            modulePaint.setStyle(Paint.Style.FILL);
+            captionPaint.setColor(Color.BLACK);
+            captionPaint.setTextSize(12);
+            captionPaint.setTextAlign(Paint.Align.CENTER);
+        }
+
+        @Override
+        public void startPage(int pageNumber) {
+            page = pdf.startPage(new PdfDocument.PageInfo.Builder(PAGE_WIDTH, PAGE_HEIGHT, pageNumber).create());
+        }
+
+        @Override
+        public void drawCode(int slot, BitMatrix code, String caption) {
+            float cellWidth = (PAGE_WIDTH - 2f * MARGIN) / COLUMNS;
+            float cellHeight = (PAGE_HEIGHT - 2f * MARGIN) / ROWS;
+            float codeSize = Math.min(cellWidth, cellHeight - CAPTION_HEIGHT);
+            float left = MARGIN + (slot % COLUMNS) * cellWidth + (cellWidth - codeSize) / 2;
+            float top = MARGIN + (slot / COLUMNS) * cellHeight;
+            float module = codeSize / code.getWidth();
+
+            // One rectangle per run of dark modules in a row
+            Canvas canvas = page.getCanvas();
+            for (int y = 0; y < code.getHeight(); y++) {
+                int x = 0;
+                while (x < code.getWidth()) {
+                    if (!code.get(x, y)) {
+                        x++;
+                        continue;
+                    }
+                    int start = x;
+                    while (x < code.getWidth() && code.get(x, y)) x++;
+                    canvas.drawRect(left + start * module, top + y * module,
+                            left + x * module, top + (y + 1) * module, modulePaint);
+                }
+            }
+
+            CharSequence text = TextUtils.ellipsize(caption, captionPaint, cellWidth, TextUtils.TruncateAt.END);
+            canvas.drawText(text.toString(), left + codeSize / 2, top + codeSize + CAPTION_HEIGHT / 2f, captionPaint);
+
+            int exported = ++drawn;
+            main.execute(() -> listener.onProgress(exported, total));
+        }
+
+        @Override
+        public void finishPage() {
+            pdf.finishPage(page);
+            page = null;
+        }
+    }
+}
@@ -91,6 +91,7 @@ public class RegisterActivity extends AppCompatActivity {
                         String accountType = querySnapshot.getDocuments()
                                 .get(0)
                                 .getString("account_type");
+                        AccountRouteCache.from(this).put(deviceId, accountType);
 
                         Intent intent;
                         if ("Entrant".equals(accountType)) {
@@ -201,6 +202,8 @@ public class RegisterActivity extends AppCompatActivity {
                         db.collection(userAccountType.toLowerCase()).add(user)
                                 .addOnSuccessListener(documentReference -> {
                                     Toast.makeText(this, "Registration successful!", Toast.LENGTH_SHORT).show();
+                                    // Lets SplashActivity route without waiting for Firebase next time
+                                    AccountRouteCache.from(this).put(deviceId, userAccountType);
 
                                     // After the user is added to the db, we want to navigate to the activity based on the users account type
                                     // Navigate to MainActivity if the user is an Entrant
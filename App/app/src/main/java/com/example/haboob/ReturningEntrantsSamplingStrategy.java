@@ -0,0 +1,56 @@
+package com.example.haboob;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Lottery with guaranteed places for returning entrants.
+ * <p>
+ * Returning entrants on the list are selected before anyone else. If there are more of them
+ * than places, the places are drawn uniformly among them. Any places left over are drawn from
+ * the other entrants with the delegate strategy.
+ */
+public class ReturningEntrantsSamplingStrategy implements SamplingStrategy {
+
+    private final Set<String> returningEntrants;
+    private final SamplingStrategy others;
+    private final EntrantSampler sampler;
+
+    /**
+     * @param returningEntrants entrants guaranteed a place
+     * @param others            strategy for the remaining places
+     * @param random            source of randomness when returning entrants outnumber places
+     */
+    public ReturningEntrantsSamplingStrategy(Set<String> returningEntrants, SamplingStrategy others, Random random) {
+        this.returningEntrants = returningEntrants != null ? new HashSet<>(returningEntrants) : new HashSet<>();
+        this.others = others;
+        this.sampler = new EntrantSampler(random);
+    }
+
+    @Override
+    public List<String> sample(List<String> entrants, int k) {
+        if (entrants == null || entrants.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        List<String> returning = new ArrayList<>();
+        List<String> rest = new ArrayList<>(entrants.size());
+        for (String entrant : entrants) {
+            if (returningEntrants.contains(entrant)) {
+                returning.add(entrant);
+            } else {
+                rest.add(entrant);
+            }
+        }
+
+        if (returning.size() >= k) {
+            return sampler.sample(returning, k);
+        }
+        List<String> out = new ArrayList<>(returning);
+        out.addAll(others.sample(rest, k - returning.size()));
+        return out;
+    }
+}
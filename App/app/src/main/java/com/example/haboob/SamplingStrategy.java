@@ -0,0 +1,41 @@
+package com.example.haboob;
+
+import java.util.List;
+
+/**
+ * Chooses which entrants a lottery draw selects.
+ * <p>
+ * {@link LotterySampler} uses one strategy for every draw it makes: the initial lottery and
+ * every vacancy refill. An event can carry its own strategy, set with
+ * {@link Event#useSamplingStrategy} and picked up by {@link LotterySampler#forEvent}.
+ * Implementations:
+ * <ul>
+ *   <li>{@link #uniform(EntrantSampler)}: every entrant is equally likely (the default)</li>
+ *   <li>{@link WeightedSamplingStrategy}: entrants with a higher weight are more likely</li>
+ *   <li>{@link StratifiedSamplingStrategy}: places are shared between groups in proportion to
+ *       their size</li>
+ *   <li>{@link ReturningEntrantsSamplingStrategy}: returning entrants are selected first</li>
+ * </ul>
+ * Strategies that use randomness take it from an injected source, so seeded draws can be
+ * replayed.
+ */
+public interface SamplingStrategy {
+
+    /**
+     * Selects up to {@code k} distinct entrants. The input list is not modified.
+     *
+     * @param entrants entrant IDs to choose from
+     * @param k        number of entrants to select
+     * @return the selected entrant IDs; fewer than {@code k} if not enough are eligible, and
+     *         empty if {@code entrants} is null/empty or {@code k <= 0}
+     */
+    List<String> sample(List<String> entrants, int k);
+
+    /**
+     * @param sampler source of the uniform draws
+     * @return a strategy where every entrant is equally likely to be selected
+     */
+    static SamplingStrategy uniform(EntrantSampler sampler) {
+        return sampler::sample;
+    }
+}
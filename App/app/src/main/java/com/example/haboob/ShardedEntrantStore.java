@@ -0,0 +1,852 @@
+package com.example.haboob;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * {@code ShardedEntrantStore} keeps an event's entrants in a sub-collection instead of arrays
+ * on the event document, for events that would outgrow Firestore's 1 MiB document limit.
+ * <p>
+ * Layout under {@code events/{documentId}}:
+ * <ul>
+ *   <li>{@code entrants/{entrantId}}: {@code {entrantId, status, updatedAt}}, where
+ *       {@code status} is an {@link EntrantStatus} name</li>
+ *   <li>{@code entrantCounts/{0..shards-1}}: one counter field per list, named like the
+ *       list's array field (e.g. {@code waitingEntrants}); a list's size is the sum over all
+ *       shards</li>
+ *   <li>{@code entrantLocations/{autoId}}: {@code {location}}</li>
+ * </ul>
+ * Each status change is a transaction that reads only the entrant's own document and
+ * increments a randomly chosen counter shard, so concurrent joins neither contend on the
+ * event document nor on a single counter.
+ * <p>
+ * {@link #join} enforces the event's waiting list capacity: the capacity is split into one
+ * allotment per shard, and a join takes a place from the first shard it reads that still has
+ * room. Joins that land on different shards commit in parallel, and the waiting count can
+ * never exceed the capacity because no shard's count exceeds its allotment.
+ * <p>
+ * Events opt in with {@link Event#setShardedEntrants}; {@link #migrate} moves an existing
+ * event's arrays over, which the organizer's list screen does once {@link #needsMigration}. Lottery draws read the lists with {@link #loadLists} and commit with
+ * {@link #checkStatuses} and {@link #writeMoves}; an entrant's own sharded events are found
+ * with {@link #loadMemberships}.
+ */
+public final class ShardedEntrantStore {
+
+    static final String ENTRANTS_COLLECTION = "entrants";
+    static final String COUNTERS_COLLECTION = "entrantCounts";
+    static final String LOCATIONS_COLLECTION = "entrantLocations";
+    static final String STATUS_FIELD = "status";
+    static final String ENTRANT_ID_FIELD = "entrantId";
+
+    /** Default number of counter shards per event. */
+    static final int DEFAULT_SHARDS = 10;
+
+    /**
+     * Entrants, plus join locations, at which {@link #needsMigration} moves an event over.
+     * About 300 KiB of IDs, well short of the document limit.
+     */
+    static final int MIGRATION_THRESHOLD = 10_000;
+
+    /** Times {@link #migrate} copies the arrays before giving up on a busy event. */
+    static final int MAX_MIGRATION_ATTEMPTS = 3;
+
+    /** Firestore allows at most 500 writes per batch. */
+    private static final int MAX_BATCH_WRITES = 500;
+
+    private static ShardedEntrantStore instance;
+
+    private final int shards;
+    private final Random random;
+
+    /** Paths of the event documents {@link #migrate} is running for in this process. */
+    private final Set<String> migrating = new HashSet<>();
+
+    /**
+     * Callback for {@link #loadCounts}.
+     */
+    public interface OnCountsLoadedListener {
+        /**
+         * @param counts size of each entrant list; every status is present
+         */
+        void onCountsLoaded(Map<EntrantStatus, Long> counts);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Callback for {@link Pager#next}.
+     */
+    public interface OnPageLoadedListener {
+        /**
+         * @param entrantIds entrants on this page, in document ID order
+         * @param hasMore    whether another page may follow
+         */
+        void onPageLoaded(List<String> entrantIds, boolean hasMore);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * Callback for {@link #loadLists}.
+     */
+    public interface OnListsLoadedListener {
+        /**
+         * @param lists every entrant list, in document ID order; every status is present
+         */
+        void onListsLoaded(Map<EntrantStatus, List<String>> lists);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * A sharded event an entrant belongs to, found by {@link #loadMemberships}.
+     */
+    public static final class Membership {
+        private final DocumentSnapshot event;
+        private final EntrantStatus status;
+
+        Membership(DocumentSnapshot event, EntrantStatus status) {
+            this.event = event;
+            this.status = status;
+        }
+
+        /** @return the event document */
+        public DocumentSnapshot getEvent() {
+            return event;
+        }
+
+        /** @return the entrant's status in the event */
+        public EntrantStatus getStatus() {
+            return status;
+        }
+    }
+
+    /**
+     * Thrown inside a transaction on the event document when the event turns out to have been
+     * moved to sharded storage since the caller's copy was loaded, so the write can be redone
+     * against the entrants sub-collection.
+     */
+    static final class ShardedEventException extends FirebaseFirestoreException {
+        ShardedEventException() {
+            super("Event uses sharded entrant storage", Code.FAILED_PRECONDITION);
+        }
+    }
+
+    /**
+     * Callback for {@link #migrate}.
+     */
+    public interface OnMigratedListener {
+        /**
+         * @param entrants number of entrant documents written
+         */
+        void onMigrated(int entrants);
+
+        void onError(Exception e);
+    }
+
+    /**
+     * @return the shared store with {@link #DEFAULT_SHARDS} counter shards
+     */
+    public static synchronized ShardedEntrantStore getInstance() {
+        if (instance == null) {
+            instance = new ShardedEntrantStore(DEFAULT_SHARDS, new Random());
+        }
+        return instance;
+    }
+
+    /**
+     * @param shards number of counter shards per event
+     * @param random picks the shard each write increments
+     */
+    ShardedEntrantStore(int shards, Random random) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive");
+        }
+        this.shards = shards;
+        this.random = random;
+    }
+
+    /**
+     * @return number of counter shards per event
+     */
+    public int getShardCount() {
+        return shards;
+    }
+
+    // -------------------- Writes --------------------
+
+    /**
+     * Puts an entrant in the list for {@code status}, taking it out of any other list, and
+     * updates the counters to match. Does nothing if the entrant already has that status.
+     *
+     * @param eventDoc  the event document
+     * @param entrantID entrant to move
+     * @param status    list the entrant ends up in
+     * @return the transaction's task
+     */
+    public Task<Void> move(DocumentReference eventDoc, String entrantID, EntrantStatus status) {
+        DocumentReference entrantDoc = entrantDoc(eventDoc, entrantID);
+        DocumentReference shard = randomShard(eventDoc);
+        return eventDoc.getFirestore().runTransaction(transaction -> {
+            EntrantStatus current = statusOf(transaction.get(entrantDoc));
+            if (current == status) return null;
+
+            transaction.set(entrantDoc, entrantData(entrantID, status));
+            transaction.set(shard, counterDelta(current, status), SetOptions.merge());
+            return null;
+        });
+    }
+
+    /**
+     * Removes an entrant from the list for {@code status} and updates the counters to match.
+     * Does nothing if the entrant is not in that list.
+     *
+     * @param eventDoc  the event document
+     * @param entrantID entrant to remove
+     * @param status    list to remove the entrant from
+     * @return the transaction's task
+     */
+    public Task<Void> remove(DocumentReference eventDoc, String entrantID, EntrantStatus status) {
+        DocumentReference entrantDoc = entrantDoc(eventDoc, entrantID);
+        DocumentReference shard = randomShard(eventDoc);
+        return eventDoc.getFirestore().runTransaction(transaction -> {
+            if (statusOf(transaction.get(entrantDoc)) != status) return null;
+
+            transaction.delete(entrantDoc);
+            transaction.set(shard, counterDelta(status, null), SetOptions.merge());
+            return null;
+        });
+    }
+
+    /**
+     * Adds an entrant to the waiting list if there is room under the event's
+     * {@code optionalWaitingListSize} (negative means unlimited), taking it out of any other
+     * list. Shards are tried from a random one onwards, so the transaction usually reads a
+     * single shard and only scans further when that shard's allotment is used up.
+     * <p>
+     * Unlike {@link #move}, which is for organizer actions and does not check the capacity,
+     * this is the path for entrants joining themselves.
+     *
+     * @param eventDoc  the event document
+     * @param entrantID entrant joining the waiting list
+     * @return the transaction's task; {@code true} if the entrant is on the waiting list
+     *         (including when it already was), {@code false} if the list is full
+     */
+    public Task<Boolean> join(DocumentReference eventDoc, String entrantID) {
+        DocumentReference entrantDoc = entrantDoc(eventDoc, entrantID);
+        int start = nextShard();
+        return eventDoc.getFirestore().runTransaction(transaction -> {
+            EntrantStatus current = statusOf(transaction.get(entrantDoc));
+            if (current == EntrantStatus.WAITING) return true;
+
+            Long capacityValue = transaction.get(eventDoc).getLong(Event.WAITING_LIST_CAPACITY_FIELD);
+            long capacity = capacityValue != null ? capacityValue : -1;
+
+            // Reads must all happen before the first write, so find the shard first
+            int shard = -1;
+            DocumentSnapshot counts = null;
+            for (int i = 0; i < shards && shard < 0; i++) {
+                int candidate = (start + i) % shards;
+                DocumentSnapshot candidateCounts = transaction.get(shardDoc(eventDoc, candidate));
+                if (capacity < 0
+                        || count(candidateCounts, EntrantStatus.WAITING) < allotment(capacity, shards, candidate)) {
+                    shard = candidate;
+                    counts = candidateCounts;
+                }
+            }
+            if (shard < 0) return false;
+
+            // The shard was read, so write its new counts outright rather than as increments
+            Map<String, Object> newCounts = new HashMap<>();
+            newCounts.put(EntrantStatus.WAITING.getFieldName(), count(counts, EntrantStatus.WAITING) + 1);
+            if (current != null) {
+                newCounts.put(current.getFieldName(), count(counts, current) - 1);
+            }
+            transaction.set(entrantDoc, entrantData(entrantID, EntrantStatus.WAITING));
+            transaction.set(shardDoc(eventDoc, shard), newCounts, SetOptions.merge());
+            return true;
+        });
+    }
+
+    /**
+     * Records an entrant's sign-up location.
+     *
+     * @param eventDoc the event document
+     * @param location location to add
+     * @return the write's task
+     */
+    public Task<Void> addLocation(DocumentReference eventDoc, GeoPoint location) {
+        return eventDoc.collection(LOCATIONS_COLLECTION).document().set(locationData(location));
+    }
+
+    /**
+     * Deletes every record of a sign-up location.
+     *
+     * @param eventDoc the event document
+     * @param location location to remove
+     */
+    public void removeLocation(DocumentReference eventDoc, GeoPoint location) {
+        eventDoc.collection(LOCATIONS_COLLECTION)
+                .whereEqualTo("location", location)
+                .get()
+                .addOnSuccessListener(snapshots -> {
+                    for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                        doc.getReference().delete();
+                    }
+                });
+    }
+
+    /**
+     * Reads the given entrants' documents in a transaction and checks that each still has the
+     * expected status. Must run before the transaction's first write.
+     *
+     * @param transaction the running transaction
+     * @param eventDoc    the event document
+     * @param expected    each entrant's expected status, or null for not in any list
+     * @throws FirebaseFirestoreException with {@code ABORTED} if any entrant has moved
+     */
+    public void checkStatuses(Transaction transaction, DocumentReference eventDoc,
+                              Map<String, EntrantStatus> expected) throws FirebaseFirestoreException {
+        for (Map.Entry<String, EntrantStatus> entry : expected.entrySet()) {
+            if (statusOf(transaction.get(entrantDoc(eventDoc, entry.getKey()))) != entry.getValue()) {
+                throw new FirebaseFirestoreException("Entrant " + entry.getKey() + " has moved",
+                        FirebaseFirestoreException.Code.ABORTED);
+            }
+        }
+    }
+
+    /**
+     * Writes several status changes in a transaction, with one increment per list on a single
+     * counter shard. Call {@link #checkStatuses} for the same entrants first.
+     *
+     * @param transaction the running transaction
+     * @param eventDoc    the event document
+     * @param from        each entrant's current status, or null for not in any list
+     * @param to          each moved entrant's new status
+     */
+    public void writeMoves(Transaction transaction, DocumentReference eventDoc,
+                           Map<String, EntrantStatus> from, Map<String, EntrantStatus> to) {
+        Map<String, Long> deltas = new HashMap<>();
+        for (Map.Entry<String, EntrantStatus> entry : to.entrySet()) {
+            EntrantStatus current = from.get(entry.getKey());
+            if (current == entry.getValue()) continue;
+            transaction.set(entrantDoc(eventDoc, entry.getKey()), entrantData(entry.getKey(), entry.getValue()));
+            if (current != null) deltas.merge(current.getFieldName(), -1L, Long::sum);
+            deltas.merge(entry.getValue().getFieldName(), 1L, Long::sum);
+        }
+
+        Map<String, Object> counters = new HashMap<>();
+        for (Map.Entry<String, Long> delta : deltas.entrySet()) {
+            if (delta.getValue() != 0) counters.put(delta.getKey(), FieldValue.increment(delta.getValue()));
+        }
+        if (!counters.isEmpty()) {
+            transaction.set(randomShard(eventDoc), counters, SetOptions.merge());
+        }
+    }
+
+    /**
+     * Tells whether an event still keeps its entrants in arrays and has grown to
+     * {@link #MIGRATION_THRESHOLD}, so it should be moved over with {@link #migrate}.
+     *
+     * @param event the event to check
+     * @return {@code true} if the event should be migrated
+     */
+    public static boolean needsMigration(Event event) {
+        if (event.isShardedEntrants()) return false;
+        int size = event.getEntrantLocations() != null ? event.getEntrantLocations().size() : 0;
+        for (EntrantStatus status : EntrantStatus.values()) {
+            List<String> list = event.getEntrantList(status);
+            if (list != null) size += list.size();
+        }
+        return size >= MIGRATION_THRESHOLD;
+    }
+
+    /**
+     * Copies an event's entrant and location arrays into the sub-collections, sets the
+     * counters, and then switches the event to sharded storage and clears the arrays. Writes go
+     * out in batches of at most {@value #MAX_BATCH_WRITES}; the event document is only switched
+     * over once every batch has committed, so a failed migration leaves the arrays in charge.
+     * <p>
+     * The switch-over is a transaction that re-reads the arrays and only clears them if they
+     * still match what was copied. If an entrant joined or left in between, the fresh arrays
+     * are copied again, up to {@link #MAX_MIGRATION_ATTEMPTS} times in all, so no change made
+     * during the copy is lost. Only one migration per event runs at a time in this process;
+     * an event already switched over, e.g. by another organizer device, is left as it is.
+     *
+     * @param eventDoc the event document
+     * @param event    the local event, flagged as sharded once the switch-over commits
+     * @param listener receives the number of entrants written, or the first failure
+     */
+    public void migrate(DocumentReference eventDoc, Event event, OnMigratedListener listener) {
+        String path = eventDoc.getPath();
+        synchronized (migrating) {
+            if (!migrating.add(path)) {
+                listener.onError(new FirebaseFirestoreException("Migration already running",
+                        FirebaseFirestoreException.Code.ABORTED));
+                return;
+            }
+        }
+        // Copy from a fresh read, never the caller's possibly stale lists
+        recopy(eventDoc, event, new HashSet<>(), 0, MAX_MIGRATION_ATTEMPTS, new OnMigratedListener() {
+            @Override
+            public void onMigrated(int entrants) {
+                synchronized (migrating) {
+                    migrating.remove(path);
+                }
+                listener.onMigrated(entrants);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                synchronized (migrating) {
+                    migrating.remove(path);
+                }
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * One migration attempt.
+     *
+     * @param source          event whose lists are copied
+     * @param target          local event flagged as sharded once the switch-over commits
+     * @param copiedBefore    entrants written by earlier attempts, deleted unless copied again
+     * @param locationsBefore location documents written by earlier attempts
+     * @param attemptsLeft    attempts left, including this one
+     */
+    private void migrate(DocumentReference eventDoc, Event source, Event target, Set<String> copiedBefore,
+                         int locationsBefore, int attemptsLeft, OnMigratedListener listener) {
+        BatchWriter batches = new BatchWriter(eventDoc);
+        Map<EntrantStatus, List<String>> copied = new EnumMap<>(EntrantStatus.class);
+        Set<String> copiedNow = new HashSet<>();
+        Map<EntrantStatus, Long> counts = new EnumMap<>(EntrantStatus.class);
+        for (EntrantStatus status : EntrantStatus.values()) {
+            List<String> list = source.getEntrantList(status);
+            copied.put(status, list != null ? new ArrayList<>(list) : new ArrayList<>());
+            long size = 0;
+            for (String entrantID : copied.get(status)) {
+                if (source.getStatus(entrantID) != status) continue; // later stage wins
+                batches.next().set(entrantDoc(eventDoc, entrantID), entrantData(entrantID, status));
+                copiedNow.add(entrantID);
+                size++;
+            }
+            counts.put(status, size);
+        }
+        for (String entrantID : copiedBefore) {
+            if (!copiedNow.contains(entrantID)) batches.next().delete(entrantDoc(eventDoc, entrantID));
+        }
+
+        // Numbered rather than auto IDs, so a retry overwrites the documents it wrote before
+        List<GeoPoint> locations = source.getEntrantLocations() != null
+                ? new ArrayList<>(source.getEntrantLocations()) : new ArrayList<>();
+        for (int i = 0; i < locations.size(); i++) {
+            batches.next().set(locationDoc(eventDoc, i), locationData(locations.get(i)));
+        }
+        for (int i = locations.size(); i < locationsBefore; i++) {
+            batches.next().delete(locationDoc(eventDoc, i));
+        }
+
+        // Spread each count like a capacity, so no shard starts over its waiting list allotment
+        for (int i = 0; i < shards; i++) {
+            Map<String, Object> shardCounts = new HashMap<>();
+            for (EntrantStatus status : EntrantStatus.values()) {
+                shardCounts.put(status.getFieldName(), allotment(counts.get(status), shards, i));
+            }
+            batches.next().set(shardDoc(eventDoc, i), shardCounts);
+        }
+
+        batches.commit(new OnMigratedListener() {
+            @Override
+            public void onMigrated(int ignored) {
+                switchOver(eventDoc, copied, locations)
+                        .addOnSuccessListener(switched -> {
+                            if (switched) {
+                                target.setShardedEntrants(true);
+                                listener.onMigrated(copiedNow.size());
+                            } else if (attemptsLeft > 1) {
+                                recopy(eventDoc, target, copiedNow, locations.size(), attemptsLeft - 1, listener);
+                            } else {
+                                listener.onError(new FirebaseFirestoreException(
+                                        "Entrant lists kept changing during migration",
+                                        FirebaseFirestoreException.Code.ABORTED));
+                            }
+                        })
+                        .addOnFailureListener(listener::onError);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                listener.onError(e);
+            }
+        });
+    }
+
+    /**
+     * Reads the event document and runs a migration attempt on its arrays, unless it has
+     * already been switched over.
+     */
+    private void recopy(DocumentReference eventDoc, Event target, Set<String> copiedBefore,
+                        int locationsBefore, int attemptsLeft, OnMigratedListener listener) {
+        eventDoc.get()
+                .addOnSuccessListener(doc -> {
+                    Event fresh = doc.toObject(Event.class);
+                    if (fresh == null) {
+                        listener.onError(new FirebaseFirestoreException("Event not found",
+                                FirebaseFirestoreException.Code.NOT_FOUND));
+                        return;
+                    }
+                    if (fresh.isShardedEntrants()) {
+                        // Another device finished first; its copy is the one in charge
+                        target.setShardedEntrants(true);
+                        listener.onMigrated(0);
+                        return;
+                    }
+                    fresh.useEntrantSets();
+                    migrate(eventDoc, fresh, target, copiedBefore, locationsBefore, attemptsLeft, listener);
+                })
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * Flags the event as sharded and clears its arrays, but only if the arrays still hold
+     * exactly what was copied.
+     *
+     * @return the transaction's task; {@code false} if the arrays changed and nothing was written
+     */
+    private static Task<Boolean> switchOver(DocumentReference eventDoc, Map<EntrantStatus, List<String>> copied,
+                                            List<GeoPoint> locations) {
+        return eventDoc.getFirestore().runTransaction(transaction -> {
+            DocumentSnapshot doc = transaction.get(eventDoc);
+            for (EntrantStatus status : EntrantStatus.values()) {
+                if (!copied.get(status).equals(listField(doc, status.getFieldName()))) return false;
+            }
+            if (!locations.equals(listField(doc, LOCATIONS_COLLECTION))) return false;
+
+            Map<String, Object> switchOver = new HashMap<>();
+            switchOver.put(Event.SHARDED_ENTRANTS_FIELD, true);
+            for (EntrantStatus status : EntrantStatus.values()) {
+                switchOver.put(status.getFieldName(), new ArrayList<String>());
+            }
+            switchOver.put(LOCATIONS_COLLECTION, new ArrayList<GeoPoint>());
+            transaction.update(eventDoc, switchOver);
+            return true;
+        });
+    }
+
+    // -------------------- Reads --------------------
+
+    /**
+     * Sums the counter shards into the size of each list.
+     *
+     * @param eventDoc the event document
+     * @param listener receives the sizes or the failure
+     */
+    public void loadCounts(DocumentReference eventDoc, OnCountsLoadedListener listener) {
+        eventDoc.collection(COUNTERS_COLLECTION)
+                .get()
+                .addOnSuccessListener(snapshots -> listener.onCountsLoaded(sumShards(snapshots)))
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * Reads every entrant list of an event in one query. This costs one read per entrant, so
+     * it is for occasional whole-event operations such as a lottery draw; screens should page
+     * with {@link #pager} instead.
+     *
+     * @param eventDoc the event document
+     * @param listener receives the lists or the failure
+     */
+    public void loadLists(DocumentReference eventDoc, OnListsLoadedListener listener) {
+        eventDoc.collection(ENTRANTS_COLLECTION)
+                .get()
+                .addOnSuccessListener(snapshots -> {
+                    Map<EntrantStatus, List<String>> lists = new EnumMap<>(EntrantStatus.class);
+                    for (EntrantStatus status : EntrantStatus.values()) lists.put(status, new ArrayList<>());
+                    try {
+                        for (DocumentSnapshot doc : snapshots.getDocuments()) {
+                            EntrantStatus status = statusOf(doc);
+                            if (status != null) lists.get(status).add(doc.getId());
+                        }
+                    } catch (FirebaseFirestoreException e) {
+                        listener.onError(e);
+                        return;
+                    }
+                    listener.onListsLoaded(lists);
+                })
+                .addOnFailureListener(listener::onError);
+    }
+
+    /**
+     * Finds the sharded events an entrant belongs to, which the array queries on the events
+     * collection cannot see. Runs one collection group query on {@code entrants} by
+     * {@code entrantId}, then reads each matching event document.
+     * <p>
+     * The query needs the collection group scope of the {@code entrants.entrantId} field index,
+     * declared in {@code firestore.indexes.json}.
+     *
+     * @param db        Firestore instance to query
+     * @param entrantID entrant to look up
+     * @return a task with the entrant's sharded events and statuses
+     */
+    public Task<List<Membership>> loadMemberships(FirebaseFirestore db, String entrantID) {
+        return db.collectionGroup(ENTRANTS_COLLECTION)
+                .whereEqualTo(ENTRANT_ID_FIELD, entrantID)
+                .get()
+                .continueWithTask(query -> {
+                    if (!query.isSuccessful()) throw query.getException();
+
+                    List<Task<DocumentSnapshot>> events = new ArrayList<>();
+                    List<EntrantStatus> statuses = new ArrayList<>();
+                    for (DocumentSnapshot entrant : query.getResult().getDocuments()) {
+                        EntrantStatus status = statusOf(entrant);
+                        if (status == null) continue;
+                        events.add(entrant.getReference().getParent().getParent().get());
+                        statuses.add(status);
+                    }
+                    return Tasks.whenAllSuccess(events).continueWith(done -> {
+                        if (!done.isSuccessful()) throw done.getException();
+                        List<Membership> memberships = new ArrayList<>();
+                        for (int i = 0; i < events.size(); i++) {
+                            DocumentSnapshot event = events.get(i).getResult();
+                            if (event.exists()) memberships.add(new Membership(event, statuses.get(i)));
+                        }
+                        return memberships;
+                    });
+                });
+    }
+
+    /**
+     * Creates a pager over one entrant list.
+     *
+     * @param eventDoc the event document
+     * @param status   list to page through
+     * @param pageSize entrants per page
+     * @return a pager positioned before the first page
+     */
+    public Pager pager(DocumentReference eventDoc, EntrantStatus status, int pageSize) {
+        return new Pager(eventDoc, status, pageSize);
+    }
+
+    /**
+     * Reads one entrant list page by page, in document ID order.
+     */
+    public static final class Pager {
+        private final DocumentReference eventDoc;
+        private final EntrantStatus status;
+        private final int pageSize;
+        private DocumentSnapshot cursor;
+        private boolean hasMore = true;
+        private boolean loading;
+
+        private Pager(DocumentReference eventDoc, EntrantStatus status, int pageSize) {
+            if (pageSize <= 0) {
+                throw new IllegalArgumentException("pageSize must be positive");
+            }
+            this.eventDoc = eventDoc;
+            this.status = status;
+            this.pageSize = pageSize;
+        }
+
+        /**
+         * @return whether another page may follow
+         */
+        public boolean hasMore() {
+            return hasMore;
+        }
+
+        /**
+         * Loads the next page. Ignored while a page is loading or after the last page.
+         *
+         * @param listener receives the page or the failure
+         */
+        public void next(OnPageLoadedListener listener) {
+            if (loading || !hasMore) return;
+            loading = true;
+
+            Query query = eventDoc.collection(ENTRANTS_COLLECTION)
+                    .whereEqualTo(STATUS_FIELD, status.name())
+                    .orderBy(FieldPath.documentId());
+            if (cursor != null) query = query.startAfter(cursor);
+
+            query.limit(pageSize)
+                    .get()
+                    .addOnSuccessListener(snapshots -> {
+                        loading = false;
+                        List<DocumentSnapshot> docs = snapshots.getDocuments();
+                        List<String> ids = new ArrayList<>(docs.size());
+                        for (DocumentSnapshot doc : docs) ids.add(doc.getId());
+                        if (!docs.isEmpty()) cursor = docs.get(docs.size() - 1);
+                        hasMore = docs.size() == pageSize;
+                        listener.onPageLoaded(ids, hasMore);
+                    })
+                    .addOnFailureListener(e -> {
+                        loading = false;
+                        listener.onError(e);
+                    });
+        }
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static DocumentReference entrantDoc(DocumentReference eventDoc, String entrantID) {
+        return eventDoc.collection(ENTRANTS_COLLECTION).document(entrantID);
+    }
+
+    private static DocumentReference locationDoc(DocumentReference eventDoc, int index) {
+        return eventDoc.collection(LOCATIONS_COLLECTION).document(String.valueOf(index));
+    }
+
+    /**
+     * @return an array field of a document as a list; a missing field is an empty list
+     */
+    private static List<Object> listField(DocumentSnapshot doc, String field) {
+        Object value = doc.get(field);
+        return value instanceof List ? new ArrayList<>((List<?>) value) : new ArrayList<>();
+    }
+
+    private static DocumentReference shardDoc(DocumentReference eventDoc, int shard) {
+        return eventDoc.collection(COUNTERS_COLLECTION).document(String.valueOf(shard));
+    }
+
+    private DocumentReference randomShard(DocumentReference eventDoc) {
+        return shardDoc(eventDoc, nextShard());
+    }
+
+    private int nextShard() {
+        synchronized (random) {
+            return random.nextInt(shards);
+        }
+    }
+
+    private static Map<String, Object> entrantData(String entrantID, EntrantStatus status) {
+        Map<String, Object> entrant = new HashMap<>();
+        entrant.put(ENTRANT_ID_FIELD, entrantID);
+        entrant.put(STATUS_FIELD, status.name());
+        entrant.put("updatedAt", FieldValue.serverTimestamp());
+        return entrant;
+    }
+
+    /**
+     * Share of the waiting list capacity held by one shard. The allotments of all shards add
+     * up to {@code capacity}; the first {@code capacity % shards} shards hold one extra place.
+     */
+    static long allotment(long capacity, int shards, int shard) {
+        return capacity / shards + (shard < capacity % shards ? 1 : 0);
+    }
+
+    /**
+     * @return a counter shard's value for one list; a missing shard or field counts as zero
+     */
+    private static long count(DocumentSnapshot shard, EntrantStatus status) {
+        Long value = shard.getLong(status.getFieldName());
+        return value != null ? value : 0;
+    }
+
+    /**
+     * @return the status stored on an entrant document, or null if it does not exist
+     */
+    static EntrantStatus statusOf(DocumentSnapshot entrant) throws FirebaseFirestoreException {
+        if (entrant == null || !entrant.exists()) return null;
+        String status = entrant.getString(STATUS_FIELD);
+        if (status == null) return null;
+        try {
+            return EntrantStatus.valueOf(status);
+        } catch (IllegalArgumentException e) {
+            throw new FirebaseFirestoreException("Unknown entrant status: " + status,
+                    FirebaseFirestoreException.Code.DATA_LOSS);
+        }
+    }
+
+    /**
+     * Counter update for moving one entrant from {@code from} to {@code to}; either may be null.
+     */
+    static Map<String, Object> counterDelta(@Nullable EntrantStatus from, @Nullable EntrantStatus to) {
+        Map<String, Object> delta = new HashMap<>();
+        if (from != null) delta.put(from.getFieldName(), FieldValue.increment(-1));
+        if (to != null) delta.put(to.getFieldName(), FieldValue.increment(1));
+        return delta;
+    }
+
+    private static Map<String, Object> locationData(GeoPoint location) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("location", location);
+        return data;
+    }
+
+    /**
+     * Adds up the counter shards; missing fields count as zero.
+     */
+    static Map<EntrantStatus, Long> sumShards(QuerySnapshot shards) {
+        Map<EntrantStatus, Long> counts = new EnumMap<>(EntrantStatus.class);
+        for (EntrantStatus status : EntrantStatus.values()) counts.put(status, 0L);
+        for (DocumentSnapshot shard : shards.getDocuments()) {
+            for (EntrantStatus status : EntrantStatus.values()) {
+                Long value = shard.getLong(status.getFieldName());
+                if (value != null) counts.put(status, counts.get(status) + value);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Hands out write batches of at most {@link #MAX_BATCH_WRITES} writes and commits them.
+     */
+    private static final class BatchWriter {
+        private final DocumentReference eventDoc;
+        private final List<WriteBatch> batches = new ArrayList<>();
+        private int writesInBatch = MAX_BATCH_WRITES;
+
+        BatchWriter(DocumentReference eventDoc) {
+            this.eventDoc = eventDoc;
+        }
+
+        WriteBatch next() {
+            if (writesInBatch == MAX_BATCH_WRITES) {
+                batches.add(eventDoc.getFirestore().batch());
+                writesInBatch = 0;
+            }
+            writesInBatch++;
+            return batches.get(batches.size() - 1);
+        }
+
+        void commit(OnMigratedListener listener) {
+            int[] remaining = {batches.size()};
+            boolean[] failed = {false};
+            for (WriteBatch batch : batches) {
+                batch.commit()
+                        .addOnSuccessListener(aVoid -> {
+                            if (--remaining[0] == 0 && !failed[0]) listener.onMigrated(0);
+                        })
+                        .addOnFailureListener(e -> {
+                            if (failed[0]) return;
+                            failed[0] = true;
+                            listener.onError(e);
+                        });
+            }
+        }
+    }
+}
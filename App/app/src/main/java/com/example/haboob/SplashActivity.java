@@ -1,18 +1,21 @@
 package com.example.haboob;
 
 import android.annotation.SuppressLint;
+import android.content.Context;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
 import android.provider.Settings;
+import android.util.Log;
 import android.widget.Toast;
 
+import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.FirebaseFirestore;
 
-import java.util.Collection;
-
 /**
  * Splash screen activity that serves as the entry point of the application.
  * Checks if the user is already registered and routes them to the appropriate activity
@@ -20,14 +23,20 @@ import java.util.Collection;
  *
  * Features:
  * - Retrieves unique device ID
- * - Queries Firebase to check user registration status
+ * - Routes at once from the account type cached by {@link AccountRouteCache} on earlier launches,
+ *   then revalidates it against Firebase in the background
+ * - Otherwise reads the user's document from Firebase before routing
  * - Routes to MainActivity (Entrants) or OrganizerMainActivity (Organizers)
  * - Routes to RegisterActivity for new users
+ * - Logs how long after process start and {@link #onCreate} the route was taken
  *
  * @author Dan
  * @version 1.0
  */
 public class SplashActivity extends AppCompatActivity {
+
+    private static final String TAG = "SplashActivity";
+
     /**
      * The unique device ID for this user.
      */
@@ -43,18 +52,42 @@ public class SplashActivity extends AppCompatActivity {
      */
     private CollectionReference usersRef;
 
+    /**
+     * Account type saved on earlier launches.
+     */
+    private AccountRouteCache routeCache;
+
+    /**
+     * {@link SystemClock#elapsedRealtime()} when {@link #onCreate} started, for the timing logs.
+     */
+    private long createdAt;
+
+    /**
+     * Result of {@link #lookUpAccount}.
+     */
+    private interface AccountCallback {
+        /**
+         * @param registered  whether the device has a users document
+         * @param accountType its "account_type", or {@code null}
+         */
+        void onResult(boolean registered, @Nullable String accountType);
+
+        void onError(Exception e);
+    }
 
     /**
      * Called when the activity is first created.
      * Initializes Firebase, retrieves device ID, and checks user registration status.
      * Routes the user to the appropriate activity based on whether they're registered
-     * and their account type.
+     * and their account type. If the account type is cached, routes without waiting for
+     * Firebase and checks the cached value afterwards.
      *
      * @param savedInstanceState Previously saved state of the activity
      */
     @SuppressLint("HardwareIds")
     @Override
     protected void onCreate(Bundle savedInstanceState) {
+        createdAt = SystemClock.elapsedRealtime();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_splash); // Displays the corresponding xml file
 
@@ -65,44 +98,134 @@ public class SplashActivity extends AppCompatActivity {
         );
 
         // Get a reference to the users collection so we can query it
-        // TODO: We need the users collections back so that we can query the account type instead
-        //       getting both collections and checking for the user
         usersRef = db.collection("users");
+        routeCache = AccountRouteCache.from(this);
+
+        String cachedType = routeCache.getAccountType(deviceId);
+        if (cachedType != null) {
+            route(targetFor(cachedType), "cache");
+            revalidate(cachedType);
+            return;
+        }
 
+        // First launch on this device (or the cache was cleared): wait for Firebase
+        lookUpAccount(new AccountCallback() {
+            @Override
+            public void onResult(boolean registered, @Nullable String accountType) {
+                if (!registered) {
+                    // User doesn't exist - go to RegisterActivity
+                    route(RegisterActivity.class, "Firebase");
+                    return;
+                }
+                routeCache.put(deviceId, accountType);
+                route(targetFor(accountType), "Firebase");
+            }
 
-        // Query the db to check if a user with the given deviceId is already registered or not
-        usersRef.whereEqualTo("device_id", deviceId)
+            @Override
+            public void onError(Exception e) {
+                // Handle error
+                Toast.makeText(SplashActivity.this,
+                        "Error checking user: " + e.getMessage(),
+                        Toast.LENGTH_SHORT).show();
+                // TODO: Retry? Go to registration here???
+            }
+        });
+    }
+
+    /**
+     * Reads the user's document, users/{deviceId}. Accounts whose document is not keyed by the
+     * device ID are still found through the "device_id" field, at the cost of a second read.
+     *
+     * @param callback receives whether the device is registered and its account type
+     */
+    private void lookUpAccount(AccountCallback callback) {
+        usersRef.document(deviceId)
                 .get()
-                .addOnSuccessListener(queryDocumentSnapshots -> {
-                    if (!queryDocumentSnapshots.isEmpty()) {
-                        // User is already registered, check their account_type
-                        String accountType = queryDocumentSnapshots.getDocuments().get(0).getString("account_type");
-
-                        Intent intent;
-                        if ("Organizer".equals(accountType)) {
-                            // Route organizers to OrganizerMainActivity -> pass in the reference to current organizer
-                            intent = new Intent(SplashActivity.this, OrganizerMainActivity.class);
-                        } else {
-                            // Route entrants (and others) to MainActivity
-                            intent = new Intent(SplashActivity.this, MainActivity.class);
-                        }
-                        intent.putExtra("device_id", deviceId);
-                        startActivity(intent);
-                        finish();
-                    } else {
-                        // User doesn't exist - go to RegisterActivity
-                        Intent intent = new Intent(SplashActivity.this, RegisterActivity.class);
-                        startActivity(intent);
-                        finish();
+                .addOnSuccessListener(doc -> {
+                    if (doc.exists()) {
+                        callback.onResult(true, doc.getString("account_type"));
+                        return;
                     }
+                    usersRef.whereEqualTo("device_id", deviceId)
+                            .limit(1)
+                            .get()
+                            .addOnSuccessListener(queryDocumentSnapshots -> {
+                                if (queryDocumentSnapshots.isEmpty()) {
+                                    callback.onResult(false, null);
+                                } else {
+                                    callback.onResult(true, queryDocumentSnapshots.getDocuments()
+                                            .get(0).getString("account_type"));
+                                }
+                            })
+                            .addOnFailureListener(callback::onError);
                 })
-                .addOnFailureListener(e -> {
-                    // Handle error
-                    Toast.makeText(SplashActivity.this,
-                            "Error checking user: " + e.getMessage(),
-                            Toast.LENGTH_SHORT).show();
-                    // TODO: Retry? Go to registration here???
-                });
+                .addOnFailureListener(callback::onError);
+    }
+
+    /**
+     * Checks the cached account type against Firebase after routing on it. The cache is
+     * updated, and if the account now belongs elsewhere (its type changed, or it was deleted)
+     * the app is restarted on the right activity.
+     *
+     * @param cachedType the account type the user was routed on
+     */
+    private void revalidate(String cachedType) {
+        long start = SystemClock.elapsedRealtime();
+        Context app = getApplicationContext();
+
+        lookUpAccount(new AccountCallback() {
+            @Override
+            public void onResult(boolean registered, @Nullable String accountType) {
+                Log.d(TAG, "Revalidated cached account type in " + (SystemClock.elapsedRealtime() - start) + " ms");
+                Class<?> target = registered ? targetFor(accountType) : RegisterActivity.class;
+                if (registered) {
+                    routeCache.put(deviceId, accountType);
+                } else {
+                    routeCache.clear();
+                }
+                if (target == targetFor(cachedType)) return;
+
+                Log.w(TAG, "Cached account type " + cachedType + " is stale, restarting on " + target.getSimpleName());
+                Intent intent = new Intent(app, target);
+                if (registered) intent.putExtra("device_id", deviceId);
+                intent.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
+                app.startActivity(intent);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                // Keep the cached route; it is checked again on the next launch
+                Log.w(TAG, "Could not revalidate cached account type", e);
+            }
+        });
+    }
+
+    /**
+     * @param accountType the "account_type" of a registered user
+     * @return the activity that account type starts in
+     */
+    private static Class<?> targetFor(@Nullable String accountType) {
+        // Route organizers to OrganizerMainActivity, entrants (and others) to MainActivity
+        return "Organizer".equals(accountType) ? OrganizerMainActivity.class : MainActivity.class;
+    }
+
+    /**
+     * Starts {@code target}, finishes the splash screen and logs the startup timing.
+     *
+     * @param target activity to start
+     * @param source where the routing decision came from, for the log
+     */
+    private void route(Class<?> target, String source) {
+        Intent intent = new Intent(SplashActivity.this, target);
+        if (target != RegisterActivity.class) {
+            intent.putExtra("device_id", deviceId);
+        }
+        startActivity(intent);
+        finish();
 
+        long now = SystemClock.elapsedRealtime();
+        Log.i(TAG, "Routed to " + target.getSimpleName() + " from " + source + " in "
+                + (now - createdAt) + " ms (" + (now - Process.getStartElapsedRealtime())
+                + " ms since process start)");
     }
-}
\ No newline at end of file
+}
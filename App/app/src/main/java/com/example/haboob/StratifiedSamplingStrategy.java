@@ -0,0 +1,84 @@
+package com.example.haboob;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Stratified sampling: entrants are split into groups (for example by tag) and the places are
+ * shared between groups in proportion to each group's share of the entrants, using the
+ * largest-remainder method. Each group's places are then drawn uniformly within the group.
+ * <p>
+ * Entrants without a group form a group of their own. A draw is O(n) plus the uniform draws.
+ */
+public class StratifiedSamplingStrategy implements SamplingStrategy {
+
+    /** Group key used for entrants missing from the group map. */
+    private static final String UNGROUPED = "";
+
+    private final Map<String, String> groupOf;
+    private final EntrantSampler sampler;
+
+    /**
+     * @param groupOf entrantID -> group name
+     * @param random  source of randomness; pass a seeded instance for reproducible draws
+     */
+    public StratifiedSamplingStrategy(Map<String, String> groupOf, Random random) {
+        this.groupOf = groupOf != null ? new HashMap<>(groupOf) : new HashMap<>();
+        this.sampler = new EntrantSampler(random);
+    }
+
+    @Override
+    public List<String> sample(List<String> entrants, int k) {
+        if (entrants == null || entrants.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Groups in first-seen order so ties are broken the same way on every run
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String entrant : entrants) {
+            String group = groupOf.get(entrant);
+            if (group == null) group = UNGROUPED;
+            List<String> members = groups.get(group);
+            if (members == null) {
+                members = new ArrayList<>();
+                groups.put(group, members);
+            }
+            members.add(entrant);
+        }
+
+        int n = entrants.size();
+        int places = Math.min(k, n);
+        List<List<String>> members = new ArrayList<>(groups.values());
+        int[] quota = new int[members.size()];
+        double[] remainder = new double[members.size()];
+        int allocated = 0;
+        for (int i = 0; i < members.size(); i++) {
+            double exact = (double) places * members.get(i).size() / n;
+            quota[i] = (int) Math.floor(exact);
+            remainder[i] = exact - quota[i];
+            allocated += quota[i];
+        }
+
+        // Hand out the places lost to rounding, largest remainder first
+        while (allocated < places) {
+            int best = -1;
+            for (int i = 0; i < members.size(); i++) {
+                if (quota[i] >= members.get(i).size()) continue;
+                if (best < 0 || remainder[i] > remainder[best]) best = i;
+            }
+            quota[best]++;
+            remainder[best] = -1;
+            allocated++;
+        }
+
+        List<String> out = new ArrayList<>(places);
+        for (int i = 0; i < members.size(); i++) {
+            out.addAll(sampler.sample(members.get(i), quota[i]));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.haboob;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * {@code UserNameCache} resolves user IDs to display names for admin screens.
+ * <p>
+ * Names are read from the "users" collection with {@code whereIn} queries on the document ID,
+ * {@link #MAX_IN_QUERY} IDs per read, and kept for the rest of the process. Resolving the
+ * recipients of a page of notifications therefore costs at most one read per 30 unseen users
+ * rather than one per row.
+ * <p>
+ * All methods must be called on the main thread, which is also where Firestore delivers results.
+ */
+public final class UserNameCache {
+
+    /** Largest number of values Firestore accepts in a single {@code whereIn} filter. */
+    static final int MAX_IN_QUERY = 30;
+
+    private static UserNameCache instance;
+
+    private final CollectionReference usersRef;
+
+    /** userID -> display name. */
+    private final Map<String, String> names = new HashMap<>();
+
+    /** Number of {@code whereIn} reads issued, for comparing against per-user fetches. */
+    private long queryCount = 0;
+
+    /**
+     * Callback receiving the display names of the requested users.
+     */
+    public interface OnNamesResolvedListener {
+        /**
+         * @param names userID -> display name for every requested ID. Users that could not be
+         *              read are mapped to their ID.
+         */
+        void onNamesResolved(Map<String, String> names);
+    }
+
+    /**
+     * @return the process-wide cache, created on first use
+     */
+    public static synchronized UserNameCache getInstance() {
+        if (instance == null) {
+            instance = new UserNameCache(FirebaseFirestore.getInstance().collection("users"));
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a cache reading from the given users collection.
+     *
+     * @param usersRef the "users" collection
+     */
+    UserNameCache(CollectionReference usersRef) {
+        this.usersRef = usersRef;
+    }
+
+    /**
+     * @param userId user identifier
+     * @return the cached display name, or {@code null} if the user has not been resolved yet
+     */
+    public String peek(String userId) {
+        return names.get(userId);
+    }
+
+    /**
+     * @return number of Firestore queries issued by this cache
+     */
+    public long getQueryCount() {
+        return queryCount;
+    }
+
+    /**
+     * Resolves display names for the given users, reading only those not already cached.
+     * The listener is called synchronously when every name is cached.
+     *
+     * @param userIds  users to resolve; {@code null} entries are skipped
+     * @param listener receives the names once every read has finished
+     */
+    public void resolve(Collection<String> userIds, OnNamesResolvedListener listener) {
+        Set<String> requested = new LinkedHashSet<>();
+        List<String> missing = new ArrayList<>();
+        for (String id : userIds) {
+            if (id == null || !requested.add(id)) continue;
+            if (!names.containsKey(id)) missing.add(id);
+        }
+
+        if (missing.isEmpty()) {
+            listener.onNamesResolved(collect(requested));
+            return;
+        }
+
+        List<List<String>> chunks = chunk(missing, MAX_IN_QUERY);
+        final int[] remaining = {chunks.size()};
+        for (List<String> ids : chunks) {
+            queryCount++;
+            usersRef.whereIn(FieldPath.documentId(), ids)
+                    .get()
+                    .addOnSuccessListener(snapshots -> {
+                        for (DocumentSnapshot doc : snapshots) {
+                            names.put(doc.getId(), displayName(doc));
+                        }
+                        // Users that no longer exist are shown by ID, as before
+                        for (String id : ids) {
+                            if (!names.containsKey(id)) names.put(id, id);
+                        }
+                        if (--remaining[0] == 0) listener.onNamesResolved(collect(requested));
+                    })
+                    .addOnFailureListener(e -> {
+                        // Not cached, so a later resolve can retry these users
+                        if (--remaining[0] == 0) listener.onNamesResolved(collect(requested));
+                    });
+        }
+    }
+
+    /**
+     * Forgets every cached name.
+     */
+    public void clear() {
+        names.clear();
+    }
+
+    // -------------------- Helpers --------------------
+
+    private Map<String, String> collect(Set<String> userIds) {
+        Map<String, String> out = new HashMap<>();
+        for (String id : userIds) {
+            String name = names.get(id);
+            out.put(id, name != null ? name : id);
+        }
+        return out;
+    }
+
+    /**
+     * @param doc user document
+     * @return "first last" when both are set, otherwise the user ID
+     */
+    static String displayName(DocumentSnapshot doc) {
+        String firstName = doc.getString("first_name");
+        String lastName = doc.getString("last_name");
+        return (firstName != null && lastName != null)
+                ? firstName + " " + lastName
+                : doc.getId();
+    }
+
+    /**
+     * Splits a list into consecutive sublists of at most {@code size} elements.
+     */
+    static <T> List<List<T>> chunk(List<T> items, int size) {
+        List<List<T>> out = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            out.add(new ArrayList<>(items.subList(i, Math.min(items.size(), i + size))));
+        }
+        return out;
+    }
+}
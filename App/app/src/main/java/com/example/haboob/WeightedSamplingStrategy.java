@@ -0,0 +1,99 @@
+package com.example.haboob;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Weighted sampling without replacement, for priority tiers.
+ * <p>
+ * Uses the Efraimidis–Spirakis A-Res algorithm: each entrant gets the key
+ * {@code u^(1/w)} for a uniform {@code u} and its weight {@code w}, and the {@code k} largest
+ * keys are kept in a min-heap. A draw is a single pass over the entrants costing
+ * O(n log k), and an entrant with twice the weight is twice as likely to be drawn first.
+ * <p>
+ * Entrants without an explicit weight get the default weight. Entrants with a weight of zero
+ * or less are never selected.
+ */
+public class WeightedSamplingStrategy implements SamplingStrategy {
+
+    private final Map<String, Double> weights;
+    private final double defaultWeight;
+    private final Random random;
+
+    /**
+     * @param weights       entrantID -> weight
+     * @param defaultWeight weight of entrants missing from {@code weights}
+     * @param random        source of randomness; pass a seeded instance for reproducible draws
+     */
+    public WeightedSamplingStrategy(Map<String, Double> weights, double defaultWeight, Random random) {
+        this.weights = weights != null ? new HashMap<>(weights) : new HashMap<>();
+        this.defaultWeight = defaultWeight;
+        this.random = random;
+    }
+
+    /**
+     * Creates a strategy from priority tiers, where an entrant in tier {@code t} has weight
+     * {@code tierWeights[t]}. Entrants without a tier use tier 0.
+     *
+     * @param tierOf      entrantID -> tier index
+     * @param tierWeights weight of each tier
+     * @param random      source of randomness
+     * @return the weighted strategy
+     */
+    public static WeightedSamplingStrategy fromTiers(Map<String, Integer> tierOf, double[] tierWeights, Random random) {
+        Map<String, Double> weights = new HashMap<>();
+        for (Map.Entry<String, Integer> entry : tierOf.entrySet()) {
+            weights.put(entry.getKey(), tierWeights[entry.getValue()]);
+        }
+        return new WeightedSamplingStrategy(weights, tierWeights[0], random);
+    }
+
+    @Override
+    public List<String> sample(List<String> entrants, int k) {
+        if (entrants == null || entrants.isEmpty() || k <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<Keyed> heap = new PriorityQueue<>(Math.min(k, entrants.size()));
+        for (String entrant : entrants) {
+            Double w = weights.get(entrant);
+            double weight = w != null ? w : defaultWeight;
+            if (weight <= 0) continue;
+
+            // log(u^(1/w)) = log(u) / w keeps the ordering without underflow for small weights
+            double key = Math.log(1.0 - random.nextDouble()) / weight;
+            if (heap.size() < k) {
+                heap.add(new Keyed(entrant, key));
+            } else if (key > heap.peek().key) {
+                heap.poll();
+                heap.add(new Keyed(entrant, key));
+            }
+        }
+
+        List<Keyed> kept = new ArrayList<>(heap);
+        Collections.sort(kept, Collections.reverseOrder());
+        List<String> out = new ArrayList<>(kept.size());
+        for (Keyed keyed : kept) out.add(keyed.entrant);
+        return out;
+    }
+
+    private static class Keyed implements Comparable<Keyed> {
+        final String entrant;
+        final double key;
+
+        Keyed(String entrant, double key) {
+            this.entrant = entrant;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Keyed other) {
+            return Double.compare(key, other.key);
+        }
+    }
+}
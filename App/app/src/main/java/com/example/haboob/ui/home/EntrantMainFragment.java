@@ -21,18 +21,17 @@ import android.widget.ImageButton;
 import android.widget.ImageView;
 
 import com.bumptech.glide.Glide;
+import com.example.haboob.EntrantStatus;
 import com.example.haboob.Event;
 import com.example.haboob.EventsList;
-import com.example.haboob.MainActivity;
+import com.example.haboob.EventsRepository;
+import com.example.haboob.OfflineStore;
 import com.example.haboob.Poster;
+import com.example.haboob.PosterUrlBuilder;
 import com.example.haboob.QRCode;
 import com.example.haboob.R;
-import com.google.android.gms.tasks.OnCompleteListener;
-import com.google.android.gms.tasks.Task;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.QueryDocumentSnapshot;
-import com.google.firebase.firestore.QuerySnapshot;
 
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -54,8 +53,8 @@ import java.util.List;
  * <p>This Fragment:
  * <ol>
  *   <li>Resolves a stable device identifier in {@link #onAttach(Context)}</li>
- *   <li>Loads events asynchronously via {@link EventsList} and the
- *       {@link EventsList.OnEventsLoadedListener} callback</li>
+ *   <li>Shows the events cached by {@link OfflineStore} on the previous visit</li>
+ *   <li>Queries only the user's own events via {@link EventsList#loadEntrantEvents}</li>
  *   <li>Transforms loaded events into image URLs and event IDs for two {@link EventImageAdapter}s</li>
  *   <li>Navigates to {@code EventViewerFragment} when a carousel item is tapped</li>
  *   <li>Listens for result events (join/leave) and refreshes data</li>
@@ -135,95 +134,129 @@ public class EntrantMainFragment extends Fragment {
     /**
      * Loads events for the given user/device asynchronously.
      *
+     * <p>Only the events whose invited, waiting or enrolled lists contain {@link #deviceId}
+     * are downloaded, via {@link EventsList#loadEntrantEvents}. They are also added to the
+     * shared {@link EventsList} from {@link EventsRepository}, so {@code EventViewerFragment}
+     * can find them.</p>
+     *
+     * <p>The events saved by {@link OfflineStore} on the previous load are shown first, so the
+     * carousels fill without waiting for the network; the query result replaces them and is saved
+     * for next time.</p>
+     *
+     * @param userId logical user identifier; current filtering relies on {@link #deviceId}
+     */
+    private void loadEventsForUser(String userId) {
+
+            Log.d("TAG", "device ID: " + deviceId);
+
+            OfflineStore store = OfflineStore.getInstance(requireContext());
+            final boolean[] showingFresh = {false};
+            store.loadEvents(deviceId, cached -> {
+                // The query may have answered first; never replace its result with the older copy
+                if (!isAdded() || showingFresh[0] || cached == null) return;
+                Log.d("TAG", "Showing " + cached.size() + " cached events");
+                showEventsForUser(cached);
+            });
+
+            eventsList3 = EventsRepository.getInstance().getEventsList();
+            eventsList3.loadEntrantEvents(deviceId, new EventsList.OnEntrantEventsLoadedListener() {
+                @Override
+                public void onEntrantEventsLoaded(ArrayList<Event> events) {
+                    store.saveEvents(deviceId, events);
+                    if (!isAdded()) return; // user navigated away before the query finished
+                    showingFresh[0] = true;
+                    showEventsForUser(events);
+                }
+
+                @Override
+                public void onError(Exception err) {
+                    Log.e("TAG", "Failed loading events", err);
+                }
+            });
+    }
+
+    /**
+     * Fills both carousels and the hero image from the user's events.
+     *
      * <p>Side effects:</p>
      * <ul>
      *   <li>Clears local event caches</li>
-     *   <li>Constructs a new {@link EventsList} which fetches data</li>
-     *   <li>On callback, populates {@link #enrolledEventsList} and {@link #waitListEvents}</li>
+     *   <li>Populates {@link #enrolledEventsList} and {@link #waitListEvents}</li>
      *   <li>Builds image URL and ID lists and updates both adapters via
      *       {@link EventImageAdapter#replaceItems(List)} and {@link EventImageAdapter#inputIDs(List)}</li>
      * </ul>
      *
-     * @param userId logical user identifier; current filtering relies on {@link #deviceId}
+     * @param events events the user is invited to, waiting on, or enrolled in
      */
-    private void loadEventsForUser(String userId) {
-
-            Log.d("TAG", "device ID: " + deviceId);
+    private void showEventsForUser(List<Event> events) {
 
             waitListEvents.clear(); // discard duplicate events locally
 
-            eventsList3 = new EventsList(new EventsList.OnEventsLoadedListener() {
-            @Override
-            public void onEventsLoaded() { // the callback function calls this when eventsList3 are loaded
-
-                waitListEvents = eventsList3.getEventsList();
-                waitListEvents = eventsList3.getEntrantWaitlistEvents(deviceId);
-                enrolledEventsList = eventsList3.getEntrantEnrolledEvents(deviceId);
+            // Invitations stay in the waitlist carousel (sorted first below) so they get the red dot
+            waitListEvents = new ArrayList<>();
+            for (Event event : events) {
+                EntrantStatus status = event.getStatus(deviceId);
+                if (status == EntrantStatus.INVITED || status == EntrantStatus.WAITING) waitListEvents.add(event);
+            }
+            enrolledEventsList = EventsList.filterByEntrant(events, deviceId, EntrantStatus.ENROLLED);
 
-                // Sort waitListEvents: events where user is invited appear first
-                waitListEvents.sort((e1, e2) -> {
-                    boolean e1HasInvite = e1.getInvitedEntrants() != null && e1.getInvitedEntrants().contains(deviceId);
-                    boolean e2HasInvite = e2.getInvitedEntrants() != null && e2.getInvitedEntrants().contains(deviceId);
+            // Sort waitListEvents: events where user is invited appear first
+            waitListEvents.sort((e1, e2) -> {
+                boolean e1HasInvite = e1.getStatus(deviceId) == EntrantStatus.INVITED;
+                boolean e2HasInvite = e2.getStatus(deviceId) == EntrantStatus.INVITED;
 
-                    if (e1HasInvite && !e2HasInvite) return -1;  // e1 first
-                    if (!e1HasInvite && e2HasInvite) return 1;   // e2 first
-                    return 0;  // maintain order
-                });
+                if (e1HasInvite && !e2HasInvite) return -1;  // e1 first
+                if (!e1HasInvite && e2HasInvite) return 1;   // e2 first
+                return 0;  // maintain order
+            });
 
-                Log.d("TAG", "Enrolled EVENTSLIST SIZE: " + enrolledEventsList.size());
+            Log.d("TAG", "Enrolled EVENTSLIST SIZE: " + enrolledEventsList.size());
 
-                // runs AFTER the database is done querying:
+            // runs AFTER the database is done querying:
 //                Log.d("TAG", "EVENTSLIST 4 SIZE: " + listOfEvents.size());
-                List<String> imageURLs = new ArrayList<>();
-                List<String> eventIDs = new ArrayList<>();
-                List<String> eventTitles = new ArrayList<>();
-
-                addEventImagesLocally(enrolledEventsList, imageURLs); // imageURLS <- list of imageURLs from query
-                addEventIDsLocally(enrolledEventsList, eventIDs); // eventIDs <- list of eventIDs from query
-                addEventTitlesLocally(enrolledEventsList, eventTitles); // eventTitles <- list of eventTitles from query
-
-                // ********** Enrolled events image adapter: ****************
-                // replace the placeholder images after query is done:
-                enrolledEventsAdapter.replaceItems(imageURLs);
-                // input the IDs of the same images into the imageAdapter
-                enrolledEventsAdapter.inputIDs(eventIDs);
-                // input the titles of the same events into the imageAdapter
-                enrolledEventsAdapter.inputTitles(eventTitles);
-                Log.d("TAG", "ImageAdapter images Replaced");
-
-                // ********** Hero Image: Next Upcoming Event ****************
-                updateHeroImage(enrolledEventsList);
-
-                // ********** waitlist Events image adapter: ****************
-                // to see ALL events for testing:
-                addEventImagesLocally(waitListEvents, imageURLs); // imageURLS <- list of imageURLs from query
-                addEventIDsLocally(waitListEvents, eventIDs); // eventIDs <- list of eventIDs from query
-                addEventTitlesLocally(waitListEvents, eventTitles); // eventTitles <- list of eventTitles from query
-
-                // Track which events should show red dot (user is invited)
-                List<String> invitedEventIDs = new ArrayList<>();
-                for (Event event : waitListEvents) {
-                    if (event.getInvitedEntrants() != null && event.getInvitedEntrants().contains(deviceId)) {
-                        invitedEventIDs.add(event.getEventID());
-                    }
+            List<String> imageURLs = new ArrayList<>();
+            List<String> eventIDs = new ArrayList<>();
+            List<String> eventTitles = new ArrayList<>();
+
+            addEventImagesLocally(enrolledEventsList, imageURLs); // imageURLS <- list of imageURLs from query
+            addEventIDsLocally(enrolledEventsList, eventIDs); // eventIDs <- list of eventIDs from query
+            addEventTitlesLocally(enrolledEventsList, eventTitles); // eventTitles <- list of eventTitles from query
+
+            // ********** Enrolled events image adapter: ****************
+            // replace the placeholder images after query is done:
+            enrolledEventsAdapter.replaceItems(imageURLs);
+            // input the IDs of the same images into the imageAdapter
+            enrolledEventsAdapter.inputIDs(eventIDs);
+            // input the titles of the same events into the imageAdapter
+            enrolledEventsAdapter.inputTitles(eventTitles);
+            Log.d("TAG", "ImageAdapter images Replaced");
+
+            // ********** Hero Image: Next Upcoming Event ****************
+            updateHeroImage(enrolledEventsList);
+
+            // ********** waitlist Events image adapter: ****************
+            // to see ALL events for testing:
+            addEventImagesLocally(waitListEvents, imageURLs); // imageURLS <- list of imageURLs from query
+            addEventIDsLocally(waitListEvents, eventIDs); // eventIDs <- list of eventIDs from query
+            addEventTitlesLocally(waitListEvents, eventTitles); // eventTitles <- list of eventTitles from query
+
+            // Track which events should show red dot (user is invited)
+            List<String> invitedEventIDs = new ArrayList<>();
+            for (Event event : waitListEvents) {
+                if (event.getStatus(deviceId) == EntrantStatus.INVITED) {
+                    invitedEventIDs.add(event.getEventID());
                 }
-
-                // replace the placeholder images
-                waitListsAdapter.replaceItems(imageURLs);
-                // input the IDs of the same images into the imageAdapter
-                waitListsAdapter.inputIDs(eventIDs);
-                // input the titles of the same events into the imageAdapter
-                waitListsAdapter.inputTitles(eventTitles);
-                // Set which events should show the red dot indicator
-                waitListsAdapter.setInvitedEventIDs(invitedEventIDs);
-                Log.d("TAG", "ImageAdapter images Replaced");
-
             }
-            @Override
-            public void onError(Exception err) {
-                Log.e("TAG", "Failed loading events", err);
-            }
-        });
+
+            // replace the placeholder images
+            waitListsAdapter.replaceItems(imageURLs);
+            // input the IDs of the same images into the imageAdapter
+            waitListsAdapter.inputIDs(eventIDs);
+            // input the titles of the same events into the imageAdapter
+            waitListsAdapter.inputTitles(eventTitles);
+            // Set which events should show the red dot indicator
+            waitListsAdapter.setInvitedEventIDs(invitedEventIDs);
+            Log.d("TAG", "ImageAdapter images Replaced");
     }
 
     /**
@@ -238,11 +271,6 @@ public class EntrantMainFragment extends Fragment {
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
 
-        // Refresh MainActivity's EventsList so EventViewerFragment gets fresh data
-        if (getActivity() != null) {
-            ((MainActivity) getActivity()).refreshEventsList();
-        }
-
         // Turns the XML file entrant_main.xml into actual View objects in memory.
         View view = inflater.inflate(R.layout.entrant_main, container, false);
 
@@ -253,22 +281,6 @@ public class EntrantMainFragment extends Fragment {
 
         loadEventsForUser(userID);
 
-        // DEBUG: Logging each ID in the database:
-        db.collection("events")
-                .get()
-                .addOnCompleteListener(new OnCompleteListener<QuerySnapshot>() {
-                    @Override
-                    public void onComplete(@NonNull Task<QuerySnapshot> task) {
-                        if (task.isSuccessful()) {
-                            for (QueryDocumentSnapshot document : task.getResult()) {
-                                Log.d("TAG", document.getId() + " => " + document.getData());
-                            }
-                        } else {
-                            Log.d("TAG", "Error getting documents: ", task.getException());
-                        }
-                    }
-                });
-
 //        for (Event event : listOfEvents) {
 //                                Log.d("TAG", event.getEventTitle() + "desc: " + event.getEventDescription());
 //                            }
@@ -278,7 +290,7 @@ public class EntrantMainFragment extends Fragment {
         // Load cached hero image immediately to prevent flicker
         if (cachedHeroImageUrl != null && cachedHeroEventId != null) {
             Glide.with(this)
-                    .load(cachedHeroImageUrl)
+                    .load(PosterUrlBuilder.forView(cachedHeroImageUrl, heroImage))
                     .placeholder(R.drawable.haboob)
                     .error(R.drawable.haboob)
                     .into(heroImage);
@@ -360,7 +372,7 @@ public class EntrantMainFragment extends Fragment {
             for (Event event : waitListEvents) {
                 if (event.getEventID().equals(eventId)) {
 
-                    Log.d("TAG", "Callback for open waitlists carousel worked:  " + eventId + "Event title: " + eventsList3.getEventByID(eventId).getEventTitle());
+                    Log.d("TAG", "Callback for open waitlists carousel worked:  " + eventId + "Event title: " + event.getEventTitle());
 
                     // Create a Bundle to pass data to the EventViewerFragment
                     Bundle args = new Bundle();
@@ -368,7 +380,7 @@ public class EntrantMainFragment extends Fragment {
                     args.putString("device_id", deviceId);
                     args.putBoolean("from_my_events", false); // sets leaveEvent button invisible
 
-                    if (event.getWaitingEntrants().contains(deviceId)) {
+                    if (event.getStatus(deviceId) == EntrantStatus.WAITING) {
                         args.putBoolean("in_waitlist", true); // sets leaveEvent button invisible
                     }
                     // navigate to the EventViewerFragment using the NavController
@@ -442,7 +454,7 @@ public class EntrantMainFragment extends Fragment {
 
     /**
      * Debug helper to create and add a single dummy {@link Event} to the shared {@link EventsList}
-     * owned by {@link MainActivity}. No-ops if the list cannot be retrieved.
+     * owned by {@link EventsRepository}. No-ops if the list cannot be retrieved.
      *
      * <p>Uses current {@link #deviceId} to seed entrant IDs.</p>
      */
@@ -451,7 +463,7 @@ public class EntrantMainFragment extends Fragment {
 //        MainActivity mainAct = (MainActivity) getActivity(); // find the instance of mainActivity thats currently running
 //        EventsList eventsList = mainAct.getEventsList();
 
-        EventsList eventsList = new EventsList();
+        EventsList eventsList = EventsRepository.getInstance().getEventsList();
         if (eventsList == null) {
             Log.w("EntrantMainFragment", "eventsList was null");
             return;
@@ -490,21 +502,8 @@ public class EntrantMainFragment extends Fragment {
         );
 
 //        dummyEvent.addEntrantToWaitingEntrants(deviceId);
-        eventsList.loadEventsList();
-
-        // update carousels
-        loadEventsForUser(deviceId);
-
-        eventsList3 = new EventsList(new EventsList.OnEventsLoadedListener() {
-            @Override
-            public void onEventsLoaded() { // the callback function calls this when eventsList3 are loaded
-                eventsList3.addEvent(dummyEvent);
-            }
-            @Override
-            public void onError(Exception err) {
-                Log.e("TAG", "Failed loading events", err);
-            }
-        });
+        // Live sync delivers the new event to the carousels
+        eventsList.addEvent(dummyEvent);
     }
 
     /**
@@ -608,7 +607,7 @@ public class EntrantMainFragment extends Fragment {
                 cachedHeroEventId = nextEvent.getEventID();
 
                 Glide.with(this)
-                        .load(poster.getData())
+                        .load(PosterUrlBuilder.forView(poster.getData(), heroImage))
                         .placeholder(R.drawable.haboob)
                         .error(R.drawable.haboob)
                         .into(heroImage);
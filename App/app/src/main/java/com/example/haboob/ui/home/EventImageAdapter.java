@@ -19,6 +19,7 @@ import java.util.Collection;
 import java.util.List;
 
 import com.bumptech.glide.Glide;
+import com.example.haboob.PosterUrlBuilder;
 import com.example.haboob.R;
 
 /**
@@ -172,7 +173,8 @@ public class EventImageAdapter extends RecyclerView.Adapter<EventImageAdapter.Vi
      * listener that resolves the matching event ID (if present) and invokes {@link OnItemClick}.
      *
      * <p><b>Image loading:</b> Glide handles memory/disk caching. A placeholder and error
-     * drawable are provided for better UX.</p>
+     * drawable are provided for better UX. The poster is requested at the tile's size through
+     * {@link PosterUrlBuilder} rather than at full resolution.</p>
      *
      * @param holder   the view holder to bind into
      * @param position adapter position
@@ -186,7 +188,7 @@ public class EventImageAdapter extends RecyclerView.Adapter<EventImageAdapter.Vi
 
         String url = imageUrls.get(position);
         Glide.with(holder.imageView.getContext())
-                .load(url)
+                .load(PosterUrlBuilder.forView(url, holder.imageView))
                 .placeholder(R.drawable.shrug)
                 .error(R.drawable.shrug )
                 .into(holder.imageView);
@@ -29,10 +29,12 @@ import androidx.fragment.app.Fragment;
 import androidx.navigation.fragment.NavHostFragment;
 
 import com.bumptech.glide.Glide;
+import com.example.haboob.EntrantStatus;
 import com.example.haboob.Event;
 import com.example.haboob.EventQRCodeFragment;
 import com.example.haboob.EventsList;
 import com.example.haboob.MainActivity;
+import com.example.haboob.PosterUrlBuilder;
 import com.example.haboob.R;
 import com.google.android.gms.location.FusedLocationProviderClient;
 import com.google.android.gms.location.LocationCallback;
@@ -252,8 +254,7 @@ public class EventViewerFragment extends Fragment {
                 userWaitListStatus.setText(R.string.waitlist_status_registered);
 
                 // If invited, show accept/decline buttons
-                boolean isInvited = eventToDisplay.getInvitedEntrants() != null &&
-                        eventToDisplay.getInvitedEntrants().contains(deviceId);
+                boolean isInvited = eventToDisplay.getStatus(deviceId) == EntrantStatus.INVITED;
 
                 if (isInvited) {
                     joinEventButton.setVisibility(View.VISIBLE);      // Accept invitation
@@ -309,24 +310,30 @@ public class EventViewerFragment extends Fragment {
      *
      */
     public String findUserStatus(String deviceId, Event eventToDisplay){
-        eventToDisplay = eventsList.getEventByID(eventToDisplay.getEventID()); // update eventToDisplay, it may not have been updated by this point?
-        assert (eventToDisplay != null);
+        // Prefer the shared list's copy, which live sync keeps current. The list holds whatever
+        // has loaded so far (the live-synced collection and any pages appended by the waitlist
+        // pager), so an event it does not have yet, e.g. one opened from a QR code, is used as passed in.
+        Event latest = eventsList.getEventByID(eventToDisplay.getEventID());
+        if (latest != null) {
+            eventToDisplay = latest;
+        }
 
         Date regEnd = eventToDisplay.getRegistrationEndDate();
         long now = System.currentTimeMillis();
 
-        if (eventToDisplay.getWaitingEntrants().contains(deviceId)) {
+        EntrantStatus status = eventToDisplay.getStatus(deviceId);
+        if (status == EntrantStatus.WAITING) {
             return "in_waitlist";
         }
-        else if (eventToDisplay.getEnrolledEntrants().contains(deviceId)) {
+        else if (status == EntrantStatus.ENROLLED) {
             return "enrolled_in_event";
         }
 
-        else if (eventToDisplay.getInvitedEntrants().contains(deviceId)){
+        else if (status == EntrantStatus.INVITED){
             return "won_lottery";
         }
 //        // TODO: if past the registration date for joining an event, display no details, then the last if statement should be join waitlist
-        else if (regEnd.getTime() < now){ // registration is closed
+        else if (regEnd != null && regEnd.getTime() < now){ // registration is closed
             return "registration_closed";
         }
         else {
@@ -350,6 +357,7 @@ public class EventViewerFragment extends Fragment {
                     if (documentSnapshot.exists()) {
                         Event event = documentSnapshot.toObject(Event.class);
                         if (event != null) {
+                            event.useEntrantSets();
                             event.setEventID(documentSnapshot.getId());
                             Log.d("EventViewerFragment", "Event loaded from Firebase: " + eventId);
                             displayEvent(event, view, eventId);
@@ -384,7 +392,7 @@ public class EventViewerFragment extends Fragment {
         if (event.getPoster() != null && event.getPoster().getData() != null) {
             String event_url = event.getPoster().getData();
             Glide.with(event_image.getContext())
-                    .load(event_url)
+                    .load(PosterUrlBuilder.forView(event_url, event_image))
                     .placeholder(R.drawable.shrug)
                     .error(R.drawable.shrug)
                     .into(event_image);
@@ -419,43 +427,62 @@ public class EventViewerFragment extends Fragment {
         assert acceptWaitListInvitationButton != null;
         acceptWaitListInvitationButton.setOnClickListener(v -> {
 
-            // First check that the user is allowed to join the waitlist
-            if (eventToDisplay.getWaitingEntrants().size() == eventToDisplay.getOptionalWaitingListSize()) {
-                Toast.makeText(v.getContext(), "Waitlist is full! ", Toast.LENGTH_SHORT).show();
-                return;
-            }
+            // The capacity is checked in the same transaction as the join, so only disable the
+            // button while it runs rather than trusting the local list size
+            acceptWaitListInvitationButton.setEnabled(false);
+            eventToDisplay.joinWaitingEntrants(deviceId, new Event.OnWaitlistJoinListener() {
+                @Override
+                public void onJoined() {
+                    if (!isAdded()) return;
+                    acceptWaitListInvitationButton.setEnabled(true);
+
+                    // Check if location data is required
+                    if (eventToDisplay.getGeoLocationRequired()) {
+                        startLocationLoggingOnce();
+                    }
 
-            // Check if location data is required
-            if (eventToDisplay.getGeoLocationRequired()) {
-                startLocationLoggingOnce();
-            }
+                    Toast.makeText(requireContext(), "Accepted invitation! ", Toast.LENGTH_SHORT).show();
+                    Toast.makeText(requireContext(), "Joined waitlist! ", Toast.LENGTH_SHORT).show();
 
-            Toast.makeText(v.getContext(), "Accepted invitation! ", Toast.LENGTH_SHORT).show();
-            Toast.makeText(v.getContext(), "Joined waitlist! ", Toast.LENGTH_SHORT).show();
+                    acceptWaitListInvitationButton.setText("Joined!");
+                    styleButtonColored(acceptWaitListInvitationButton, R.color.accept_green);
 
-            acceptWaitListInvitationButton.setText("Joined!");
-            styleButtonColored(acceptWaitListInvitationButton, R.color.accept_green);
+                    leaveWaitlistButton.setVisibility(View.VISIBLE);
+                    leaveWaitlistButton.setText("Leave Waitlist");
+                    styleButtonColored(leaveWaitlistButton, R.color.leaving_red);
+                    userWaitListStatus.setVisibility(View.VISIBLE);
+                    userWaitListStatus.setText(R.string.waitlist_status_registered);
 
-            leaveWaitlistButton.setVisibility(View.VISIBLE);
-            leaveWaitlistButton.setText("Leave Waitlist");
-            styleButtonColored(leaveWaitlistButton, R.color.leaving_red);
-            userWaitListStatus.setVisibility(View.VISIBLE);
-            userWaitListStatus.setText(R.string.waitlist_status_registered);
+                    getParentFragmentManager().setFragmentResult("USER_JOINED_WAITLIST", new Bundle());
 
-            eventToDisplay.addEntrantToWaitingEntrants(deviceId); // add the device ID to the waitingEntrantsList for the lottery
-            getParentFragmentManager().setFragmentResult("USER_JOINED_WAITLIST", new Bundle());
+                    Notification notification = new Notification(
+                            eventToDisplay.getEventID(),
+                            eventToDisplay.getOrganizer(),
+                            deviceId,
+                            "You joined the waitlist for: " + eventToDisplay.getEventTitle(),
+                            "waitlist_joined"
+                    );
 
-            Notification notification = new Notification(
-                    eventToDisplay.getEventID(),
-                    eventToDisplay.getOrganizer(),
-                    deviceId,
-                    "You joined the waitlist for: " + eventToDisplay.getEventTitle(),
-                    "waitlist_joined"
-            );
+                    Log.d("EventViewerFragment", "ORG ID: " + eventToDisplay.getOrganizer());
+
+                    notificationManager.sendToUser(notification);
+                }
 
-            Log.d("EventViewerFragment", "ORG ID: " + eventToDisplay.getOrganizer());
+                @Override
+                public void onWaitlistFull() {
+                    if (!isAdded()) return;
+                    acceptWaitListInvitationButton.setEnabled(true);
+                    Toast.makeText(requireContext(), "Waitlist is full! ", Toast.LENGTH_SHORT).show();
+                }
 
-            notificationManager.sendToUser(notification);
+                @Override
+                public void onError(Exception e) {
+                    Log.e("EventViewerFragment", "Failed to join waitlist", e);
+                    if (!isAdded()) return;
+                    acceptWaitListInvitationButton.setEnabled(true);
+                    Toast.makeText(requireContext(), "Failed to join waitlist: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+                }
+            });
         });
 
         // Leave WAITLIST OnclickListener
@@ -466,8 +493,7 @@ public class EventViewerFragment extends Fragment {
             eventToDisplay.removeEntrantFromWaitingEntrants(deviceId); // remove the device ID from the waitingEntrantsList for the lottery
 
             // If user was also invited, remove them from invited list (declining invitation)
-            if (eventToDisplay.getInvitedEntrants() != null &&
-                eventToDisplay.getInvitedEntrants().contains(deviceId)) {
+            if (eventToDisplay.getStatus(deviceId) == EntrantStatus.INVITED) {
                 eventToDisplay.removeEntrantFromInvitedEntrants(deviceId);
                 Log.d("EventViewerFragment", "User left waitlist and declined invitation");
             }
@@ -17,6 +17,7 @@ import androidx.annotation.NonNull;
 import com.bumptech.glide.Glide;
 import com.example.haboob.Event;
 import com.example.haboob.Poster;
+import com.example.haboob.PosterUrlBuilder;
 import com.example.haboob.R;
 import com.google.android.flexbox.FlexboxLayout;
 
@@ -38,10 +39,19 @@ import java.util.List;
  *
  * <p>Filtering never mutates the original list. A search query generates
  * a subset placed in {@code filtered}, and the ListView is refreshed.</p>
+ *
+ * <p>Search only covers the pages loaded so far; events further down are
+ * matched once {@link #appendAll} has added them. Filtering runs on a
+ * background thread while pages are appended on the main thread, so the
+ * original list is only touched under {@code lock} and filtered from a
+ * snapshot.</p>
  */
 public class WaitlistAdapter extends ArrayAdapter<Event> implements Filterable {
-    private final List<Event> original;   // full list
+    private final Object lock = new Object();
+    private final List<Event> original;   // full list, guarded by lock
     private List<Event> filtered;         // shown list
+    private CharSequence currentQuery;    // last search applied, reapplied when pages are appended
+    private Filter filter;                // one instance, so a newer query supersedes older ones
 
     /**
      * Creates a new WaitlistAdapter for displaying Event items.
@@ -96,7 +106,7 @@ public class WaitlistAdapter extends ArrayAdapter<Event> implements Filterable {
             Poster poster = e.getPoster();
             if (poster != null && poster.getData() != null && !poster.getData().isEmpty()) {
                 Glide.with(getContext())
-                        .load(poster.getData())
+                        .load(PosterUrlBuilder.forView(poster.getData(), eventImage))
                         .placeholder(R.drawable.ic_search_24)
                         .into(eventImage);
             } else {
@@ -164,7 +174,8 @@ public class WaitlistAdapter extends ArrayAdapter<Event> implements Filterable {
      */
 
     @Override public Filter getFilter() {
-        return new Filter() {
+        if (filter != null) return filter;
+        filter = new Filter() {
 
             /**
              * Performs the filtering on a background thread.
@@ -174,13 +185,17 @@ public class WaitlistAdapter extends ArrayAdapter<Event> implements Filterable {
              */
             @Override protected FilterResults performFiltering(CharSequence constraint) {
                 String q = constraint == null ? "" : constraint.toString().trim().toLowerCase();
+                List<Event> snapshot;
+                synchronized (lock) {
+                    snapshot = new ArrayList<>(original);
+                }
                 List<Event> out;
                 if (q.isEmpty()) {
-                    out = new ArrayList<>(original);
+                    out = snapshot;
                 } else {
                     out = new ArrayList<>();
 
-                    for (Event e : original) {
+                    for (Event e : snapshot) {
                         boolean matches = false;
 
                         // 1) Match title
@@ -223,11 +238,13 @@ public class WaitlistAdapter extends ArrayAdapter<Event> implements Filterable {
             @Override protected void publishResults(CharSequence cs, FilterResults results) {
                 //noinspection unchecked
                 filtered = (List<Event>) results.values;
+                currentQuery = cs;
                 clear();
                 addAll(filtered);
                 notifyDataSetChanged();
             }
         };
+        return filter;
     }
 
     /**
@@ -238,9 +255,27 @@ public class WaitlistAdapter extends ArrayAdapter<Event> implements Filterable {
      * @param fresh the new full list of Event objects.
      */
     public void replaceAll(List<Event> fresh) {
-        original.clear(); original.addAll(fresh);
+        synchronized (lock) {
+            original.clear(); original.addAll(fresh);
+        }
         filtered = new ArrayList<>(fresh);
         clear(); addAll(filtered);
         notifyDataSetChanged();
     }
-}
\ No newline at end of file
+
+    /**
+     * Appends another page of events to the full list, for example when the
+     * ListView scrolls near its end. The current search query is applied to
+     * the new events as well; until a page is appended, search cannot find
+     * its events.
+     *
+     * @param more events to append to the full list.
+     */
+    public void appendAll(List<Event> more) {
+        if (more.isEmpty()) return;
+        synchronized (lock) {
+            original.addAll(more);
+        }
+        getFilter().filter(currentQuery);
+    }
+}
@@ -5,6 +5,7 @@ import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.AbsListView;
 import android.widget.Button;
 import android.widget.ListView;
 import android.widget.SearchView;
@@ -18,6 +19,7 @@ import androidx.navigation.fragment.NavHostFragment;
 
 import com.example.haboob.Event;
 import com.example.haboob.EventsList;
+import com.example.haboob.EventsRepository;
 import com.example.haboob.R;
 import com.google.android.material.button.MaterialButtonToggleGroup;
 
@@ -33,7 +35,7 @@ import java.util.Objects;
  * the entrant can browse or join). Provides functionality for:
  *
  * <ul>
- *     <li>Loading events asynchronously from Firestore (via {@link EventsList})</li>
+ *     <li>Loading upcoming events from Firestore a page at a time (via {@link EventsList.Pager})</li>
  *     <li>Displaying events in a {@link ListView}</li>
  *     <li>Searching events by title or tag using a {@link SearchView}</li>
  *     <li>Filtering events via Material toggle buttons (tags)</li>
@@ -48,8 +50,10 @@ import java.util.Objects;
 public class WaitlistsFragment extends Fragment {
 
     private WaitlistAdapter adapter;
-    private EventsList eventsList = new EventsList(); // declare the eventsList object
     private List<Event> entrantWaitList = new ArrayList<>();
+    private EventsList.Pager pager;
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFETCH_DISTANCE = 5; // rows from the end at which the next page is requested
     public static final String ARG_DEVICE_ID = "device_id";
     public String deviceId;
 
@@ -71,8 +75,6 @@ public class WaitlistsFragment extends Fragment {
                 ? getArguments().getString(ARG_DEVICE_ID)
                 : null;
 
-        loadEventsForUser(); // load events for the waitListAdapter, resets the adapter's list of events, replaces it with all events
-
         // Inflate the layout for this fragment (fragment_waitlists.xml)
         View v = inflater.inflate(R.layout.fragment_waitlists, container, false);
         ListView list = v.findViewById(R.id.waitlistsListView);
@@ -116,6 +118,16 @@ public class WaitlistsFragment extends Fragment {
         adapter = new WaitlistAdapter(requireContext(), new ArrayList<>(entrantWaitList));
         list.setAdapter(adapter);
 
+        // Scroll -> request the next page before the end of the list is reached
+        list.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override public void onScrollStateChanged(AbsListView view, int scrollState) { }
+            @Override public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+                if (firstVisibleItem + visibleItemCount >= totalItemCount - PREFETCH_DISTANCE) {
+                    loadNextPage();
+                }
+            }
+        });
+
         // Search -> adapter filter
         search.setOnQueryTextListener(new SearchView.OnQueryTextListener() {
             @Override public boolean onQueryTextSubmit(String q) {
@@ -148,35 +160,50 @@ public class WaitlistsFragment extends Fragment {
         return v;
     }
 
-
     /**
-     * Initiates asynchronous loading of events from Firestore via {@link EventsList}.
-     * Uses the {@link EventsList.OnEventsLoadedListener} callback to receive the
-     * loaded events, then refreshes the adapter with the new data.
-     *
-     * Queries the dataBase, relies on a callback to adds events to local EventList Array,
-     * updates the imageAdapter with the new images from the database
+     * Starts loading the first page of events once the view exists.
      *
-     * <p>This method sets up:</p>
-     * <ul>
-     *     <li>onEventsLoaded → populates entrantWaitList and updates adapter</li>
-     *     <li>onError → logs Firestore load failure</li>
-     * </ul>
+     * @param view root view returned by {@link #onCreateView}
+     * @param savedInstanceState saved state (unused)
+     */
+    @Override
+    public void onViewCreated(@NonNull View view, Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+        loadEventsForUser(); // resets the adapter's list of events, then pages events into it
+    }
+
+    /**
+     * Starts paging through upcoming events, ordered by registration end date.
+     * Only the first page is requested here so the list shows quickly; later
+     * pages are requested by the scroll listener. Pages are also added to the
+     * shared {@link EventsList} from {@link EventsRepository}, so the event
+     * viewer can find them.
      */
     private void loadEventsForUser() {
+        entrantWaitList = new ArrayList<>();
+        adapter.replaceAll(entrantWaitList);
+        pager = EventsRepository.getInstance().getEventsList().newPager(PAGE_SIZE, true);
+        loadNextPage();
+    }
 
+    /**
+     * Requests the next page of events and appends it to the adapter.
+     * Does nothing while a page is loading or after the last page.
+     */
+    private void loadNextPage() {
+        if (pager == null || pager.isLoading() || !pager.hasMore()) return;
 
-        eventsList = new EventsList(new EventsList.OnEventsLoadedListener() {
+        final EventsList.Pager requestPager = pager;
+        requestPager.loadNextPage(new EventsList.OnPageLoadedListener() {
             @Override
-            public void onEventsLoaded() { // the callback function calls this when events are loaded
+            public void onPageLoaded(ArrayList<Event> page, boolean hasMore) { // the callback function calls this when a page is loaded
+                if (requestPager != pager || getView() == null) return;
 
-//                entrantWaitList = eventsList.getEventsList();
-                entrantWaitList = eventsList.getLiveEvents();
+                entrantWaitList.addAll(page);
                 Log.d("TAG", "waitList EVENTSLIST SIZE: " + entrantWaitList.size());
 
-                adapter.replaceAll(entrantWaitList);
-                Log.d("TAG", "ImageAdapter images Replaced");
-
+                adapter.appendAll(page);
+                Log.d("TAG", "ImageAdapter images appended");
             }
             @Override
             public void onError(Exception err) {
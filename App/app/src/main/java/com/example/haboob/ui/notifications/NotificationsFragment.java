@@ -20,9 +20,11 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.haboob.Event;
 import com.example.haboob.EventsList;
+import com.example.haboob.EventsRepository;
 import com.example.haboob.MainActivity;
 import com.example.haboob.Notification;
 import com.example.haboob.NotificationManager;
+import com.example.haboob.OfflineStore;
 import com.example.haboob.R;
 import com.example.haboob.ui.home.EventViewerFragment;
 
@@ -30,6 +32,7 @@ import android.widget.Switch;
 
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -88,7 +91,12 @@ public class NotificationsFragment extends Fragment {
     private static final String KEY_MUTED = "notifications_muted";
 
     /**
-     * EventsList for looking up event details.
+     * Key prefix, followed by the user ID, for the time the notifications were last read in full.
+     */
+    private static final String KEY_FULL_REFRESH = "notifications_full_refresh_";
+
+    /**
+     * Shared EventsList for looking up event details.
      */
     EventsList eventsList;
 
@@ -152,16 +160,11 @@ public class NotificationsFragment extends Fragment {
             }
         });
 
-        // Event data is now in memory; refresh rows to show titles
-        eventsList = new EventsList(new EventsList.OnEventsLoadedListener() {
-            @Override
-            public void onEventsLoaded() {
-                // Event data is now in memory; refresh rows to show titles
-                if (adapter != null) adapter.notifyDataSetChanged();
-            }
-
-            @Override
-            public void onError(Exception e) { /* log */ }
+        // Share the app-wide events list instead of downloading our own copy
+        eventsList = EventsRepository.getInstance().getEventsList();
+        EventsRepository.getInstance().getEvents().observe(getViewLifecycleOwner(), events -> {
+            // Event data is now in memory; refresh rows to show titles
+            if (adapter != null) adapter.notifyDataSetChanged();
         });
 
 
@@ -238,9 +241,12 @@ public class NotificationsFragment extends Fragment {
     }
 
     /**
-     * Loads notifications from Firebase for the current user.
+     * Loads notifications for the current user.
      * If notifications are muted, displays an empty list instead.
-     * Updates the adapter with the loaded notifications.
+     * Otherwise shows the copy kept by {@link OfflineStore} at once, then fetches only the
+     * notifications received since the newest cached one, merges them in, and saves the result.
+     * Once the last full read is older than {@link OfflineStore#NOTIFICATIONS_FULL_REFRESH_MS},
+     * every notification is read instead and replaces the copy, dropping deleted ones.
      */
     private void loadNotifications() {
         boolean muted = prefs.getBoolean(KEY_MUTED, false);
@@ -251,19 +257,40 @@ public class NotificationsFragment extends Fragment {
             return;
         }
 
-        notificationManager.getUserNotifications(userId, new NotificationManager.NotificationsCallback() {
-            @Override
-            public void onSuccess(ArrayList<Notification> notifications) {
-                adapter.setData(notifications);
-                Log.d("NotificationsFragment", "Loaded " + notifications.size() + " notifications");
-            }
+        OfflineStore store = OfflineStore.getInstance(requireContext());
+        store.loadNotifications(userId, cached -> {
+            if (!isAdded()) return;
+            if (cached != null) adapter.setData(new ArrayList<>(cached));
+
+            long now = System.currentTimeMillis();
+            boolean fullRefresh = cached == null
+                    || now - prefs.getLong(KEY_FULL_REFRESH + userId, 0) >= OfflineStore.NOTIFICATIONS_FULL_REFRESH_MS;
+            Date since = fullRefresh ? null : OfflineStore.newestReceivedAt(cached);
+
+            notificationManager.getUserNotificationsSince(userId, since,
+                    new NotificationManager.NotificationsCallback() {
+                @Override
+                public void onSuccess(ArrayList<Notification> notifications) {
+                    ArrayList<Notification> merged = since == null
+                            ? notifications
+                            : OfflineStore.mergeNotifications(cached, notifications);
+                    store.saveNotifications(userId, merged);
+                    if (since == null) prefs.edit().putLong(KEY_FULL_REFRESH + userId, now).apply();
+                    if (!isAdded()) return;
+                    adapter.setData(merged);
+                    Log.d("NotificationsFragment", "Loaded " + notifications.size() + " new notifications, "
+                            + merged.size() + " in total");
+                }
 
-            @Override
-            public void onError(Exception e) {
-                Log.e("NotificationsFragment", "Failed to load notifications", e);
-                Toast.makeText(requireContext(),
-                        "Failed to load notifications.", Toast.LENGTH_SHORT).show();
-            }
+                @Override
+                public void onError(Exception e) {
+                    Log.e("NotificationsFragment", "Failed to load notifications", e);
+                    // Offline with a cached copy on screen is not worth interrupting the user for
+                    if (!isAdded() || cached != null) return;
+                    Toast.makeText(requireContext(),
+                            "Failed to load notifications.", Toast.LENGTH_SHORT).show();
+                }
+            });
         });
     }
-}
\ No newline at end of file
+}
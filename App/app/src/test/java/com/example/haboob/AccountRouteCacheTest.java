@@ -0,0 +1,82 @@
+package com.example.haboob;
+
+import android.content.SharedPreferences;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link AccountRouteCache} against mocked preferences backed by a map. Edits
+ * are applied when {@code apply()} is called, as on a device.
+ */
+public class AccountRouteCacheTest {
+
+    private final Map<String, String> stored = new HashMap<>();
+    private AccountRouteCache cache;
+
+    @Before
+    public void setUp() {
+        SharedPreferences prefs = Mockito.mock(SharedPreferences.class);
+        Mockito.when(prefs.getString(Mockito.anyString(), Mockito.any()))
+                .thenAnswer(inv -> stored.getOrDefault(inv.getArgument(0), inv.getArgument(1)));
+        Mockito.when(prefs.edit()).thenAnswer(inv -> {
+            Map<String, String> pending = new HashMap<>();
+            boolean[] cleared = {false};
+            SharedPreferences.Editor editor = Mockito.mock(SharedPreferences.Editor.class);
+            Mockito.when(editor.putString(Mockito.anyString(), Mockito.any())).thenAnswer(put -> {
+                pending.put(put.getArgument(0), put.getArgument(1));
+                return editor;
+            });
+            Mockito.when(editor.clear()).thenAnswer(c -> {
+                cleared[0] = true;
+                return editor;
+            });
+            Mockito.doAnswer(a -> {
+                if (cleared[0]) stored.clear();
+                stored.putAll(pending);
+                return null;
+            }).when(editor).apply();
+            return editor;
+        });
+        cache = new AccountRouteCache(prefs);
+    }
+
+    @Test
+    public void nothingSaved_returnsNull() {
+        assertNull(cache.getAccountType("device"));
+    }
+
+    @Test
+    public void savedType_isReturnedForTheSameDeviceOnly() {
+        cache.put("device", "Organizer");
+
+        assertEquals("Organizer", cache.getAccountType("device"));
+        assertNull(cache.getAccountType("other-device"));
+        assertNull(cache.getAccountType(null));
+    }
+
+    @Test
+    public void put_replacesThePreviousType() {
+        cache.put("device", "Entrant");
+        cache.put("device", "Organizer");
+
+        assertEquals("Organizer", cache.getAccountType("device"));
+    }
+
+    @Test
+    public void clear_andPuttingNull_forgetTheEntry() {
+        cache.put("device", "Entrant");
+        cache.clear();
+        assertNull(cache.getAccountType("device"));
+
+        cache.put("device", "Entrant");
+        cache.put("device", null);
+        assertNull(cache.getAccountType("device"));
+    }
+}
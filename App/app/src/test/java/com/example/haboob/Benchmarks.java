@@ -0,0 +1,24 @@
+package com.example.haboob;
+
+import org.junit.Assume;
+
+/**
+ * Switch for the timing benchmarks and load tests, which take a while and print their results.
+ * They are skipped in the regular test run and only run when the {@value #PROPERTY} system
+ * property is {@code true}, e.g. {@code ./gradlew test -Dhaboob.benchmarks=true}.
+ */
+final class Benchmarks {
+
+    /** System property that enables the benchmarks. */
+    static final String PROPERTY = "haboob.benchmarks";
+
+    private Benchmarks() {}
+
+    /**
+     * Skips the calling test, or the whole class from a {@code @BeforeClass} method, unless
+     * benchmarks are enabled.
+     */
+    static void assumeEnabled() {
+        Assume.assumeTrue("Benchmarks run with -D" + PROPERTY + "=true", Boolean.getBoolean(PROPERTY));
+    }
+}
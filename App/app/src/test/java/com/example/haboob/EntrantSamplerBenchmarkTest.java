@@ -0,0 +1,84 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM micro-benchmark comparing {@link EntrantSampler} with the copy-and-shuffle sampling
+ * that {@link LotterySampler#sampleEntrants} used before.
+ * <p>
+ * Waiting lists of 100 to 1,000,000 entrants are sampled for a single vacancy ({@code k = 1})
+ * and for a typical draw ({@code k = 50}). Each case is warmed up before it is timed. Timings
+ * are printed for comparison rather than asserted, since they depend on the machine running
+ * the tests. Skipped unless {@link Benchmarks} are enabled.
+ */
+public class EntrantSamplerBenchmarkTest {
+
+    private static final int[] WAITLIST_SIZES = {100, 1_000, 10_000, 100_000, 1_000_000};
+    private static final int[] SAMPLE_SIZES = {1, 50};
+
+    /** Total entrants shuffled per timed case, so small lists get more iterations. */
+    private static final long WORK_PER_CASE = 5_000_000L;
+    private static final int WARMUP_ROUNDS = 3;
+
+    @Test
+    public void partialFisherYates_vsFullShuffle() {
+        Benchmarks.assumeEnabled();
+        Random seeds = new Random(42);
+        System.out.printf("%10s %5s %8s %14s %14s%n", "waitlist", "k", "iters", "shuffle us/op", "sampler us/op");
+
+        for (int n : WAITLIST_SIZES) {
+            List<String> waitlist = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) waitlist.add("entrant-" + i);
+            int iterations = (int) Math.max(5, Math.min(20_000, WORK_PER_CASE / n));
+
+            for (int k : SAMPLE_SIZES) {
+                EntrantSampler sampler = new EntrantSampler(new Random(seeds.nextLong()));
+                Random shuffleRandom = new Random(seeds.nextLong());
+
+                for (int w = 0; w < WARMUP_ROUNDS; w++) {
+                    runShuffle(waitlist, k, shuffleRandom, iterations);
+                    runSampler(waitlist, k, sampler, iterations);
+                }
+
+                long t0 = System.nanoTime();
+                int shuffleChecksum = runShuffle(waitlist, k, shuffleRandom, iterations);
+                long t1 = System.nanoTime();
+                int samplerChecksum = runSampler(waitlist, k, sampler, iterations);
+                long t2 = System.nanoTime();
+
+                // Both return k entrants per iteration
+                assertEquals(shuffleChecksum, samplerChecksum);
+                System.out.printf("%10d %5d %8d %14.2f %14.2f%n", n, k, iterations,
+                        (t1 - t0) / 1e3 / iterations, (t2 - t1) / 1e3 / iterations);
+            }
+        }
+    }
+
+    // -------------------- Implementations under test --------------------
+
+    /** The previous implementation: copy the whole list, shuffle it, take the first k. */
+    private static List<String> shuffleSample(List<String> entrants, int k, Random random) {
+        List<String> shuffled = new ArrayList<>(entrants);
+        Collections.shuffle(shuffled, random);
+        return new ArrayList<>(shuffled.subList(0, Math.min(k, shuffled.size())));
+    }
+
+    private static int runShuffle(List<String> waitlist, int k, Random random, int iterations) {
+        int total = 0;
+        for (int i = 0; i < iterations; i++) total += shuffleSample(waitlist, k, random).size();
+        return total;
+    }
+
+    private static int runSampler(List<String> waitlist, int k, EntrantSampler sampler, int iterations) {
+        int total = 0;
+        for (int i = 0; i < iterations; i++) total += sampler.sample(waitlist, k).size();
+        return total;
+    }
+}
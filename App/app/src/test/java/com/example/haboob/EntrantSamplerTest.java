@@ -0,0 +1,144 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EntrantSampler}.
+ * <p>
+ * Uniformity checks draw many samples with a fixed seed and require every element's selection
+ * count to stay within 10% of its expectation.
+ */
+public class EntrantSamplerTest {
+
+    private static final int TRIALS = 50_000;
+
+    @Test
+    public void sample_returnsDistinctItemsFromInput() {
+        List<String> entrants = ids(1000);
+        EntrantSampler sampler = EntrantSampler.seeded(1);
+
+        // Small k takes the sparse path, large k the dense one
+        for (int k : new int[]{1, 5, 100, 600, 1000}) {
+            List<String> picked = sampler.sample(entrants, k);
+            assertEquals(k, picked.size());
+            assertEquals(k, new HashSet<>(picked).size());
+            assertTrue(entrants.containsAll(picked));
+        }
+    }
+
+    @Test
+    public void sample_doesNotModifyInput() {
+        List<String> entrants = ids(100);
+        List<String> copy = new ArrayList<>(entrants);
+
+        EntrantSampler.seeded(2).sample(entrants, 3);
+        EntrantSampler.seeded(2).sample(entrants, 90);
+
+        assertEquals(copy, entrants);
+    }
+
+    @Test
+    public void sample_edgeCases() {
+        EntrantSampler sampler = EntrantSampler.seeded(3);
+
+        assertTrue(sampler.sample(null, 5).isEmpty());
+        assertTrue(sampler.sample(new ArrayList<String>(), 5).isEmpty());
+        assertTrue(sampler.sample(ids(10), 0).isEmpty());
+        assertTrue(sampler.sample(ids(10), -1).isEmpty());
+
+        List<String> all = sampler.sample(ids(10), 50);
+        assertEquals(new HashSet<>(ids(10)), new HashSet<>(all));
+        assertNull(sampler.pickOne(new ArrayList<String>()));
+    }
+
+    @Test
+    public void sameSeed_reproducesTheSameDraw() {
+        List<String> entrants = ids(10_000);
+
+        assertEquals(EntrantSampler.seeded(42).sample(entrants, 3),
+                EntrantSampler.seeded(42).sample(entrants, 3));
+        assertEquals(EntrantSampler.seeded(42).sample(entrants, 5_000),
+                EntrantSampler.seeded(42).sample(entrants, 5_000));
+        assertEquals(EntrantSampler.seeded(42).reservoir(entrants.iterator(), 20),
+                EntrantSampler.seeded(42).reservoir(entrants.iterator(), 20));
+        assertNotEquals(EntrantSampler.seeded(42).sample(entrants, 10),
+                EntrantSampler.seeded(43).sample(entrants, 10));
+    }
+
+    @Test
+    public void sparseSample_isUniform() {
+        // 2 of 20 is below the sparse threshold
+        assertUniform(20, 2, (sampler, items) -> sampler.sample(items, 2));
+    }
+
+    @Test
+    public void denseSample_isUniform() {
+        assertUniform(10, 4, (sampler, items) -> sampler.sample(items, 4));
+    }
+
+    @Test
+    public void pickOne_isUniform() {
+        assertUniform(10, 1, (sampler, items) -> Arrays.asList(sampler.pickOne(items)));
+    }
+
+    @Test
+    public void reservoir_isUniform() {
+        assertUniform(12, 3, (sampler, items) -> sampler.reservoir(items.iterator(), 3));
+    }
+
+    @Test
+    public void reservoir_shortInputReturnsEverything() {
+        List<String> picked = EntrantSampler.seeded(5).reservoir(ids(4).iterator(), 10);
+        assertEquals(ids(4), picked);
+    }
+
+    @Test
+    public void lotterySampler_usesInjectedSampler() {
+        List<String> entrants = ids(500);
+        LotterySampler a = new LotterySampler(null, null, EntrantSampler.seeded(9));
+        LotterySampler b = new LotterySampler(null, null, new EntrantSampler(new Random(9)));
+
+        assertEquals(a.sampleEntrants(entrants, 25), b.sampleEntrants(entrants, 25));
+    }
+
+    // -------------------- Helpers --------------------
+
+    private interface Draw {
+        List<Integer> draw(EntrantSampler sampler, List<Integer> items);
+    }
+
+    private static void assertUniform(int n, int k, Draw draw) {
+        List<Integer> items = new ArrayList<>();
+        for (int i = 0; i < n; i++) items.add(i);
+
+        EntrantSampler sampler = EntrantSampler.seeded(7);
+        int[] counts = new int[n];
+        for (int t = 0; t < TRIALS; t++) {
+            List<Integer> picked = draw.draw(sampler, items);
+            assertEquals(k, picked.size());
+            Set<Integer> distinct = new HashSet<>(picked);
+            assertEquals(k, distinct.size());
+            for (int p : picked) counts[p]++;
+        }
+
+        double expected = (double) TRIALS * k / n;
+        for (int i = 0; i < n; i++) {
+            assertEquals("selection count for item " + i, expected, counts[i], expected * 0.1);
+        }
+    }
+
+    private static List<String> ids(int count) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) out.add("entrant-" + i);
+        return out;
+    }
+}
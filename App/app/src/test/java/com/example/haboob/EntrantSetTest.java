@@ -0,0 +1,178 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EntrantSet} and its use as {@link Event}'s entrant lists.
+ */
+public class EntrantSetTest {
+
+    @Test
+    public void keepsInsertionOrder_andDropsDuplicates() {
+        EntrantSet set = new EntrantSet(Arrays.asList("b", "a", "b", "c"));
+        assertEquals(Arrays.asList("b", "a", "c"), set);
+
+        assertFalse(set.add("a"));
+        assertTrue(set.add("d"));
+        assertEquals(Arrays.asList("b", "a", "c", "d"), set);
+        assertEquals(4, set.size());
+    }
+
+    @Test
+    public void removeAndContains() {
+        EntrantSet set = new EntrantSet(Arrays.asList("a", "b", "c"));
+
+        assertTrue(set.contains("b"));
+        assertTrue(set.remove("b"));
+        assertFalse(set.contains("b"));
+        assertFalse(set.remove("b"));
+        assertEquals(Arrays.asList("a", "c"), set);
+
+        assertEquals("c", set.remove(1));
+        assertEquals(Collections.singletonList("a"), set);
+    }
+
+    @Test
+    public void indexAccess_followsChanges() {
+        EntrantSet set = new EntrantSet(Arrays.asList("a", "b", "c"));
+        assertEquals("b", set.get(1));
+
+        set.remove("a");
+        set.add("d");
+        assertEquals("b", set.get(0));
+        assertEquals("d", set.get(2));
+        assertEquals(2, set.indexOf("d"));
+        assertEquals(-1, set.indexOf("a"));
+
+        try {
+            set.get(3);
+            fail("expected IndexOutOfBoundsException");
+        } catch (IndexOutOfBoundsException expected) {
+            // expected
+        }
+    }
+
+    @Test
+    public void iteratorRemove_updatesIndexAccess() {
+        EntrantSet set = new EntrantSet(Arrays.asList("a", "b", "c"));
+        set.get(0);
+
+        Iterator<String> it = set.iterator();
+        it.next();
+        it.remove();
+
+        assertEquals("b", set.get(0));
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    public void indexAccess_matchesAPlainList_throughRemovalsAndCompaction() {
+        EntrantSet set = new EntrantSet();
+        List<String> expected = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 2_000; i++) {
+            String id = "e" + i;
+            set.add(id);
+            expected.add(id);
+            if (random.nextInt(3) == 0) {
+                String gone = expected.remove(random.nextInt(expected.size()));
+                assertTrue(set.remove(gone));
+            }
+            int probe = random.nextInt(expected.size());
+            assertEquals(expected.get(probe), set.get(probe));
+            assertEquals(probe, set.indexOf(expected.get(probe)));
+        }
+        while (expected.size() > 10) {
+            String gone = expected.remove(random.nextInt(expected.size()));
+            assertTrue(set.remove(gone));
+            assertEquals(expected.get(expected.size() - 1), set.get(set.size() - 1));
+        }
+        assertEquals(expected, set);
+    }
+
+    @Test
+    public void iteratorRemove_keepsTheRestOfTheIteration() {
+        EntrantSet set = new EntrantSet(Arrays.asList("a", "b", "c", "d"));
+
+        Iterator<String> it = set.iterator();
+        while (it.hasNext()) {
+            if (!it.next().equals("c")) it.remove();
+        }
+
+        assertEquals(Collections.singletonList("c"), set);
+        assertEquals("c", set.get(0));
+    }
+
+    @Test
+    public void equalsOtherLists_inBothDirections() {
+        List<String> plain = new ArrayList<>(Arrays.asList("x", "y"));
+        EntrantSet set = new EntrantSet(plain);
+
+        assertEquals(plain, set);
+        assertEquals(set, plain);
+        assertEquals(plain.hashCode(), set.hashCode());
+    }
+
+    @Test
+    public void survivesSerialization() throws Exception {
+        EntrantSet set = new EntrantSet(Arrays.asList("a", "b"));
+        set.get(0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(set);
+        }
+        Object copy;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            copy = in.readObject();
+        }
+
+        assertEquals(set, copy);
+        assertEquals("b", ((EntrantSet) copy).get(1));
+    }
+
+    @Test
+    public void event_startsWithSets_andConvertsLoadedLists() {
+        Event e = new Event(true);
+        assertTrue(e.getInvitedEntrants() instanceof EntrantSet);
+        assertTrue(e.getEntrantList(EntrantStatus.CANCELLED) instanceof EntrantSet);
+
+        // Lists passed to setters are shared until the event adopts them
+        ArrayList<String> loaded = new ArrayList<>(Arrays.asList("u1", "u2", "u1"));
+        e.setWaitingEntrants(loaded);
+        assertSame(loaded, e.getWaitingEntrants());
+
+        e.useEntrantSets();
+        assertTrue(e.getWaitingEntrants() instanceof EntrantSet);
+        assertEquals(Arrays.asList("u1", "u2"), e.getWaitingEntrants());
+        List<String> adopted = e.getWaitingEntrants();
+        e.useEntrantSets();
+        assertSame(adopted, e.getWaitingEntrants());
+    }
+
+    @Test
+    public void largeSet_membershipAndRemoval() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 50_000; i++) ids.add("entrant-" + i);
+        EntrantSet set = new EntrantSet(ids);
+
+        for (int i = 0; i < 50_000; i += 2) assertTrue(set.remove("entrant-" + i));
+        assertEquals(25_000, set.size());
+        assertFalse(set.contains("entrant-0"));
+        assertTrue(set.contains("entrant-49999"));
+        assertEquals("entrant-1", set.get(0));
+    }
+}
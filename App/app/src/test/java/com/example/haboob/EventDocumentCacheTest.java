@@ -0,0 +1,96 @@
+package com.example.haboob;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventDocumentCache}.
+ * <p>
+ * Only the cache-hit path is exercised here; it never issues a query, so a mocked
+ * {@link FirebaseFirestore} is enough to run it on the JVM.
+ */
+public class EventDocumentCacheTest {
+
+    private FirebaseFirestore mockDb;
+    private CollectionReference mockCollection;
+    private DocumentReference mockDoc;
+
+    @Before
+    public void setUp() {
+        EventDocumentCache.clear();
+
+        mockDb = Mockito.mock(FirebaseFirestore.class);
+        mockCollection = Mockito.mock(CollectionReference.class);
+        mockDoc = Mockito.mock(DocumentReference.class);
+
+        Mockito.when(mockDb.collection("events")).thenReturn(mockCollection);
+        Mockito.when(mockCollection.document("doc-1")).thenReturn(mockDoc);
+    }
+
+    @After
+    public void tearDown() {
+        EventDocumentCache.clear();
+    }
+
+    @Test
+    public void put_thenPeek_returnsDocumentId() {
+        EventDocumentCache.put("E1", "doc-1");
+        assertEquals("doc-1", EventDocumentCache.peek("E1"));
+        assertNull(EventDocumentCache.peek("E2"));
+        assertNull(EventDocumentCache.peek(null));
+    }
+
+    @Test
+    public void put_ignoresMissingIds() {
+        EventDocumentCache.put(null, "doc-1");
+        EventDocumentCache.put("E1", null);
+        EventDocumentCache.put("", "doc-1");
+        assertNull(EventDocumentCache.peek("E1"));
+        assertNull(EventDocumentCache.peek(""));
+    }
+
+    @Test
+    public void resolve_cachedEntry_goesStraightToDocument() {
+        EventDocumentCache.put("E1", "doc-1");
+
+        final DocumentReference[] resolved = new DocumentReference[1];
+        EventDocumentCache.resolve(mockDb, "E1", new EventDocumentCache.OnDocumentResolvedListener() {
+            @Override
+            public void onResolved(DocumentReference docRef) {
+                resolved[0] = docRef;
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail("Cached resolution should not fail");
+            }
+        });
+
+        assertSame(mockDoc, resolved[0]);
+        // No eventID query should be issued on a hit
+        Mockito.verify(mockCollection, Mockito.never()).whereEqualTo(Mockito.anyString(), Mockito.any());
+        assertEquals(1, EventDocumentCache.getHitCount());
+        assertEquals(0, EventDocumentCache.getMissCount());
+        assertEquals(1.0, EventDocumentCache.getHitRate(), 0.0001);
+    }
+
+    @Test
+    public void invalidate_removesEntry() {
+        EventDocumentCache.put("E1", "doc-1");
+        EventDocumentCache.invalidate("E1");
+        assertNull(EventDocumentCache.peek("E1"));
+    }
+
+    @Test
+    public void hitRate_isZeroBeforeAnyResolution() {
+        assertEquals(0.0, EventDocumentCache.getHitRate(), 0.0001);
+    }
+}
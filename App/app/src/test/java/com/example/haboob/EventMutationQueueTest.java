@@ -0,0 +1,370 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Transaction;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventMutationQueue} with a mocked timer whose tasks are fired by hand
+ * and transactions whose commits are completed by hand.
+ */
+public class EventMutationQueueTest {
+
+    private EventMutationQueue queue;
+    private DocumentReference docRef;
+
+    /** Timer tasks in scheduling order; cancelled ones are removed. */
+    private final List<Runnable> timerTasks = new ArrayList<>();
+    private final List<Long> timerDelays = new ArrayList<>();
+
+    /** Updates of each committed batch, in commit order. */
+    private final List<List<Map<String, Object>>> batches = new ArrayList<>();
+    private final List<OnSuccessListener<Void>> commitSuccess = new ArrayList<>();
+    private final List<OnFailureListener> commitFailure = new ArrayList<>();
+
+    private final List<String> written = new ArrayList<>();
+
+    /** Whether the mocked event document has been migrated to sharded storage. */
+    private boolean sharded = false;
+    private final List<FirebaseFirestoreException> transactionErrors = new ArrayList<>();
+
+    private ShardedEntrantStore store;
+    private final List<String> storeWrites = new ArrayList<>();
+    private final List<OnSuccessListener<Void>> storeSuccess = new ArrayList<>();
+    private final List<OnFailureListener> storeFailure = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ScheduledExecutorService timer = Mockito.mock(ScheduledExecutorService.class);
+        Mockito.when(timer.schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS)))
+                .thenAnswer(inv -> {
+                    Runnable task = inv.getArgument(0);
+                    timerTasks.add(task);
+                    timerDelays.add(inv.getArgument(1));
+                    ScheduledFuture<Object> future = Mockito.mock(ScheduledFuture.class);
+                    Mockito.when(future.cancel(Mockito.anyBoolean())).thenAnswer(c -> timerTasks.remove(task));
+                    return future;
+                });
+
+        FirebaseFirestore db = Mockito.mock(FirebaseFirestore.class);
+        docRef = Mockito.mock(DocumentReference.class);
+        Mockito.when(docRef.getFirestore()).thenReturn(db);
+        Mockito.when(db.runTransaction(Mockito.any())).thenAnswer(inv -> {
+            DocumentSnapshot snapshot = Mockito.mock(DocumentSnapshot.class);
+            Mockito.when(snapshot.getBoolean(Event.SHARDED_ENTRANTS_FIELD)).thenReturn(sharded);
+            List<Map<String, Object>> updates = new ArrayList<>();
+            Transaction transaction = Mockito.mock(Transaction.class);
+            Mockito.when(transaction.get(docRef)).thenReturn(snapshot);
+            Mockito.when(transaction.update(Mockito.eq(docRef), Mockito.anyMap())).thenAnswer(u -> {
+                updates.add(u.getArgument(1));
+                return transaction;
+            });
+            try {
+                ((Transaction.Function<Void>) inv.getArgument(0)).apply(transaction);
+                batches.add(updates);
+            } catch (FirebaseFirestoreException e) {
+                transactionErrors.add(e);
+            }
+            return pendingTask(commitSuccess, commitFailure);
+        });
+
+        store = Mockito.mock(ShardedEntrantStore.class);
+        Mockito.when(store.move(Mockito.eq(docRef), Mockito.anyString(), Mockito.any()))
+                .thenAnswer(inv -> {
+                    storeWrites.add("move " + inv.getArgument(1) + " " + inv.getArgument(2));
+                    return pendingTask(storeSuccess, storeFailure);
+                });
+        Mockito.when(store.remove(Mockito.eq(docRef), Mockito.anyString(), Mockito.any()))
+                .thenAnswer(inv -> {
+                    storeWrites.add("remove " + inv.getArgument(1) + " " + inv.getArgument(2));
+                    return pendingTask(storeSuccess, storeFailure);
+                });
+
+        queue = new EventMutationQueue(docRef, timer, 250, store);
+    }
+
+    @Test
+    public void changesInOneWindow_goOutAsOneBatch() {
+        queue.move("u1", EntrantStatus.WAITING, recorder("u1"));
+        queue.move("u2", EntrantStatus.WAITING, recorder("u2"));
+        queue.move("u3", EntrantStatus.WAITING, recorder("u3"));
+
+        assertEquals(3, queue.getPendingCount());
+        assertEquals(1, timerTasks.size());
+        assertEquals(Long.valueOf(250), timerDelays.get(0));
+
+        fireTimer();
+        assertEquals(1, batches.size());
+        assertEquals(1, batches.get(0).size());
+        assertEquals(0, queue.getPendingCount());
+        assertEquals(3, queue.getInFlightCount());
+
+        commitSuccess.get(0).onSuccess(null);
+        assertEquals(Arrays.asList("u1", "u2", "u3"), written);
+        assertEquals(0, queue.getInFlightCount());
+        assertTrue(timerTasks.isEmpty());
+    }
+
+    @Test
+    public void joinThenLeave_coalescesToTheEndResult() {
+        EventMutationQueue.Changes changes = new EventMutationQueue.Changes();
+        changes.move("u1", EntrantStatus.WAITING, null);
+        changes.remove("u1", EntrantStatus.WAITING, null);
+        changes.move("u2", EntrantStatus.INVITED, null);
+        changes.move("u2", EntrantStatus.CANCELLED, null);
+
+        assertNull(changes.added().get(EntrantStatus.WAITING));
+        assertEquals(Collections.singleton("u2"), changes.added().get(EntrantStatus.CANCELLED));
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u2")), changes.removed().get(EntrantStatus.WAITING));
+        assertEquals(new HashSet<>(Arrays.asList("u1", "u2")), changes.removed().get(EntrantStatus.INVITED));
+        assertEquals(Collections.singleton("u1"), changes.removed().get(EntrantStatus.CANCELLED));
+        assertEquals(4, changes.operations);
+    }
+
+    @Test
+    public void addsAndRemovesOnOneList_takeASecondUpdateInTheSameBatch() {
+        queue.move("u1", EntrantStatus.WAITING, null);
+        queue.remove("u2", EntrantStatus.WAITING, null);
+
+        fireTimer();
+        assertEquals(1, batches.size());
+        List<Map<String, Object>> updates = batches.get(0);
+        assertEquals(2, updates.size());
+        assertEquals(new HashSet<>(Arrays.asList("waitingEntrants", "invitedEntrants",
+                "enrolledEntrants", "cancelledEntrants")), updates.get(0).keySet());
+        assertEquals(Collections.singleton("waitingEntrants"), updates.get(1).keySet());
+    }
+
+    @Test
+    public void changesDuringACommit_waitForIt() {
+        queue.move("u1", EntrantStatus.WAITING, recorder("u1"));
+        fireTimer();
+
+        queue.remove("u1", EntrantStatus.WAITING, recorder("u1 left"));
+        assertTrue("no flush while a batch is in flight", timerTasks.isEmpty());
+        assertEquals(1, queue.getPendingCount());
+
+        commitSuccess.get(0).onSuccess(null);
+        assertEquals(1, timerTasks.size());
+        fireTimer();
+        assertEquals(2, batches.size());
+
+        commitSuccess.get(1).onSuccess(null);
+        assertEquals(Arrays.asList("u1", "u1 left"), written);
+    }
+
+    @Test
+    public void failedCommit_retriesWithBackoff_andTakesNewerChanges() {
+        queue.move("u1", EntrantStatus.WAITING, recorder("u1"));
+        fireTimer();
+
+        commitFailure.get(0).onFailure(unavailable());
+        assertEquals(1, queue.getFailedAttempts());
+        assertEquals(Long.valueOf(EventMutationQueue.INITIAL_BACKOFF_MS), last(timerDelays));
+
+        queue.move("u2", EntrantStatus.WAITING, recorder("u2"));
+        fireTimer();
+        assertEquals(2, batches.size());
+        commitFailure.get(1).onFailure(unavailable());
+        assertEquals(Long.valueOf(2 * EventMutationQueue.INITIAL_BACKOFF_MS), last(timerDelays));
+        assertEquals(2, queue.getInFlightCount());
+        assertEquals(0, queue.getPendingCount());
+
+        fireTimer();
+        assertEquals(1, last(batches).size());
+        commitSuccess.get(2).onSuccess(null);
+        assertEquals(Arrays.asList("u1", "u2"), written);
+        assertEquals(0, queue.getFailedAttempts());
+    }
+
+    @Test
+    public void permanentFailure_isReportedWithoutRetrying() {
+        List<Exception> errors = new ArrayList<>();
+        queue.move("u1", EntrantStatus.WAITING, new EventMutationQueue.OnWrittenListener() {
+            @Override
+            public void onWritten() {
+                fail("should not be written");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e);
+            }
+        });
+        fireTimer();
+
+        commitFailure.get(0).onFailure(new FirebaseFirestoreException("denied",
+                FirebaseFirestoreException.Code.PERMISSION_DENIED));
+
+        assertEquals(1, errors.size());
+        assertTrue(timerTasks.isEmpty());
+        assertEquals(0, queue.getInFlightCount());
+    }
+
+    @Test
+    public void givesUp_afterMaxAttempts() {
+        List<Exception> errors = new ArrayList<>();
+        queue.move("u1", EntrantStatus.WAITING, new EventMutationQueue.OnWrittenListener() {
+            @Override
+            public void onWritten() {
+                fail("should not be written");
+            }
+
+            @Override
+            public void onError(Exception e) {
+                errors.add(e);
+            }
+        });
+        fireTimer();
+
+        for (int i = 0; i < EventMutationQueue.MAX_ATTEMPTS; i++) {
+            assertTrue(errors.isEmpty());
+            last(commitFailure).onFailure(unavailable());
+            if (i < EventMutationQueue.MAX_ATTEMPTS - 1) fireTimer();
+        }
+        assertEquals(1, errors.size());
+        assertEquals(EventMutationQueue.MAX_ATTEMPTS, batches.size());
+    }
+
+    @Test
+    public void registeredQueue_leavesTheRegistryOnceIdle() {
+        EventMutationQueue shared = EventMutationQueue.forDocument(docRef);
+        assertSame(shared, EventMutationQueue.forDocument(docRef));
+
+        shared.move("u1", EntrantStatus.WAITING, recorder("u1"));
+        shared.flushNow();
+        assertSame(shared, EventMutationQueue.forDocument(docRef));
+
+        commitSuccess.get(0).onSuccess(null);
+        assertEquals(Collections.singletonList("u1"), written);
+        assertNotSame(shared, EventMutationQueue.forDocument(docRef));
+    }
+
+    @Test
+    public void retiredQueue_passesLaterChangesToItsReplacement() {
+        EventMutationQueue shared = EventMutationQueue.forDocument(docRef);
+        shared.move("u1", EntrantStatus.WAITING, recorder("u1"));
+        shared.flushNow();
+        commitSuccess.get(0).onSuccess(null);
+
+        shared.move("u2", EntrantStatus.WAITING, recorder("u2"));
+        EventMutationQueue replacement = EventMutationQueue.forDocument(docRef);
+        assertNotSame(shared, replacement);
+        assertEquals(0, shared.getPendingCount());
+        assertEquals(1, replacement.getPendingCount());
+
+        replacement.flushNow();
+        commitSuccess.get(1).onSuccess(null);
+        assertEquals(Arrays.asList("u1", "u2"), written);
+    }
+
+    @Test
+    public void whenFlushed_runsOnceQueuedChangesAreWritten() {
+        List<String> ran = new ArrayList<>();
+        queue.whenFlushed(() -> ran.add("idle"));
+        assertEquals(Collections.singletonList("idle"), ran);
+
+        queue.move("u1", EntrantStatus.WAITING, null);
+        queue.whenFlushed(() -> ran.add("after u1"));
+        // Flushed at once instead of waiting for the window
+        assertEquals(1, batches.size());
+        assertTrue(timerTasks.isEmpty());
+        assertEquals(1, ran.size());
+
+        commitSuccess.get(0).onSuccess(null);
+        assertEquals(Arrays.asList("idle", "after u1"), ran);
+    }
+
+    @Test
+    public void migratedDocument_getsTheChangesThroughTheShardedStore() {
+        sharded = true;
+        queue.move("u1", EntrantStatus.WAITING, recorder("u1"));
+        queue.remove("u2", EntrantStatus.INVITED, recorder("u2"));
+        fireTimer();
+
+        // The transaction found the flag and wrote nothing
+        assertTrue(batches.isEmpty());
+        assertEquals(1, transactionErrors.size());
+        commitFailure.get(0).onFailure(transactionErrors.get(0));
+
+        assertEquals(Arrays.asList("move u1 WAITING", "remove u2 INVITED"), storeWrites);
+        storeSuccess.get(0).onSuccess(null);
+        assertTrue(written.isEmpty());
+        storeSuccess.get(1).onSuccess(null);
+        assertEquals(Arrays.asList("u1", "u2"), written);
+
+        // Later changes skip the document
+        queue.move("u3", EntrantStatus.ENROLLED, recorder("u3"));
+        fireTimer();
+        assertEquals(1, transactionErrors.size());
+        assertEquals("move u3 ENROLLED", last(storeWrites));
+        storeSuccess.get(2).onSuccess(null);
+        assertEquals(Arrays.asList("u1", "u2", "u3"), written);
+    }
+
+    // -------------------- Helpers --------------------
+
+    /** A task whose listeners are collected, to be completed by hand. */
+    @SuppressWarnings("unchecked")
+    private static Task<Void> pendingTask(List<OnSuccessListener<Void>> success, List<OnFailureListener> failure) {
+        Task<Void> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(l -> {
+            success.add(l.getArgument(0));
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any(OnFailureListener.class))).thenAnswer(l -> {
+            failure.add(l.getArgument(0));
+            return task;
+        });
+        return task;
+    }
+
+    private EventMutationQueue.OnWrittenListener recorder(String label) {
+        return new EventMutationQueue.OnWrittenListener() {
+            @Override
+            public void onWritten() {
+                written.add(label);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail(label + ": " + e.getMessage());
+            }
+        };
+    }
+
+    private void fireTimer() {
+        assertFalse("no timer task scheduled", timerTasks.isEmpty());
+        timerTasks.remove(0).run();
+    }
+
+    private static FirebaseFirestoreException unavailable() {
+        return new FirebaseFirestoreException("offline", FirebaseFirestoreException.Code.UNAVAILABLE);
+    }
+
+    private static <T> T last(List<T> list) {
+        return list.get(list.size() - 1);
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.haboob;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link Event#getStatus} and the rule that an entrant is only ever in one of an
+ * event's entrant lists. Firestore is mocked; the event document is resolved from
+ * {@link EventDocumentCache} so no query runs.
+ */
+public class EventStatusTest {
+
+    private DocumentReference docRef;
+    private Event event;
+
+    @Before
+    public void setUp() {
+        FirebaseFirestore db = Mockito.mock(FirebaseFirestore.class);
+        CollectionReference events = Mockito.mock(CollectionReference.class);
+        docRef = Mockito.mock(DocumentReference.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(db.collection("events")).thenReturn(events);
+        Mockito.when(events.document("doc-E1")).thenReturn(docRef);
+
+        event = new Event(db);
+        event.setEventID("E1");
+        EventDocumentCache.put("E1", "doc-E1");
+    }
+
+    @After
+    public void tearDown() {
+        EventDocumentCache.invalidate("E1");
+    }
+
+    @Test
+    public void getStatus_followsSetters() {
+        event.setWaitingEntrants(new ArrayList<>(Arrays.asList("w1", "w2")));
+        event.setInvitedEntrantsList(new ArrayList<>(Arrays.asList("i1")));
+        event.setEnrolledEntrantsList(new ArrayList<>(Arrays.asList("e1")));
+        event.setCancelledEntrantsList(new ArrayList<>(Arrays.asList("c1")));
+
+        assertEquals(EntrantStatus.WAITING, event.getStatus("w2"));
+        assertEquals(EntrantStatus.INVITED, event.getStatus("i1"));
+        assertEquals(EntrantStatus.ENROLLED, event.getStatus("e1"));
+        assertEquals(EntrantStatus.CANCELLED, event.getStatus("c1"));
+        assertNull(event.getStatus("nobody"));
+        assertNull(event.getStatus(null));
+
+        event.setWaitingEntrants(new ArrayList<>());
+        assertNull(event.getStatus("w2"));
+    }
+
+    @Test
+    public void entrantMovesThroughTheLists_oneAtATime() {
+        event.addEntrantToWaitingEntrants("u1");
+        assertEquals(EntrantStatus.WAITING, event.getStatus("u1"));
+
+        event.addEntrantToInvitedEntrants("u1");
+        assertEquals(EntrantStatus.INVITED, event.getStatus("u1"));
+        assertFalse(event.getWaitingEntrants().contains("u1"));
+
+        event.moveEntrantFromInvitedToEnrolled("u1");
+        assertEquals(EntrantStatus.ENROLLED, event.getStatus("u1"));
+        assertOnlyIn(EntrantStatus.ENROLLED, "u1");
+
+        event.addEntrantToCancelledEntrants("u1");
+        assertOnlyIn(EntrantStatus.CANCELLED, "u1");
+
+        // Rejoining the waiting list takes the entrant off the cancelled list
+        event.addEntrantToWaitingEntrants("u1");
+        assertOnlyIn(EntrantStatus.WAITING, "u1");
+    }
+
+    @Test
+    public void addingTwice_keepsOneEntry() {
+        event.addEntrantToInvitedEntrants("u1");
+        event.addEntrantToInvitedEntrants("u1");
+
+        assertEquals(1, event.getInvitedEntrants().size());
+        assertEquals(EntrantStatus.INVITED, event.getStatus("u1"));
+    }
+
+    @Test
+    public void removing_clearsStatus() {
+        event.addEntrantToWaitingEntrants("u1");
+        event.removeEntrantFromWaitingEntrants("u1");
+
+        assertNull(event.getStatus("u1"));
+        assertTrue(event.getWaitingEntrants().isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void documentUpdate_movesAcrossAllLists() throws Exception {
+        event.addEntrantToInvitedEntrants("u1");
+        EventMutationQueue.forDocument(docRef).flushNow();
+
+        // Run the flush's transaction against a document that is not sharded
+        ArgumentCaptor<Transaction.Function<Void>> flush = ArgumentCaptor.forClass(Transaction.Function.class);
+        Mockito.verify(docRef.getFirestore()).runTransaction(flush.capture());
+        Transaction transaction = Mockito.mock(Transaction.class);
+        Mockito.when(transaction.get(docRef)).thenReturn(Mockito.mock(DocumentSnapshot.class));
+        flush.getValue().apply(transaction);
+
+        ArgumentCaptor<Map<String, Object>> updates = ArgumentCaptor.forClass(Map.class);
+        Mockito.verify(transaction).update(Mockito.eq(docRef), updates.capture());
+        assertEquals(new HashSet<>(Arrays.asList("waitingEntrants", "invitedEntrants",
+                "enrolledEntrants", "cancelledEntrants")), updates.getValue().keySet());
+    }
+
+    @Test
+    public void listener_seesTheRemovalFromTheOldList() {
+        List<String> changes = new ArrayList<>();
+        event.attachEntrantListsListener(new Event.OnEntrantListsChangedListener() {
+            @Override
+            public void onEntrantAdded(Event e, EntrantStatus list, String entrantID) {
+                changes.add("+" + list + ":" + entrantID);
+            }
+
+            @Override
+            public void onEntrantRemoved(Event e, EntrantStatus list, String entrantID) {
+                changes.add("-" + list + ":" + entrantID);
+            }
+        });
+
+        event.addEntrantToWaitingEntrants("u1");
+        event.addEntrantToInvitedEntrants("u1");
+
+        assertEquals(Arrays.asList("+WAITING:u1", "-WAITING:u1", "+INVITED:u1"), changes);
+    }
+
+    @Test
+    public void overlappingLoadedLists_resolveToTheLatestStage() {
+        event.setWaitingEntrants(new ArrayList<>(Arrays.asList("u1")));
+        event.setInvitedEntrantsList(new ArrayList<>(Arrays.asList("u1")));
+
+        assertEquals(EntrantStatus.INVITED, event.getStatus("u1"));
+
+        // The next move makes the lists exclusive again
+        event.addEntrantToCancelledEntrants("u1");
+        assertOnlyIn(EntrantStatus.CANCELLED, "u1");
+    }
+
+    // -------------------- Helpers --------------------
+
+    private void assertOnlyIn(EntrantStatus expected, String entrantID) {
+        for (EntrantStatus status : EntrantStatus.values()) {
+            assertEquals(status + " list", status == expected,
+                    event.getEntrantList(status).contains(entrantID));
+        }
+        assertEquals(expected, event.getStatus(entrantID));
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.haboob;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM micro-benchmark comparing {@link EventsList}'s indexed lookups with the linear scans
+ * they replaced.
+ * <p>
+ * The data set is 10,000 events drawn from a population of 1,000 entrants. Each event has
+ * 50 waitlisted and 10 enrolled entrants, so every entrant sits on roughly 500 waitlists.
+ * The old and new lookups must return the same events; timings are printed for comparison
+ * rather than asserted, since they depend on the machine running the tests. Skipped unless
+ * {@link Benchmarks} are enabled.
+ */
+public class EventsListBenchmarkTest {
+
+    private static final int EVENT_COUNT = 10_000;
+    private static final int ENTRANT_COUNT = 1_000;
+    private static final int ORGANIZER_COUNT = 200;
+    private static final int WAITLIST_SIZE = 50;
+    private static final int ENROLLED_SIZE = 10;
+    private static final int LOOKUPS = 200;
+
+    private static EventsList eventsList;
+    private static List<String> entrantIds;
+
+    @BeforeClass
+    public static void buildDataSet() {
+        Benchmarks.assumeEnabled();
+        Random random = new Random(42);
+        entrantIds = new ArrayList<>(ENTRANT_COUNT);
+        for (int i = 0; i < ENTRANT_COUNT; i++) {
+            entrantIds.add("entrant-" + i);
+        }
+
+        eventsList = new EventsList(true);
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            Event e = new Event(true);
+            e.setEventID("event-" + i);
+            e.setOrganizer("org-" + (i % ORGANIZER_COUNT));
+
+            ArrayList<String> waiting = new ArrayList<>(WAITLIST_SIZE);
+            ArrayList<String> enrolled = new ArrayList<>(ENROLLED_SIZE);
+            int offset = random.nextInt(ENTRANT_COUNT);
+            for (int j = 0; j < WAITLIST_SIZE; j++) {
+                waiting.add(entrantIds.get((offset + j) % ENTRANT_COUNT));
+            }
+            for (int j = 0; j < ENROLLED_SIZE; j++) {
+                enrolled.add(entrantIds.get((offset + WAITLIST_SIZE + j) % ENTRANT_COUNT));
+            }
+            e.setWaitingEntrants(waiting);
+            e.setEnrolledEntrantsList(enrolled);
+            eventsList.getEventsList().add(e);
+        }
+    }
+
+    @Test
+    public void entrantLookups_indexedMatchesLinearScan() {
+        // Build the index outside the timed section
+        long buildStart = System.nanoTime();
+        eventsList.getEventByID("event-0");
+        long buildNanos = System.nanoTime() - buildStart;
+
+        long linearNanos = 0;
+        long indexedNanos = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String entrantID = entrantIds.get((i * 7) % ENTRANT_COUNT);
+
+            long t0 = System.nanoTime();
+            ArrayList<Event> expectedWaiting = linearWaitlistEvents(entrantID);
+            ArrayList<Event> expectedEnrolled = linearEnrolledEvents(entrantID);
+            long t1 = System.nanoTime();
+            ArrayList<Event> actualWaiting = eventsList.getEntrantWaitlistEvents(entrantID);
+            ArrayList<Event> actualEnrolled = eventsList.getEntrantEnrolledEvents(entrantID);
+            long t2 = System.nanoTime();
+
+            linearNanos += t1 - t0;
+            indexedNanos += t2 - t1;
+
+            assertEquals(expectedWaiting, actualWaiting);
+            assertEquals(expectedEnrolled, actualEnrolled);
+        }
+
+        System.out.printf("Entrant lookups x%d: linear %.1f ms, indexed %.1f ms (index build %.1f ms)%n",
+                LOOKUPS, linearNanos / 1e6, indexedNanos / 1e6, buildNanos / 1e6);
+    }
+
+    @Test
+    public void idAndOrganizerLookups_indexedMatchesLinearScan() {
+        long linearNanos = 0;
+        long indexedNanos = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            String eventID = "event-" + ((i * 37) % EVENT_COUNT);
+            String organizerID = "org-" + (i % ORGANIZER_COUNT);
+
+            long t0 = System.nanoTime();
+            Event expectedEvent = linearEventByID(eventID);
+            ArrayList<Event> expectedOrganizer = linearOrganizerEvents(organizerID);
+            long t1 = System.nanoTime();
+            Event actualEvent = eventsList.getEventByID(eventID);
+            ArrayList<Event> actualOrganizer = eventsList.getOrganizerEvents(organizerID);
+            long t2 = System.nanoTime();
+
+            linearNanos += t1 - t0;
+            indexedNanos += t2 - t1;
+
+            assertSame(expectedEvent, actualEvent);
+            assertEquals(expectedOrganizer, actualOrganizer);
+        }
+
+        System.out.printf("ID + organizer lookups x%d: linear %.1f ms, indexed %.1f ms%n",
+                LOOKUPS, linearNanos / 1e6, indexedNanos / 1e6);
+    }
+
+    // -------------------- Previous linear implementations --------------------
+
+    private static Event linearEventByID(String eventID) {
+        for (Event e : eventsList.getEventsList()) {
+            if (eventID.equals(e.getEventID())) return e;
+        }
+        return null;
+    }
+
+    private static ArrayList<Event> linearOrganizerEvents(String organizerID) {
+        ArrayList<Event> out = new ArrayList<>();
+        for (Event e : eventsList.getEventsList()) {
+            if (organizerID.equals(e.getOrganizer())) out.add(e);
+        }
+        return out;
+    }
+
+    private static ArrayList<Event> linearWaitlistEvents(String entrantID) {
+        ArrayList<Event> out = new ArrayList<>();
+        for (Event e : eventsList.getEventsList()) {
+            if (e.getWaitingEntrants().contains(entrantID)) out.add(e);
+        }
+        return out;
+    }
+
+    private static ArrayList<Event> linearEnrolledEvents(String entrantID) {
+        ArrayList<Event> out = new ArrayList<>();
+        for (Event e : eventsList.getEventsList()) {
+            if (e.getEnrolledEntrants().contains(entrantID)) out.add(e);
+        }
+        return out;
+    }
+}
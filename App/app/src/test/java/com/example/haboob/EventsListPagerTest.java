@@ -0,0 +1,176 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link EventsList.Pager} using a mocked "events" collection.
+ * <p>
+ * Each mocked query completes immediately with the page queued by {@link #queuePage}, so the
+ * cursor handling can be checked without Firestore.
+ */
+public class EventsListPagerTest {
+
+    private CollectionReference mockCollection;
+    private Query mockQuery;
+    private Query mockStartAfterQuery;
+
+    private EventsList eventsList;
+    private final List<List<Event>> pages = new ArrayList<>();
+    private final List<Boolean> hasMoreFlags = new ArrayList<>();
+
+    private final EventsList.OnPageLoadedListener recorder = new EventsList.OnPageLoadedListener() {
+        @Override
+        public void onPageLoaded(ArrayList<Event> page, boolean hasMore) {
+            pages.add(page);
+            hasMoreFlags.add(hasMore);
+        }
+
+        @Override
+        public void onError(Exception e) {
+            fail("No error expected");
+        }
+    };
+
+    @Before
+    public void setUp() {
+        EventDocumentCache.clear();
+        mockCollection = Mockito.mock(CollectionReference.class);
+        mockQuery = Mockito.mock(Query.class);
+        mockStartAfterQuery = Mockito.mock(Query.class);
+
+        Mockito.when(mockCollection.orderBy("registrationEndDate")).thenReturn(mockQuery);
+        Mockito.when(mockQuery.startAfter(Mockito.any(QueryDocumentSnapshot.class))).thenReturn(mockStartAfterQuery);
+        Mockito.when(mockQuery.limit(Mockito.anyLong())).thenReturn(mockQuery);
+        Mockito.when(mockStartAfterQuery.limit(Mockito.anyLong())).thenReturn(mockStartAfterQuery);
+
+        eventsList = new EventsList(mockCollection);
+    }
+
+    @After
+    public void tearDown() {
+        EventDocumentCache.clear();
+    }
+
+    @Test
+    public void fullPage_reportsMore_andNextPageStartsAfterLastDocument() {
+        QueryDocumentSnapshot last = queuePage(mockQuery, "E1", "E2");
+        queuePage(mockStartAfterQuery, "E3");
+
+        EventsList.Pager pager = eventsList.newPager(2, false);
+        pager.loadNextPage(recorder);
+
+        assertEquals(1, pages.size());
+        assertEquals(Arrays.asList("E1", "E2"), ids(pages.get(0)));
+        assertTrue(hasMoreFlags.get(0));
+        assertTrue(pager.hasMore());
+        assertFalse(pager.isLoading());
+
+        pager.loadNextPage(recorder);
+
+        Mockito.verify(mockQuery).startAfter(last);
+        assertEquals(Arrays.asList("E3"), ids(pages.get(1)));
+        assertFalse(hasMoreFlags.get(1));
+        assertFalse(pager.hasMore());
+    }
+
+    @Test
+    public void pagedEvents_areAddedToTheList() {
+        queuePage(mockQuery, "E1", "E2");
+
+        eventsList.newPager(5, false).loadNextPage(recorder);
+
+        assertEquals(2, eventsList.getEventsList().size());
+        assertNotNull(eventsList.getEventByID("E2"));
+        assertEquals("doc-E1", EventDocumentCache.peek("E1"));
+    }
+
+    @Test
+    public void afterLastPage_furtherRequestsAreIgnored() {
+        queuePage(mockQuery, "E1");
+
+        EventsList.Pager pager = eventsList.newPager(5, false);
+        pager.loadNextPage(recorder);
+        pager.loadNextPage(recorder);
+
+        assertEquals(1, pages.size());
+        Mockito.verify(mockQuery, Mockito.times(1)).get();
+    }
+
+    @Test
+    public void reset_startsAgainFromTheFirstPage() {
+        queuePage(mockQuery, "E1", "E2");
+
+        EventsList.Pager pager = eventsList.newPager(2, false);
+        pager.loadNextPage(recorder);
+        pager.reset();
+        pager.loadNextPage(recorder);
+
+        Mockito.verify(mockQuery, Mockito.never()).startAfter(Mockito.any(QueryDocumentSnapshot.class));
+        assertEquals(2, pages.size());
+        // The second load replaced the same events instead of duplicating them
+        assertEquals(2, eventsList.getEventsList().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void inMemoryList_cannotPage() {
+        new EventsList(true).newPager(10, false);
+    }
+
+    // -------------------- Helpers --------------------
+
+    /**
+     * Makes {@code query.get()} succeed immediately with events carrying the given IDs.
+     *
+     * @return the last document in the page
+     */
+    @SuppressWarnings("unchecked")
+    private static QueryDocumentSnapshot queuePage(Query query, String... eventIds) {
+        List<QueryDocumentSnapshot> docs = new ArrayList<>();
+        for (String id : eventIds) {
+            Event e = new Event(true);
+            e.setEventID(id);
+            QueryDocumentSnapshot doc = Mockito.mock(QueryDocumentSnapshot.class);
+            Mockito.when(doc.getId()).thenReturn("doc-" + id);
+            Mockito.when(doc.getString("eventID")).thenReturn(id);
+            Mockito.when(doc.toObject(Event.class)).thenReturn(e);
+            docs.add(doc);
+        }
+
+        QuerySnapshot snapshot = Mockito.mock(QuerySnapshot.class);
+        Mockito.when(snapshot.size()).thenReturn(docs.size());
+        Mockito.when(snapshot.iterator()).thenAnswer(invocation -> docs.iterator());
+
+        Task<QuerySnapshot> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(invocation -> {
+            OnSuccessListener<QuerySnapshot> listener = invocation.getArgument(0);
+            listener.onSuccess(snapshot);
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any())).thenReturn(task);
+        Mockito.when(query.get()).thenReturn(task);
+
+        return docs.isEmpty() ? null : docs.get(docs.size() - 1);
+    }
+
+    private static List<String> ids(List<Event> events) {
+        List<String> out = new ArrayList<>();
+        for (Event e : events) out.add(e.getEventID());
+        return out;
+    }
+}
@@ -1,12 +1,17 @@
 package com.example.haboob;
 
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -18,7 +23,9 @@ import static org.junit.Assert.*;
  *   <li>Finding events by ID</li>
  *   <li>Filtering events by tags (case-insensitive)</li>
  *   <li>Retrieving events by organizer</li>
- *   <li>Finding waitlist membership by entrant</li>
+ *   <li>Finding waitlist and enrolled membership by entrant</li>
+ *   <li>Keeping the lookup index in sync with list changes</li>
+ *   <li>Applying live sync deltas (using mocked {@link DocumentChange}s)</li>
  *   <li>Determining which events are still "live"</li>
  * </ul>
  * <p>
@@ -201,8 +208,217 @@ public class EventsListTest {
         assertTrue(containsEventIds(live, "E1", "E2"));
     }
 
+    /**
+     * Tests {@link EventsList#getEntrantEnrolledEvents(String)} against the enrolled lists.
+     */
+    @Test
+    public void testGetEntrantEnrolledEvents() {
+        e2.setEnrolledEntrantsList(arrayList("u9"));
+
+        var u9 = eventsList.getEntrantEnrolledEvents("u9");
+        assertEquals(1, u9.size());
+        assertEquals("E2", u9.get(0).getEventID());
+
+        assertTrue(eventsList.getEntrantEnrolledEvents("u1").isEmpty());
+        assertTrue(eventsList.getEntrantEnrolledEvents(null).isEmpty());
+    }
+
+    /**
+     * Replacing an indexed event's entrant list must update the entrant index without a reload.
+     */
+    @Test
+    public void testIndex_tracksEntrantListReplacement() {
+        // Prime the index
+        assertEquals(1, eventsList.getEntrantWaitlistEvents("u1").size());
+
+        e1.setWaitingEntrants(arrayList("u4"));
+
+        assertTrue(eventsList.getEntrantWaitlistEvents("u1").isEmpty());
+        var u4 = eventsList.getEntrantWaitlistEvents("u4");
+        assertEquals(1, u4.size());
+        assertEquals("E1", u4.get(0).getEventID());
+    }
+
+    /**
+     * Events added straight to {@link EventsList#getEventsList()} after the index was built
+     * must still be found by the indexed lookups.
+     */
+    @Test
+    public void testIndex_rebuildsAfterDirectListChange() {
+        // Prime the index
+        assertNotNull(eventsList.getEventByID("E1"));
+
+        Event e4 = makeEvent("E4", arrayList("art"), "orgC", arrayList("u1"), null);
+        eventsList.getEventsList().add(e4);
+
+        assertSame(e4, eventsList.getEventByID("E4"));
+        assertEquals(1, eventsList.getOrganizerEvents("orgC").size());
+        assertEquals(2, eventsList.getEntrantWaitlistEvents("u1").size());
+
+        eventsList.getEventsList().remove(e4);
+        assertNull(eventsList.getEventByID("E4"));
+        assertEquals(1, eventsList.getEntrantWaitlistEvents("u1").size());
+    }
+
+    /**
+     * Live sync deltas must add, replace and remove events in place and be reported
+     * to change listeners as a single batch.
+     */
+    @Test
+    public void testApplyDocumentChanges_appliesDeltas() {
+        EventDocumentCache.clear();
+        Event e4 = makeEvent("E4", arrayList("art"), "orgC", arrayList("u5"), null);
+        Event e1v2 = makeEvent("E1", arrayList("Music"), "orgA", arrayList("u6"), null);
+
+        final List<List<Event>> reported = new ArrayList<>();
+        eventsList.addOnEventsChangedListener(new EventsList.OnEventsChangedListener() {
+            @Override
+            public void onEventsChanged(List<Event> added, List<Event> modified, List<Event> removed) {
+                reported.add(added);
+                reported.add(modified);
+                reported.add(removed);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail("No error expected");
+            }
+        });
+
+        eventsList.applyDocumentChanges(Arrays.asList(
+                change(DocumentChange.Type.ADDED, "doc-4", e4),
+                change(DocumentChange.Type.MODIFIED, "doc-1", e1v2),
+                change(DocumentChange.Type.REMOVED, "doc-2", e2)));
+
+        // Modified event keeps its position, removed event is gone, added event is appended
+        ArrayList<Event> all = eventsList.getEventsList();
+        assertEquals(3, all.size());
+        assertSame(e1v2, all.get(0));
+        assertSame(e3, all.get(1));
+        assertSame(e4, all.get(2));
+
+        assertSame(e1v2, eventsList.getEventByID("E1"));
+        assertNull(eventsList.getEventByID("E2"));
+        assertTrue(eventsList.getEntrantWaitlistEvents("u1").isEmpty());
+        assertEquals(1, eventsList.getEntrantWaitlistEvents("u6").size());
+        assertEquals(1, eventsList.getOrganizerEvents("orgC").size());
+
+        assertEquals(3, reported.size());
+        assertEquals(Arrays.asList(e4), reported.get(0));
+        assertEquals(Arrays.asList(e1v2), reported.get(1));
+        assertEquals(Arrays.asList(e2), reported.get(2));
+
+        assertEquals("doc-4", EventDocumentCache.peek("E4"));
+        assertNull(EventDocumentCache.peek("E2"));
+        EventDocumentCache.clear();
+    }
+
+    /**
+     * An ADDED change for an event that is already in the list (e.g. one just written by
+     * {@link EventsList#addEvent}) must replace it rather than add a duplicate.
+     */
+    @Test
+    public void testUpsertLocal_replacesExistingEvent() {
+        Event e2copy = makeEvent("E2", arrayList("workshop"), "orgB", arrayList("u2"), null);
+
+        assertSame(e2, eventsList.upsertLocal(e2copy));
+        assertEquals(3, eventsList.getEventsList().size());
+        assertSame(e2copy, eventsList.getEventByID("E2"));
+        assertTrue(eventsList.getEntrantWaitlistEvents("u3").isEmpty());
+
+        assertSame(e2copy, eventsList.removeLocal("E2"));
+        assertNull(eventsList.removeLocal("E2"));
+        assertEquals(2, eventsList.getEventsList().size());
+    }
+
+    /**
+     * Replacements and removals find events by their tracked position, which must follow
+     * the shifts earlier removals cause.
+     */
+    @Test
+    public void testUpsertAndRemoveLocal_keepPositionsAfterRemovals() {
+        List<Event> added = new ArrayList<>();
+        for (int i = 10; i < 20; i++) {
+            Event e = makeEvent("E" + i, arrayList("tag"), "orgZ", null, null);
+            added.add(e);
+            eventsList.upsertLocal(e);
+        }
+        eventsList.removeLocal("E1");
+        eventsList.removeLocal("E12");
+        eventsList.removeLocal("E15");
+
+        Event e18copy = makeEvent("E18", arrayList("tag"), "orgZ", null, null);
+        eventsList.upsertLocal(e18copy);
+        eventsList.removeLocal("E11");
+
+        List<Event> expected = new ArrayList<>(Arrays.asList(e2, e3));
+        for (Event e : added) {
+            String id = e.getEventID();
+            if (id.equals("E11") || id.equals("E12") || id.equals("E15")) continue;
+            expected.add(id.equals("E18") ? e18copy : e);
+        }
+        assertEquals(expected, eventsList.getEventsList());
+        assertSame(e18copy, eventsList.getEventByID("E18"));
+    }
+
+    /**
+     * In-memory instances answer {@link EventsList#loadEntrantEvents} from the index,
+     * merging the entrant's lists with one copy of each event.
+     */
+    @Test
+    public void testLoadEntrantEvents_inMemoryMergesLists() {
+        e1.setInvitedEntrantsList(arrayList("u2"));
+        e3.setEnrolledEntrantsList(arrayList("u2"));
+
+        final List<Event> result = new ArrayList<>();
+        eventsList.loadEntrantEvents("u2", new EventsList.OnEntrantEventsLoadedListener() {
+            @Override
+            public void onEntrantEventsLoaded(ArrayList<Event> events) {
+                result.addAll(events);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail("No error expected");
+            }
+        });
+
+        // Invited first, then waiting, then enrolled
+        assertEquals(Arrays.asList(e1, e2, e3), result);
+
+        // An entrant in two lists of one event still gets the event once
+        e2.setEnrolledEntrantsList(arrayList("u2"));
+        assertEquals(3, eventsList.getAllEntrantEvents("u2").size());
+        assertTrue(eventsList.getAllEntrantEvents("nobody").isEmpty());
+    }
+
+    /**
+     * {@link EventsList#filterByEntrant} keeps only events whose chosen list holds the entrant.
+     */
+    @Test
+    public void testFilterByEntrant() {
+        List<Event> all = eventsList.getEventsList();
+        assertEquals(Arrays.asList(e2), EventsList.filterByEntrant(all, "u3", EntrantStatus.WAITING));
+        assertTrue(EventsList.filterByEntrant(all, "u3", EntrantStatus.ENROLLED).isEmpty());
+    }
+
     // -------------------- Helper methods --------------------
 
+    /**
+     * Builds a mocked snapshot change carrying the given event.
+     */
+    private static DocumentChange change(DocumentChange.Type type, String docId, Event event) {
+        QueryDocumentSnapshot doc = Mockito.mock(QueryDocumentSnapshot.class);
+        Mockito.when(doc.getId()).thenReturn(docId);
+        Mockito.when(doc.getString("eventID")).thenReturn(event.getEventID());
+        Mockito.when(doc.toObject(Event.class)).thenReturn(event);
+
+        DocumentChange change = Mockito.mock(DocumentChange.class);
+        Mockito.when(change.getType()).thenReturn(type);
+        Mockito.when(change.getDocument()).thenReturn(doc);
+        return change;
+    }
+
     /**
      * Convenience method to build an {@link ArrayList} from varargs.
      */
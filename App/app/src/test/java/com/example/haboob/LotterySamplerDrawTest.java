@@ -0,0 +1,264 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Transaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LotterySampler}'s transactional draws ({@code drawLottery},
+ * {@code fillVacancies}, {@code cancelAndRefill}) against a mocked Firestore whose transactions
+ * run immediately on a mocked {@link Transaction}.
+ */
+public class LotterySamplerDrawTest {
+
+    private FirebaseFirestore mockDb;
+    private DocumentReference mockDocRef;
+    private Transaction mockTransaction;
+    private NotificationManager mockNm;
+    private LotterySampler sampler;
+
+    /** Server-side copy of the event document's entrant arrays. */
+    private final Map<String, Object> serverFields = new HashMap<>();
+    /** Fields written by the transaction's update, in field -> value form. */
+    private final Map<String, Object> committed = new HashMap<>();
+
+    private List<String> drawn;
+    private Exception error;
+
+    private final LotterySampler.OnLotteryDrawnListener recorder = new LotterySampler.OnLotteryDrawnListener() {
+        @Override
+        public void onLotteryDrawn(List<String> selectedEntrants) {
+            drawn = selectedEntrants;
+        }
+
+        @Override
+        public void onError(Exception e) {
+            error = e;
+        }
+    };
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        EventDocumentCache.clear();
+        EventDocumentCache.put("E1", "doc1");
+
+        mockDb = Mockito.mock(FirebaseFirestore.class);
+        CollectionReference events = Mockito.mock(CollectionReference.class);
+        mockDocRef = Mockito.mock(DocumentReference.class);
+        Mockito.when(mockDb.collection("events")).thenReturn(events);
+        Mockito.when(events.document("doc1")).thenReturn(mockDocRef);
+
+        DocumentSnapshot snapshot = Mockito.mock(DocumentSnapshot.class);
+        Mockito.when(snapshot.get(Mockito.anyString())).thenAnswer(inv -> serverFields.get(inv.getArgument(0)));
+
+        mockTransaction = Mockito.mock(Transaction.class);
+        Mockito.when(mockTransaction.get(mockDocRef)).thenReturn(snapshot);
+        Mockito.when(mockTransaction.update(Mockito.eq(mockDocRef), Mockito.anyMap())).thenAnswer(inv -> {
+            committed.putAll((Map<String, Object>) inv.getArgument(1));
+            return mockTransaction;
+        });
+
+        Mockito.when(mockDb.runTransaction(Mockito.any())).thenAnswer(inv -> {
+            Transaction.Function<Object> function = inv.getArgument(0);
+            try {
+                return completedTask(function.apply(mockTransaction), null);
+            } catch (Exception e) {
+                return completedTask(null, e);
+            }
+        });
+
+        mockNm = Mockito.mock(NotificationManager.class);
+        sampler = new LotterySampler(mockNm, mockDb);
+    }
+
+    @After
+    public void tearDown() {
+        EventDocumentCache.clear();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void draw_movesSelectedEntrantsInOneUpdate() throws Exception {
+        serverFields.put("waitingEntrants", ids("w", 10));
+        Event event = event(3, ids("w", 10));
+
+        sampler.drawLottery(event, recorder);
+
+        assertNull(error);
+        assertEquals(3, drawn.size());
+        Mockito.verify(mockTransaction, Mockito.times(1)).get(mockDocRef);
+
+        List<String> committedWaiting = (List<String>) committed.get("waitingEntrants");
+        List<String> committedInvited = (List<String>) committed.get("invitedEntrants");
+        assertEquals(7, committedWaiting.size());
+        assertEquals(drawn, committedInvited);
+        for (String id : drawn) assertFalse(committedWaiting.contains(id));
+
+        // Local copy now matches what was committed
+        assertEquals(committedWaiting, event.getWaitingEntrants());
+        assertEquals(committedInvited, event.getInvitedEntrants());
+        Mockito.verify(mockNm, Mockito.times(2))
+                .sendBulk(Mockito.any(), Mockito.any(), Mockito.any(Notification.class), Mockito.isNull());
+    }
+
+    @Test
+    public void draw_samplesFromServerListsNotLocalCopy() {
+        serverFields.put("waitingEntrants", new ArrayList<>(Arrays.asList("s1", "s2")));
+        serverFields.put("invitedEntrants", new ArrayList<>(Arrays.asList("i1")));
+        Event event = event(5, new ArrayList<>(Arrays.asList("stale")));
+
+        sampler.drawLottery(event, recorder);
+
+        assertNull(error);
+        assertTrue(drawn.containsAll(Arrays.asList("s1", "s2")));
+        assertEquals(Arrays.asList("i1", drawn.get(0), drawn.get(1)), event.getInvitedEntrants());
+        assertTrue(event.getWaitingEntrants().isEmpty());
+    }
+
+    @Test
+    public void draw_fullEvent_failsWithoutWriting() {
+        serverFields.put("waitingEntrants", ids("w", 5));
+        serverFields.put("enrolledEntrants", ids("e", 2));
+        Event event = event(2, ids("w", 5));
+
+        sampler.drawLottery(event, recorder);
+
+        assertNull(drawn);
+        assertNotNull(error);
+        assertEquals("Lottery sample size must be greater than 0", error.getMessage());
+        assertTrue(committed.isEmpty());
+        assertEquals(5, event.getWaitingEntrants().size());
+        Mockito.verifyNoInteractions(mockNm);
+    }
+
+    @Test
+    public void draw_emptyWaitlist_failsWithoutWriting() {
+        Event event = event(2, new ArrayList<>());
+
+        sampler.drawLottery(event, recorder);
+
+        assertEquals("Event has no entrants to sample from", error.getMessage());
+        assertTrue(committed.isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void fillVacancies_drawsAllReplacementsInOneUpdateAndOneBulkSend() throws Exception {
+        serverFields.put("waitingEntrants", ids("w", 100));
+        serverFields.put("invitedEntrants", ids("i", 3));
+        Event event = event(10, ids("w", 100));
+
+        sampler.fillVacancies(event, 50, recorder);
+
+        assertNull(error);
+        assertEquals(50, drawn.size());
+        Mockito.verify(mockTransaction, Mockito.times(1)).get(mockDocRef);
+        Mockito.verify(mockTransaction, Mockito.times(1)).update(Mockito.eq(mockDocRef), Mockito.anyMap());
+        assertEquals(50, ((List<String>) committed.get("waitingEntrants")).size());
+        assertEquals(53, ((List<String>) committed.get("invitedEntrants")).size());
+        assertEquals(53, event.getInvitedEntrants().size());
+        Mockito.verify(mockNm, Mockito.times(1))
+                .sendBulk(Mockito.eq(drawn), Mockito.eq("org1"), Mockito.any(Notification.class), Mockito.isNull());
+        Mockito.verify(mockNm, Mockito.never()).sendToUser(Mockito.any());
+    }
+
+    @Test
+    public void fillVacancies_shortWaitlist_invitesEveryone() {
+        serverFields.put("waitingEntrants", ids("w", 2));
+        Event event = event(10, ids("w", 2));
+
+        sampler.fillVacancies(event, 5, recorder);
+
+        assertEquals(2, drawn.size());
+        assertTrue(event.getWaitingEntrants().isEmpty());
+    }
+
+    @Test
+    public void fillVacancies_emptyWaitlist_writesNothing() {
+        Event event = event(10, new ArrayList<>());
+
+        sampler.fillVacancies(event, 3, recorder);
+
+        assertNull(error);
+        assertTrue(drawn.isEmpty());
+        Mockito.verify(mockTransaction, Mockito.never()).update(Mockito.any(DocumentReference.class), Mockito.anyMap());
+        Mockito.verifyNoInteractions(mockNm);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void cancelAndRefill_movesCancelledAndReplacementsTogether() throws Exception {
+        serverFields.put("waitingEntrants", ids("w", 10));
+        serverFields.put("invitedEntrants", ids("i", 4));
+        Event event = event(4, ids("w", 10));
+
+        // "w0" is not invited, so only two places open up
+        sampler.cancelAndRefill(event, Arrays.asList("i1", "i3", "w0"), recorder);
+
+        assertNull(error);
+        assertEquals(2, drawn.size());
+        Mockito.verify(mockTransaction, Mockito.times(1)).update(Mockito.eq(mockDocRef), Mockito.anyMap());
+
+        List<String> invited = (List<String>) committed.get("invitedEntrants");
+        assertEquals(Arrays.asList("i0", "i2", drawn.get(0), drawn.get(1)), invited);
+        assertEquals(Arrays.asList("i1", "i3"), committed.get("cancelledEntrants"));
+        assertEquals(8, ((List<String>) committed.get("waitingEntrants")).size());
+        assertEquals(Arrays.asList("i1", "i3"), event.getCancelledEntrants());
+        assertEquals(invited, event.getInvitedEntrants());
+    }
+
+        @Test(expected = IllegalArgumentException.class)
+    public void draw_nullEvent_throws() {
+        sampler.drawLottery(null, recorder);
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static Event event(int sampleSize, ArrayList<String> localWaiting) {
+        Event e = new Event(true);
+        e.setEventID("E1");
+        e.setOrganizer("org1");
+        e.setLotterySampleSize(sampleSize);
+        e.setWaitingEntrants(localWaiting);
+        return e;
+    }
+
+    private static ArrayList<String> ids(String prefix, int count) {
+        ArrayList<String> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) out.add(prefix + i);
+        return out;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Task<Object> completedTask(Object result, Exception failure) {
+        Task<Object> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(inv -> {
+            if (failure == null) ((OnSuccessListener<Object>) inv.getArgument(0)).onSuccess(result);
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any(OnFailureListener.class))).thenAnswer(inv -> {
+            if (failure != null) ((OnFailureListener) inv.getArgument(0)).onFailure(failure);
+            return task;
+        });
+        return task;
+    }
+}
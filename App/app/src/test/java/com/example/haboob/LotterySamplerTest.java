@@ -168,4 +168,15 @@ public class LotterySamplerTest {
         assertTrue(event.getInvitedEntrants().contains(selected));
         assertFalse(event.getWaitingEntrants().contains(selected));
     }
+
+    @Test
+    public void forEvent_refillsWithTheEventsStrategy() {
+        // Always picks the last entrant on the waiting list
+        event.useSamplingStrategy((entrants, k) -> List.of(entrants.get(entrants.size() - 1)));
+
+        String selected = LotterySampler.forEvent(event, nm).fillVacancyFromWaitlist(event);
+
+        assertEquals("user5", selected);
+        assertTrue(event.getInvitedEntrants().contains("user5"));
+    }
 }
@@ -0,0 +1,257 @@
+package com.example.haboob;
+
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link LotteryScheduler} with a fake clock, a mocked timer whose wake-ups are
+ * fired by hand, and a draw runner whose draws are completed by hand.
+ */
+public class LotterySchedulerTest {
+
+    private long now = 0;
+    private LotteryScheduler scheduler;
+
+    /** Timer tasks in scheduling order; cancelled ones are removed. */
+    private final List<Runnable> timerTasks = new ArrayList<>();
+    private final List<Long> timerDelays = new ArrayList<>();
+
+    /** Started draws, in start order. */
+    private final List<String> started = new ArrayList<>();
+    private final List<LotterySampler.OnLotteryDrawnListener> running = new ArrayList<>();
+
+    private final List<LotteryScheduler.Outcome> outcomes = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        ScheduledExecutorService timer = Mockito.mock(ScheduledExecutorService.class);
+        Mockito.when(timer.schedule(Mockito.any(Runnable.class), Mockito.anyLong(), Mockito.eq(TimeUnit.MILLISECONDS)))
+                .thenAnswer(inv -> {
+                    Runnable task = inv.getArgument(0);
+                    timerTasks.add(task);
+                    timerDelays.add(inv.getArgument(1));
+                    ScheduledFuture<Object> future = Mockito.mock(ScheduledFuture.class);
+                    Mockito.when(future.cancel(Mockito.anyBoolean())).thenAnswer(c -> timerTasks.remove(task));
+                    return future;
+                });
+
+        scheduler = new LotteryScheduler((event, listener) -> {
+            started.add(event.getEventID());
+            running.add(listener);
+        }, timer, () -> now, 2);
+        scheduler.setOnDrawFinishedListener((eventID, outcome, latencyMs, lagMs, error) -> outcomes.add(outcome));
+    }
+
+    @Test
+    public void draws_startInCloseTimeOrder_whenDue() {
+        scheduler.schedule(event("E2", 200));
+        scheduler.schedule(event("E1", 100));
+
+        assertEquals(2, scheduler.getQueueDepth());
+        assertEquals(Long.valueOf(100), last(timerDelays));
+
+        now = 150;
+        fireTimer();
+        assertEquals(Collections.singletonList("E1"), started);
+        assertEquals(1, scheduler.getQueueDepth());
+
+        running.get(0).onLotteryDrawn(new ArrayList<>());
+        // Timer re-armed for E2's close time
+        assertEquals(Long.valueOf(50), last(timerDelays));
+
+        now = 200;
+        fireTimer();
+        assertEquals(Arrays.asList("E1", "E2"), started);
+        assertEquals(0, scheduler.getQueueDepth());
+    }
+
+    @Test
+    public void concurrency_isBounded() {
+        for (int i = 0; i < 5; i++) scheduler.schedule(event("E" + i, 100));
+        now = 100;
+        fireTimer();
+
+        assertEquals(2, started.size());
+        assertEquals(2, scheduler.getInFlightCount());
+        assertEquals(3, scheduler.getQueueDepth());
+        // No timer needed while every slot is taken
+        assertTrue(timerTasks.isEmpty());
+
+        running.get(0).onLotteryDrawn(new ArrayList<>());
+        assertEquals(3, started.size());
+        assertEquals(2, scheduler.getInFlightCount());
+
+        running.get(1).onError(new Exception("offline"));
+        running.get(2).onLotteryDrawn(new ArrayList<>());
+        running.get(3).onLotteryDrawn(new ArrayList<>());
+        running.get(4).onLotteryDrawn(new ArrayList<>());
+
+        assertEquals(Arrays.asList("E0", "E1", "E2", "E3", "E4"), started);
+        assertEquals(0, scheduler.getInFlightCount());
+        assertEquals(4, scheduler.getDrawnCount());
+        assertEquals(1, scheduler.getFailedCount());
+        assertEquals(5, scheduler.getMaxQueueDepth());
+    }
+
+    @Test
+    public void draw_neverRunsTwice() {
+        Event e = event("E1", 100);
+        scheduler.schedule(e);
+        now = 100;
+        fireTimer();
+
+        // A live-sync update for the same event while its draw runs, and after it finished
+        scheduler.schedule(e);
+        running.get(0).onError(new LotterySampler.LotteryAlreadyDrawnException());
+        scheduler.schedule(e);
+
+        assertEquals(0, scheduler.getQueueDepth());
+        assertTrue(timerTasks.isEmpty());
+        assertEquals(Collections.singletonList("E1"), started);
+        assertEquals(Collections.singletonList(LotteryScheduler.Outcome.ALREADY_DRAWN), outcomes);
+        assertEquals(1, scheduler.getAlreadyDrawnCount());
+    }
+
+    @Test
+    public void transientFailure_isRetriedAfterABackoff() {
+        Event e = event("E1", 100);
+        scheduler.schedule(e);
+        now = 100;
+        fireTimer();
+
+        running.get(0).onError(new FirebaseFirestoreException("contended",
+                FirebaseFirestoreException.Code.ABORTED));
+        assertEquals(1, scheduler.getQueueDepth());
+        assertEquals(Long.valueOf(LotteryScheduler.RETRY_BACKOFF_MS), last(timerDelays));
+
+        // A live-sync update does not skip the backoff
+        scheduler.schedule(e);
+        assertEquals(Long.valueOf(LotteryScheduler.RETRY_BACKOFF_MS), last(timerDelays));
+
+        now = 100 + LotteryScheduler.RETRY_BACKOFF_MS;
+        fireTimer();
+        assertEquals(Arrays.asList("E1", "E1"), started);
+
+        running.get(1).onError(new Exception("offline"));
+        assertEquals(Long.valueOf(2 * LotteryScheduler.RETRY_BACKOFF_MS), last(timerDelays));
+        now += 2 * LotteryScheduler.RETRY_BACKOFF_MS;
+        fireTimer();
+        running.get(2).onLotteryDrawn(new ArrayList<>());
+
+        scheduler.schedule(e);
+        assertEquals(0, scheduler.getQueueDepth());
+        assertEquals(1, scheduler.getDrawnCount());
+        assertEquals(2, scheduler.getFailedCount());
+    }
+
+    @Test
+    public void failedPrecondition_isNotRetried() {
+        Event e = event("E1", 100);
+        scheduler.schedule(e);
+        now = 100;
+        fireTimer();
+
+        running.get(0).onError(new FirebaseFirestoreException("Event has no entrants to sample from",
+                FirebaseFirestoreException.Code.FAILED_PRECONDITION));
+        scheduler.schedule(e);
+
+        assertEquals(0, scheduler.getQueueDepth());
+        assertTrue(timerTasks.isEmpty());
+        assertEquals(Collections.singletonList(LotteryScheduler.Outcome.FAILED), outcomes);
+    }
+
+    @Test
+    public void drawnEvents_andLongClosedEvents_areIgnored() {
+        Event drawn = event("E1", 100);
+        drawn.setLotteryDrawnAt(new Date(90));
+        now = LotteryScheduler.MAX_CATCH_UP_MS + 1_000;
+
+        scheduler.schedule(drawn);
+        scheduler.schedule(event("OLD", 500));
+        scheduler.schedule(event("RECENT", 5_000));
+
+        assertEquals(1, scheduler.getQueueDepth());
+        fireTimer();
+        assertEquals(Collections.singletonList("RECENT"), started);
+    }
+
+    @Test
+    public void changedCloseTime_movesTheDraw() {
+        Event e = event("E1", 100);
+        scheduler.schedule(e);
+        e.setRegistrationEndDate(new Date(300));
+        scheduler.schedule(e);
+
+        assertEquals(1, scheduler.getQueueDepth());
+        assertEquals(1, timerTasks.size());
+        assertEquals(Long.valueOf(300), last(timerDelays));
+
+        scheduler.unschedule("E1");
+        assertEquals(0, scheduler.getQueueDepth());
+        assertTrue(timerTasks.isEmpty());
+    }
+
+    @Test
+    public void latencyAndLag_areRecorded() {
+        scheduler.schedule(event("E1", 100));
+        now = 150;
+        fireTimer();
+        now = 170;
+        running.get(0).onLotteryDrawn(new ArrayList<>());
+
+        assertEquals(20, scheduler.getAverageLatencyMs());
+        assertEquals(20, scheduler.getMaxLatencyMs());
+        assertEquals(50, scheduler.getAverageLagMs());
+    }
+
+    @Test
+    public void attachTo_schedulesOnlyTheOrganizersEvents() {
+        EventsList list = new EventsList(true);
+        Event mine = event("MINE", 100);
+        mine.setOrganizer("org1");
+        Event theirs = event("THEIRS", 100);
+        theirs.setOrganizer("org2");
+        list.getEventsList().add(mine);
+        list.getEventsList().add(theirs);
+
+        scheduler.attachTo(list, "org1");
+        now = 100;
+        fireTimer();
+
+        assertEquals(Collections.singletonList("MINE"), started);
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static Event event(String id, long closesAt) {
+        Event e = new Event(true);
+        e.setEventID(id);
+        e.setRegistrationEndDate(new Date(closesAt));
+        return e;
+    }
+
+    private void fireTimer() {
+        assertFalse("timer should be armed", timerTasks.isEmpty());
+        Runnable task = timerTasks.remove(timerTasks.size() - 1);
+        task.run();
+    }
+
+    private static <T> T last(List<T> items) {
+        return items.get(items.size() - 1);
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.WriteBatch;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link NotificationManager#sendBulk} and {@link NotificationManager#sendToList}
+ * against a mocked Firestore whose batches commit immediately. Document references are mocked
+ * per path so writes can be counted.
+ */
+public class NotificationManagerBulkTest {
+
+    private FirebaseFirestore mockDb;
+    private NotificationManager manager;
+
+    /** Every batch created, in order. */
+    private final List<WriteBatch> batches = new ArrayList<>();
+    /** Paths written, in order, as "users/{id}/{subcollection}". */
+    private final List<String> writtenPaths = new ArrayList<>();
+    /** Index of the batch whose commit should fail, or -1. */
+    private int failingBatch = -1;
+
+    private final List<Integer> sentChunks = new ArrayList<>();
+    private final List<Integer> failedChunks = new ArrayList<>();
+    private final int[] totals = {-1, -1};
+
+    private final NotificationManager.BulkSendCallback recorder = new NotificationManager.BulkSendCallback() {
+        @Override
+        public void onChunkSent(int chunkIndex, List<String> recipientIds) {
+            sentChunks.add(chunkIndex);
+        }
+
+        @Override
+        public void onChunkFailed(int chunkIndex, List<String> recipientIds, Exception e) {
+            failedChunks.add(chunkIndex);
+        }
+
+        @Override
+        public void onComplete(int sentCount, int failedCount) {
+            totals[0] = sentCount;
+            totals[1] = failedCount;
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mockDb = Mockito.mock(FirebaseFirestore.class);
+
+        CollectionReference users = Mockito.mock(CollectionReference.class);
+        Mockito.when(mockDb.collection("users")).thenReturn(users);
+        Mockito.when(users.document(Mockito.anyString())).thenAnswer(userInv -> {
+            String userId = userInv.getArgument(0);
+            DocumentReference userDoc = Mockito.mock(DocumentReference.class);
+            Mockito.when(userDoc.collection(Mockito.anyString())).thenAnswer(subInv -> {
+                CollectionReference sub = Mockito.mock(CollectionReference.class);
+                DocumentReference leaf = Mockito.mock(DocumentReference.class);
+                Mockito.when(leaf.getPath()).thenReturn("users/" + userId + "/" + subInv.getArgument(0));
+                Mockito.when(sub.document(Mockito.anyString())).thenReturn(leaf);
+                return sub;
+            });
+            return userDoc;
+        });
+
+        Mockito.when(mockDb.batch()).thenAnswer(inv -> newBatch(batches.size()));
+        manager = new NotificationManager(mockDb);
+    }
+
+    @Test
+    public void largeList_isSplitIntoBatchesOfAtMost500Writes() {
+        List<String> recipients = recipients(1200);
+
+        int batchCount = manager.sendBulk(recipients, "org1", notification(), recorder);
+
+        // 1200 notifications + 1 log write = 1201 writes -> 500, 500, 201
+        assertEquals(3, batchCount);
+        assertEquals(3, batches.size());
+        assertEquals(1201, writtenPaths.size());
+        assertEquals(Arrays.asList(0, 1, 2), sentChunks);
+        assertEquals(1200, totals[0]);
+        assertEquals(0, totals[1]);
+        for (WriteBatch batch : batches) {
+            Mockito.verify(batch, Mockito.atMost(NotificationManager.MAX_BATCH_WRITES))
+                    .set(Mockito.any(DocumentReference.class), Mockito.any());
+        }
+    }
+
+    @Test
+    public void organizerLog_isWrittenOncePerBroadcast() {
+        manager.sendBulk(recipients(1200), "org1", notification(), recorder);
+
+        int logWrites = 0;
+        for (String path : writtenPaths) {
+            if (path.equals("users/org1/sentNotifications")) logWrites++;
+        }
+        assertEquals(1, logWrites);
+        assertEquals("users/org1/sentNotifications", writtenPaths.get(0));
+    }
+
+    @Test
+    public void failedChunk_isReportedWithoutStoppingOthers() {
+        failingBatch = 1;
+
+        manager.sendBulk(recipients(1200), "org1", notification(), recorder);
+
+        assertEquals(Arrays.asList(0, 2), sentChunks);
+        assertEquals(Arrays.asList(1), failedChunks);
+        assertEquals(499 + 201, totals[0]);
+        assertEquals(500, totals[1]);
+    }
+
+    @Test
+    public void invalidAndDuplicateRecipients_areSkipped() {
+        List<String> recipients = new ArrayList<>(Arrays.asList("u1", null, " ", Notification.DEFAULT_RECIPIENT_ID, "u1", "u2"));
+
+        manager.sendBulk(recipients, "org1", notification(), recorder);
+
+        assertEquals(Arrays.asList(
+                "users/org1/sentNotifications",
+                "users/u1/notifications",
+                "users/u2/notifications"), writtenPaths);
+        assertEquals(2, totals[0]);
+    }
+
+    @Test
+    public void emptyList_writesNothing() {
+        assertEquals(0, manager.sendBulk(new ArrayList<>(), "org1", notification(), recorder));
+        assertEquals(0, manager.sendBulk(recipients(3), "org1", null, recorder));
+
+        Mockito.verify(mockDb, Mockito.never()).batch();
+        assertEquals(0, totals[0]);
+    }
+
+    @Test
+    public void sendToList_sendsOneBatch() {
+        manager.sendToList(new ArrayList<>(Arrays.asList("u1", "u2")), "org1", notification());
+
+        assertEquals(1, batches.size());
+        assertEquals(Arrays.asList(
+                "users/org1/sentNotifications",
+                "users/u1/notifications",
+                "users/u2/notifications"), writtenPaths);
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static Notification notification() {
+        return new Notification("event1", "org1", "Hello");
+    }
+
+    private static List<String> recipients(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) ids.add("user" + i);
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private WriteBatch newBatch(int index) {
+        WriteBatch batch = Mockito.mock(WriteBatch.class);
+        Mockito.when(batch.set(Mockito.any(DocumentReference.class), Mockito.any())).thenAnswer(inv -> {
+            writtenPaths.add(((DocumentReference) inv.getArgument(0)).getPath());
+            return batch;
+        });
+
+        Task<Void> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(inv -> {
+            if (index != failingBatch) ((OnSuccessListener<Void>) inv.getArgument(0)).onSuccess(null);
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any(OnFailureListener.class))).thenAnswer(inv -> {
+            if (index == failingBatch) ((OnFailureListener) inv.getArgument(0)).onFailure(new Exception("commit failed"));
+            return task;
+        });
+        Mockito.when(batch.commit()).thenReturn(task);
+
+        batches.add(batch);
+        return batch;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.haboob;
+
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.GeoPoint;
+import com.google.firebase.firestore.Query;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link OfflineStore}: file round trips through a temporary directory with
+ * executors that run inline, and the notification watermark merge.
+ */
+public class OfflineStoreTest {
+
+    /** Delay between a test notification's creation and the server storing it, in ms. */
+    private static final long RECEIVED_LAG = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dir;
+    private OfflineStore store;
+
+    @Before
+    public void setUp() {
+        dir = new File(folder.getRoot(), OfflineStore.DIRECTORY);
+        store = new OfflineStore(dir, Runnable::run, Runnable::run, () -> new Event(true));
+    }
+
+    @Test
+    public void events_roundTrip_withListsPosterAndMissingDates() {
+        Event e = new Event(true);
+        e.setEventID("E1");
+        e.setOrganizer("org");
+        e.setEventTitle("Swim lessons");
+        e.setEventDescription("Beginner ✓ class");
+        e.setRegistrationStartDate(new Date(1_000));
+        e.setLotterySampleSize(10);
+        e.setOptionalWaitingListSize(-1);
+        e.setGeoLocationRequired(true);
+        e.restorePoster(new Poster("https://example.com/p.jpg"));
+        e.setQRCode(new QRCode("E1"));
+        e.setTags(new ArrayList<>(Arrays.asList("sports", "kids")));
+        e.setWaitingEntrants(new ArrayList<>(Arrays.asList("u1", "u2")));
+        e.setInvitedEntrantsList(new ArrayList<>(Collections.singletonList("u3")));
+        e.setEntrantLocations(new ArrayList<>(Collections.singletonList(new GeoPoint(53.5, -113.5))));
+
+        store.saveEvents("device", Collections.singletonList(e));
+        Event loaded = loadEvents("device").get(0);
+
+        assertEquals("E1", loaded.getEventID());
+        assertEquals("org", loaded.getOrganizer());
+        assertEquals("Swim lessons", loaded.getEventTitle());
+        assertEquals("Beginner ✓ class", loaded.getEventDescription());
+        assertEquals(new Date(1_000), loaded.getRegistrationStartDate());
+        assertNull(loaded.getRegistrationEndDate());
+        assertNull(loaded.getLotteryDrawnAt());
+        assertTrue(loaded.getGeoLocationRequired());
+        assertEquals(10, loaded.getLotterySampleSize());
+        assertEquals(-1, loaded.getOptionalWaitingListSize());
+        assertEquals("https://example.com/p.jpg", loaded.getPoster().getData());
+        assertEquals("E1", loaded.getQRCode().getEventID());
+        assertEquals(Arrays.asList("sports", "kids"), loaded.getTags());
+        assertEquals(Arrays.asList("u1", "u2"), new ArrayList<>(loaded.getWaitingEntrants()));
+        assertEquals(EntrantStatus.INVITED, loaded.getStatus("u3"));
+        assertTrue(loaded.getWaitingEntrants() instanceof EntrantSet);
+        assertEquals(53.5, loaded.getEntrantLocations().get(0).getLatitude(), 0);
+        assertEquals(-113.5, loaded.getEntrantLocations().get(0).getLongitude(), 0);
+    }
+
+    @Test
+    public void saveEvents_copiesTheEventsWhenCalled() {
+        Event e = new Event(true);
+        e.setEventTitle("Before");
+        store.saveEvents("device", Collections.singletonList(e));
+        e.setEventTitle("After");
+
+        assertEquals("Before", loadEvents("device").get(0).getEventTitle());
+    }
+
+    @Test
+    public void nothingCached_loadsNull_andUsersAreKeptApart() {
+        store.saveProfile("a", profile("Ann"));
+
+        assertNull(loadProfile("b"));
+        assertNull(loadEvents("a"));
+        assertEquals("Ann", loadProfile("a").get("first_name"));
+    }
+
+    @Test
+    public void profile_keepsOnlyProfileFields() {
+        Map<String, String> fields = profile("Ann");
+        fields.put("device_id", "a");
+
+        store.saveProfile("a", fields);
+
+        Map<String, String> loaded = loadProfile("a");
+        assertEquals("Ann", loaded.get("first_name"));
+        assertEquals("Entrant", loaded.get("account_type"));
+        assertFalse(loaded.containsKey("device_id"));
+    }
+
+    @Test
+    public void otherVersionOrTruncatedFile_isAMiss_andIsDeleted() throws IOException {
+        store.saveProfile("a", profile("Ann"));
+        File file = dir.listFiles()[0];
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(OfflineStore.MAGIC);
+            out.writeInt(OfflineStore.FORMAT_VERSION + 1);
+        }
+        assertNull(loadProfile("a"));
+        assertFalse(file.exists());
+
+        store.saveProfile("a", profile("Ann"));
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(OfflineStore.MAGIC);
+            out.writeInt(OfflineStore.FORMAT_VERSION);
+            out.writeInt(3);
+        }
+        assertNull(loadProfile("a"));
+    }
+
+    @Test
+    public void clear_dropsEverySection() {
+        store.saveProfile("a", profile("Ann"));
+        store.saveNotifications("a", Collections.singletonList(notification("n1", 10)));
+
+        store.clear("a");
+
+        assertNull(loadProfile("a"));
+        assertNull(loadNotifications("a"));
+    }
+
+    @Test
+    public void notifications_roundTrip_andMergeNewerOnesByWatermark() {
+        Notification read = notification("n1", 10);
+        read.setRead(true);
+        store.saveNotifications("a", Arrays.asList(notification("n2", 20), read));
+
+        List<Notification> cached = loadNotifications("a");
+        assertEquals(2, cached.size());
+        assertEquals("n2", cached.get(0).getNotificationId());
+        assertEquals("won_lottery", cached.get(0).getType());
+        assertTrue(cached.get(1).isRead());
+        assertEquals(new Date(20 + RECEIVED_LAG), OfflineStore.newestReceivedAt(cached));
+        assertNull(OfflineStore.newestReceivedAt(null));
+
+        // Fetched from the watermark: n2 again, plus n3
+        List<Notification> merged = OfflineStore.mergeNotifications(cached,
+                Arrays.asList(notification("n3", 30), notification("n2", 20)));
+
+        assertEquals(3, merged.size());
+        assertEquals("n3", merged.get(0).getNotificationId());
+        assertEquals("n2", merged.get(1).getNotificationId());
+        assertEquals("n1", merged.get(2).getNotificationId());
+    }
+
+    @Test
+    public void saveNotifications_keepsTheNewest() {
+        List<Notification> many = new ArrayList<>();
+        for (int i = OfflineStore.MAX_NOTIFICATIONS + 5; i > 0; i--) {
+            many.add(notification("n" + i, i));
+        }
+
+        store.saveNotifications("a", many);
+
+        List<Notification> cached = loadNotifications("a");
+        assertEquals(OfflineStore.MAX_NOTIFICATIONS, cached.size());
+        assertEquals(new Date(OfflineStore.MAX_NOTIFICATIONS + 5 + RECEIVED_LAG), OfflineStore.newestReceivedAt(cached));
+    }
+
+    @Test
+    public void watermark_comesFromTheServer_notTheSendersClock() {
+        Notification late = notification("n1", 50);
+        // Sent from a device whose clock is an hour behind
+        Notification skewed = notification("n2", 60);
+        skewed.setTimeCreated(new Date(60 - 3_600_000L));
+        Notification legacy = notification("n0", 10);
+        legacy.setReceivedAt(null);
+
+        assertEquals(new Date(60 + RECEIVED_LAG),
+                OfflineStore.newestReceivedAt(Arrays.asList(late, skewed, legacy)));
+        assertNull(OfflineStore.newestReceivedAt(Collections.singletonList(legacy)));
+    }
+
+    @Test
+    public void getUserNotificationsSince_queriesFromTheWatermark() {
+        FirebaseFirestore db = Mockito.mock(FirebaseFirestore.class, Mockito.RETURNS_DEEP_STUBS);
+        CollectionReference notifications = db.collection("users").document("a").collection("notifications");
+        NotificationManager manager = new NotificationManager(db);
+        NotificationManager.NotificationsCallback ignored = new NotificationManager.NotificationsCallback() {
+            @Override
+            public void onSuccess(ArrayList<Notification> list) {
+            }
+
+            @Override
+            public void onError(Exception e) {
+            }
+        };
+
+        manager.getUserNotificationsSince("a", new Date(20), ignored);
+        Mockito.verify(notifications).whereGreaterThanOrEqualTo("receivedAt", new Date(20));
+
+        manager.getUserNotificationsSince("a", null, ignored);
+        Mockito.verify(notifications).orderBy("timeCreated", Query.Direction.DESCENDING);
+    }
+
+    // -------------------- Helpers --------------------
+
+    private List<Event> loadEvents(String userId) {
+        List<List<Event>> result = new ArrayList<>();
+        store.loadEvents(userId, result::add);
+        return result.get(0);
+    }
+
+    private List<Notification> loadNotifications(String userId) {
+        List<List<Notification>> result = new ArrayList<>();
+        store.loadNotifications(userId, result::add);
+        return result.get(0);
+    }
+
+    private Map<String, String> loadProfile(String userId) {
+        List<Map<String, String>> result = new ArrayList<>();
+        store.loadProfile(userId, result::add);
+        return result.get(0);
+    }
+
+    private static Map<String, String> profile(String firstName) {
+        Map<String, String> profile = new HashMap<>();
+        profile.put("first_name", firstName);
+        profile.put("last_name", "Lee");
+        profile.put("account_type", "Entrant");
+        return profile;
+    }
+
+    /** Creates a notification the server received {@link #RECEIVED_LAG} after it was created. */
+    private static Notification notification(String id, long timeCreated) {
+        Notification n = new Notification("E1", "org", "a", "Message " + id, "won_lottery");
+        n.setNotificationId(id);
+        n.setTimeCreated(new Date(timeCreated));
+        n.setReceivedAt(new Date(timeCreated + RECEIVED_LAG));
+        return n;
+    }
+}
@@ -1,10 +1,20 @@
 package com.example.haboob;
 
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.FirebaseFirestore;
+
+import org.junit.After;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.junit.Assert.*;
 
@@ -17,13 +27,22 @@ import static org.junit.Assert.*;
  *   <li>All four list categories ("Waiting", "Invite", "Enrolled", "Cancelled") are included</li>
  *   <li>The mapping preserves references to the event’s lists (not copies)</li>
  *   <li>Empty lists are handled safely</li>
+ *   <li>Sharded lists are paged for display and read in full for bulk actions</li>
  * </ul>
  * <p>
  * This test class is located in <code>src/test/java/com/example/haboob/</code>
- * and runs entirely on the JVM (no Android or Firestore required).
+ * and runs entirely on the JVM; Firestore and {@link ShardedEntrantStore} are mocked.
  */
 public class OrganizerExpandableListsDataTest {
 
+    private FirebaseFirestore db;
+    private DocumentReference docRef;
+
+    @After
+    public void tearDown() {
+        EventDocumentCache.invalidate("E1");
+    }
+
     /**
      * Verifies that {@link OrganizerExpandableListsData#getListsToDisplay(Event)}
      * correctly populates all four lists with the expected keys and values.
@@ -98,4 +117,98 @@ public class OrganizerExpandableListsDataTest {
         assertEquals(1, map.get("Waiting list").size());
         assertEquals("w1", map.get("Waiting list").get(0));
     }
+
+    /**
+     * Pages of a sharded event's lists are appended to the display lists, while the event's
+     * own lists keep what they held.
+     */
+    @Test
+    public void pagedLists_appendPages_withoutTouchingTheEvent() {
+        Event e = shardedEvent();
+        ShardedEntrantStore store = Mockito.mock(ShardedEntrantStore.class);
+        ShardedEntrantStore.Pager pager = Mockito.mock(ShardedEntrantStore.Pager.class);
+        Mockito.when(store.pager(docRef, EntrantStatus.WAITING, 2)).thenReturn(pager);
+        List<List<String>> pages = Arrays.asList(Arrays.asList("w1", "w2"), Arrays.asList("w3"));
+        int[] page = {0};
+        Mockito.doAnswer(inv -> {
+            List<String> ids = pages.get(page[0]++);
+            ((ShardedEntrantStore.OnPageLoadedListener) inv.getArgument(0)).onPageLoaded(ids, ids.size() == 2);
+            return null;
+        }).when(pager).next(Mockito.any());
+
+        OrganizerExpandableListsData.PagedLists lists = new OrganizerExpandableListsData.PagedLists(db, e, 2, store);
+        List<String> loaded = new ArrayList<>();
+        OrganizerExpandableListsData.OnPageLoadedListener listener = new OrganizerExpandableListsData.OnPageLoadedListener() {
+            @Override
+            public void onPageLoaded(String title, boolean hasMore) {
+                loaded.add(title + " " + hasMore);
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                fail(ex.getMessage());
+            }
+        };
+
+        lists.loadMore(EntrantStatus.WAITING, listener);
+        lists.loadMore(EntrantStatus.WAITING, listener);
+
+        assertEquals(Arrays.asList("Waiting list true", "Waiting list false"), loaded);
+        assertEquals(Arrays.asList("w1", "w2", "w3"), lists.getLists().get("Waiting list"));
+        assertTrue(lists.getLists().get("Invite list").isEmpty());
+        Mockito.verify(store, Mockito.times(1)).pager(docRef, EntrantStatus.WAITING, 2);
+        assertEquals(Collections.singletonList("local"), e.getWaitingEntrants());
+    }
+
+    /**
+     * Bulk actions on a sharded event read every entrant from the store, keyed by list title.
+     */
+    @Test
+    public void loadAllLists_readsEveryShardedEntrant() {
+        Event e = shardedEvent();
+        ShardedEntrantStore store = Mockito.mock(ShardedEntrantStore.class);
+        Mockito.doAnswer(inv -> {
+            Map<EntrantStatus, List<String>> all = new EnumMap<>(EntrantStatus.class);
+            for (EntrantStatus status : EntrantStatus.values()) all.put(status, new ArrayList<>());
+            for (int i = 0; i < 250; i++) all.get(EntrantStatus.ENROLLED).add("en" + i);
+            ((ShardedEntrantStore.OnListsLoadedListener) inv.getArgument(1)).onListsLoaded(all);
+            return null;
+        }).when(store).loadLists(Mockito.eq(docRef), Mockito.any());
+
+        List<HashMap<String, ArrayList<String>>> result = new ArrayList<>();
+        OrganizerExpandableListsData.loadAllLists(db, e, store, new OrganizerExpandableListsData.OnListsLoadedListener() {
+            @Override
+            public void onListsLoaded(HashMap<String, ArrayList<String>> lists) {
+                result.add(lists);
+            }
+
+            @Override
+            public void onError(Exception ex) {
+                fail(ex.getMessage());
+            }
+        });
+
+        assertEquals(1, result.size());
+        assertEquals(250, result.get(0).get("Enrolled list").size());
+        assertTrue(result.get(0).get("Waiting list").isEmpty());
+        assertEquals(4, result.get(0).size());
+    }
+
+    // -------------------- Helpers --------------------
+
+    /** A sharded event whose document resolves from {@link EventDocumentCache} to {@link #docRef}. */
+    private Event shardedEvent() {
+        db = Mockito.mock(FirebaseFirestore.class);
+        CollectionReference events = Mockito.mock(CollectionReference.class);
+        docRef = Mockito.mock(DocumentReference.class);
+        Mockito.when(db.collection("events")).thenReturn(events);
+        Mockito.when(events.document("doc-E1")).thenReturn(docRef);
+        EventDocumentCache.put("E1", "doc-E1");
+
+        Event e = new Event(true);
+        e.setEventID("E1");
+        e.setShardedEntrants(true);
+        e.setWaitingEntrants(new ArrayList<>(Collections.singletonList("local")));
+        return e;
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the sizing rules of {@link PosterPreprocessor}.
+ */
+public class PosterPreprocessorTest {
+
+    @Test
+    public void sampleSize_keepsTheLongerSideAtLeastTheMaximum() {
+        // 12 MP camera photo, 4000 x 3000
+        assertEquals(2, PosterPreprocessor.sampleSizeFor(4000, 3000, 1600));
+        assertEquals(2, PosterPreprocessor.sampleSizeFor(3000, 4000, 1600));
+        assertEquals(4, PosterPreprocessor.sampleSizeFor(6400, 4800, 1600));
+    }
+
+    @Test
+    public void sampleSize_isOneForSmallImages() {
+        assertEquals(1, PosterPreprocessor.sampleSizeFor(1600, 1200, 1600));
+        assertEquals(1, PosterPreprocessor.sampleSizeFor(3199, 100, 1600));
+        assertEquals(1, PosterPreprocessor.sampleSizeFor(800, 600, 1600));
+    }
+
+    @Test
+    public void scaledSize_fitsTheLongerSide_keepingTheAspectRatio() {
+        assertArrayEquals(new int[] {1600, 1200}, PosterPreprocessor.scaledSize(2000, 1500, 1600));
+        assertArrayEquals(new int[] {900, 1600}, PosterPreprocessor.scaledSize(1800, 3200, 1600));
+    }
+
+    @Test
+    public void scaledSize_neverUpscales_orCollapsesToZero() {
+        assertArrayEquals(new int[] {800, 600}, PosterPreprocessor.scaledSize(800, 600, 1600));
+        assertArrayEquals(new int[] {1600, 1}, PosterPreprocessor.scaledSize(6400, 2, 1600));
+    }
+}
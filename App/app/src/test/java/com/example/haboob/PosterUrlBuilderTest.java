@@ -0,0 +1,50 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Cloudinary URL rewriting in {@link PosterUrlBuilder}.
+ */
+public class PosterUrlBuilderTest {
+
+    private static final String POSTER =
+            "https://res.cloudinary.com/demo/image/upload/v1712345678/haboob/poster.jpg";
+
+    @Test
+    public void croppedView_getsAFilledPosterOfItsSize() {
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_fill,g_auto,w_400,h_300,q_auto,f_auto/"
+                        + "v1712345678/haboob/poster.jpg",
+                PosterUrlBuilder.build(POSTER, 400, 300, true));
+    }
+
+    @Test
+    public void sizesAreRoundedUp_toShareCachedVariants() {
+        assertEquals(PosterUrlBuilder.build(POSTER, 300, 300, true),
+                PosterUrlBuilder.build(POSTER, 211, 240, true));
+    }
+
+    @Test
+    public void unknownHeight_fitsToTheWidthWithoutCropping() {
+        assertEquals("https://res.cloudinary.com/demo/image/upload/c_limit,w_1100,q_auto,f_auto/"
+                        + "v1712345678/haboob/poster.jpg",
+                PosterUrlBuilder.build(POSTER, 1080, 0, true));
+    }
+
+    @Test
+    public void unknownSize_stillGetsAutomaticQualityAndFormat() {
+        assertEquals("https://res.cloudinary.com/demo/image/upload/q_auto,f_auto/poster.jpg",
+                PosterUrlBuilder.build("https://res.cloudinary.com/demo/image/upload/poster.jpg", 0, 0, false));
+    }
+
+    @Test
+    public void otherUrls_andTransformedUrls_areUnchanged() {
+        String gif = "https://media.tenor.com/hG6eR9HM_fkAAAAM/the-simpsons-homer-simpson.gif";
+        String transformed = "https://res.cloudinary.com/demo/image/upload/w_200,c_fill/v1/poster.jpg";
+
+        assertEquals(gif, PosterUrlBuilder.build(gif, 400, 400, true));
+        assertEquals(transformed, PosterUrlBuilder.build(transformed, 400, 400, true));
+        assertNull(PosterUrlBuilder.build(null, 400, 400, true));
+    }
+}
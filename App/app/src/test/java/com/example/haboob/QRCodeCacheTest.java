@@ -0,0 +1,94 @@
+package com.example.haboob;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import com.google.zxing.common.BitMatrix;
+
+import org.junit.After;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link QRCodeCache} and the pixel conversion in {@link QRCode}, using mocked
+ * bitmaps of a given byte size.
+ */
+public class QRCodeCacheTest {
+
+    @After
+    public void tearDown() {
+        QRCodeCache.getInstance().clear();
+    }
+
+    @Test
+    public void toPixels_isRowMajor_blackForSetBits() {
+        BitMatrix matrix = new BitMatrix(3, 2);
+        matrix.set(2, 0);
+        matrix.set(0, 1);
+
+        int[] pixels = QRCode.toPixels(matrix);
+
+        assertArrayEquals(new int[] {
+                Color.WHITE, Color.WHITE, Color.BLACK,
+                Color.BLACK, Color.WHITE, Color.WHITE
+        }, pixels);
+    }
+
+    @Test
+    public void keysIncludeTheSize() {
+        QRCodeCache cache = new QRCodeCache(1000);
+        Bitmap small = bitmap(100);
+        cache.put("E1", 256, small);
+
+        assertSame(small, cache.get("E1", 256));
+        assertNull(cache.get("E1", 512));
+        assertNull(cache.get("E2", 256));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed_byByteSize() {
+        QRCodeCache cache = new QRCodeCache(1000);
+        cache.put("E1", 512, bitmap(400));
+        cache.put("E2", 512, bitmap(400));
+        cache.get("E1", 512);
+
+        cache.put("E3", 512, bitmap(400));
+
+        assertNotNull(cache.get("E1", 512));
+        assertNull(cache.get("E2", 512));
+        assertNotNull(cache.get("E3", 512));
+        assertEquals(800, cache.getSizeBytes());
+    }
+
+    @Test
+    public void bitmapLargerThanTheBudget_isNotKept_andKeepsTheRest() {
+        QRCodeCache cache = new QRCodeCache(1000);
+        cache.put("E1", 512, bitmap(400));
+
+        cache.put("E2", 2048, bitmap(4000));
+
+        assertNull(cache.get("E2", 2048));
+        assertNotNull(cache.get("E1", 512));
+    }
+
+    @Test
+    public void getBitmap_reusesACodeRenderedElsewhere() {
+        Bitmap rendered = bitmap(512 * 512 * 2);
+        QRCodeCache.getInstance().put("E1", 512, rendered);
+
+        QRCode qrCode = new QRCode("E1");
+
+        assertSame(rendered, qrCode.getBitmap(512));
+        assertSame(rendered, qrCode.getCachedBitmap());
+    }
+
+    private static Bitmap bitmap(int bytes) {
+        Bitmap bitmap = Mockito.mock(Bitmap.class);
+        Mockito.when(bitmap.getByteCount()).thenReturn(bytes);
+        return bitmap;
+    }
+}
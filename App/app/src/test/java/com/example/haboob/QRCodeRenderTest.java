@@ -0,0 +1,135 @@
+package com.example.haboob;
+
+import android.graphics.Bitmap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link QRCode#renderAsync}, with background and main executors that queue
+ * tasks to be run by hand and bitmaps created as mocks of the requested width.
+ */
+public class QRCodeRenderTest {
+
+    private final List<Runnable> background = new ArrayList<>();
+    private final List<Runnable> main = new ArrayList<>();
+    private final List<String> events = new ArrayList<>();
+    private MockedStatic<Bitmap> bitmaps;
+
+    @Before
+    public void setUp() {
+        bitmaps = Mockito.mockStatic(Bitmap.class);
+        bitmaps.when(() -> Bitmap.createBitmap(Mockito.anyInt(), Mockito.anyInt(), Mockito.any(Bitmap.Config.class)))
+                .thenAnswer(inv -> {
+                    int width = inv.getArgument(0);
+                    Bitmap bitmap = Mockito.mock(Bitmap.class);
+                    Mockito.when(bitmap.getWidth()).thenReturn(width);
+                    Mockito.when(bitmap.getByteCount()).thenReturn(width * width * 2);
+                    return bitmap;
+                });
+    }
+
+    @After
+    public void tearDown() {
+        bitmaps.close();
+        QRCodeCache.getInstance().clear();
+    }
+
+    @Test
+    public void deliversPlaceholderThenFullSize_onTheMainExecutor() {
+        QRCode qrCode = new QRCode("E1");
+        qrCode.renderAsync(512, background::add, main::add, recorder());
+
+        assertEquals(1, background.size());
+        assertTrue(main.isEmpty());
+        runAll(background);
+        assertTrue("nothing delivered off the main executor", events.isEmpty());
+
+        runAll(main);
+        assertEquals(Arrays.asList("placeholder " + QRCode.PLACEHOLDER_SIZE, "rendered 512"), events);
+        assertEquals(512, qrCode.getCachedBitmap().getWidth());
+    }
+
+    @Test
+    public void cachedCode_isDeliveredWithoutRendering() {
+        new QRCode("E1").getBitmap(512);
+
+        new QRCode("E1").renderAsync(512, background::add, main::add, recorder());
+
+        assertTrue(background.isEmpty());
+        runAll(main);
+        assertEquals(Arrays.asList("rendered 512"), events);
+    }
+
+    @Test
+    public void cancelBeforeRendering_skipsTheWork() {
+        QRCode.RenderTask task = new QRCode("E1").renderAsync(512, background::add, main::add, recorder());
+        task.cancel();
+
+        runAll(background);
+        runAll(main);
+
+        assertTrue(events.isEmpty());
+        assertNull(QRCodeCache.getInstance().get("E1", 512));
+    }
+
+    @Test
+    public void cancelAfterRendering_dropsPendingCallbacks() {
+        QRCode qrCode = new QRCode("E1");
+        QRCode.RenderTask task = qrCode.renderAsync(512, background::add, main::add, recorder());
+        runAll(background);
+
+        task.cancel();
+        runAll(main);
+
+        assertTrue(events.isEmpty());
+        assertNull(qrCode.getCachedBitmap());
+    }
+
+    @Test
+    public void missingEventId_isReportedAsAnError() {
+        new QRCode().renderAsync(512, background::add, main::add, recorder());
+
+        runAll(background);
+        runAll(main);
+
+        assertEquals(1, events.size());
+        assertTrue(events.get(0).startsWith("error"));
+    }
+
+    // -------------------- Helpers --------------------
+
+    private QRCode.OnQRCodeRenderedListener recorder() {
+        return new QRCode.OnQRCodeRenderedListener() {
+            @Override
+            public void onPlaceholder(Bitmap placeholder) {
+                events.add("placeholder " + placeholder.getWidth());
+            }
+
+            @Override
+            public void onRendered(Bitmap bitmap) {
+                events.add("rendered " + bitmap.getWidth());
+            }
+
+            @Override
+            public void onError(Exception e) {
+                events.add("error " + e.getMessage());
+            }
+        };
+    }
+
+    private static void runAll(List<Runnable> tasks) {
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+    }
+}
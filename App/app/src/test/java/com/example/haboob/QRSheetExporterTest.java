@@ -0,0 +1,165 @@
+package com.example.haboob;
+
+import com.google.zxing.common.BitMatrix;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RunnableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the page layout loop of {@link QRSheetExporter}, with an encoder pool that runs
+ * tasks inline and counts them, and a page writer that records what it is given.
+ */
+public class QRSheetExporterTest {
+
+    private final CountingExecutor encoders = new CountingExecutor();
+    private final List<String> pages = new ArrayList<>();
+    private final List<Integer> submittedWhenDrawn = new ArrayList<>();
+
+    @Test
+    public void fillsPagesInOrder_andFinishesAPartialLastPage() throws Exception {
+        List<Event> events = events(QRSheetExporter.CODES_PER_PAGE + 2);
+
+        int pageCount = exporter(3).writeSheets(events, recorder());
+
+        assertEquals(2, pageCount);
+        assertEquals(Arrays.asList(
+                "start 1", "0 Event 0", "1 Event 1", "2 Event 2", "3 Event 3", "4 Event 4", "5 Event 5", "finish",
+                "start 2", "0 Event 6", "1 Event 7", "finish"), pages);
+    }
+
+    @Test
+    public void exactlyFullPage_isFinishedOnce() throws Exception {
+        int pageCount = exporter(3).writeSheets(events(QRSheetExporter.CODES_PER_PAGE), recorder());
+
+        assertEquals(1, pageCount);
+        assertEquals(1, Collections.frequency(pages, "finish"));
+    }
+
+    @Test
+    public void encodesAtMostMaxInFlightAheadOfTheDrawnCode() throws Exception {
+        exporter(3).writeSheets(events(10), recorder());
+
+        assertEquals(10, encoders.submitted);
+        for (int drawn = 0; drawn < submittedWhenDrawn.size(); drawn++) {
+            assertTrue("submitted " + submittedWhenDrawn.get(drawn) + " before drawing " + drawn,
+                    submittedWhenDrawn.get(drawn) <= drawn + 3);
+        }
+    }
+
+    @Test
+    public void missingTitle_isCaptionedWithTheEventId() throws Exception {
+        Event event = new Event(true);
+        event.setEventID("E1");
+
+        exporter(1).writeSheets(Collections.singletonList(event), recorder());
+
+        assertEquals("0 E1", pages.get(1));
+    }
+
+    @Test
+    public void encodingFailure_stopsTheExport() {
+        encoders.failAt = 1;
+
+        try {
+            exporter(2).writeSheets(events(3), recorder());
+            fail("expected the encoding failure");
+        } catch (Exception expected) {
+            assertEquals("encoding failed", expected.getMessage());
+            assertEquals(Arrays.asList("start 1", "0 Event 0"), pages);
+        }
+    }
+
+    // -------------------- Helpers --------------------
+
+    private QRSheetExporter exporter(int maxInFlight) {
+        return new QRSheetExporter(encoders, Runnable::run, Runnable::run, maxInFlight);
+    }
+
+    private static List<Event> events(int count) {
+        List<Event> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Event event = new Event(true);
+            event.setEventID("E" + i);
+            event.setEventTitle("Event " + i);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private QRSheetExporter.PageWriter recorder() {
+        return new QRSheetExporter.PageWriter() {
+            @Override
+            public void startPage(int pageNumber) {
+                pages.add("start " + pageNumber);
+            }
+
+            @Override
+            public void drawCode(int slot, BitMatrix code, String caption) {
+                assertTrue(code.getWidth() > 0);
+                submittedWhenDrawn.add(encoders.submitted);
+                pages.add(slot + " " + caption);
+            }
+
+            @Override
+            public void finishPage() {
+                pages.add("finish");
+            }
+        };
+    }
+
+    /** Runs tasks on the calling thread and counts them, failing the one at {@code failAt}. */
+    private static class CountingExecutor extends AbstractExecutorService {
+        int submitted = 0;
+        int failAt = -1;
+
+        @Override
+        protected <T> RunnableFuture<T> newTaskFor(Callable<T> callable) {
+            if (submitted++ == failAt) {
+                return new FutureTask<>(() -> {
+                    throw new IllegalStateException("encoding failed");
+                });
+            }
+            return super.newTaskFor(callable);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return false;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return false;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
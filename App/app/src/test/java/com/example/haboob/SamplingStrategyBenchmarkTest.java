@@ -0,0 +1,73 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * JVM micro-benchmark of the {@link SamplingStrategy} implementations on a 1,000,000-entrant
+ * waiting list, for a single vacancy ({@code k = 1}) and a typical draw ({@code k = 50}).
+ * <p>
+ * Each case is warmed up before it is timed. Timings are printed for comparison rather than
+ * asserted, since they depend on the machine running the tests. Skipped unless
+ * {@link Benchmarks} are enabled.
+ */
+public class SamplingStrategyBenchmarkTest {
+
+    private static final int WAITLIST_SIZE = 1_000_000;
+    private static final int[] SAMPLE_SIZES = {1, 50};
+    private static final int ITERATIONS = 10;
+    private static final int WARMUP_ROUNDS = 2;
+
+    @Test
+    public void strategies_atOneMillionEntrants() {
+        Benchmarks.assumeEnabled();
+        List<String> waitlist = new ArrayList<>(WAITLIST_SIZE);
+        Map<String, Double> weights = new HashMap<>();
+        Map<String, String> groupOf = new HashMap<>();
+        Set<String> returning = new HashSet<>();
+        for (int i = 0; i < WAITLIST_SIZE; i++) {
+            String id = "entrant-" + i;
+            waitlist.add(id);
+            weights.put(id, 1.0 + (i % 3));
+            groupOf.put(id, "tag-" + (i % 10));
+            if (i % 100_000 == 0) returning.add(id);
+        }
+
+        Map<String, SamplingStrategy> strategies = new LinkedHashMap<>();
+        strategies.put("uniform", SamplingStrategy.uniform(EntrantSampler.seeded(1)));
+        strategies.put("weighted", new WeightedSamplingStrategy(weights, 1.0, new Random(2)));
+        strategies.put("stratified", new StratifiedSamplingStrategy(groupOf, new Random(3)));
+        strategies.put("returning", new ReturningEntrantsSamplingStrategy(returning,
+                SamplingStrategy.uniform(EntrantSampler.seeded(4)), new Random(4)));
+
+        System.out.printf("%12s %5s %12s%n", "strategy", "k", "ms/op");
+        for (Map.Entry<String, SamplingStrategy> entry : strategies.entrySet()) {
+            for (int k : SAMPLE_SIZES) {
+                for (int w = 0; w < WARMUP_ROUNDS; w++) run(entry.getValue(), waitlist, k);
+
+                long t0 = System.nanoTime();
+                int total = run(entry.getValue(), waitlist, k);
+                long t1 = System.nanoTime();
+
+                assertEquals(ITERATIONS * k, total);
+                System.out.printf("%12s %5d %12.2f%n", entry.getKey(), k, (t1 - t0) / 1e6 / ITERATIONS);
+            }
+        }
+    }
+
+    private static int run(SamplingStrategy strategy, List<String> waitlist, int k) {
+        int total = 0;
+        for (int i = 0; i < ITERATIONS; i++) total += strategy.sample(waitlist, k).size();
+        return total;
+    }
+}
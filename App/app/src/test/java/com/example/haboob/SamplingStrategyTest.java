@@ -0,0 +1,233 @@
+package com.example.haboob;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the {@link SamplingStrategy} implementations and their use by
+ * {@link LotterySampler}.
+ */
+public class SamplingStrategyTest {
+
+    private static final int TRIALS = 50_000;
+
+    // -------------------- Weighted --------------------
+
+    @Test
+    public void weighted_selectionFollowsWeights() {
+        // A single pick: entrant 0 has weight 3 of a total 6, entrant 1 has 2, entrant 2 has 1
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("a", 3.0);
+        weights.put("b", 2.0);
+        weights.put("c", 1.0);
+        SamplingStrategy strategy = new WeightedSamplingStrategy(weights, 1.0, new Random(1));
+        List<String> entrants = Arrays.asList("a", "b", "c");
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int t = 0; t < TRIALS; t++) {
+            String picked = strategy.sample(entrants, 1).get(0);
+            counts.put(picked, counts.getOrDefault(picked, 0) + 1);
+        }
+
+        assertEquals(TRIALS / 2.0, counts.get("a"), TRIALS * 0.02);
+        assertEquals(TRIALS / 3.0, counts.get("b"), TRIALS * 0.02);
+        assertEquals(TRIALS / 6.0, counts.get("c"), TRIALS * 0.02);
+    }
+
+    @Test
+    public void weighted_equalWeightsAreUniform_andResultIsDistinct() {
+        List<String> entrants = ids(10);
+        SamplingStrategy strategy = new WeightedSamplingStrategy(null, 1.0, new Random(2));
+
+        int[] counts = new int[10];
+        for (int t = 0; t < TRIALS; t++) {
+            List<String> picked = strategy.sample(entrants, 3);
+            assertEquals(3, new HashSet<>(picked).size());
+            for (String id : picked) counts[index(id)]++;
+        }
+
+        double expected = TRIALS * 3 / 10.0;
+        for (int count : counts) assertEquals(expected, count, expected * 0.1);
+    }
+
+    @Test
+    public void weighted_zeroWeightIsNeverSelected() {
+        Map<String, Double> weights = new HashMap<>();
+        weights.put("entrant-0", 0.0);
+        SamplingStrategy strategy = new WeightedSamplingStrategy(weights, 1.0, new Random(3));
+
+        List<String> picked = strategy.sample(ids(5), 5);
+        assertEquals(4, picked.size());
+        assertFalse(picked.contains("entrant-0"));
+    }
+
+    @Test
+    public void weighted_fromTiers() {
+        Map<String, Integer> tiers = new HashMap<>();
+        tiers.put("vip", 1);
+        SamplingStrategy strategy = WeightedSamplingStrategy.fromTiers(tiers, new double[]{1.0, 100.0}, new Random(4));
+
+        int vipFirst = 0;
+        for (int t = 0; t < 1_000; t++) {
+            if (strategy.sample(Arrays.asList("a", "vip", "b"), 1).get(0).equals("vip")) vipFirst++;
+        }
+        assertTrue("vip picked " + vipFirst + " times", vipFirst > 950);
+    }
+
+    // -------------------- Stratified --------------------
+
+    @Test
+    public void stratified_placesAreProportionalToGroups() {
+        List<String> entrants = ids(100);
+        Map<String, String> groupOf = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            groupOf.put("entrant-" + i, i < 60 ? "students" : i < 90 ? "staff" : "guests");
+        }
+        SamplingStrategy strategy = new StratifiedSamplingStrategy(groupOf, new Random(5));
+
+        List<String> picked = strategy.sample(entrants, 10);
+        assertEquals(10, new HashSet<>(picked).size());
+        assertEquals(6, countInGroup(picked, groupOf, "students"));
+        assertEquals(3, countInGroup(picked, groupOf, "staff"));
+        assertEquals(1, countInGroup(picked, groupOf, "guests"));
+    }
+
+    @Test
+    public void stratified_roundingUsesLargestRemainder() {
+        // 7 places over groups of 5, 3, 2: exact shares 3.5, 2.1, 1.4 -> 4, 2, 1
+        List<String> entrants = ids(10);
+        Map<String, String> groupOf = new HashMap<>();
+        for (int i = 0; i < 10; i++) groupOf.put("entrant-" + i, i < 5 ? "x" : i < 8 ? "y" : "z");
+        SamplingStrategy strategy = new StratifiedSamplingStrategy(groupOf, new Random(6));
+
+        List<String> picked = strategy.sample(entrants, 7);
+        assertEquals(7, picked.size());
+        assertEquals(4, countInGroup(picked, groupOf, "x"));
+        assertEquals(2, countInGroup(picked, groupOf, "y"));
+        assertEquals(1, countInGroup(picked, groupOf, "z"));
+    }
+
+    @Test
+    public void stratified_ungroupedEntrantsFormTheirOwnGroup() {
+        Map<String, String> groupOf = new HashMap<>();
+        groupOf.put("entrant-0", "x");
+        groupOf.put("entrant-1", "x");
+        SamplingStrategy strategy = new StratifiedSamplingStrategy(groupOf, new Random(7));
+
+        List<String> picked = strategy.sample(ids(4), 2);
+        assertEquals(1, countInGroup(picked, groupOf, "x"));
+        assertEquals(4, strategy.sample(ids(4), 50).size());
+    }
+
+    // -------------------- Returning entrants --------------------
+
+    @Test
+    public void returning_areAlwaysSelectedFirst() {
+        Set<String> returning = new HashSet<>(Arrays.asList("entrant-3", "entrant-7", "absent"));
+        SamplingStrategy strategy = new ReturningEntrantsSamplingStrategy(returning,
+                SamplingStrategy.uniform(EntrantSampler.seeded(8)), new Random(8));
+
+        for (int t = 0; t < 100; t++) {
+            List<String> picked = strategy.sample(ids(50), 5);
+            assertEquals(5, new HashSet<>(picked).size());
+            assertTrue(picked.contains("entrant-3"));
+            assertTrue(picked.contains("entrant-7"));
+            assertFalse(picked.contains("absent"));
+        }
+    }
+
+    @Test
+    public void returning_moreThanPlaces_drawsAmongThem() {
+        Set<String> returning = new HashSet<>(Arrays.asList("entrant-0", "entrant-1", "entrant-2"));
+        SamplingStrategy strategy = new ReturningEntrantsSamplingStrategy(returning,
+                SamplingStrategy.uniform(EntrantSampler.seeded(9)), new Random(9));
+
+        List<String> picked = strategy.sample(ids(20), 2);
+        assertEquals(2, picked.size());
+        assertTrue(returning.containsAll(picked));
+    }
+
+    // -------------------- Shared behaviour --------------------
+
+    @Test
+    public void allStrategies_handleEdgeCases_andKeepInputIntact() {
+        List<String> entrants = ids(20);
+        List<String> copy = new ArrayList<>(entrants);
+
+        for (SamplingStrategy strategy : strategies(10)) {
+            assertTrue(strategy.sample(null, 3).isEmpty());
+            assertTrue(strategy.sample(new ArrayList<>(), 3).isEmpty());
+            assertTrue(strategy.sample(entrants, 0).isEmpty());
+            assertEquals(new HashSet<>(entrants), new HashSet<>(strategy.sample(entrants, 50)));
+        }
+        assertEquals(copy, entrants);
+    }
+
+    @Test
+    public void allStrategies_sameSeedReproducesTheSameDraw() {
+        List<String> entrants = ids(1_000);
+        List<SamplingStrategy> first = strategies(11);
+        List<SamplingStrategy> second = strategies(11);
+
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).sample(entrants, 25), second.get(i).sample(entrants, 25));
+        }
+    }
+
+    @Test
+    public void lotterySampler_drawsWithTheStrategy() {
+        Set<String> returning = Collections.singleton("entrant-42");
+        LotterySampler sampler = new LotterySampler(null, null, new ReturningEntrantsSamplingStrategy(
+                returning, SamplingStrategy.uniform(EntrantSampler.seeded(12)), new Random(12)));
+
+        // A single vacancy and a full draw both go through the strategy
+        assertEquals(Collections.singletonList("entrant-42"), sampler.sampleEntrants(ids(100), 1));
+        List<String> picked = sampler.sampleEntrants(ids(100), 10);
+        assertEquals(10, new HashSet<>(picked).size());
+        assertTrue(picked.contains("entrant-42"));
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static List<SamplingStrategy> strategies(long seed) {
+        Map<String, String> groupOf = new HashMap<>();
+        Map<String, Double> weights = new HashMap<>();
+        for (int i = 0; i < 1_000; i++) {
+            groupOf.put("entrant-" + i, "g" + (i % 3));
+            weights.put("entrant-" + i, 1.0 + (i % 4));
+        }
+        return Arrays.asList(
+                SamplingStrategy.uniform(EntrantSampler.seeded(seed)),
+                new WeightedSamplingStrategy(weights, 1.0, new Random(seed)),
+                new StratifiedSamplingStrategy(groupOf, new Random(seed)),
+                new ReturningEntrantsSamplingStrategy(Collections.singleton("entrant-5"),
+                        SamplingStrategy.uniform(EntrantSampler.seeded(seed)), new Random(seed)));
+    }
+
+    private static int countInGroup(List<String> picked, Map<String, String> groupOf, String group) {
+        int count = 0;
+        for (String id : picked) if (group.equals(groupOf.get(id))) count++;
+        return count;
+    }
+
+    private static int index(String id) {
+        return Integer.parseInt(id.substring("entrant-".length()));
+    }
+
+    private static List<String> ids(int count) {
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < count; i++) out.add("entrant-" + i);
+        return out;
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ShardedEntrantStore}: counter maths, the move/remove transactions and
+ * paging, against a mocked Firestore whose transactions run immediately on a mocked
+ * {@link Transaction} backed by an in-memory map of entrant statuses.
+ */
+public class ShardedEntrantStoreTest {
+
+    private DocumentReference eventDoc;
+    private CollectionReference entrants;
+    private Transaction transaction;
+    private ShardedEntrantStore store;
+
+    /** Server-side entrant documents, entrantId -> status name. */
+    private final Map<String, String> server = new HashMap<>();
+    /** Counter fields touched by each transaction, in commit order. */
+    private final List<Map<String, Object>> counterWrites = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        FirebaseFirestore db = Mockito.mock(FirebaseFirestore.class);
+        eventDoc = Mockito.mock(DocumentReference.class);
+        entrants = Mockito.mock(CollectionReference.class);
+        CollectionReference counters = Mockito.mock(CollectionReference.class);
+        Mockito.when(eventDoc.getFirestore()).thenReturn(db);
+        Mockito.when(eventDoc.collection(ShardedEntrantStore.ENTRANTS_COLLECTION)).thenReturn(entrants);
+        Mockito.when(eventDoc.collection(ShardedEntrantStore.COUNTERS_COLLECTION)).thenReturn(counters);
+
+        Map<String, DocumentReference> entrantDocs = new HashMap<>();
+        Mockito.when(entrants.document(Mockito.anyString())).thenAnswer(inv -> {
+            String id = inv.getArgument(0);
+            return entrantDocs.computeIfAbsent(id, key -> {
+                DocumentReference doc = Mockito.mock(DocumentReference.class);
+                Mockito.when(doc.getId()).thenReturn(key);
+                return doc;
+            });
+        });
+        DocumentReference shard = Mockito.mock(DocumentReference.class);
+        Mockito.when(counters.document(Mockito.anyString())).thenReturn(shard);
+
+        transaction = Mockito.mock(Transaction.class);
+        Mockito.when(transaction.get(Mockito.any(DocumentReference.class))).thenAnswer(inv -> {
+            String id = ((DocumentReference) inv.getArgument(0)).getId();
+            DocumentSnapshot snapshot = Mockito.mock(DocumentSnapshot.class);
+            Mockito.when(snapshot.exists()).thenReturn(server.containsKey(id));
+            Mockito.when(snapshot.getString(ShardedEntrantStore.STATUS_FIELD)).thenReturn(server.get(id));
+            return snapshot;
+        });
+        Mockito.when(transaction.set(Mockito.any(DocumentReference.class), Mockito.any())).thenAnswer(inv -> {
+            Map<String, Object> data = inv.getArgument(1);
+            server.put(((DocumentReference) inv.getArgument(0)).getId(),
+                    (String) data.get(ShardedEntrantStore.STATUS_FIELD));
+            return transaction;
+        });
+        Mockito.when(transaction.set(Mockito.eq(shard), Mockito.any(), Mockito.any(SetOptions.class))).thenAnswer(inv -> {
+            counterWrites.add(inv.getArgument(1));
+            return transaction;
+        });
+        Mockito.when(transaction.delete(Mockito.any(DocumentReference.class))).thenAnswer(inv -> {
+            server.remove(((DocumentReference) inv.getArgument(0)).getId());
+            return transaction;
+        });
+
+        Mockito.when(db.runTransaction(Mockito.any())).thenAnswer(inv -> {
+            Transaction.Function<Object> function = inv.getArgument(0);
+            try {
+                return completedTask(function.apply(transaction), null);
+            } catch (Exception e) {
+                return completedTask(null, e);
+            }
+        });
+
+        store = new ShardedEntrantStore(4, new Random(7));
+    }
+
+    @Test
+    public void counterDelta_touchesOnlyTheListsInvolved() {
+        assertEquals(Collections.singleton("waitingEntrants"),
+                ShardedEntrantStore.counterDelta(null, EntrantStatus.WAITING).keySet());
+        assertEquals(new HashSet<>(Arrays.asList("waitingEntrants", "invitedEntrants")),
+                ShardedEntrantStore.counterDelta(EntrantStatus.WAITING, EntrantStatus.INVITED).keySet());
+        assertEquals(Collections.singleton("cancelledEntrants"),
+                ShardedEntrantStore.counterDelta(EntrantStatus.CANCELLED, null).keySet());
+    }
+
+    @Test
+    public void sumShards_addsEveryShard_andTreatsMissingAsZero() {
+        QuerySnapshot shards = Mockito.mock(QuerySnapshot.class);
+        DocumentSnapshot a = shard(3L, 1L);
+        DocumentSnapshot b = shard(4L, null);
+        Mockito.when(shards.getDocuments()).thenReturn(Arrays.asList(a, b));
+
+        Map<EntrantStatus, Long> counts = ShardedEntrantStore.sumShards(shards);
+
+        assertEquals(Long.valueOf(7), counts.get(EntrantStatus.WAITING));
+        assertEquals(Long.valueOf(1), counts.get(EntrantStatus.INVITED));
+        assertEquals(Long.valueOf(0), counts.get(EntrantStatus.ENROLLED));
+        assertEquals(Long.valueOf(0), counts.get(EntrantStatus.CANCELLED));
+    }
+
+    @Test
+    public void move_writesStatus_andOnlyCountsRealChanges() {
+        store.move(eventDoc, "u1", EntrantStatus.WAITING);
+        store.move(eventDoc, "u1", EntrantStatus.WAITING);
+        store.move(eventDoc, "u1", EntrantStatus.INVITED);
+
+        assertEquals("INVITED", server.get("u1"));
+        assertEquals(2, counterWrites.size());
+        assertEquals(new HashSet<>(Arrays.asList("waitingEntrants", "invitedEntrants")),
+                counterWrites.get(1).keySet());
+    }
+
+    @Test
+    public void remove_ignoresEntrantsInAnotherList() {
+        server.put("u1", "ENROLLED");
+
+        store.remove(eventDoc, "u1", EntrantStatus.WAITING);
+        assertEquals("ENROLLED", server.get("u1"));
+        assertTrue(counterWrites.isEmpty());
+
+        store.remove(eventDoc, "u1", EntrantStatus.ENROLLED);
+        assertFalse(server.containsKey("u1"));
+        assertEquals(Collections.singleton("enrolledEntrants"), counterWrites.get(0).keySet());
+    }
+
+    @Test
+    public void writeMoves_movesSeveralEntrants_withOneCounterWrite() throws Exception {
+        server.put("u1", "WAITING");
+        server.put("u2", "WAITING");
+        server.put("u3", "INVITED");
+        Map<String, EntrantStatus> from = new HashMap<>();
+        from.put("u1", EntrantStatus.WAITING);
+        from.put("u2", EntrantStatus.WAITING);
+        from.put("u3", EntrantStatus.INVITED);
+        Map<String, EntrantStatus> to = new HashMap<>();
+        to.put("u1", EntrantStatus.INVITED);
+        to.put("u2", EntrantStatus.INVITED);
+        to.put("u3", EntrantStatus.CANCELLED);
+
+        store.checkStatuses(transaction, eventDoc, from);
+        store.writeMoves(transaction, eventDoc, from, to);
+
+        assertEquals("INVITED", server.get("u1"));
+        assertEquals("INVITED", server.get("u2"));
+        assertEquals("CANCELLED", server.get("u3"));
+        assertEquals(1, counterWrites.size());
+        // Two joined invited and one left it, so the waiting, invited and cancelled counts change
+        assertEquals(new HashSet<>(Arrays.asList("waitingEntrants", "invitedEntrants", "cancelledEntrants")),
+                counterWrites.get(0).keySet());
+    }
+
+    @Test
+    public void checkStatuses_abortsWhenAnEntrantHasMoved() {
+        server.put("u1", "CANCELLED");
+
+        try {
+            store.checkStatuses(transaction, eventDoc, Collections.singletonMap("u1", EntrantStatus.WAITING));
+            fail("expected the check to abort");
+        } catch (FirebaseFirestoreException e) {
+            assertEquals(FirebaseFirestoreException.Code.ABORTED, e.getCode());
+        }
+    }
+
+    @Test
+    public void needsMigration_onlyForLargeArrayEvents() {
+        Event event = new Event(true);
+        event.setWaitingEntrants(new ArrayList<>());
+        for (int i = 0; i < ShardedEntrantStore.MIGRATION_THRESHOLD - 1; i++) {
+            event.getWaitingEntrants().add("u" + i);
+        }
+        assertFalse(ShardedEntrantStore.needsMigration(event));
+
+        event.getWaitingEntrants().add("last");
+        assertTrue(ShardedEntrantStore.needsMigration(event));
+
+        event.setShardedEntrants(true);
+        assertFalse(ShardedEntrantStore.needsMigration(event));
+    }
+
+    @Test
+    public void pager_readsPagesInOrder_andStopsAfterAShortPage() {
+        Query byStatus = Mockito.mock(Query.class);
+        Query ordered = Mockito.mock(Query.class);
+        Query afterFirst = Mockito.mock(Query.class);
+        Query firstPage = Mockito.mock(Query.class);
+        Query secondPage = Mockito.mock(Query.class);
+        Mockito.when(entrants.whereEqualTo(ShardedEntrantStore.STATUS_FIELD, "WAITING")).thenReturn(byStatus);
+        Mockito.when(byStatus.orderBy(Mockito.nullable(FieldPath.class))).thenReturn(ordered);
+        Mockito.when(ordered.limit(2)).thenReturn(firstPage);
+        DocumentSnapshot last = queuePage(firstPage, "a", "b");
+        Mockito.when(ordered.startAfter(last)).thenReturn(afterFirst);
+        Mockito.when(afterFirst.limit(2)).thenReturn(secondPage);
+        queuePage(secondPage, "c");
+
+        ShardedEntrantStore.Pager pager = store.pager(eventDoc, EntrantStatus.WAITING, 2);
+        List<String> seen = new ArrayList<>();
+        ShardedEntrantStore.OnPageLoadedListener collect = new ShardedEntrantStore.OnPageLoadedListener() {
+            @Override
+            public void onPageLoaded(List<String> entrantIds, boolean hasMore) {
+                seen.addAll(entrantIds);
+            }
+
+            @Override
+            public void onError(Exception e) {
+                fail(e.getMessage());
+            }
+        };
+
+        pager.next(collect);
+        assertTrue(pager.hasMore());
+        pager.next(collect);
+        assertFalse(pager.hasMore());
+        pager.next(collect);
+
+        assertEquals(Arrays.asList("a", "b", "c"), seen);
+    }
+
+    @Test
+    public void shardedEvent_routesMovesToTheStore_notTheArrays() {
+        FirebaseFirestore db = Mockito.mock(FirebaseFirestore.class);
+        CollectionReference events = Mockito.mock(CollectionReference.class);
+        DocumentReference docRef = Mockito.mock(DocumentReference.class, Mockito.RETURNS_DEEP_STUBS);
+        Mockito.when(db.collection("events")).thenReturn(events);
+        Mockito.when(events.document("doc-S1")).thenReturn(docRef);
+        EventDocumentCache.put("S1", "doc-S1");
+        try {
+            Event event = new Event(db);
+            event.setEventID("S1");
+            event.setShardedEntrants(true);
+
+            event.addEntrantToWaitingEntrants("u1");
+
+            assertEquals(EntrantStatus.WAITING, event.getStatus("u1"));
+            Mockito.verify(docRef, Mockito.never()).update(Mockito.anyMap());
+            Mockito.verify(docRef).collection(ShardedEntrantStore.ENTRANTS_COLLECTION);
+        } finally {
+            EventDocumentCache.invalidate("S1");
+        }
+    }
+
+    // -------------------- Helpers --------------------
+
+    private static DocumentSnapshot shard(Long waiting, Long invited) {
+        DocumentSnapshot shard = Mockito.mock(DocumentSnapshot.class);
+        Mockito.when(shard.getLong("waitingEntrants")).thenReturn(waiting);
+        Mockito.when(shard.getLong("invitedEntrants")).thenReturn(invited);
+        return shard;
+    }
+
+    /**
+     * Makes {@code query.get()} succeed with one document per ID.
+     *
+     * @return the last document in the page
+     */
+    @SuppressWarnings("unchecked")
+    private static DocumentSnapshot queuePage(Query query, String... entrantIds) {
+        List<DocumentSnapshot> docs = new ArrayList<>();
+        for (String id : entrantIds) {
+            DocumentSnapshot doc = Mockito.mock(DocumentSnapshot.class);
+            Mockito.when(doc.getId()).thenReturn(id);
+            docs.add(doc);
+        }
+        QuerySnapshot snapshot = Mockito.mock(QuerySnapshot.class);
+        Mockito.when(snapshot.getDocuments()).thenReturn(docs);
+
+        Task<QuerySnapshot> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(inv -> {
+            ((OnSuccessListener<QuerySnapshot>) inv.getArgument(0)).onSuccess(snapshot);
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any(OnFailureListener.class))).thenReturn(task);
+        Mockito.when(query.get()).thenReturn(task);
+        return docs.get(docs.size() - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Task<Object> completedTask(Object result, Exception failure) {
+        Task<Object> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(inv -> {
+            if (failure == null) ((OnSuccessListener<Object>) inv.getArgument(0)).onSuccess(result);
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any(OnFailureListener.class))).thenAnswer(inv -> {
+            if (failure != null) ((OnFailureListener) inv.getArgument(0)).onFailure(failure);
+            return task;
+        });
+        return task;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.FieldPath;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link UserNameCache} using a mocked "users" collection whose
+ * {@code whereIn} queries succeed immediately with every requested user except "ghost".
+ */
+public class UserNameCacheTest {
+
+    private CollectionReference mockUsers;
+    private UserNameCache cache;
+    private final List<List<String>> queriedChunks = new ArrayList<>();
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        mockUsers = Mockito.mock(CollectionReference.class);
+        Mockito.when(mockUsers.whereIn(Mockito.nullable(FieldPath.class), Mockito.anyList())).thenAnswer(invocation -> {
+            List<String> ids = new ArrayList<>((List<String>) invocation.getArgument(1));
+            queriedChunks.add(ids);
+            Query query = Mockito.mock(Query.class);
+            Task<QuerySnapshot> task = succeedingTask(ids);
+            Mockito.when(query.get()).thenReturn(task);
+            return query;
+        });
+        cache = new UserNameCache(mockUsers);
+    }
+
+    @Test
+    public void resolve_readsNamesInOneBatchedQuery() {
+        Map<String, String> names = resolve(Arrays.asList("u1", "u2", "u1", "ghost"));
+
+        assertEquals(1, queriedChunks.size());
+        assertEquals(Arrays.asList("u1", "u2", "ghost"), queriedChunks.get(0));
+        assertEquals("First-u1 Last-u1", names.get("u1"));
+        assertEquals("First-u2 Last-u2", names.get("u2"));
+        // Missing users fall back to their ID
+        assertEquals("ghost", names.get("ghost"));
+        assertEquals(1, cache.getQueryCount());
+    }
+
+    @Test
+    public void resolve_cachedUsersAreNotReadAgain() {
+        resolve(Arrays.asList("u1", "u2"));
+        Map<String, String> names = resolve(Arrays.asList("u2", "u3"));
+
+        assertEquals(2, queriedChunks.size());
+        assertEquals(Collections.singletonList("u3"), queriedChunks.get(1));
+        assertEquals("First-u2 Last-u2", names.get("u2"));
+        assertEquals("First-u3 Last-u3", cache.peek("u3"));
+
+        resolve(Arrays.asList("u1", "u3"));
+        assertEquals(2, queriedChunks.size());
+    }
+
+    @Test
+    public void resolve_splitsLargeRequestsIntoInQuerySizedChunks() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 2 * UserNameCache.MAX_IN_QUERY + 5; i++) ids.add("u" + i);
+
+        Map<String, String> names = resolve(ids);
+
+        assertEquals(3, queriedChunks.size());
+        assertEquals(UserNameCache.MAX_IN_QUERY, queriedChunks.get(0).size());
+        assertEquals(UserNameCache.MAX_IN_QUERY, queriedChunks.get(1).size());
+        assertEquals(5, queriedChunks.get(2).size());
+        assertEquals(ids.size(), names.size());
+    }
+
+    @Test
+    public void chunk_keepsOrder() {
+        List<List<Integer>> chunks = UserNameCache.chunk(Arrays.asList(1, 2, 3, 4, 5), 2);
+        assertEquals(Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5)), chunks);
+        assertTrue(UserNameCache.chunk(new ArrayList<Integer>(), 2).isEmpty());
+    }
+
+    // -------------------- Helpers --------------------
+
+    private Map<String, String> resolve(List<String> ids) {
+        final List<Map<String, String>> result = new ArrayList<>();
+        cache.resolve(ids, result::add);
+        assertEquals("Listener should be called exactly once", 1, result.size());
+        return result.get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Task<QuerySnapshot> succeedingTask(List<String> ids) {
+        List<QueryDocumentSnapshot> docs = new ArrayList<>();
+        for (String id : ids) {
+            if (id.equals("ghost")) continue;
+            QueryDocumentSnapshot doc = Mockito.mock(QueryDocumentSnapshot.class);
+            Mockito.when(doc.getId()).thenReturn(id);
+            Mockito.when(doc.getString("first_name")).thenReturn("First-" + id);
+            Mockito.when(doc.getString("last_name")).thenReturn("Last-" + id);
+            docs.add(doc);
+        }
+        QuerySnapshot snapshot = Mockito.mock(QuerySnapshot.class);
+        Mockito.when(snapshot.iterator()).thenAnswer(invocation -> docs.iterator());
+
+        Task<QuerySnapshot> task = Mockito.mock(Task.class);
+        Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(invocation -> {
+            OnSuccessListener<QuerySnapshot> listener = invocation.getArgument(0);
+            listener.onSuccess(snapshot);
+            return task;
+        });
+        Mockito.when(task.addOnFailureListener(Mockito.any())).thenReturn(task);
+        return task;
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.haboob;
+
+import com.google.android.gms.tasks.OnFailureListener;
+import com.google.android.gms.tasks.OnSuccessListener;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.CollectionReference;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.Transaction;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Load test for {@link ShardedEntrantStore#join}: thousands of entrants join one event's waiting
+ * list from many threads against an in-memory Firestore fake with optimistic transactions
+ * (a transaction retries when a document it read changed before it committed, and fails with
+ * {@code ABORTED} after five attempts, as the client SDK does). The waiting list must end
+ * exactly at capacity. The throughput comparison is skipped unless {@link Benchmarks} are enabled.
+ */
+public class WaitlistCapacityLoadTest {
+
+    private static final int THREADS = 16;
+
+    @Test
+    public void concurrentJoins_neverExceedCapacity() throws Exception {
+        FakeEvent event = new FakeEvent(10, 500, 2000);
+        int[] outcome = event.joinAll(THREADS);
+
+        assertEquals(500, outcome[0]);
+        assertEquals(1500, outcome[1]);
+        assertEquals(500, event.storedCount(EntrantStatus.WAITING));
+        assertEquals(500, event.entrantsWithStatus(EntrantStatus.WAITING));
+        for (int i = 0; i < 10; i++) {
+            assertTrue("shard " + i, event.shardCount(i, EntrantStatus.WAITING) <= ShardedEntrantStore.allotment(500, 10, i));
+        }
+    }
+
+    @Test
+    public void unlimitedCapacity_letsEveryoneJoin() throws Exception {
+        FakeEvent event = new FakeEvent(10, -1, 1000);
+        int[] outcome = event.joinAll(THREADS);
+
+        assertEquals(1000, outcome[0]);
+        assertEquals(1000, event.storedCount(EntrantStatus.WAITING));
+    }
+
+    @Test
+    public void rejoining_isCountedOnce_andLeavesTheOldList() throws Exception {
+        FakeEvent event = new FakeEvent(4, 2, 3);
+        event.putEntrant("u0", EntrantStatus.CANCELLED);
+        event.putCounts(0, EntrantStatus.CANCELLED, 1);
+
+        assertTrue(event.join("u0"));
+        assertTrue(event.join("u0"));
+        assertTrue(event.join("u1"));
+        assertFalse(event.join("u2"));
+
+        assertEquals(2, event.storedCount(EntrantStatus.WAITING));
+        assertEquals(0, event.storedCount(EntrantStatus.CANCELLED));
+        assertEquals(2, event.entrantsWithStatus(EntrantStatus.WAITING));
+    }
+
+    @Test
+    public void allotments_addUpToCapacity() {
+        for (long capacity : new long[]{0, 1, 9, 10, 11, 1234}) {
+            long total = 0;
+            for (int i = 0; i < 10; i++) total += ShardedEntrantStore.allotment(capacity, 10, i);
+            assertEquals(capacity, total);
+        }
+    }
+
+    @Test
+    public void shardedAndSingleCounter_throughput() throws Exception {
+        Benchmarks.assumeEnabled();
+        StringBuilder report = new StringBuilder("Waitlist joins x4000 on " + THREADS + " threads, capacity 2000:");
+        for (int shards : new int[]{1, 10, 50}) {
+            FakeEvent event = new FakeEvent(shards, 2000, 4000);
+            long start = System.nanoTime();
+            int[] outcome = event.joinAll(THREADS);
+            double ms = (System.nanoTime() - start) / 1e6;
+
+            assertEquals(2000, outcome[0]);
+            assertEquals(2000, event.storedCount(EntrantStatus.WAITING));
+            report.append(String.format("%n  %3d shards %8.1f ms  %6d conflicts  %4d aborted",
+                    shards, ms, event.conflicts.get(), event.aborted.get()));
+        }
+        System.out.println(report);
+    }
+
+    // -------------------- Fake Firestore --------------------
+
+    /**
+     * One sharded event in an in-memory store. All mocks are created and stubbed up front, so
+     * worker threads only invoke them; per-attempt state lives in thread locals.
+     */
+    private static final class FakeEvent {
+        private static final int MAX_ATTEMPTS = 5;
+
+        private final int shards;
+        private final List<String> entrantIds = new ArrayList<>();
+        private final ShardedEntrantStore store;
+        private final DocumentReference eventDoc;
+
+        /** path -> document; guarded by {@code this}. */
+        private final Map<String, StoredDoc> docs = new HashMap<>();
+        private final Map<DocumentReference, String> paths = new IdentityHashMap<>();
+        private final Map<String, DocumentSnapshot> snapshots = new HashMap<>();
+
+        private final ThreadLocal<Attempt> attempt = new ThreadLocal<>();
+        private final ThreadLocal<Object> outcome = new ThreadLocal<>();
+
+        final AtomicInteger conflicts = new AtomicInteger();
+        final AtomicInteger aborted = new AtomicInteger();
+
+        @SuppressWarnings("unchecked")
+        FakeEvent(int shards, long capacity, int entrants) throws Exception {
+            this.shards = shards;
+            this.store = new ShardedEntrantStore(shards, new Random(42));
+
+            FirebaseFirestore db = Mockito.mock(FirebaseFirestore.class, Mockito.withSettings().stubOnly());
+            eventDoc = doc("events/E");
+            CollectionReference entrantsCollection = Mockito.mock(CollectionReference.class, Mockito.withSettings().stubOnly());
+            CollectionReference countersCollection = Mockito.mock(CollectionReference.class, Mockito.withSettings().stubOnly());
+            Mockito.when(eventDoc.getFirestore()).thenReturn(db);
+            Mockito.when(eventDoc.collection(ShardedEntrantStore.ENTRANTS_COLLECTION)).thenReturn(entrantsCollection);
+            Mockito.when(eventDoc.collection(ShardedEntrantStore.COUNTERS_COLLECTION)).thenReturn(countersCollection);
+
+            for (int i = 0; i < entrants; i++) {
+                String id = "u" + i;
+                entrantIds.add(id);
+                DocumentReference entrantDoc = doc("entrants/" + id);
+                Mockito.when(entrantsCollection.document(id)).thenReturn(entrantDoc);
+            }
+            for (int i = 0; i < shards; i++) {
+                DocumentReference shardDoc = doc("counts/" + i);
+                Mockito.when(countersCollection.document(String.valueOf(i))).thenReturn(shardDoc);
+            }
+
+            Map<String, Object> eventData = new HashMap<>();
+            eventData.put(Event.WAITING_LIST_CAPACITY_FIELD, capacity);
+            docs.put("events/E", new StoredDoc(eventData));
+
+            Transaction transaction = Mockito.mock(Transaction.class, Mockito.withSettings().stubOnly());
+            Mockito.when(transaction.get(Mockito.any(DocumentReference.class))).thenAnswer(inv -> {
+                String path = paths.get(inv.<DocumentReference>getArgument(0));
+                Attempt current = attempt.get();
+                synchronized (this) {
+                    StoredDoc stored = docs.get(path);
+                    current.readVersions.put(path, stored != null ? stored.version : 0L);
+                    current.reads.put(path, stored != null ? new HashMap<>(stored.data) : null);
+                }
+                return snapshots.get(path);
+            });
+            Mockito.when(transaction.set(Mockito.any(DocumentReference.class), Mockito.any())).thenAnswer(inv -> {
+                attempt.get().writes.add(new Write(paths.get(inv.<DocumentReference>getArgument(0)), inv.getArgument(1), false));
+                return transaction;
+            });
+            Mockito.when(transaction.set(Mockito.any(DocumentReference.class), Mockito.any(), Mockito.any(SetOptions.class))).thenAnswer(inv -> {
+                attempt.get().writes.add(new Write(paths.get(inv.<DocumentReference>getArgument(0)), inv.getArgument(1), true));
+                return transaction;
+            });
+
+            Task<Object> task = Mockito.mock(Task.class, Mockito.withSettings().stubOnly());
+            Mockito.when(task.addOnSuccessListener(Mockito.any(OnSuccessListener.class))).thenAnswer(inv -> {
+                Object result = outcome.get();
+                if (!(result instanceof Exception)) ((OnSuccessListener<Object>) inv.getArgument(0)).onSuccess(result);
+                return task;
+            });
+            Mockito.when(task.addOnFailureListener(Mockito.any(OnFailureListener.class))).thenAnswer(inv -> {
+                Object result = outcome.get();
+                if (result instanceof Exception) ((OnFailureListener) inv.getArgument(0)).onFailure((Exception) result);
+                return task;
+            });
+
+            Mockito.when(db.runTransaction(Mockito.any())).thenAnswer(inv -> {
+                Transaction.Function<Object> function = inv.getArgument(0);
+                outcome.set(runTransaction(function, transaction));
+                return task;
+            });
+        }
+
+        /** Runs a transaction with the SDK's retry rule; returns its result or failure. */
+        private Object runTransaction(Transaction.Function<Object> function, Transaction transaction) {
+            for (int i = 0; i < MAX_ATTEMPTS; i++) {
+                Attempt current = new Attempt();
+                attempt.set(current);
+                Object result;
+                try {
+                    result = function.apply(transaction);
+                } catch (Exception e) {
+                    return e;
+                }
+                if (commit(current)) return result;
+                conflicts.incrementAndGet();
+            }
+            aborted.incrementAndGet();
+            return new FirebaseFirestoreException("Transaction failed all retries",
+                    FirebaseFirestoreException.Code.ABORTED);
+        }
+
+        private synchronized boolean commit(Attempt current) {
+            for (Map.Entry<String, Long> read : current.readVersions.entrySet()) {
+                StoredDoc stored = docs.get(read.getKey());
+                if ((stored != null ? stored.version : 0L) != read.getValue()) return false;
+            }
+            for (Write write : current.writes) {
+                StoredDoc stored = docs.get(write.path);
+                if (stored == null || !write.merge) {
+                    long version = stored != null ? stored.version : 0L;
+                    stored = new StoredDoc(new HashMap<>());
+                    stored.version = version;
+                    docs.put(write.path, stored);
+                }
+                stored.data.putAll(write.data);
+                stored.version++;
+            }
+            return true;
+        }
+
+        private DocumentReference doc(String path) {
+            DocumentReference ref = Mockito.mock(DocumentReference.class, Mockito.withSettings().name(path).stubOnly());
+            paths.put(ref, path);
+
+            DocumentSnapshot snapshot = Mockito.mock(DocumentSnapshot.class, Mockito.withSettings().stubOnly());
+            Mockito.when(snapshot.exists()).thenAnswer(inv -> attempt.get().reads.get(path) != null);
+            Mockito.when(snapshot.getString(Mockito.anyString())).thenAnswer(inv -> (String) field(path, inv.getArgument(0)));
+            Mockito.when(snapshot.getLong(Mockito.anyString())).thenAnswer(inv -> {
+                Number value = (Number) field(path, inv.getArgument(0));
+                return value != null ? value.longValue() : null;
+            });
+            snapshots.put(path, snapshot);
+            return ref;
+        }
+
+        private Object field(String path, String field) {
+            Map<String, Object> data = attempt.get().reads.get(path);
+            return data != null ? data.get(field) : null;
+        }
+
+        // -------------------- Driving the load --------------------
+
+        /** One entrant tapping "join" until it gets an answer. */
+        boolean join(String entrantID) throws InterruptedException {
+            while (true) {
+                Object[] answer = new Object[1];
+                store.join(eventDoc, entrantID)
+                        .addOnSuccessListener(joined -> answer[0] = joined)
+                        .addOnFailureListener(e -> answer[0] = e);
+                if (answer[0] instanceof Boolean) return (Boolean) answer[0];
+                Thread.sleep(1); // aborted after contention; try again
+            }
+        }
+
+        /** @return {joined, turned away} over every entrant, joining from {@code threads} threads */
+        int[] joinAll(int threads) throws Exception {
+            AtomicInteger joined = new AtomicInteger();
+            AtomicInteger full = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (String id : entrantIds) {
+                futures.add(pool.submit(() -> {
+                    if (join(id)) joined.incrementAndGet(); else full.incrementAndGet();
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) future.get();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+            return new int[]{joined.get(), full.get()};
+        }
+
+        // -------------------- Inspecting the store --------------------
+
+        synchronized void putEntrant(String entrantID, EntrantStatus status) {
+            Map<String, Object> data = new HashMap<>();
+            data.put(ShardedEntrantStore.ENTRANT_ID_FIELD, entrantID);
+            data.put(ShardedEntrantStore.STATUS_FIELD, status.name());
+            docs.put("entrants/" + entrantID, new StoredDoc(data));
+        }
+
+        synchronized void putCounts(int shard, EntrantStatus status, long count) {
+            Map<String, Object> data = new HashMap<>();
+            data.put(status.getFieldName(), count);
+            docs.put("counts/" + shard, new StoredDoc(data));
+        }
+
+        synchronized long shardCount(int shard, EntrantStatus status) {
+            StoredDoc stored = docs.get("counts/" + shard);
+            Object value = stored != null ? stored.data.get(status.getFieldName()) : null;
+            return value != null ? ((Number) value).longValue() : 0;
+        }
+
+        long storedCount(EntrantStatus status) {
+            long total = 0;
+            for (int i = 0; i < shards; i++) total += shardCount(i, status);
+            return total;
+        }
+
+        synchronized int entrantsWithStatus(EntrantStatus status) {
+            int count = 0;
+            for (Map.Entry<String, StoredDoc> doc : docs.entrySet()) {
+                if (doc.getKey().startsWith("entrants/")
+                        && status.name().equals(doc.getValue().data.get(ShardedEntrantStore.STATUS_FIELD))) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    private static final class StoredDoc {
+        final Map<String, Object> data;
+        long version = 1;
+
+        StoredDoc(Map<String, Object> data) {
+            this.data = data;
+        }
+    }
+
+    /** Reads and buffered writes of one transaction attempt. */
+    private static final class Attempt {
+        final Map<String, Long> readVersions = new HashMap<>();
+        final Map<String, Map<String, Object>> reads = new HashMap<>();
+        final List<Write> writes = new ArrayList<>();
+    }
+
+    private static final class Write {
+        final String path;
+        final Map<String, Object> data;
+        final boolean merge;
+
+        @SuppressWarnings("unchecked")
+        Write(String path, Object data, boolean merge) {
+            this.path = path;
+            this.data = (Map<String, Object>) data;
+            this.merge = merge;
+        }
+    }
+}